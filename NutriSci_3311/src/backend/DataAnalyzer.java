@@ -42,20 +42,18 @@ public class DataAnalyzer {
 
     public Map<String, Double> compareWithCanadaGuide(LocalDate date) {
         List<Meal> meals = mealLogger.getAllMeals().getOrDefault(date, new ArrayList<>());
-        Map<String, Double> actualIntake = new HashMap<>();
+        NutritionSummary actualIntake = new NutritionSummary();
 
         for (Meal meal : meals) {
             for (FoodItem item : meal.getFoodItems()) {
-                for (Map.Entry<String, Double> entry : item.getAllNutrients().entrySet()) {
-                    actualIntake.merge(entry.getKey(), entry.getValue(), Double::sum);
-                }
+                item.addTo(actualIntake);
             }
         }
 
         Map<String, Double> differences = new HashMap<>();
         for (String nutrient : CanadaFoodGuide.STANDARD_VALUES.keySet()) {
             double standard = CanadaFoodGuide.STANDARD_VALUES.get(nutrient);
-            double actual = actualIntake.getOrDefault(nutrient, 0.0);
+            double actual = actualIntake.get(nutrient);
             double diff = standard - actual;
             if (Math.abs(diff) > 1e-6) {
                 differences.put(nutrient, diff);
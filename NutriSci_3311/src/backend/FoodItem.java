@@ -1,12 +1,30 @@
 package backend;
 
-import java.util.HashMap;
+import com.nutrisci.database.index.FoodGroupIndex;
+import com.nutrisci.database.util.NutrientDictionary;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
 public class FoodItem {
+    private static final NutrientDictionary DICTIONARY = NutrientDictionary.getDefault();
+
     private String name;
-    private Map<String, Double> nutrients;
+    // Nutrient values indexed by dictionary ordinal; NaN marks an absent nutrient
+    private double[] nutrients;
+    // Name each value was added under, by ordinal; null until a name is given, then the
+    // dictionary key is used for ordinals without one
+    private String[] nutrientNames;
+    // Nutrients the dictionary did not know when they were added, by lower-case name; kept
+    // local so ad-hoc names never grow the shared dictionary. Once the dictionary registers
+    // one of them, lookups by name or ordinal find it here
+    private Map<String, Double> otherNutrients;
     private double calories;
     private double protein;
     private double fat;
@@ -21,11 +39,10 @@ public class FoodItem {
         this.protein = protein;
         this.fat = fat;
         this.carbs = carbs;
-        this.nutrients = new HashMap<>();
-        this.nutrients.put("protein".toLowerCase(), protein);
-        this.nutrients.put("fat".toLowerCase(), fat);
-        this.nutrients.put("carbs".toLowerCase(), carbs);
-
+        this.nutrients = emptyValues(DICTIONARY.size());
+        this.nutrients[NutrientDictionary.PROTEIN] = protein;
+        this.nutrients[NutrientDictionary.FAT] = fat;
+        this.nutrients[NutrientDictionary.CARBOHYDRATE] = carbs;
     }
 
     public String getId() {
@@ -41,18 +58,143 @@ public class FoodItem {
     }
 
     public void addNutrient(String nutrientName, double value) {
-        nutrients.put(nutrientName.toLowerCase(), value);
+        String key = otherKey(nutrientName);
+        int ordinal = DICTIONARY.ordinalOf(nutrientName);
+        if (ordinal == NutrientDictionary.NOT_FOUND) {
+            if (otherNutrients == null) {
+                otherNutrients = new LinkedHashMap<>();
+            }
+            otherNutrients.put(key, value);
+            return;
+        }
+        // A value added before the dictionary knew the name is replaced, not shadowed
+        if (otherNutrients != null) {
+            otherNutrients.remove(key);
+        }
+        addNutrient(ordinal, value);
+        if (nutrientNames == null) {
+            nutrientNames = new String[nutrients.length];
+        } else if (nutrientNames.length < nutrients.length) {
+            nutrientNames = Arrays.copyOf(nutrientNames, nutrients.length);
+        }
+        nutrientNames[ordinal] = nutrientName;
+    }
+
+    public void addNutrient(int ordinal, double value) {
+        if (ordinal >= nutrients.length) {
+            int oldLength = nutrients.length;
+            nutrients = Arrays.copyOf(nutrients, Math.max(ordinal + 1, DICTIONARY.size()));
+            Arrays.fill(nutrients, oldLength, nutrients.length, Double.NaN);
+        }
+        nutrients[ordinal] = value;
     }
 
     public double getNutrient(String nutrientName) {
-        return nutrients.getOrDefault(nutrientName.toLowerCase(), 0.0);
+        int ordinal = DICTIONARY.ordinalOf(nutrientName);
+        if (ordinal == NutrientDictionary.NOT_FOUND) {
+            return otherNutrients != null ? otherNutrients.getOrDefault(otherKey(nutrientName), 0.0) : 0.0;
+        }
+        return getNutrient(ordinal);
+    }
+
+    public double getNutrient(int ordinal) {
+        double value = valueOf(ordinal);
+        return Double.isNaN(value) ? 0.0 : value;
+    }
+
+    public boolean hasNutrient(int ordinal) {
+        return !Double.isNaN(valueOf(ordinal));
+    }
+
+    // The value at the ordinal, else one added by a name the dictionary registered later; NaN if absent
+    private double valueOf(int ordinal) {
+        if (ordinal >= 0 && ordinal < nutrients.length && !Double.isNaN(nutrients[ordinal])) {
+            return nutrients[ordinal];
+        }
+        if (otherNutrients != null && ordinal >= 0) {
+            for (Map.Entry<String, Double> entry : otherNutrients.entrySet()) {
+                if (DICTIONARY.ordinalOf(entry.getKey()) == ordinal) {
+                    return entry.getValue();
+                }
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Returns the ordinals of the nutrients present on this item, in ascending order, including
+     * those added by a name the dictionary has registered since. Nutrients the dictionary does
+     * not know have no ordinal and are not included.
+     */
+    public int[] getNutrientOrdinals() {
+        BitSet present = new BitSet(nutrients.length);
+        for (int i = 0; i < nutrients.length; i++) {
+            if (!Double.isNaN(nutrients[i])) present.set(i);
+        }
+        if (otherNutrients != null) {
+            for (String key : otherNutrients.keySet()) {
+                int ordinal = DICTIONARY.ordinalOf(key);
+                if (ordinal != NutrientDictionary.NOT_FOUND) present.set(ordinal);
+            }
+        }
+        return present.stream().toArray();
     }
 
     public Map<String, Double> getAllNutrients() {
-        return new HashMap<>(nutrients);
+        Map<String, Double> all = new LinkedHashMap<>();
+        for (int ordinal = 0; ordinal < nutrients.length; ordinal++) {
+            if (!Double.isNaN(nutrients[ordinal])) {
+                all.put(nameOf(ordinal), nutrients[ordinal]);
+            }
+        }
+        if (otherNutrients != null) {
+            for (Map.Entry<String, Double> entry : otherNutrients.entrySet()) {
+                if (!isInArray(DICTIONARY.ordinalOf(entry.getKey()))) {
+                    all.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return all;
+    }
+
+    // Copy of the nutrients the dictionary did not know when they were added, by lower-case name
+    Map<String, Double> getOtherNutrients() {
+        return otherNutrients != null ? new LinkedHashMap<>(otherNutrients) : Collections.emptyMap();
+    }
+
+    // The name the nutrient was added under, or the dictionary key
+    private String nameOf(int ordinal) {
+        String given = nutrientNames != null && ordinal < nutrientNames.length ? nutrientNames[ordinal] : null;
+        return given != null ? given : DICTIONARY.get(ordinal).getKey();
+    }
+
+    private boolean isInArray(int ordinal) {
+        return ordinal >= 0 && ordinal < nutrients.length && !Double.isNaN(nutrients[ordinal]);
+    }
+
+    // Adds every nutrient of this item to the summary under the names it was added with
+    void addTo(NutritionSummary summary) {
+        for (int ordinal = 0; ordinal < nutrients.length; ordinal++) {
+            if (!Double.isNaN(nutrients[ordinal])) {
+                summary.add(ordinal, nameOf(ordinal), nutrients[ordinal]);
+            }
+        }
+        if (otherNutrients != null) {
+            for (Map.Entry<String, Double> entry : otherNutrients.entrySet()) {
+                if (!isInArray(DICTIONARY.ordinalOf(entry.getKey()))) {
+                    summary.add(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    // Names outside the dictionary match regardless of case, as they always have
+    static String otherKey(String nutrientName) {
+        return nutrientName.toLowerCase(Locale.ROOT);
     }
+
     public Set<String> getNutrientNames() {
-        return nutrients.keySet();
+        return new LinkedHashSet<>(getAllNutrients().keySet());
     }
     public String getName() {
         return name;
@@ -80,7 +222,38 @@ public class FoodItem {
 
     @Override
     public String toString() {
-        return "FoodItem{name='" + name + "', nutrients=" + nutrients + '}';
+        return "FoodItem{name='" + name + "', nutrients=" + getAllNutrients() + '}';
+    }
+
+    // Builds an item from a food group index row, keeping every nutrient the row has
+    static FoodItem fromIndex(FoodGroupIndex.GroupSlice slice, int i, String group) {
+        FoodItem fi = new FoodItem(
+                String.valueOf(slice.getFoodId(i)),
+                slice.getFoodName(i),
+                valueOrZero(slice.getNutrient(i, NutrientDictionary.ENERGY)),
+                valueOrZero(slice.getNutrient(i, NutrientDictionary.PROTEIN)),
+                valueOrZero(slice.getNutrient(i, NutrientDictionary.FAT)),
+                valueOrZero(slice.getNutrient(i, NutrientDictionary.CARBOHYDRATE))
+        );
+        fi.setGroup(group);
+        int width = slice.getIndex().getNutrientWidth();
+        for (int ordinal = 0; ordinal < width; ordinal++) {
+            double val = slice.getNutrient(i, ordinal);
+            if (!Double.isNaN(val)) {
+                fi.addNutrient(ordinal, val);
+            }
+        }
+        return fi;
+    }
+
+    static double valueOrZero(double value) {
+        return Double.isNaN(value) ? 0.0 : value;
+    }
+
+    static double[] emptyValues(int size) {
+        double[] values = new double[size];
+        Arrays.fill(values, Double.NaN);
+        return values;
     }
 }
 
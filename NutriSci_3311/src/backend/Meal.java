@@ -2,9 +2,14 @@ package backend;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 public class Meal {
+    private static final long FINGERPRINT_SEED = 0x6A09E667F3BCC909L;
+    private static final long FINGERPRINT_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
     private String mealType;
     private LocalDate date;
     private List<FoodItem> foodItems;
@@ -35,15 +40,60 @@ public class Meal {
         NutritionSummary summary = new NutritionSummary();
 
         for (FoodItem item : foodItems) {
-            for (String nutrient : item.getNutrientNames()) {
-                double amount = item.getNutrient(nutrient);
-                summary.add(nutrient, amount);
-            }
+            item.addTo(summary);
         }
 
         return summary;
     }
 
+    // 64-bit hash of the meal type, date and every item's identity and nutrient values; an
+    // edit to the meal almost always changes it, but distinct meals can collide, so caches
+    // keyed by it must also compare getContent() on a hit
+    public long getFingerprint() {
+        long h = FINGERPRINT_SEED;
+        h = mix(h, Objects.hashCode(mealType));
+        h = mix(h, Objects.hashCode(date));
+        for (FoodItem item : foodItems) {
+            h = mix(h, Objects.hashCode(item.getId()));
+            h = mix(h, Objects.hashCode(item.getName()));
+            h = mix(h, Objects.hashCode(item.getGroup()));
+            int[] ordinals = item.getNutrientOrdinals();
+            h = mix(h, ordinals.length);
+            for (int ordinal : ordinals) {
+                h = mix(h, ordinal);
+                h = mix(h, Double.doubleToLongBits(item.getNutrient(ordinal)));
+            }
+            h = mix(h, item.getOtherNutrients().hashCode());
+        }
+        return mix(h, foodItems.size());
+    }
+
+    // Immutable copy of everything the fingerprint covers; two meals with equal content
+    // produce the same swap plans
+    List<Object> getContent() {
+        List<Object> content = new ArrayList<>();
+        content.add(mealType);
+        content.add(date);
+        for (FoodItem item : foodItems) {
+            content.add(item.getId());
+            content.add(item.getName());
+            content.add(item.getGroup());
+            int[] ordinals = item.getNutrientOrdinals();
+            content.add(ordinals.length);
+            for (int ordinal : ordinals) {
+                content.add(ordinal);
+                content.add(item.getNutrient(ordinal));
+            }
+            content.add(item.getOtherNutrients());
+        }
+        return Collections.unmodifiableList(content);
+    }
+
+    private static long mix(long h, long value) {
+        h = (h ^ value) * FINGERPRINT_MULTIPLIER;
+        return h ^ (h >>> 32);
+    }
+
     @Override
     public String toString() {
         return "Meal{" +
@@ -0,0 +1,322 @@
+package backend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chooses up to N item swaps that bring a whole meal's nutrition closest to a set of goals.
+ *
+ * The goals apply to the meal totals. For each item, the swap engine ranks the best k
+ * replacements against residual goals, i.e. the goal bounds minus what the rest of the meal
+ * already contributes, so each list holds the foods that would help most on their own. A
+ * depth-first branch-and-bound search then combines them: items are visited most promising
+ * first, every node is a complete plan (the remaining items are kept), and a branch is pruned
+ * when even the most favourable totals its remaining items could reach with the swaps left
+ * cannot beat the best plan found. Those reachable totals are bounded per goal from the largest
+ * per-item changes, which is cheap and never too optimistic.
+ *
+ * The time budget covers loading the candidates as well as the search. When it runs out, items
+ * not reached yet are kept, the search stops within a few hundred nodes, and the best plan found
+ * so far is returned, so large meals get a good answer quickly instead of an exhaustive one
+ * eventually.
+ */
+public class MealSwapOptimizer {
+    public static final int DEFAULT_MAX_SWAPS = 2;
+    public static final int DEFAULT_CANDIDATES_PER_ITEM = 5;
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 50;
+
+    // The clock is read once per this many nodes
+    private static final int DEADLINE_CHECK_INTERVAL = 256;
+    // Cost differences below this count as ties, which keep the plan found first
+    private static final double EPSILON = 1e-9;
+
+    private final SwapEngine engine;
+    private final int maxSwaps;
+    private final int candidatesPerItem;
+    private final long timeBudgetNanos;
+
+    public MealSwapOptimizer(SwapEngine engine) {
+        this(engine, DEFAULT_MAX_SWAPS, DEFAULT_CANDIDATES_PER_ITEM, DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    public MealSwapOptimizer(SwapEngine engine, int maxSwaps, int candidatesPerItem, long timeBudgetMillis) {
+        if (engine == null) {
+            throw new IllegalArgumentException("Swap engine cannot be null");
+        }
+        if (maxSwaps < 0 || candidatesPerItem <= 0 || timeBudgetMillis < 0) {
+            throw new IllegalArgumentException("Invalid optimizer limits: maxSwaps=" + maxSwaps +
+                    ", candidatesPerItem=" + candidatesPerItem + ", timeBudgetMillis=" + timeBudgetMillis);
+        }
+        this.engine = engine;
+        this.maxSwaps = maxSwaps;
+        this.candidatesPerItem = candidatesPerItem;
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+    }
+
+    public MealSwapPlan optimize(Meal meal, List<NutritionGoal> goals) {
+        if (goals == null || goals.isEmpty()) {
+            throw new IllegalArgumentException("At least one goal is required");
+        }
+        // Meal totals and candidates are read by ordinal
+        for (NutritionGoal goal : goals) {
+            goal.requireNutrientOrdinal();
+        }
+        long deadline = System.nanoTime() + timeBudgetNanos;
+        Search search = new Search(meal, goals.toArray(new NutritionGoal[0]), deadline);
+        search.run();
+        return search.toPlan();
+    }
+
+    private final class Search {
+        private final Meal meal;
+        private final List<FoodItem> items;
+        private final NutritionGoal[] goals;
+        private final long deadline;
+
+        private final double[] totals;
+        private final double originalCost;
+
+        // Items that have candidates, most promising first
+        private int[] order;
+        private List<List<RankedSwap>> options;
+        // [depth][option][goal] change of the meal totals if the option is taken
+        private double[][][] deltas;
+        // [depth][goal][s] sum of the s largest decreases / increases available from depth on
+        private double[][][] reachDown;
+        private double[][][] reachUp;
+
+        private final int[] choice;
+        private int[] bestChoice;
+        private double bestCost;
+        private long nodes;
+        private boolean expired;
+        // Set when the budget ran out before every item's candidates were loaded
+        private boolean truncated;
+
+        Search(Meal meal, NutritionGoal[] goals, long deadline) {
+            this.meal = meal;
+            this.items = meal.getFoodItems();
+            this.goals = goals;
+            this.deadline = deadline;
+            this.totals = new double[goals.length];
+            NutritionSummary summary = meal.calculateTotalNutrition();
+            for (int g = 0; g < goals.length; g++) {
+                totals[g] = summary.get(goals[g].getNutrientOrdinal());
+            }
+            this.originalCost = mealMiss(totals);
+            this.choice = new int[items.size()];
+        }
+
+        void run() {
+            bestCost = originalCost;
+            bestChoice = new int[0];
+            if (originalCost == 0 || maxSwaps == 0) {
+                return;
+            }
+            loadOptions();
+            if (order.length == 0) {
+                return;
+            }
+            precomputeReach();
+            Arrays.fill(choice, -1);
+            bestChoice = choice.clone();
+            search(0, Math.min(maxSwaps, order.length), 0);
+        }
+
+        private void loadOptions() {
+            List<Integer> positions = new ArrayList<>();
+            List<List<RankedSwap>> ranked = new ArrayList<>();
+            List<Double> bestSingle = new ArrayList<>();
+            for (int p = 0; p < items.size(); p++) {
+                if (p > 0 && System.nanoTime() - deadline > 0) {
+                    truncated = true;
+                    break;
+                }
+                FoodItem item = items.get(p);
+                List<RankedSwap> candidates = engine.rankAlternatives(item, residualGoals(item), candidatesPerItem);
+                if (candidates.isEmpty()) {
+                    continue;
+                }
+                double best = Double.MAX_VALUE;
+                double[] single = new double[goals.length];
+                for (RankedSwap candidate : candidates) {
+                    for (int g = 0; g < goals.length; g++) {
+                        single[g] = totals[g] + delta(item, candidate.getFood(), g);
+                    }
+                    best = Math.min(best, mealMiss(single) + candidate.getSimilarityPenalty());
+                }
+                positions.add(p);
+                ranked.add(candidates);
+                bestSingle.add(best);
+            }
+
+            Integer[] byPromise = new Integer[positions.size()];
+            for (int i = 0; i < byPromise.length; i++) {
+                byPromise[i] = i;
+            }
+            Arrays.sort(byPromise, Comparator.comparingDouble(bestSingle::get));
+
+            order = new int[byPromise.length];
+            options = new ArrayList<>(byPromise.length);
+            deltas = new double[byPromise.length][][];
+            for (int d = 0; d < byPromise.length; d++) {
+                order[d] = positions.get(byPromise[d]);
+                List<RankedSwap> candidates = ranked.get(byPromise[d]);
+                options.add(candidates);
+                deltas[d] = new double[candidates.size()][goals.length];
+                FoodItem item = items.get(order[d]);
+                for (int o = 0; o < candidates.size(); o++) {
+                    for (int g = 0; g < goals.length; g++) {
+                        deltas[d][o][g] = delta(item, candidates.get(o).getFood(), g);
+                    }
+                }
+            }
+        }
+
+        // Goal bounds for one item, given the rest of the meal stays as it is
+        private List<NutritionGoal> residualGoals(FoodItem item) {
+            List<NutritionGoal> residual = new ArrayList<>(goals.length);
+            for (int g = 0; g < goals.length; g++) {
+                NutritionGoal goal = goals[g];
+                double rest = totals[g] - item.getNutrient(goal.getNutrientOrdinal());
+                double min = Math.max(0.0, goal.getMinAmount() - rest);
+                double max = goal.getMaxAmount() == Double.MAX_VALUE ? Double.MAX_VALUE : goal.getMaxAmount() - rest;
+                residual.add(new NutritionGoal(goal.getNutrientName(), min, max));
+            }
+            return residual;
+        }
+
+        private double delta(FoodItem item, FoodItem replacement, int g) {
+            int ordinal = goals[g].getNutrientOrdinal();
+            return replacement.getNutrient(ordinal) - item.getNutrient(ordinal);
+        }
+
+        private void precomputeReach() {
+            int depthCount = order.length;
+            int s = Math.min(maxSwaps, depthCount);
+            reachDown = new double[depthCount + 1][goals.length][s + 1];
+            reachUp = new double[depthCount + 1][goals.length][s + 1];
+            // Largest changes seen so far, kept sorted descending, s per goal and direction
+            double[][] down = new double[goals.length][s];
+            double[][] up = new double[goals.length][s];
+            for (int d = depthCount - 1; d >= 0; d--) {
+                for (int g = 0; g < goals.length; g++) {
+                    double mostDown = 0;
+                    double mostUp = 0;
+                    for (double[] option : deltas[d]) {
+                        mostDown = Math.max(mostDown, -option[g]);
+                        mostUp = Math.max(mostUp, option[g]);
+                    }
+                    insertSorted(down[g], mostDown);
+                    insertSorted(up[g], mostUp);
+                    for (int k = 1; k <= s; k++) {
+                        reachDown[d][g][k] = reachDown[d][g][k - 1] + down[g][k - 1];
+                        reachUp[d][g][k] = reachUp[d][g][k - 1] + up[g][k - 1];
+                    }
+                }
+            }
+        }
+
+        private void insertSorted(double[] largest, double value) {
+            for (int i = 0; i < largest.length; i++) {
+                if (value > largest[i]) {
+                    double displaced = largest[i];
+                    largest[i] = value;
+                    value = displaced;
+                }
+            }
+        }
+
+        private void search(int depth, int swapsLeft, double penalty) {
+            if (++nodes % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() - deadline > 0) {
+                expired = true;
+            }
+            if (expired) {
+                return;
+            }
+            double cost = mealMiss(totals) + penalty;
+            if (cost < bestCost - EPSILON) {
+                bestCost = cost;
+                bestChoice = choice.clone();
+            }
+            if (depth == order.length || swapsLeft == 0 || penalty + lowerBound(depth, swapsLeft) >= bestCost - EPSILON) {
+                return;
+            }
+
+            double[][] itemDeltas = deltas[depth];
+            List<RankedSwap> itemOptions = options.get(depth);
+            for (int o = 0; o < itemDeltas.length && !expired; o++) {
+                apply(itemDeltas[o], 1);
+                choice[order[depth]] = o;
+                search(depth + 1, swapsLeft - 1, penalty + itemOptions.get(o).getSimilarityPenalty());
+                choice[order[depth]] = -1;
+                apply(itemDeltas[o], -1);
+            }
+            search(depth + 1, swapsLeft, penalty);
+        }
+
+        private void apply(double[] delta, int sign) {
+            for (int g = 0; g < goals.length; g++) {
+                totals[g] += sign * delta[g];
+            }
+        }
+
+        // Least possible goal miss for any plan below this node; similarity penalties only add
+        private double lowerBound(int depth, int swapsLeft) {
+            double bound = 0;
+            for (int g = 0; g < goals.length; g++) {
+                double lowest = totals[g] - reachDown[depth][g][swapsLeft];
+                double highest = totals[g] + reachUp[depth][g][swapsLeft];
+                NutritionGoal goal = goals[g];
+                if (highest < goal.getMinAmount()) {
+                    bound += SwapRanker.miss(goal, highest);
+                } else if (lowest > goal.getMaxAmount()) {
+                    bound += SwapRanker.miss(goal, lowest);
+                }
+            }
+            return bound;
+        }
+
+        private double mealMiss(double[] values) {
+            double miss = 0;
+            for (int g = 0; g < goals.length; g++) {
+                miss += SwapRanker.miss(goals[g], values[g]);
+            }
+            return miss;
+        }
+
+        MealSwapPlan toPlan() {
+            Meal swapped = new Meal(meal.getMealType(), meal.getDate());
+            List<MealSwapPlan.Swap> swaps = new ArrayList<>();
+            int[] depthOf = new int[items.size()];
+            Arrays.fill(depthOf, -1);
+            for (int d = 0; order != null && d < order.length; d++) {
+                depthOf[order[d]] = d;
+            }
+            double[] after = totals.clone();
+            for (int p = 0; p < items.size(); p++) {
+                FoodItem item = items.get(p);
+                int o = p < bestChoice.length ? bestChoice[p] : -1;
+                if (o < 0) {
+                    swapped.addFoodItem(item);
+                    continue;
+                }
+                RankedSwap replacement = options.get(depthOf[p]).get(o);
+                swapped.addFoodItem(replacement.getFood());
+                swaps.add(new MealSwapPlan.Swap(p, item, replacement));
+                for (int g = 0; g < goals.length; g++) {
+                    after[g] += delta(item, replacement.getFood(), g);
+                }
+            }
+            List<String> explanations = new ArrayList<>(goals.length);
+            for (int g = 0; g < goals.length; g++) {
+                explanations.add(SwapRanker.describe(goals[g], totals[g], after[g]));
+            }
+            return new MealSwapPlan(swaps.isEmpty() ? meal : swapped, swaps, originalCost, bestCost,
+                    !expired && !truncated, nodes, explanations);
+        }
+    }
+}
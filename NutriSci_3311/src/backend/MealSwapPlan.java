@@ -0,0 +1,100 @@
+package backend;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The swaps chosen for a meal by {@link MealSwapOptimizer} and the meal they produce.
+ */
+public class MealSwapPlan {
+    private final Meal meal;
+    private final List<Swap> swaps;
+    private final double originalCost;
+    private final double cost;
+    private final boolean complete;
+    private final long nodesVisited;
+    private final List<String> explanations;
+
+    MealSwapPlan(Meal meal, List<Swap> swaps, double originalCost, double cost, boolean complete,
+                 long nodesVisited, List<String> explanations) {
+        this.meal = meal;
+        this.swaps = Collections.unmodifiableList(swaps);
+        this.originalCost = originalCost;
+        this.cost = cost;
+        this.complete = complete;
+        this.nodesVisited = nodesVisited;
+        this.explanations = Collections.unmodifiableList(explanations);
+    }
+
+    // The meal with the swaps applied; the original meal when no swap helps
+    public Meal getMeal() {
+        return meal;
+    }
+
+    public List<Swap> getSwaps() {
+        return swaps;
+    }
+
+    // How far the original meal misses the goals; lower is better, 0 meets them all
+    public double getOriginalCost() {
+        return originalCost;
+    }
+
+    // How far the swapped meal misses the goals, plus the similarity penalties of the swaps
+    public double getCost() {
+        return cost;
+    }
+
+    // False if the time budget ran out and the plan is the best found so far
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public long getNodesVisited() {
+        return nodesVisited;
+    }
+
+    // One line per goal, comparing the meal totals before and after the swaps
+    public List<String> getExplanations() {
+        return explanations;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MealSwapPlan{swaps=%d, cost=%.4f -> %.4f, complete=%b, nodes=%d, explanations=%s}",
+                swaps.size(), originalCost, cost, complete, nodesVisited, explanations);
+    }
+
+    /**
+     * One replaced item of the meal.
+     */
+    public static class Swap {
+        private final int position;
+        private final FoodItem original;
+        private final RankedSwap replacement;
+
+        Swap(int position, FoodItem original, RankedSwap replacement) {
+            this.position = position;
+            this.original = original;
+            this.replacement = replacement;
+        }
+
+        // Index of the replaced item in the meal's food item list
+        public int getPosition() {
+            return position;
+        }
+
+        public FoodItem getOriginal() {
+            return original;
+        }
+
+        public RankedSwap getReplacement() {
+            return replacement;
+        }
+
+        @Override
+        public String toString() {
+            return original.getName() + " -> " + replacement.getFood().getName();
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package backend;
 
+import com.nutrisci.database.util.NutrientDictionary;
+
 public class NutritionGoal {
     private String nutrientName;
+    // NOT_FOUND until the dictionary knows the nutrient; resolved again on each read until then,
+    // and meanwhile values are looked up by name
+    private volatile int nutrientOrdinal;
     private double minAmount;
     private double maxAmount;
 
     public NutritionGoal(String nutrientName, double minAmount, double maxAmount) {
         this.nutrientName = nutrientName;
+        this.nutrientOrdinal = NutrientDictionary.getDefault().ordinalOf(nutrientName);
         this.minAmount = minAmount;
         this.maxAmount = maxAmount;
     }
@@ -15,6 +21,24 @@ public class NutritionGoal {
         return nutrientName;
     }
 
+    public int getNutrientOrdinal() {
+        int ordinal = nutrientOrdinal;
+        if (ordinal == NutrientDictionary.NOT_FOUND) {
+            ordinal = NutrientDictionary.getDefault().ordinalOf(nutrientName);
+            nutrientOrdinal = ordinal;
+        }
+        return ordinal;
+    }
+
+    // For callers that read goal values by ordinal only, such as rankings over index rows
+    int requireNutrientOrdinal() {
+        int ordinal = getNutrientOrdinal();
+        if (ordinal == NutrientDictionary.NOT_FOUND) {
+            throw new IllegalArgumentException("Goal nutrient is not in the nutrient dictionary: " + nutrientName);
+        }
+        return ordinal;
+    }
+
     public String getType() {
         boolean hasMin = minAmount > 0.0;
         boolean hasMax = maxAmount < Double.MAX_VALUE;
@@ -33,12 +57,13 @@ public class NutritionGoal {
     }
 
     public boolean isSatisfiedBy(FoodItem item) {
-        double val = item.getNutrient(nutrientName);
+        double val = valueOf(item);
         return val >= minAmount && val <= maxAmount;
     }
 
     public boolean isSatisfiedBy(NutritionSummary summary) {
-        double val = summary.get(nutrientName);
+        int ordinal = getNutrientOrdinal();
+        double val = ordinal != NutrientDictionary.NOT_FOUND ? summary.get(ordinal) : summary.get(nutrientName);
         return val >= minAmount && val <= maxAmount;
     }
 
@@ -51,8 +76,8 @@ public class NutritionGoal {
     }
 
     public boolean isBetterChoice(FoodItem candidate, FoodItem original) {
-        double candidateVal = candidate.getNutrient(nutrientName);
-        double originalVal = original.getNutrient(nutrientName);
+        double candidateVal = valueOf(candidate);
+        double originalVal = valueOf(original);
 
         String type = getType();
 
@@ -69,6 +94,11 @@ public class NutritionGoal {
         return false;
     }
 
+    private double valueOf(FoodItem item) {
+        int ordinal = getNutrientOrdinal();
+        return ordinal != NutrientDictionary.NOT_FOUND ? item.getNutrient(ordinal) : item.getNutrient(nutrientName);
+    }
+
 }
 
 
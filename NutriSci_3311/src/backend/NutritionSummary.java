@@ -1,43 +1,122 @@
 package backend;
-import java.util.HashMap;
+import com.nutrisci.database.util.NutrientDictionary;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Set;
 
 public class NutritionSummary {
-    private Map<String, Double> nutrients;
+    private static final NutrientDictionary DICTIONARY = NutrientDictionary.getDefault();
+
+    // Totals indexed by dictionary ordinal; NaN marks a nutrient that was never added
+    private double[] nutrients;
+    // Name each total was first added under, by ordinal; null falls back to the dictionary key
+    private String[] names;
+    // Totals of nutrients the dictionary did not know when they were added, by lower-case
+    // name; once the dictionary registers one, it counts toward that ordinal's total
+    private final Map<String, Double> others = new LinkedHashMap<>();
 
     public NutritionSummary() {
-        nutrients = new HashMap<>();
+        nutrients = FoodItem.emptyValues(DICTIONARY.size());
+        names = new String[nutrients.length];
     }
 
     public void add(String name, double amount) {
-        nutrients.put(name, nutrients.getOrDefault(name, 0.0) + amount);
+        String key = FoodItem.otherKey(name);
+        int ordinal = DICTIONARY.ordinalOf(name);
+        if (ordinal == NutrientDictionary.NOT_FOUND) {
+            others.merge(key, amount, Double::sum);
+        } else {
+            // Folds in what was added under the name before the dictionary registered it
+            Double earlier = others.remove(key);
+            add(ordinal, name, earlier != null ? earlier + amount : amount);
+        }
+    }
+
+    public void add(int ordinal, double amount) {
+        add(ordinal, null, amount);
+    }
+
+    // Keeps the first name a total was added under so getAll returns the caller's keys
+    void add(int ordinal, String name, double amount) {
+        ensureCapacity(ordinal + 1);
+        double current = nutrients[ordinal];
+        nutrients[ordinal] = Double.isNaN(current) ? amount : current + amount;
+        if (names[ordinal] == null) {
+            names[ordinal] = name;
+        }
     }
 
     public void add(NutritionSummary other) {
-        for (Map.Entry<String, Double> entry : other.nutrients.entrySet()) {
-            this.add(entry.getKey(), entry.getValue());
+        ensureCapacity(other.nutrients.length);
+        for (int i = 0; i < other.nutrients.length; i++) {
+            if (!Double.isNaN(other.nutrients[i])) {
+                add(i, other.names[i], other.nutrients[i]);
+            }
+        }
+        for (Map.Entry<String, Double> entry : other.others.entrySet()) {
+            others.merge(entry.getKey(), entry.getValue(), Double::sum);
         }
     }
 
     public void divide(int divisor) {
-        for (String key : nutrients.keySet()) {
-            nutrients.put(key, nutrients.get(key) / divisor);
+        for (int i = 0; i < nutrients.length; i++) {
+            nutrients[i] /= divisor;
         }
+        others.replaceAll((name, total) -> total / divisor);
     }
 
     public double get(String name) {
-        return nutrients.getOrDefault(name, 0.0);
+        int ordinal = DICTIONARY.ordinalOf(name);
+        return ordinal != NutrientDictionary.NOT_FOUND ? get(ordinal) : others.getOrDefault(FoodItem.otherKey(name), 0.0);
+    }
+
+    public double get(int ordinal) {
+        double total = ordinal >= 0 && ordinal < nutrients.length && !Double.isNaN(nutrients[ordinal])
+                ? nutrients[ordinal] : 0.0;
+        if (ordinal >= 0) {
+            for (Map.Entry<String, Double> entry : others.entrySet()) {
+                if (DICTIONARY.ordinalOf(entry.getKey()) == ordinal) {
+                    total += entry.getValue();
+                }
+            }
+        }
+        return total;
     }
 
     public Map<String, Double> getAll() {
-        return nutrients;
+        Map<String, Double> all = new LinkedHashMap<>();
+        for (int i = 0; i < nutrients.length; i++) {
+            if (!Double.isNaN(nutrients[i])) {
+                all.put(nameOf(i), nutrients[i]);
+            }
+        }
+        for (Map.Entry<String, Double> entry : others.entrySet()) {
+            int ordinal = DICTIONARY.ordinalOf(entry.getKey());
+            if (ordinal != NutrientDictionary.NOT_FOUND && ordinal < nutrients.length && !Double.isNaN(nutrients[ordinal])) {
+                all.merge(nameOf(ordinal), entry.getValue(), Double::sum);
+            } else {
+                all.merge(entry.getKey(), entry.getValue(), Double::sum);
+            }
+        }
+        return all;
+    }
+
+    private String nameOf(int ordinal) {
+        return names[ordinal] != null ? names[ordinal] : DICTIONARY.get(ordinal).getKey();
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > nutrients.length) {
+            int oldLength = nutrients.length;
+            nutrients = Arrays.copyOf(nutrients, Math.max(size, DICTIONARY.size()));
+            Arrays.fill(nutrients, oldLength, nutrients.length, Double.NaN);
+            names = Arrays.copyOf(names, nutrients.length);
+        }
     }
 
     @Override
     public String toString() {
-        return nutrients.toString();
+        return getAll().toString();
     }
 }
-
-
@@ -0,0 +1,51 @@
+package backend;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A swap candidate with its ranking score and a line of explanation per goal.
+ */
+public class RankedSwap {
+    private final FoodItem food;
+    private final double score;
+    private final double goalScore;
+    private final double similarityPenalty;
+    private final List<String> explanations;
+
+    RankedSwap(FoodItem food, double goalScore, double similarityPenalty, List<String> explanations) {
+        this.food = food;
+        this.goalScore = goalScore;
+        this.similarityPenalty = similarityPenalty;
+        this.score = goalScore - similarityPenalty;
+        this.explanations = Collections.unmodifiableList(explanations);
+    }
+
+    public FoodItem getFood() {
+        return food;
+    }
+
+    // Higher is better: the goal improvement minus the similarity penalty
+    public double getScore() {
+        return score;
+    }
+
+    // Weighted reduction of the goal shortfalls and excesses compared to the original
+    public double getGoalScore() {
+        return goalScore;
+    }
+
+    // Weighted average relative change of the nutrients no goal targets
+    public double getSimilarityPenalty() {
+        return similarityPenalty;
+    }
+
+    public List<String> getExplanations() {
+        return explanations;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RankedSwap{food='%s', score=%.4f, explanations=%s}", food.getName(), score, explanations);
+    }
+}
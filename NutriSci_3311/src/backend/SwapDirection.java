@@ -0,0 +1,50 @@
+package backend;
+
+import com.nutrisci.database.util.NutrientDictionary;
+
+/**
+ * Commonly requested single-nutrient swap goals, precomputed per food in a {@link SwapTable}.
+ * The enum order is the direction order in the table file; append new directions at the end
+ * and bump {@link SwapTable#FORMAT_VERSION}.
+ */
+public enum SwapDirection {
+    MORE_FIBRE(NutrientDictionary.FIBRE, true),
+    LESS_SODIUM(NutrientDictionary.SODIUM, false),
+    LESS_FAT(NutrientDictionary.FAT, false),
+    MORE_PROTEIN(NutrientDictionary.PROTEIN, true);
+
+    private final int nutrientOrdinal;
+    private final boolean increase;
+
+    SwapDirection(int nutrientOrdinal, boolean increase) {
+        this.nutrientOrdinal = nutrientOrdinal;
+        this.increase = increase;
+    }
+
+    public int getNutrientOrdinal() {
+        return nutrientOrdinal;
+    }
+
+    public boolean isIncrease() {
+        return increase;
+    }
+
+    // The direction a goal asks for: a minimum only means more, a maximum only means less
+    public static SwapDirection of(NutritionGoal goal) {
+        String type = goal.getType();
+        boolean increase;
+        if (type.equals("MIN")) {
+            increase = true;
+        } else if (type.equals("MAX")) {
+            increase = false;
+        } else {
+            return null;
+        }
+        for (SwapDirection direction : values()) {
+            if (direction.nutrientOrdinal == goal.getNutrientOrdinal() && direction.increase == increase) {
+                return direction;
+            }
+        }
+        return null;
+    }
+}
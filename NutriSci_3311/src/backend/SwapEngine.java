@@ -3,6 +3,11 @@ import java.util.List;
 
 public interface SwapEngine {
     List<FoodItem> suggestAlternatives(FoodItem original, NutritionGoal goal, List<FoodItem> candidates);
+
+    // Best k foods from the original's group, scored against all goals at once, best first
+    List<RankedSwap> rankAlternatives(FoodItem original, List<NutritionGoal> goals, int k);
+
+    List<RankedSwap> rankAlternatives(FoodItem original, List<NutritionGoal> goals, List<FoodItem> candidates, int k);
 }
 
 
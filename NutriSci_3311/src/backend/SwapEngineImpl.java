@@ -1,13 +1,47 @@
 package backend;
+import com.nutrisci.database.cache.FoodCandidateCache;
+import com.nutrisci.database.dao.impl.CNFDataDAOImpl;
+import com.nutrisci.database.exceptions.DatabaseAccessException;
+import com.nutrisci.database.index.FoodGroupIndex;
+import com.nutrisci.database.snapshot.CNFSnapshot;
+import com.nutrisci.database.snapshot.CNFSnapshotHolder;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
-import java.sql.*;
-import java.util.*;
 
 public class SwapEngineImpl implements SwapEngine {
-    private static final String JDBC_URL = "jdbc:mysql://localhost:3306/nutrisci_db";
-    private static final String JDBC_USER = "youruser";
-    private static final String JDBC_PASSWORD = "yourpassword";
+    // In-memory candidates partitioned by food group; null loads groups through the cache
+    private final FoodGroupIndex candidateIndex;
+    // Per-group candidates loaded on demand over the shared connection pool
+    private final FoodCandidateCache candidateCache;
+    // Swap plans by meal fingerprint, goal set and reference data version
+    private final SwapResultCache swapResults = new SwapResultCache();
+
+    // Source of the meals getSwappedMeal resolves, and the goals it swaps them for
+    private volatile MealLogger mealLogger;
+    private volatile List<NutritionGoal> swapGoals = List.of();
+    // Version of the CNF data the candidates come from; null if it never changes
+    private volatile CNFSnapshotHolder referenceData;
+    // Precomputed swaps for common single-nutrient goals; null searches live. Written under
+    // swapTableLock so a table checked against one snapshot is never installed after the next
+    private volatile SwapTable swapTable;
+    private final Object swapTableLock = new Object();
+
+    public SwapEngineImpl() {
+        this(new FoodCandidateCache(new CNFDataDAOImpl()));
+    }
+
+    public SwapEngineImpl(FoodGroupIndex candidateIndex) {
+        this.candidateIndex = candidateIndex;
+        this.candidateCache = null;
+    }
+
+    public SwapEngineImpl(FoodCandidateCache candidateCache) {
+        this.candidateIndex = null;
+        this.candidateCache = candidateCache;
+    }
 
     public Meal applySwapToMeal(Meal original, List<FoodItem> unused, NutritionGoal goal) {
         Meal swappedMeal = new Meal(original.getMealType(), original.getDate());
@@ -35,107 +69,212 @@ public class SwapEngineImpl implements SwapEngine {
         return swappedMeal;
     }
 
-    public Meal getSwappedMeal(String mealId) {
-        throw new UnsupportedOperationException("Not implemented yet.");
+    // Chooses up to two swaps for the whole meal against all goals at once, within a time budget
+    public MealSwapPlan optimizeMeal(Meal original, List<NutritionGoal> goals) {
+        return new MealSwapOptimizer(this).optimize(original, goals);
     }
 
-    public List<FoodItem> suggestAlternatives(FoodItem item, NutritionGoal goal) {
-        List<FoodItem> candidates = getCandidatesFromDB(item.getGroup());
-        List<FoodItem> result = new ArrayList<>();
+    public void setMealLogger(MealLogger mealLogger) {
+        this.mealLogger = mealLogger;
+    }
 
-        for (FoodItem candidate : candidates) {
-            if (goal.getType().equals("MIN") && candidate.getNutrient(goal.getNutrientName()) < goal.getTargetAmount()) {
-                continue;
+    public void setSwapGoals(List<NutritionGoal> goals) {
+        this.swapGoals = List.copyOf(goals);
+    }
+
+    // Ties cached swap plans to the published CNF version and reloads candidates when it changes
+    public void trackReferenceData(CNFSnapshotHolder holder) {
+        this.referenceData = holder;
+        holder.addVersionListener((previousVersion, newVersion, snapshot) -> {
+            if (candidateCache != null) {
+                candidateCache.clear();
             }
-            if (goal.getType().equals("MAX") && candidate.getNutrient(goal.getNutrientName()) > goal.getTargetAmount()) {
-                continue;
+            // A table built from other data would suggest stale swaps
+            dropMismatchedSwapTable(snapshot);
+        });
+        dropMismatchedSwapTable(holder.getSnapshot());
+    }
+
+    private void dropMismatchedSwapTable(CNFSnapshot snapshot) {
+        synchronized (swapTableLock) {
+            SwapTable table = swapTable;
+            if (table != null && !matchesReferenceData(table, snapshot)) {
+                swapTable = null;
             }
+        }
+    }
 
-            boolean withinRange = true;
-            for (String nutrient : item.getNutrientNames()) {
-                if (nutrient.equals(goal.getNutrientName())) continue;
-                double originalVal = item.getNutrient(nutrient);
-                double candidateVal = candidate.getNutrient(nutrient);
-                if (originalVal > 0 && Math.abs((candidateVal - originalVal) / originalVal) > 0.10) {
-                    withinRange = false;
-                    break;
-                }
+    // Answers single-goal rankings in a SwapDirection from the table; null returns to live search.
+    // Rejects a table built from other CNF data than the tracked reference data's snapshot
+    public void setSwapTable(SwapTable table) {
+        synchronized (swapTableLock) {
+            CNFSnapshotHolder holder = referenceData;
+            CNFSnapshot snapshot = holder != null ? holder.getSnapshot() : null;
+            if (table != null && !matchesReferenceData(table, snapshot)) {
+                throw new IllegalArgumentException("Swap table data version " + table.getDataVersion()
+                        + " does not match the CNF snapshot data version " + snapshot.getDataVersion()
+                        + ": " + table.getFile());
             }
+            this.swapTable = table;
+        }
+        swapResults.clear();
+    }
 
-            if (withinRange) result.add(candidate);
+    // Before a snapshot is published there is nothing to compare; the listener checks the first one
+    private static boolean matchesReferenceData(SwapTable table, CNFSnapshot snapshot) {
+        return snapshot == null || table.getDataVersion() == snapshot.getDataVersion();
+    }
+
+    // Same as optimizeMeal, but served from the cache while the meal, goals and CNF data are unchanged
+    public MealSwapPlan getSwapPlan(Meal meal, List<NutritionGoal> goals) {
+        CNFSnapshotHolder holder = referenceData;
+        long version = holder != null ? holder.getVersion() : CNFSnapshotHolder.NO_VERSION;
+        return swapResults.get(meal, goals, version, () -> optimizeMeal(meal, goals));
+    }
+
+    // mealId is "YYYY-MM-DD:MealType"; returns null if no such meal is logged
+    public Meal getSwappedMeal(String mealId) {
+        MealLogger logger = mealLogger;
+        List<NutritionGoal> goals = swapGoals;
+        if (logger == null || goals.isEmpty()) {
+            throw new IllegalStateException("Meal logger and swap goals must be set before requesting swapped meals");
+        }
+        int separator = mealId != null ? mealId.indexOf(':') : -1;
+        if (separator < 0) {
+            throw new IllegalArgumentException("Meal ID must be YYYY-MM-DD:MealType: " + mealId);
+        }
+        LocalDate date;
+        try {
+            date = LocalDate.parse(mealId.substring(0, separator).trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid meal date in meal ID: " + mealId, e);
         }
+        Meal meal = logger.getMeal(date, mealId.substring(separator + 1).trim());
+        return meal != null ? getSwapPlan(meal, goals).getMeal() : null;
+    }
 
+    public List<FoodItem> suggestAlternatives(FoodItem item, NutritionGoal goal) {
+        // The index rows hold dictionary nutrients only
+        goal.requireNutrientOrdinal();
+        List<FoodItem> result = new ArrayList<>();
+        FoodGroupIndex.GroupSlice slice = findGroupSlice(item.getGroup());
+        if (slice != null) {
+            int[] ordinals = item.getNutrientOrdinals();
+            for (int i = 0; i < slice.size(); i++) {
+                if (isAcceptableSwap(item, ordinals, goal, slice, i)) {
+                    result.add(FoodItem.fromIndex(slice, i, item.getGroup()));
+                }
+            }
+        }
         return result;
     }
 
 
+    // Best-ranked candidate among those the swap rules accept
     private FoodItem findSwap(FoodItem original, NutritionGoal goal) {
-        List<FoodItem> candidates = getCandidatesFromDB(original.getGroup());
-        for (FoodItem candidate : candidates) {
-            double candidateVal = candidate.getNutrient(goal.getNutrientName());
-            if (goal.getType().equals("MIN") && candidateVal < goal.getTargetAmount()) continue;
-            if (goal.getType().equals("MAX") && candidateVal > goal.getTargetAmount()) continue;
-
-            boolean withinRange = true;
-            for (String nutrient : original.getNutrientNames()) {
-                if (nutrient.equals(goal.getNutrientName())) continue;
-                double o = original.getNutrient(nutrient);
-                double c = candidate.getNutrient(nutrient);
-                if (o > 0 && Math.abs((c - o) / o) > 0.10) {
-                    withinRange = false;
-                    break;
-                }
-            }
+        FoodGroupIndex.GroupSlice slice = findGroupSlice(original.getGroup());
+        if (slice == null) {
+            return null;
+        }
+        int[] ordinals = original.getNutrientOrdinals();
+        List<RankedSwap> best = new SwapRanker(List.of(goal)).rank(original, slice, 1,
+                i -> isAcceptableSwap(original, ordinals, goal, slice, i));
+        return best.isEmpty() ? null : best.get(0).getFood();
+    }
 
-            if (withinRange) return candidate;
+    @Override
+    public List<RankedSwap> rankAlternatives(FoodItem original, List<NutritionGoal> goals, int k) {
+        FoodGroupIndex.GroupSlice slice = findGroupSlice(original.getGroup());
+        if (slice == null) {
+            return new ArrayList<>();
         }
-        return null;
+        List<FoodItem> precomputed = lookupSwapTable(original, goals, k, slice);
+        if (precomputed != null) {
+            return new SwapRanker(goals).rank(original, precomputed, k);
+        }
+        return new SwapRanker(goals).rank(original, slice, k);
     }
 
-    private List<FoodItem> getCandidatesFromDB(String group) {
-        List<FoodItem> result = new ArrayList<>();
-        String sql = "SELECT * FROM food_items WHERE food_group = ?";
-
-        try (Connection conn = DriverManager.getConnection(JDBC_URL, JDBC_USER, JDBC_PASSWORD);
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, group);
-            try (ResultSet rs = stmt.executeQuery()) {
-
-                while (rs.next()) {
-                    FoodItem fi = new FoodItem(
-                            rs.getString("food_id"),
-                            rs.getString("name"),
-                            rs.getDouble("calories"),
-                            rs.getDouble("protein"),
-                            rs.getDouble("fat"),
-                            rs.getDouble("carbs")
-                    );
-                    fi.setGroup(group);
-
-                    ResultSetMetaData meta = rs.getMetaData();
-                    for (int i = 1; i <= meta.getColumnCount(); i++){
-                        String col = meta.getColumnName(i).toLowerCase();
-                        if (col.equals("name") || col.equals("food_group") ||
-                                col.equals("calories") || col.equals("protein") ||
-                                col.equals("fat") || col.equals("carbs")) {
-                            continue;
-                        }
-                        double val = rs.getDouble(i);
-                        if (!rs.wasNull()) {
-                            fi.addNutrient(col, val);
-                        }
-                    }
-
-                    result.add(fi);
-                }
+    // The table's candidates for a single goal it covers, or null to search the whole group;
+    // they are re-ranked against the actual goal bounds, so scores and explanations match live
+    // ones. The table declines foods whose stored candidates may not include the best k
+    private List<FoodItem> lookupSwapTable(FoodItem original, List<NutritionGoal> goals, int k,
+                                           FoodGroupIndex.GroupSlice slice) {
+        SwapTable table = swapTable;
+        if (table == null || goals.size() != 1 || original.getId() == null) {
+            return null;
+        }
+        SwapDirection direction = SwapDirection.of(goals.get(0));
+        if (direction == null) {
+            return null;
+        }
+        int[] foodIds;
+        try {
+            foodIds = table.lookup(Integer.parseInt(original.getId().trim()), direction, k);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (foodIds == null) {
+            return null;
+        }
+        FoodGroupIndex index = slice.getIndex();
+        int start = slice.toIndexPosition(0);
+        List<FoodItem> candidates = new ArrayList<>(foodIds.length);
+        for (int foodId : foodIds) {
+            int i = index.indexOfFood(foodId) - start;
+            if (i < 0 || i >= slice.size()) {
+                return null;
             }
+            candidates.add(FoodItem.fromIndex(slice, i, original.getGroup()));
+        }
+        return candidates;
+    }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
+    @Override
+    public List<RankedSwap> rankAlternatives(FoodItem original, List<NutritionGoal> goals, List<FoodItem> candidates, int k) {
+        return new SwapRanker(goals).rank(original, candidates, k);
+    }
+
+    // Resolves a FoodItem group, given as a CNF group name or FoodGroupID, to its candidates
+    private FoodGroupIndex.GroupSlice findGroupSlice(String group) {
+        if (group == null) {
+            return null;
+        }
+        if (candidateIndex == null) {
+            try {
+                return candidateCache.getGroup(group);
+            } catch (DatabaseAccessException e) {
+                System.err.println("Failed to load swap candidates for group " + group + ": " + e.getMessage());
+                return null;
+            }
         }
+        int g = candidateIndex.indexOfGroupName(group);
+        if (g == FoodGroupIndex.NOT_FOUND) {
+            try {
+                g = candidateIndex.indexOfGroup(Integer.parseInt(group.trim()));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return g != FoodGroupIndex.NOT_FOUND ? candidateIndex.getGroup(g) : null;
+    }
 
-        return result;
+    // Swap rules evaluated directly on the index rows
+    private boolean isAcceptableSwap(FoodItem original, int[] ordinals, NutritionGoal goal,
+                                     FoodGroupIndex.GroupSlice slice, int i) {
+        double candidateVal = FoodItem.valueOrZero(slice.getNutrient(i, goal.getNutrientOrdinal()));
+        if (goal.getType().equals("MIN") && candidateVal < goal.getTargetAmount()) return false;
+        if (goal.getType().equals("MAX") && candidateVal > goal.getTargetAmount()) return false;
+
+        for (int nutrient : ordinals) {
+            if (nutrient == goal.getNutrientOrdinal()) continue;
+            double o = original.getNutrient(nutrient);
+            double c = FoodItem.valueOrZero(slice.getNutrient(i, nutrient));
+            if (o > 0 && Math.abs((c - o) / o) > 0.10) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public List<FoodItem> suggestAlternatives(FoodItem original, NutritionGoal goal, List<FoodItem> candidates) {
@@ -0,0 +1,274 @@
+package backend;
+
+import com.nutrisci.database.index.FoodGroupIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Ranks swap candidates against several nutrition goals at once.
+ *
+ * A candidate's goal score is the weighted reduction of how far it misses each goal compared to
+ * the original, where a miss is the shortfall below the minimum or the excess over the maximum
+ * relative to that bound. Only candidates that improve on the original score at all are ranked.
+ * The similarity penalty is the average relative change of the original's other nutrients,
+ * capped at 100% per nutrient, so a swap that fixes the goals but is a different kind of food
+ * ranks lower. The best k candidates are kept in a bounded heap; the penalty only lowers a
+ * score, so candidates whose goal score cannot beat the current k-th best are skipped without
+ * computing it, and the penalty loop stops as soon as the candidate falls behind.
+ */
+public class SwapRanker {
+    public static final double DEFAULT_SIMILARITY_WEIGHT = 0.5;
+
+    // Relative change at which a nutrient counts as completely different
+    private static final double MAX_RELATIVE_CHANGE = 1.0;
+
+    // Worst candidate at the head; ties go to the earlier position
+    private static final Comparator<Entry> WORST_FIRST =
+            Comparator.comparingDouble((Entry e) -> e.score).thenComparing((Entry e) -> -e.position);
+
+    private final NutritionGoal[] goals;
+    private final double[] weights;
+    private final double similarityWeight;
+
+    public SwapRanker(List<NutritionGoal> goals) {
+        this(goals, null, DEFAULT_SIMILARITY_WEIGHT);
+    }
+
+    // weights holds one weight per goal, or null for equal weights
+    public SwapRanker(List<NutritionGoal> goals, double[] weights, double similarityWeight) {
+        if (goals == null || goals.isEmpty()) {
+            throw new IllegalArgumentException("At least one goal is required");
+        }
+        if (weights != null && weights.length != goals.size()) {
+            throw new IllegalArgumentException("Expected " + goals.size() + " weights, got " + weights.length);
+        }
+        if (similarityWeight < 0) {
+            throw new IllegalArgumentException("Similarity weight cannot be negative");
+        }
+        this.goals = goals.toArray(new NutritionGoal[0]);
+        // Candidates are read by ordinal, so a nutrient outside the dictionary would read as 0 everywhere
+        for (NutritionGoal goal : this.goals) {
+            goal.requireNutrientOrdinal();
+        }
+        this.weights = new double[this.goals.length];
+        for (int g = 0; g < this.goals.length; g++) {
+            double weight = weights != null ? weights[g] : 1.0;
+            if (weight < 0) {
+                throw new IllegalArgumentException("Goal weights cannot be negative");
+            }
+            this.weights[g] = weight;
+        }
+        this.similarityWeight = similarityWeight;
+    }
+
+    public List<RankedSwap> rank(FoodItem original, List<FoodItem> candidates, int k) {
+        return select(new Baseline(original), candidates.size(), k,
+                i -> !candidates.get(i).equals(original),
+                i -> candidates.get(i)::getNutrient,
+                candidates::get);
+    }
+
+    public List<RankedSwap> rank(FoodItem original, FoodGroupIndex.GroupSlice slice, int k) {
+        return rank(original, slice, k, i -> true);
+    }
+
+    // Ranks only the slice rows accepted by eligible
+    public List<RankedSwap> rank(FoodItem original, FoodGroupIndex.GroupSlice slice, int k, IntPredicate eligible) {
+        String originalId = original.getId();
+        return select(new Baseline(original), slice.size(), k,
+                i -> eligible.test(i) && (originalId == null || !originalId.trim().equals(String.valueOf(slice.getFoodId(i)))),
+                i -> ordinal -> FoodItem.valueOrZero(slice.getNutrient(i, ordinal)),
+                i -> FoodItem.fromIndex(slice, i, original.getGroup()));
+    }
+
+    // Similarity penalty of every slice row against the original, for offline precomputation
+    double[] similarityPenalties(FoodItem original, FoodGroupIndex.GroupSlice slice) {
+        Baseline base = new Baseline(original);
+        double[] penalties = new double[slice.size()];
+        for (int i = 0; i < penalties.length; i++) {
+            int row = i;
+            penalties[i] = similarityPenalty(base, ordinal -> FoodItem.valueOrZero(slice.getNutrient(row, ordinal)),
+                    Double.POSITIVE_INFINITY);
+        }
+        return penalties;
+    }
+
+    private List<RankedSwap> select(Baseline base, int count, int k, IntPredicate eligible,
+                                    IntFunction<IntToDoubleFunction> values, IntFunction<FoodItem> foods) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        PriorityQueue<Entry> best = new PriorityQueue<>(Math.min(k, count) + 1, WORST_FIRST);
+
+        for (int i = 0; i < count; i++) {
+            if (!eligible.test(i)) {
+                continue;
+            }
+            IntToDoubleFunction candidate = values.apply(i);
+            double goalScore = goalScore(base, candidate);
+            if (goalScore <= 0) {
+                continue;
+            }
+            double threshold = best.size() < k ? Double.NEGATIVE_INFINITY : best.peek().score;
+            if (goalScore <= threshold) {
+                continue;
+            }
+            double budget = goalScore - threshold;
+            double penalty = similarityPenalty(base, candidate, budget);
+            if (penalty >= budget) {
+                continue;
+            }
+            best.add(new Entry(i, goalScore, penalty));
+            if (best.size() > k) {
+                best.poll();
+            }
+        }
+
+        List<RankedSwap> ranked = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            Entry e = best.poll();
+            ranked.add(new RankedSwap(foods.apply(e.position), e.goalScore, e.penalty,
+                    explain(base, values.apply(e.position))));
+        }
+        Collections.reverse(ranked);
+        return ranked;
+    }
+
+    private double goalScore(Baseline base, IntToDoubleFunction candidate) {
+        double score = 0;
+        for (int g = 0; g < goals.length; g++) {
+            double miss = miss(goals[g], candidate.applyAsDouble(goals[g].getNutrientOrdinal()));
+            score += weights[g] * (base.misses[g] - miss);
+        }
+        return score;
+    }
+
+    // Returns as soon as the penalty reaches budget; the caller discards the candidate then
+    private double similarityPenalty(Baseline base, IntToDoubleFunction candidate, double budget) {
+        int n = base.otherOrdinals.length;
+        if (n == 0 || similarityWeight == 0) {
+            return 0;
+        }
+        double scale = similarityWeight / n;
+        double penalty = 0;
+        for (int j = 0; j < n; j++) {
+            penalty += scale * relativeChange(base.otherValues[j], candidate.applyAsDouble(base.otherOrdinals[j]));
+            if (penalty >= budget) {
+                return penalty;
+            }
+        }
+        return penalty;
+    }
+
+    private List<String> explain(Baseline base, IntToDoubleFunction candidate) {
+        List<String> lines = new ArrayList<>(goals.length + 1);
+        for (int g = 0; g < goals.length; g++) {
+            double after = candidate.applyAsDouble(goals[g].getNutrientOrdinal());
+            lines.add(describe(goals[g], base.goalValues[g], after));
+        }
+        int n = base.otherOrdinals.length;
+        if (n > 0) {
+            double change = 0;
+            for (int j = 0; j < n; j++) {
+                change += relativeChange(base.otherValues[j], candidate.applyAsDouble(base.otherOrdinals[j]));
+            }
+            lines.add(String.format("Other nutrients change by %.0f%% on average", 100 * change / n));
+        }
+        return lines;
+    }
+
+    // One explanation line for a goal nutrient going from before to after
+    static String describe(NutritionGoal goal, double before, double after) {
+        double missBefore = miss(goal, before);
+        double missAfter = miss(goal, after);
+        String status;
+        if (missAfter == 0) {
+            status = missBefore > 0 ? "now meets goal" : "meets goal";
+        } else if (missAfter < missBefore) {
+            status = "closer to goal";
+        } else if (missAfter > missBefore) {
+            status = "further from goal";
+        } else {
+            status = "no change";
+        }
+        return String.format("%s: %.2f -> %.2f (%s)", goal.getNutrientName(), before, after, status);
+    }
+
+    // How far a value misses the goal, relative to the bound it misses
+    static double miss(NutritionGoal goal, double value) {
+        if (value < goal.getMinAmount()) {
+            return (goal.getMinAmount() - value) / scaleOf(goal.getMinAmount());
+        }
+        if (value > goal.getMaxAmount()) {
+            return (value - goal.getMaxAmount()) / scaleOf(goal.getMaxAmount());
+        }
+        return 0;
+    }
+
+    private static double scaleOf(double bound) {
+        return bound > 0 ? bound : 1.0;
+    }
+
+    private static double relativeChange(double original, double candidate) {
+        return Math.min(MAX_RELATIVE_CHANGE, Math.abs(candidate - original) / original);
+    }
+
+    // The original's values, computed once per ranking
+    private final class Baseline {
+        final double[] goalValues = new double[goals.length];
+        final double[] misses = new double[goals.length];
+        final int[] otherOrdinals;
+        final double[] otherValues;
+
+        Baseline(FoodItem original) {
+            for (int g = 0; g < goals.length; g++) {
+                goalValues[g] = original.getNutrient(goals[g].getNutrientOrdinal());
+                misses[g] = miss(goals[g], goalValues[g]);
+            }
+            int[] present = original.getNutrientOrdinals();
+            int[] ordinals = new int[present.length];
+            int n = 0;
+            for (int ordinal : present) {
+                if (original.getNutrient(ordinal) > 0 && !isGoalNutrient(ordinal)) {
+                    ordinals[n++] = ordinal;
+                }
+            }
+            otherOrdinals = Arrays.copyOf(ordinals, n);
+            otherValues = new double[n];
+            for (int j = 0; j < n; j++) {
+                otherValues[j] = original.getNutrient(otherOrdinals[j]);
+            }
+        }
+
+        private boolean isGoalNutrient(int ordinal) {
+            for (NutritionGoal goal : goals) {
+                if (goal.getNutrientOrdinal() == ordinal) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Entry {
+        final int position;
+        final double goalScore;
+        final double penalty;
+        final double score;
+
+        Entry(int position, double goalScore, double penalty) {
+            this.position = position;
+            this.goalScore = goalScore;
+            this.penalty = penalty;
+            this.score = goalScore - penalty;
+        }
+    }
+}
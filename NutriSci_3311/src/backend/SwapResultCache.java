@@ -0,0 +1,131 @@
+package backend;
+
+import com.nutrisci.database.util.NutrientDictionary;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * LRU cache of meal swap plans keyed by what a plan depends on: the meal's content, the goal
+ * set and the reference data version.
+ *
+ * The key hashes on the meal's 64-bit fingerprint but holds a copy of the meal's content and
+ * compares it on a hit, so two meals whose fingerprints collide never share a plan, and
+ * editing the meal after the call cannot change a cached key. An edited meal no longer matches,
+ * new goals give a new goal key and reloaded CNF data gives a new version, so a changed input
+ * never matches a stale plan; the stale entry just ages out. Entries of older versions are dropped at once when a newer version is seen. Plans
+ * are computed outside the lock, so two threads missing on the same key may both compute it.
+ * Cached plans are shared and must be treated as read-only.
+ */
+public class SwapResultCache {
+    public static final int DEFAULT_MAX_ENTRIES = 128;
+
+    // Guarded by this; access order for LRU eviction
+    private final LinkedHashMap<Key, MealSwapPlan> plans;
+    // Guarded by this
+    private long latestVersion;
+    private long hits;
+    private long misses;
+
+    public SwapResultCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public SwapResultCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        this.plans = new LinkedHashMap<Key, MealSwapPlan>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, MealSwapPlan> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    // Returns the cached plan, or computes it; plans the optimizer did not finish are not cached
+    public MealSwapPlan get(Meal meal, List<NutritionGoal> goals, long version, Supplier<MealSwapPlan> compute) {
+        Key key = new Key(meal.getFingerprint(), meal.getContent(), goalKey(goals), version);
+        synchronized (this) {
+            if (version > latestVersion) {
+                plans.clear();
+                latestVersion = version;
+            }
+            MealSwapPlan cached = plans.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+        MealSwapPlan plan = compute.get();
+        if (plan.isComplete()) {
+            synchronized (this) {
+                if (version == latestVersion) {
+                    plans.put(key, plan);
+                }
+            }
+        }
+        return plan;
+    }
+
+    public synchronized void clear() {
+        plans.clear();
+    }
+
+    public synchronized int size() {
+        return plans.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    // Goal order does not change a plan, so the key lists the goals sorted
+    private static String goalKey(List<NutritionGoal> goals) {
+        List<String> parts = new ArrayList<>(goals.size());
+        for (NutritionGoal goal : goals) {
+            // Nutrients outside the dictionary share one ordinal, so they are keyed by name
+            String nutrient = goal.getNutrientOrdinal() != NutrientDictionary.NOT_FOUND
+                    ? String.valueOf(goal.getNutrientOrdinal()) : "'" + goal.getNutrientName();
+            parts.add(nutrient + ":" + goal.getMinAmount() + ":" + goal.getMaxAmount());
+        }
+        parts.sort(null);
+        return String.join(";", parts);
+    }
+
+    private static final class Key {
+        final long fingerprint;
+        final List<Object> content;
+        final String goals;
+        final long version;
+
+        Key(long fingerprint, List<Object> content, String goals, long version) {
+            this.fingerprint = fingerprint;
+            this.content = content;
+            this.goals = goals;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return fingerprint == other.fingerprint && version == other.version && goals.equals(other.goals)
+                    && content.equals(other.content);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * Long.hashCode(fingerprint) + goals.hashCode()) + Long.hashCode(version);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package backend;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only view of a precomputed swap table file, opened with {@link FileChannel#map}.
+ *
+ * For every CNF food and every {@link SwapDirection}, the file holds the FoodIDs of the best
+ * swaps within the food's group, as written by {@link SwapTableBuilder}, together with the
+ * number of Pareto layers they cover completely; the best k swaps are among the stored ones
+ * only if at least k layers are complete. A lookup
+ * is a binary search over the sorted FoodIDs and a read of one fixed-size block, served
+ * straight from the page cache without decoding the file onto the heap.
+ *
+ * Layout, little-endian: a {@link #HEADER_SIZE}-byte header, the food IDs as one sorted
+ * {@code int} per food, the complete layer counts as one {@code int} per food and direction
+ * in {@code [food][direction]} order, then the candidates as {@code int} FoodIDs in
+ * {@code [food][direction][rank]} order, padded with {@link #EMPTY}.
+ */
+public final class SwapTable {
+    static final int MAGIC = 0x54505753; // "SWPT"
+    static final int FORMAT_VERSION = 2;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    static final int HEADER_SIZE = 64;
+
+    // Header field offsets
+    static final int OFFSET_MAGIC = 0;
+    static final int OFFSET_FORMAT_VERSION = 4;
+    static final int OFFSET_DATA_VERSION = 8;
+    static final int OFFSET_FOOD_COUNT = 16;
+    static final int OFFSET_DIRECTION_COUNT = 20;
+    static final int OFFSET_CANDIDATES_PER_FOOD = 24;
+    static final int OFFSET_FOOD_IDS = 32;
+    static final int OFFSET_CANDIDATES = 40;
+    static final int OFFSET_FILE_LENGTH = 48;
+    static final int OFFSET_LAYERS = 56;
+
+    // Unused candidate slot
+    static final int EMPTY = -1;
+
+    private final Path file;
+    private final long dataVersion;
+    private final int foodCount;
+    private final int candidatesPerFood;
+    private final IntBuffer foodIds;
+    private final IntBuffer layers;
+    private final IntBuffer candidates;
+
+    private SwapTable(Path file, MappedByteBuffer mapped) throws IOException {
+        this.file = file;
+        ByteBuffer header = mapped.duplicate().order(BYTE_ORDER);
+        if (mapped.capacity() < HEADER_SIZE || header.getInt(OFFSET_MAGIC) != MAGIC) {
+            throw new IOException("Not a swap table file: " + file);
+        }
+        int formatVersion = header.getInt(OFFSET_FORMAT_VERSION);
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported swap table format version " + formatVersion + ": " + file);
+        }
+        if (header.getLong(OFFSET_FILE_LENGTH) != mapped.capacity()) {
+            throw new IOException("Truncated swap table file: " + file);
+        }
+        if (header.getInt(OFFSET_DIRECTION_COUNT) != SwapDirection.values().length) {
+            throw new IOException("Swap table directions do not match this version: " + file);
+        }
+        this.dataVersion = header.getLong(OFFSET_DATA_VERSION);
+        this.foodCount = header.getInt(OFFSET_FOOD_COUNT);
+        this.candidatesPerFood = header.getInt(OFFSET_CANDIDATES_PER_FOOD);
+        this.foodIds = section(mapped, header, OFFSET_FOOD_IDS, foodCount).asIntBuffer();
+        this.layers = section(mapped, header, OFFSET_LAYERS, foodCount * SwapDirection.values().length).asIntBuffer();
+        this.candidates = section(mapped, header, OFFSET_CANDIDATES, foodCount * blockSize()).asIntBuffer();
+    }
+
+    // The file channel is closed at once; the mapping stays valid while the table is referenced
+    public static SwapTable open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Swap table file too large to map: " + file);
+            }
+            return new SwapTable(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    private static ByteBuffer section(MappedByteBuffer mapped, ByteBuffer header, int offsetField, int ints) {
+        return mapped.slice((int) header.getLong(offsetField), ints * Integer.BYTES).order(BYTE_ORDER);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // CNFSnapshot data version of the CNF data the table was built from
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    public int getFoodCount() {
+        return foodCount;
+    }
+
+    public int getCandidatesPerFood() {
+        return candidatesPerFood;
+    }
+
+    public boolean contains(int foodId) {
+        return indexOfFood(foodId) >= 0;
+    }
+
+    // FoodIDs that include the best k swaps for the food in the direction, in no particular
+    // order; null if the food is not in the table or the stored layers may miss one of them
+    public int[] lookup(int foodId, SwapDirection direction, int k) {
+        int food = indexOfFood(foodId);
+        if (food < 0 || layers.get(food * SwapDirection.values().length + direction.ordinal()) < k) {
+            return null;
+        }
+        int base = food * blockSize() + direction.ordinal() * candidatesPerFood;
+        int count = 0;
+        while (count < candidatesPerFood && candidates.get(base + count) != EMPTY) {
+            count++;
+        }
+        int[] result = new int[count];
+        candidates.get(base, result);
+        return result;
+    }
+
+    private int indexOfFood(int foodId) {
+        int low = 0;
+        int high = foodCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = foodIds.get(mid);
+            if (id < foodId) {
+                low = mid + 1;
+            } else if (id > foodId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int blockSize() {
+        return SwapDirection.values().length * candidatesPerFood;
+    }
+
+    @Override
+    public String toString() {
+        return "SwapTable{file=" + file + ", dataVersion=" + dataVersion + ", foods=" + foodCount +
+                ", candidatesPerFood=" + candidatesPerFood + '}';
+    }
+}
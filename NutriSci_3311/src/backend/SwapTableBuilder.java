@@ -0,0 +1,232 @@
+package backend;
+
+import com.nutrisci.database.dao.impl.CNFDataDAOImpl;
+import com.nutrisci.database.exceptions.DatabaseAccessException;
+import com.nutrisci.database.index.FoodGroupIndex;
+import com.nutrisci.database.snapshot.CNFSnapshot;
+import com.nutrisci.database.util.NutrientDictionary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Offline batch job that precomputes the swap candidates of every food for every
+ * {@link SwapDirection} and writes them as a {@link SwapTable} file.
+ *
+ * For a single goal in a direction, {@link SwapRanker} scores a candidate by a gain that never
+ * decreases as the nutrient moves further in that direction, minus a similarity penalty that
+ * does not depend on the goal. A candidate beaten on both counts by another can therefore never
+ * rank above it, whatever the goal's bound: the best swap lies on the Pareto frontier of
+ * (nutrient amount, similarity penalty) among the group's foods that improve on the original,
+ * and the best k lie within its first k frontier layers. The table stores those layers, most
+ * similar first within a layer, until the per-food capacity is full, and records how many
+ * layers it stored completely. Lookups re-rank the stored foods against the actual goal when
+ * the best k lie within those layers, which gives the live search's answer; otherwise, such as
+ * when one wide layer of near-duplicates fills the capacity, they fall back to live search.
+ *
+ * Foods are ranked in parallel on a dedicated pool; each one writes only its own block of the
+ * result, so no locking is needed. The file is written to a temporary sibling and moved into
+ * place, so readers never see a partial table.
+ */
+public class SwapTableBuilder {
+    public static final int DEFAULT_CANDIDATES_PER_FOOD = 10;
+
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final FoodGroupIndex index;
+    private final int candidatesPerFood;
+    private final int parallelism;
+
+    public SwapTableBuilder(FoodGroupIndex index) {
+        this(index, DEFAULT_CANDIDATES_PER_FOOD, Runtime.getRuntime().availableProcessors());
+    }
+
+    public SwapTableBuilder(FoodGroupIndex index, int candidatesPerFood, int parallelism) {
+        if (index == null) {
+            throw new IllegalArgumentException("Food group index cannot be null");
+        }
+        if (candidatesPerFood <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("candidatesPerFood and parallelism must be positive");
+        }
+        this.index = index;
+        this.candidatesPerFood = candidatesPerFood;
+        this.parallelism = parallelism;
+    }
+
+    // Ranks every food and writes the table; dataVersion is the CNFSnapshot data version of the CNF data it was built from
+    public void writeTo(Path target, long dataVersion) throws IOException {
+        SwapDirection[] directions = SwapDirection.values();
+        int foodCount = index.getFoodCount();
+        int blockSize = directions.length * candidatesPerFood;
+        int[] candidates = new int[foodCount * blockSize];
+        Arrays.fill(candidates, SwapTable.EMPTY);
+        int[] layers = new int[foodCount * directions.length];
+
+        SwapRanker[] rankers = createRankers(directions);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> IntStream.range(0, foodCount).parallel()
+                    .forEach(position -> rankFood(position, rankers, candidates, layers, blockSize))).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        // The table is searched by FoodID, so blocks are written in FoodID order
+        Integer[] byFoodId = new Integer[foodCount];
+        for (int i = 0; i < foodCount; i++) {
+            byFoodId[i] = i;
+        }
+        Arrays.sort(byFoodId, Comparator.comparingInt(index::getFoodId));
+
+        long foodIdsOffset = SwapTable.HEADER_SIZE;
+        long layersOffset = foodIdsOffset + (long) foodCount * Integer.BYTES;
+        long candidatesOffset = layersOffset + (long) layers.length * Integer.BYTES;
+        long fileLength = candidatesOffset + (long) candidates.length * Integer.BYTES;
+        if (fileLength > Integer.MAX_VALUE) {
+            throw new IOException("Swap table too large: " + fileLength + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) fileLength).order(SwapTable.BYTE_ORDER);
+        buffer.putInt(SwapTable.OFFSET_MAGIC, SwapTable.MAGIC);
+        buffer.putInt(SwapTable.OFFSET_FORMAT_VERSION, SwapTable.FORMAT_VERSION);
+        buffer.putLong(SwapTable.OFFSET_DATA_VERSION, dataVersion);
+        buffer.putInt(SwapTable.OFFSET_FOOD_COUNT, foodCount);
+        buffer.putInt(SwapTable.OFFSET_DIRECTION_COUNT, directions.length);
+        buffer.putInt(SwapTable.OFFSET_CANDIDATES_PER_FOOD, candidatesPerFood);
+        buffer.putLong(SwapTable.OFFSET_FOOD_IDS, foodIdsOffset);
+        buffer.putLong(SwapTable.OFFSET_CANDIDATES, candidatesOffset);
+        buffer.putLong(SwapTable.OFFSET_FILE_LENGTH, fileLength);
+        buffer.putLong(SwapTable.OFFSET_LAYERS, layersOffset);
+        buffer.position((int) foodIdsOffset);
+        for (int position : byFoodId) {
+            buffer.putInt(index.getFoodId(position));
+        }
+        for (int position : byFoodId) {
+            for (int direction = 0; direction < directions.length; direction++) {
+                buffer.putInt(layers[position * directions.length + direction]);
+            }
+        }
+        for (int position : byFoodId) {
+            for (int slot = 0; slot < blockSize; slot++) {
+                buffer.putInt(candidates[position * blockSize + slot]);
+            }
+        }
+        buffer.flip();
+        writeAtomically(target, buffer);
+    }
+
+    // One ranker per direction, used for its similarity penalty only; the goal excludes the
+    // direction's nutrient from the similarity comparison, as a live single-goal ranking does
+    private SwapRanker[] createRankers(SwapDirection[] directions) {
+        NutrientDictionary dictionary = NutrientDictionary.getDefault();
+        SwapRanker[] rankers = new SwapRanker[directions.length];
+        for (SwapDirection direction : directions) {
+            String nutrient = dictionary.get(direction.getNutrientOrdinal()).getKey();
+            rankers[direction.ordinal()] = new SwapRanker(List.of(new NutritionGoal(nutrient, 0.0, Double.MAX_VALUE)));
+        }
+        return rankers;
+    }
+
+    private void rankFood(int position, SwapRanker[] rankers, int[] candidates, int[] layers, int blockSize) {
+        FoodGroupIndex.GroupSlice slice = index.getGroup(index.groupOfFood(position));
+        int self = position - slice.toIndexPosition(0);
+        FoodItem original = FoodItem.fromIndex(slice, self, slice.getGroupName());
+        for (SwapDirection direction : SwapDirection.values()) {
+            int ordinal = direction.getNutrientOrdinal();
+            double sign = direction.isIncrease() ? 1.0 : -1.0;
+            double originalAmount = sign * original.getNutrient(ordinal);
+            double[] penalties = rankers[direction.ordinal()].similarityPenalties(original, slice);
+
+            // Rows that improve on the original, most similar first; amounts signed so higher is better
+            List<Integer> improving = new ArrayList<>();
+            for (int i = 0; i < slice.size(); i++) {
+                if (i != self && sign * FoodItem.valueOrZero(slice.getNutrient(i, ordinal)) > originalAmount) {
+                    improving.add(i);
+                }
+            }
+            improving.sort(Comparator.comparingDouble((Integer i) -> penalties[i])
+                    .thenComparingDouble(i -> -sign * FoodItem.valueOrZero(slice.getNutrient(i, ordinal))));
+
+            int base = position * blockSize + direction.ordinal() * candidatesPerFood;
+            int filled = 0;
+            int completeLayers = 0;
+            boolean cut = false;
+            while (!cut && !improving.isEmpty()) {
+                // Peel one frontier layer: in similarity order, each row beating every more similar row's amount
+                double bestAmount = Double.NEGATIVE_INFINITY;
+                List<Integer> remaining = new ArrayList<>();
+                for (int i : improving) {
+                    double amount = sign * FoodItem.valueOrZero(slice.getNutrient(i, ordinal));
+                    if (amount > bestAmount) {
+                        if (filled == candidatesPerFood) {
+                            cut = true;
+                            break;
+                        }
+                        bestAmount = amount;
+                        candidates[base + filled++] = slice.getFoodId(i);
+                    } else {
+                        remaining.add(i);
+                    }
+                }
+                if (!cut) {
+                    completeLayers++;
+                    improving = remaining;
+                }
+            }
+            // With every improving row stored, any k up to the capacity can be answered
+            layers[position * SwapDirection.values().length + direction.ordinal()] =
+                    cut ? completeLayers : candidatesPerFood;
+        }
+    }
+
+    private static void writeAtomically(Path target, ByteBuffer buffer) throws IOException {
+        Path absoluteTarget = target.toAbsolutePath();
+        Path temp = absoluteTarget.resolveSibling(absoluteTarget.getFileName() + TEMP_FILE_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, absoluteTarget, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Builds the swap table from the configured database, stamped with the data version of
+     * the CNF snapshot exported from that database, so the engine only accepts the table
+     * while that snapshot is the published reference data.
+     *
+     * @param args the output file, the CNF snapshot file, and optionally the number of
+     *             candidates per food
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: SwapTableBuilder <output file> <CNF snapshot file> [candidates per food]");
+            return;
+        }
+        try {
+            int perFood = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_CANDIDATES_PER_FOOD;
+            long dataVersion = CNFSnapshot.open(Paths.get(args[1])).getDataVersion();
+            long start = System.nanoTime();
+            FoodGroupIndex index = new CNFDataDAOImpl().loadFoodGroupIndex();
+            new SwapTableBuilder(index, perFood, Runtime.getRuntime().availableProcessors())
+                    .writeTo(Paths.get(args[0]), dataVersion);
+            System.out.printf("Wrote swap table for %d foods at data version %d in %d ms%n", index.getFoodCount(),
+                    dataVersion, (System.nanoTime() - start) / 1_000_000);
+        } catch (DatabaseAccessException | IOException | NumberFormatException e) {
+            System.err.println("Swap table build failed: " + e.getMessage());
+        }
+    }
+}
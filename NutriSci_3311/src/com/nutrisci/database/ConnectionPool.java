@@ -0,0 +1,340 @@
+package com.nutrisci.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded pool of reusable JDBC connections.
+ *
+ * <p>{@link #getConnection()} hands out a connection that behaves like a normal one, except that
+ * {@link Connection#close()} returns the underlying physical connection to the pool instead of
+ * closing it, so callers keep their usual try-with-resources code. On return the connection is
+ * reset: an open transaction is rolled back, auto-commit is restored and statements the caller
+ * left open are closed. At most {@code maxSize} connections are checked out at once; further
+ * callers wait up to the configured timeout.</p>
+ *
+ * <p>Idle connections are reused most-recently-returned first, which keeps a small warm set busy
+ * and lets the rest age. A connection idle longer than the validation interval is checked with
+ * {@link Connection#isValid(int)} before reuse, and connections beyond {@code minSize} that stay
+ * idle past the idle timeout are closed. A connection that reported a connection-level failure
+ * (SQLState class 08) is discarded instead of being returned.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ConnectionPool implements ConnectionProvider, AutoCloseable {
+
+    private static final long VALIDATION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final long IDLE_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+    private static final String CONNECTION_FAILURE_SQL_STATE_CLASS = "08";
+
+    // Closed statements are dropped from a connection's tracking list once it grows this long
+    private static final int STATEMENT_PRUNE_THRESHOLD = 32;
+
+    private final ConnectionProvider factory;
+    private final int minSize;
+    private final int maxSize;
+    private final long timeoutMillis;
+    private final Semaphore permits;
+
+    // Head is the most recently returned connection
+    private final ConcurrentLinkedDeque<IdleConnection> idle = new ConcurrentLinkedDeque<>();
+
+    private volatile boolean closed;
+
+    /**
+     * Constructs a pool. No connection is opened until the first request.
+     *
+     * @param factory opens new physical connections
+     * @param minSize number of idle connections kept open however long they stay unused
+     * @param maxSize maximum number of connections checked out at once
+     * @param timeoutMillis how long a request waits for a free connection
+     * @throws IllegalArgumentException if the sizes or timeout are invalid
+     */
+    public ConnectionPool(ConnectionProvider factory, int minSize, int maxSize, long timeoutMillis) {
+        if (factory == null) {
+            throw new IllegalArgumentException("Connection factory cannot be null");
+        }
+        if (maxSize <= 0 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Pool sizes must satisfy 0 <= minSize <= maxSize and maxSize > 0");
+        }
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("Timeout cannot be negative");
+        }
+        this.factory = factory;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.timeoutMillis = timeoutMillis;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Checks out a connection, reusing an idle one when possible. Closing the returned
+     * connection gives it back to the pool.
+     *
+     * @return a pooled connection
+     * @throws SQLTimeoutException if no connection became free within the timeout
+     * @throws SQLException if the pool is closed or a new connection cannot be opened
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("Timed out after " + timeoutMillis +
+                    " ms waiting for one of " + maxSize + " pooled connections");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a pooled connection", e);
+        }
+        try {
+            Connection physical = takeIdle();
+            if (physical == null) {
+                physical = factory.getConnection();
+            }
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new PooledConnection(physical));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the maximum number of connections checked out at once.
+     *
+     * @return the pool size
+     */
+    public int getMaxSize() { return maxSize; }
+
+    /**
+     * Gets the number of connections currently checked out.
+     *
+     * @return connections in use
+     */
+    public int getActiveCount() { return maxSize - permits.availablePermits(); }
+
+    /**
+     * Gets the number of open connections waiting to be reused.
+     *
+     * @return idle connections
+     */
+    public int getIdleCount() { return idle.size(); }
+
+    /**
+     * Closes the idle connections and rejects further requests. Connections still checked out
+     * are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        IdleConnection entry;
+        while ((entry = idle.pollFirst()) != null) {
+            closeQuietly(entry.connection);
+        }
+    }
+
+    /**
+     * Takes the most recently returned usable idle connection, discarding broken ones.
+     */
+    private Connection takeIdle() {
+        IdleConnection entry;
+        while ((entry = idle.pollFirst()) != null) {
+            if (isUsable(entry)) {
+                return entry.connection;
+            }
+            closeQuietly(entry.connection);
+        }
+        return null;
+    }
+
+    private boolean isUsable(IdleConnection entry) {
+        try {
+            if (entry.connection.isClosed()) {
+                return false;
+            }
+            // Recently used connections are trusted, so the common case costs no round trip
+            return System.nanoTime() - entry.returnedAt < VALIDATION_INTERVAL_NANOS
+                || entry.connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Resets a connection after use and makes it available again, or closes it if it is broken.
+     */
+    private void release(Connection physical, boolean broken) {
+        try {
+            if (!broken && !closed && reset(physical)) {
+                idle.offerFirst(new IdleConnection(physical, System.nanoTime()));
+                physical = null;
+            }
+        } finally {
+            if (physical != null) {
+                closeQuietly(physical);
+            }
+            permits.release();
+        }
+        if (closed) {
+            // Lost a race with close(); do not leave the connection idle
+            close();
+        }
+        evictIdle();
+    }
+
+    private boolean reset(Connection physical) {
+        try {
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            physical.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Closes the oldest idle connections beyond the minimum once they have been idle too long.
+     */
+    private void evictIdle() {
+        if (idle.size() <= minSize) {
+            return;
+        }
+        long now = System.nanoTime();
+        Iterator<IdleConnection> oldestFirst = idle.descendingIterator();
+        while (oldestFirst.hasNext() && idle.size() > minSize) {
+            IdleConnection entry = oldestFirst.next();
+            if (now - entry.returnedAt < IDLE_TIMEOUT_NANOS) {
+                break;
+            }
+            if (idle.removeLastOccurrence(entry)) {
+                closeQuietly(entry.connection);
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // The connection is being discarded either way
+        }
+    }
+
+    private static boolean isStatementClosed(Statement statement) {
+        try {
+            return statement.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static boolean isConnectionFailure(SQLException e) {
+        String sqlState = e.getSQLState();
+        return sqlState != null && sqlState.startsWith(CONNECTION_FAILURE_SQL_STATE_CLASS);
+    }
+
+    /**
+     * An idle physical connection and when it was returned.
+     */
+    private static final class IdleConnection {
+        final Connection connection;
+        final long returnedAt;
+
+        IdleConnection(Connection connection, long returnedAt) {
+            this.connection = connection;
+            this.returnedAt = returnedAt;
+        }
+    }
+
+    /**
+     * Handler behind a checked-out connection: delegates to the physical connection, tracks the
+     * statements created through it and returns it to the pool on close.
+     */
+    private final class PooledConnection implements InvocationHandler {
+        private final Connection physical;
+        private final List<Statement> statements = new ArrayList<>();
+        private boolean logicallyClosed;
+        private boolean broken;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    close();
+                    return null;
+                case "isClosed":
+                    return logicallyClosed || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + physical;
+                default:
+                    break;
+            }
+            if (logicallyClosed) {
+                throw new SQLException("Connection has been returned to the pool");
+            }
+            Object result;
+            try {
+                result = method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException && isConnectionFailure((SQLException) cause)) {
+                    broken = true;
+                }
+                throw cause;
+            }
+            if (result instanceof Statement) {
+                if (statements.size() >= STATEMENT_PRUNE_THRESHOLD) {
+                    statements.removeIf(ConnectionPool::isStatementClosed);
+                }
+                statements.add((Statement) result);
+            }
+            return result;
+        }
+
+        private void close() {
+            if (logicallyClosed) {
+                return;
+            }
+            logicallyClosed = true;
+            for (Statement statement : statements) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    broken |= isConnectionFailure(e);
+                }
+            }
+            statements.clear();
+            release(physical, broken);
+        }
+    }
+}
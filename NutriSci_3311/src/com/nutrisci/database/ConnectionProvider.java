@@ -0,0 +1,21 @@
+package com.nutrisci.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Source of JDBC connections for components that can run against a database other than the
+ * configured SQL Server instance, such as an embedded stand-in used for imports and schema checks.
+ * {@code DatabaseConnectionManager::getConnection} is the default provider.
+ */
+@FunctionalInterface
+public interface ConnectionProvider {
+    
+    /**
+     * Returns an open JDBC connection. The caller is responsible for closing it.
+     * 
+     * @return Active database connection
+     * @throws SQLException if connection cannot be established
+     */
+    Connection getConnection() throws SQLException;
+}
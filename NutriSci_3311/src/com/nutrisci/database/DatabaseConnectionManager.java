@@ -9,11 +9,20 @@ import java.sql.SQLException;
  * Centralized management of database connection properties and obtaining Connection instances.
  * Handles connections to SQL Server database for the NutriSci application.
  * Now uses secure configuration management instead of hardcoded credentials.
+ * Connections come from a shared {@link ConnectionPool} sized by the {@code db.pool.*} settings,
+ * so closing a connection returns it for reuse instead of tearing down the session.
  */
 public class DatabaseConnectionManager {
     
     private static final DatabaseConfig config = DatabaseConfig.getInstance();
     
+    private static final ConnectionPool pool = new ConnectionPool(
+        DatabaseConnectionManager::openConnection,
+        config.getPoolMinSize(),
+        config.getPoolMaxSize(),
+        config.getConnectionTimeout()
+    );
+    
     // Private constructor to hint at singleton-like usage
     private DatabaseConnectionManager() {
         // Private constructor
@@ -21,13 +30,30 @@ public class DatabaseConnectionManager {
     
     /**
      * Returns an active JDBC connection to the SQL Server database.
-     * Each call opens a new connection for D2 simplicity.
+     * The connection is taken from the shared pool; closing it returns it to the pool.
      * Configuration is loaded from secure properties file.
      * 
      * @return Active database connection
-     * @throws SQLException if connection cannot be established
+     * @throws SQLException if connection cannot be established or none became free in time
      */
     public static Connection getConnection() throws SQLException {
+        return pool.getConnection();
+    }
+    
+    /**
+     * Gets the shared connection pool, e.g. to size concurrent work against it or to close it
+     * on shutdown.
+     * 
+     * @return the connection pool
+     */
+    public static ConnectionPool getPool() {
+        return pool;
+    }
+    
+    /**
+     * Opens a new physical connection for the pool.
+     */
+    private static Connection openConnection() throws SQLException {
         try {
             // Ensure SQL Server JDBC driver is loaded
             Class.forName(config.getDatabaseDriver());
@@ -50,4 +76,4 @@ public class DatabaseConnectionManager {
 //    public static String getDatabaseUrl() {
 //        return config.getDatabaseUrl();
 //    }
-}
\ No newline at end of file
+}
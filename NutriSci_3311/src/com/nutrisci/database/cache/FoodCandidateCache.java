@@ -0,0 +1,153 @@
+package com.nutrisci.database.cache;
+
+import com.nutrisci.database.dao.ICNFDataDAO;
+import com.nutrisci.database.exceptions.DatabaseAccessException;
+import com.nutrisci.database.index.FoodGroupIndex;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cache of swap candidates, loaded one food group at a time.
+ *
+ * <p>The first lookup loads the food group directory, which is small. Each group's foods and
+ * nutrient amounts are loaded with a single query the first time the group is requested and
+ * then served from memory as a {@link FoodGroupIndex.GroupSlice}, so repeated swap requests for
+ * the same group do not scan the nutrient tables again. Concurrent requests for a group that is
+ * not cached yet share one load, which runs on the requesting thread outside any map lock, so
+ * a slow query for one group never blocks requests for other groups. A failed load is not
+ * cached and is retried by the next request.</p>
+ *
+ * <p>The CNF data is reference data that does not change while the application runs;
+ * {@link #clear()} drops everything after it has been reloaded. Each clear starts a new
+ * generation, and a group or directory load that was running across a clear is handed to its
+ * waiting callers but not kept, so data read before the reload is never cached after it.
+ * All methods are thread-safe.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class FoodCandidateCache {
+
+    private final ICNFDataDAO cnfDataDAO;
+    // Loads in progress or complete, by FoodGroupID; a completed task is the cached slice
+    private final ConcurrentMap<Integer, FutureTask<FoodGroupIndex.GroupSlice>> groups = new ConcurrentHashMap<>();
+    // Incremented by every clear, before anything is dropped
+    private final AtomicLong generation = new AtomicLong();
+
+    // Groups only, no foods; used to resolve group names and IDs
+    private volatile FoodGroupIndex directory;
+
+    /**
+     * Constructs a cache that loads candidates through the given DAO.
+     *
+     * @param cnfDataDAO the CNF data access object
+     * @throws IllegalArgumentException if cnfDataDAO is null
+     */
+    public FoodCandidateCache(ICNFDataDAO cnfDataDAO) {
+        if (cnfDataDAO == null) {
+            throw new IllegalArgumentException("CNF data DAO cannot be null");
+        }
+        this.cnfDataDAO = cnfDataDAO;
+    }
+
+    /**
+     * Gets the candidates of a food group, loading them on first use.
+     *
+     * @param group the CNF food group name, or its FoodGroupID as a string
+     * @return the group's foods, or null if no such group exists
+     * @throws DatabaseAccessException if the group has to be loaded and database access fails
+     */
+    public FoodGroupIndex.GroupSlice getGroup(String group) throws DatabaseAccessException {
+        if (group == null) {
+            return null;
+        }
+        int groupId = resolveGroupId(group);
+        if (groupId == FoodGroupIndex.NOT_FOUND) {
+            return null;
+        }
+        FutureTask<FoodGroupIndex.GroupSlice> task = groups.get(groupId);
+        if (task == null) {
+            long loadGeneration = generation.get();
+            FutureTask<FoodGroupIndex.GroupSlice> created = new FutureTask<>(() -> loadGroup(groupId));
+            task = groups.putIfAbsent(groupId, created);
+            if (task == null) {
+                task = created;
+                created.run();
+                // Failures and missing groups are retried; a load that spanned a clear may be stale
+                if (!isCachable(created) || generation.get() != loadGeneration) {
+                    groups.remove(groupId, created);
+                }
+            }
+        }
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseAccessException("Interrupted while waiting for food group " + groupId + " to load", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DatabaseAccessException) {
+                throw (DatabaseAccessException) e.getCause();
+            }
+            throw new DatabaseAccessException("Failed to load food group " + groupId, e.getCause());
+        }
+    }
+
+    /**
+     * Gets the number of food groups whose candidates are cached.
+     *
+     * @return the cached group count
+     */
+    public int getCachedGroupCount() {
+        return groups.size();
+    }
+
+    /**
+     * Drops all cached groups and the group directory. Loads still running keep serving their
+     * callers but are not cached.
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        directory = null;
+        groups.clear();
+    }
+
+    private int resolveGroupId(String group) throws DatabaseAccessException {
+        FoodGroupIndex dir = directory;
+        if (dir == null) {
+            long loadGeneration = generation.get();
+            dir = cnfDataDAO.loadFoodGroups();
+            directory = dir;
+            // clear() bumps the generation before dropping the directory, so either it drops
+            // this one or the change is seen here
+            if (generation.get() != loadGeneration) {
+                directory = null;
+            }
+        }
+        int g = dir.indexOfGroupName(group);
+        if (g == FoodGroupIndex.NOT_FOUND) {
+            try {
+                g = dir.indexOfGroup(Integer.parseInt(group.trim()));
+            } catch (NumberFormatException e) {
+                return FoodGroupIndex.NOT_FOUND;
+            }
+        }
+        return g != FoodGroupIndex.NOT_FOUND ? dir.getGroupId(g) : FoodGroupIndex.NOT_FOUND;
+    }
+
+    private FoodGroupIndex.GroupSlice loadGroup(int groupId) throws DatabaseAccessException {
+        return cnfDataDAO.loadFoodGroups(groupId).getGroupById(groupId);
+    }
+
+    private static boolean isCachable(FutureTask<FoodGroupIndex.GroupSlice> task) {
+        try {
+            return task.get() != null;
+        } catch (InterruptedException | ExecutionException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.nutrisci.database.cache;
+
+import com.nutrisci.database.dto.Meal;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * In-memory cache of logged meals per user, organized by day.
+ *
+ * <p>For each user the cache records which date ranges have been loaded from the database,
+ * coalescing overlapping and adjacent ranges, and keeps the meals of those ranges grouped by
+ * meal date. A read for a range that is fully covered is served from memory; for a partially
+ * covered range, {@link #missingRanges(int, LocalDate, LocalDate)} lists only the days that
+ * still have to be fetched.</p>
+ *
+ * <p>Writes invalidate at day granularity: logging a meal drops its date, and changing a
+ * meal's items drops the date of that meal. Each invalidation also gives the user a new
+ * generation, and {@link #put(int, LocalDate, LocalDate, List, long)} ignores data loaded
+ * under an older generation, so a load that raced with a write cannot re-cache stale rows.</p>
+ *
+ * <p>Users are evicted least recently used first once more than the configured number are
+ * cached. Meals are copied on the way in and on the way out, so callers may modify what they
+ * pass to or get from the cache without affecting other readers. All methods are thread-safe.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class MealHistoryCache {
+
+    /** Number of users kept by the no-argument constructor. */
+    public static final int DEFAULT_MAX_USERS = 256;
+
+    // Guarded by this; access order for LRU eviction
+    private final LinkedHashMap<Integer, UserHistory> users;
+    // Guarded by this; generations are unique across users, so a history evicted and
+    // recreated during a load never matches the generation that load started with
+    private long lastGeneration;
+
+    /**
+     * Constructs a cache holding up to {@link #DEFAULT_MAX_USERS} users.
+     */
+    public MealHistoryCache() {
+        this(DEFAULT_MAX_USERS);
+    }
+
+    /**
+     * Constructs a cache holding up to the given number of users.
+     *
+     * @param maxUsers the maximum number of users whose history is cached
+     * @throws IllegalArgumentException if maxUsers is not positive
+     */
+    public MealHistoryCache(int maxUsers) {
+        if (maxUsers <= 0) {
+            throw new IllegalArgumentException("maxUsers must be positive: " + maxUsers);
+        }
+        this.users = new LinkedHashMap<Integer, UserHistory>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, UserHistory> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    /**
+     * Gets the current generation of a user's history. Pass it to
+     * {@link #put(int, LocalDate, LocalDate, List, long)} after loading from the database.
+     *
+     * @param userId the user's ID
+     * @return the generation
+     */
+    public synchronized long getGeneration(int userId) {
+        return history(userId).generation;
+    }
+
+    /**
+     * Lists the parts of a date range that are not cached.
+     *
+     * @param userId the user's ID
+     * @param startDate start of the range (inclusive)
+     * @param endDate end of the range (inclusive)
+     * @return the uncached sub-ranges in ascending order; empty if the range is fully cached
+     */
+    public synchronized List<DateRange> missingRanges(int userId, LocalDate startDate, LocalDate endDate) {
+        UserHistory history = users.get(userId);
+        if (history == null) {
+            return Collections.singletonList(new DateRange(startDate, endDate));
+        }
+
+        List<DateRange> missing = new ArrayList<>();
+        LocalDate cursor = startDate;
+        Map.Entry<LocalDate, LocalDate> range = history.loadedRanges.floorEntry(startDate);
+        if (range == null || range.getValue().isBefore(startDate)) {
+            range = history.loadedRanges.higherEntry(startDate);
+        }
+        while (range != null && !range.getKey().isAfter(endDate) && !cursor.isAfter(endDate)) {
+            if (range.getKey().isAfter(cursor)) {
+                missing.add(new DateRange(cursor, range.getKey().minusDays(1)));
+            }
+            if (!range.getValue().isBefore(cursor)) {
+                cursor = range.getValue().plusDays(1);
+            }
+            range = history.loadedRanges.higherEntry(range.getKey());
+        }
+        if (!cursor.isAfter(endDate)) {
+            missing.add(new DateRange(cursor, endDate));
+        }
+        return missing;
+    }
+
+    /**
+     * Gets the cached meals of a date range.
+     *
+     * @param userId the user's ID
+     * @param startDate start of the range (inclusive)
+     * @param endDate end of the range (inclusive)
+     * @return copies of the meals newest first, or null if any part of the range is not cached
+     */
+    public synchronized List<Meal> get(int userId, LocalDate startDate, LocalDate endDate) {
+        UserHistory history = users.get(userId);
+        if (history == null || !history.covers(startDate, endDate)) {
+            return null;
+        }
+        List<Meal> meals = new ArrayList<>();
+        for (List<Meal> dayMeals : history.mealsByDay.subMap(startDate, true, endDate, true).descendingMap().values()) {
+            for (Meal meal : dayMeals) {
+                meals.add(new Meal(meal));
+            }
+        }
+        return meals;
+    }
+
+    /**
+     * Caches copies of the meals loaded for a date range, replacing whatever was cached for
+     * those days.
+     *
+     * @param userId the user's ID
+     * @param startDate start of the loaded range (inclusive)
+     * @param endDate end of the loaded range (inclusive)
+     * @param meals every meal of the user in the range, newest first
+     * @param generation the generation read before the meals were loaded
+     * @return true if the meals were cached; false if the history changed since the load began
+     */
+    public synchronized boolean put(int userId, LocalDate startDate, LocalDate endDate, List<Meal> meals, long generation) {
+        UserHistory history = history(userId);
+        if (history.generation != generation) {
+            return false;
+        }
+
+        history.removeDays(startDate, endDate);
+        for (Meal meal : meals) {
+            history.mealsByDay.computeIfAbsent(meal.getMealDate(), day -> new ArrayList<>()).add(new Meal(meal));
+            history.dayByMealId.put(meal.getMealId(), meal.getMealDate());
+        }
+        history.addRange(startDate, endDate);
+        return true;
+    }
+
+    /**
+     * Drops one day of a user's history, e.g. after a meal was logged on it.
+     *
+     * @param userId the user's ID
+     * @param day the day to drop
+     */
+    public synchronized void invalidateDay(int userId, LocalDate day) {
+        UserHistory history = users.get(userId);
+        if (history != null) {
+            history.generation = ++lastGeneration;
+            history.removeDays(day, day);
+            history.removeRange(day);
+        }
+    }
+
+    /**
+     * Drops the day holding a meal, e.g. after one of its items was added or removed.
+     *
+     * @param userId the user's ID
+     * @param mealId the meal's ID
+     */
+    public synchronized void invalidateMeal(int userId, int mealId) {
+        UserHistory history = users.get(userId);
+        if (history == null) {
+            return;
+        }
+        history.generation = ++lastGeneration;
+        LocalDate day = history.dayByMealId.get(mealId);
+        if (day != null) {
+            history.removeDays(day, day);
+            history.removeRange(day);
+        }
+    }
+
+    /**
+     * Drops all of a user's history.
+     *
+     * @param userId the user's ID
+     */
+    public synchronized void invalidateUser(int userId) {
+        UserHistory history = users.get(userId);
+        if (history != null) {
+            users.put(userId, new UserHistory(++lastGeneration));
+        }
+    }
+
+    /**
+     * Drops every user's history.
+     */
+    public synchronized void clear() {
+        for (Map.Entry<Integer, UserHistory> entry : users.entrySet()) {
+            entry.setValue(new UserHistory(++lastGeneration));
+        }
+    }
+
+    // Must be called while holding the lock
+    private UserHistory history(int userId) {
+        UserHistory history = users.get(userId);
+        if (history == null) {
+            history = new UserHistory(++lastGeneration);
+            users.put(userId, history);
+        }
+        return history;
+    }
+
+    /**
+     * Cached history of one user. Guarded by the cache lock.
+     */
+    private static final class UserHistory {
+        // Non-overlapping, non-adjacent loaded ranges: start -> end, both inclusive
+        final NavigableMap<LocalDate, LocalDate> loadedRanges = new TreeMap<>();
+        // Meals of loaded days that have any, each list newest first
+        final NavigableMap<LocalDate, List<Meal>> mealsByDay = new TreeMap<>();
+        final Map<Integer, LocalDate> dayByMealId = new HashMap<>();
+        long generation;
+
+        UserHistory(long generation) {
+            this.generation = generation;
+        }
+
+        boolean covers(LocalDate startDate, LocalDate endDate) {
+            Map.Entry<LocalDate, LocalDate> range = loadedRanges.floorEntry(startDate);
+            return range != null && !range.getValue().isBefore(endDate);
+        }
+
+        void addRange(LocalDate startDate, LocalDate endDate) {
+            LocalDate start = startDate;
+            LocalDate end = endDate;
+            // Absorb every range that overlaps or touches [start, end]
+            Map.Entry<LocalDate, LocalDate> range = loadedRanges.floorEntry(start);
+            if (range == null || range.getValue().plusDays(1).isBefore(start)) {
+                range = loadedRanges.higherEntry(start);
+            }
+            while (range != null && !range.getKey().isAfter(end.plusDays(1))) {
+                if (range.getKey().isBefore(start)) {
+                    start = range.getKey();
+                }
+                if (range.getValue().isAfter(end)) {
+                    end = range.getValue();
+                }
+                loadedRanges.remove(range.getKey());
+                range = loadedRanges.higherEntry(range.getKey());
+            }
+            loadedRanges.put(start, end);
+        }
+
+        void removeRange(LocalDate day) {
+            Map.Entry<LocalDate, LocalDate> range = loadedRanges.floorEntry(day);
+            if (range == null || range.getValue().isBefore(day)) {
+                return;
+            }
+            loadedRanges.remove(range.getKey());
+            if (range.getKey().isBefore(day)) {
+                loadedRanges.put(range.getKey(), day.minusDays(1));
+            }
+            if (range.getValue().isAfter(day)) {
+                loadedRanges.put(day.plusDays(1), range.getValue());
+            }
+        }
+
+        void removeDays(LocalDate startDate, LocalDate endDate) {
+            NavigableMap<LocalDate, List<Meal>> days = mealsByDay.subMap(startDate, true, endDate, true);
+            for (List<Meal> dayMeals : days.values()) {
+                for (Meal meal : dayMeals) {
+                    dayByMealId.remove(meal.getMealId());
+                }
+            }
+            days.clear();
+        }
+    }
+
+    /**
+     * An inclusive range of dates.
+     */
+    public static final class DateRange {
+
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+
+        /**
+         * Constructs a date range.
+         *
+         * @param startDate first day (inclusive)
+         * @param endDate last day (inclusive)
+         */
+        public DateRange(LocalDate startDate, LocalDate endDate) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        /**
+         * Gets the first day of the range.
+         *
+         * @return the start date
+         */
+        public LocalDate getStartDate() { return startDate; }
+
+        /**
+         * Gets the last day of the range.
+         *
+         * @return the end date
+         */
+        public LocalDate getEndDate() { return endDate; }
+
+        @Override
+        public String toString() {
+            return startDate + ".." + endDate;
+        }
+    }
+}
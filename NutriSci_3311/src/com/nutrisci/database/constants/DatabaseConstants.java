@@ -24,6 +24,11 @@ public final class DatabaseConstants {
     public static final String TABLE_FOOD_NAME = "FOOD_NAME";
     public static final String TABLE_NUTRIENT_AMOUNT = "NUTRIENT_AMOUNT";
     public static final String TABLE_NUTRIENT_NAME = "NUTRIENT_NAME";
+    public static final String TABLE_FOOD_GROUP = "FOOD_GROUP";
+    public static final String TABLE_CONVERSION_FACTOR = "CONVERSION_FACTOR";
+    public static final String TABLE_DAILY_NUTRIENT_ROLLUP = "DAILY_NUTRIENT_ROLLUP";
+    public static final String TABLE_SCHEMA_VERSION = "SCHEMA_VERSION";
+    public static final String TABLE_NUTRITION_SUMMARY = "NUTRITION_SUMMARY";
     
     // Column Names - Users Table
     public static final String COL_USER_ID = "user_id";
@@ -46,6 +51,21 @@ public final class DatabaseConstants {
     public static final String COL_FOOD_ID = "food_id";
     public static final String COL_QUANTITY_GRAMS = "quantity_grams";
     
+    // Column Names - Daily Nutrient Rollup Table
+    public static final String COL_DAY = "day";
+    public static final String COL_ROLLUP_NUTRIENT_ID = "nutrient_id";
+    public static final String COL_TOTAL = "total";
+    
+    // Column Names - Nutrition Summary Table (also uses the rollup's nutrient and total columns)
+    public static final String COL_PERIOD = "period";
+    public static final String COL_PERIOD_START = "period_start";
+    public static final String COL_DAYS_LOGGED = "days_logged";
+    
+    // Column Names - Schema Version Table
+    public static final String COL_VERSION = "version";
+    public static final String COL_DESCRIPTION = "description";
+    public static final String COL_APPLIED_AT = "applied_at";
+    
     // Column Names - Food/Nutrient Tables
     public static final String COL_FOOD_ID_CAPS = "FoodID";
     public static final String COL_FOOD_DESCRIPTION = "FoodDescription";
@@ -53,6 +73,14 @@ public final class DatabaseConstants {
     public static final String COL_NUTRIENT_NAME = "NutrientName";
     public static final String COL_NUTRIENT_VALUE = "NutrientValue";
     public static final String COL_NUTRIENT_UNIT = "NutrientUnit";
+    public static final String COL_NUTRIENT_CODE = "NutrientCode";
+    public static final String COL_NUTRIENT_SYMBOL = "NutrientSymbol";
+    public static final String COL_FOOD_CODE = "FoodCode";
+    public static final String COL_FOOD_GROUP_ID = "FoodGroupID";
+    public static final String COL_FOOD_GROUP_CODE = "FoodGroupCode";
+    public static final String COL_FOOD_GROUP_NAME = "FoodGroupName";
+    public static final String COL_MEASURE_ID = "MeasureID";
+    public static final String COL_CONVERSION_FACTOR_VALUE = "ConversionFactorValue";
     
     // SQL Query Templates
     public static final String SELECT_ALL_USER_COLUMNS = 
@@ -102,6 +130,7 @@ public final class DatabaseConstants {
     // Default Values
     public static final String DEFAULT_UNIT_PREFERENCE = "metric";
     public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
     public static final int MAX_SEARCH_RESULTS = 100;
     
     // Error Messages Templates
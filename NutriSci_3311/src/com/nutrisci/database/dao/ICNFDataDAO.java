@@ -3,7 +3,11 @@ package com.nutrisci.database.dao;
 import com.nutrisci.database.dto.Food;
 import com.nutrisci.database.dto.NutrientConstraint;
 import com.nutrisci.database.exceptions.*;
+import com.nutrisci.database.index.FoodGroupIndex;
+import com.nutrisci.database.index.FoodSearchIndex;
+import com.nutrisci.database.index.SearchMode;
 
+import java.nio.file.Path;
 import java.util.List;
 
 /**
@@ -14,6 +18,9 @@ public interface ICNFDataDAO {
     
     /**
      * Retrieves detailed nutrient data for a specific food item.
+     * Returns the best ranked match of {@link #searchFoods(String, int)}, falling back to a
+     * substring match on the description and then to the best typo-tolerant match; the
+     * nutrients always belong to that single food.
      * Joins FOOD_NAME, NUTRIENT_AMOUNT, and NUTRIENT_NAME tables.
      * 
      * @param foodName The name of the food to retrieve nutrient data for
@@ -24,6 +31,39 @@ public interface ICNFDataDAO {
     Food retrieveNutrientDataForFood(String foodName) 
             throws DatabaseAccessException, FoodNotFoundException;
     
+    /**
+     * Searches food descriptions and returns the top-ranked distinct foods with their nutrients.
+     * Ranking uses BM25 term weighting with prefix matching on the last query term and boosts for
+     * descriptions that start with the query or are short. Only the returned foods' nutrient rows
+     * are fetched from the database.
+     * @param query Free-text search query
+     * @param limit Maximum number of foods to return
+     * @return List of Food objects in rank order, empty if nothing matches
+     * @throws DatabaseAccessException if database access fails
+     */
+    List<Food> searchFoods(String query, int limit) throws DatabaseAccessException;
+    
+    /**
+     * Searches food descriptions like {@link #searchFoods(String, int)} in the given mode.
+     * {@link SearchMode#FUZZY} also matches words within one or two edits of each query term
+     * (e.g. "brocoli", "chiken"), ranked below exact matches.
+     * @param query Free-text search query
+     * @param limit Maximum number of foods to return
+     * @param mode Matching mode
+     * @return List of Food objects in rank order, empty if nothing matches
+     * @throws DatabaseAccessException if database access fails
+     */
+    List<Food> searchFoods(String query, int limit, SearchMode mode) throws DatabaseAccessException;
+    
+    /**
+     * Loads an in-memory ranked search index over every CNF food description.
+     * The implementation also uses the loaded index for subsequent {@link #searchFoods(String, int)} calls,
+     * until the CNF data it was loaded from changes.
+     * @return FoodSearchIndex over all foods
+     * @throws DatabaseAccessException if database access fails
+     */
+    FoodSearchIndex loadFoodSearchIndex() throws DatabaseAccessException;
+    
     /**
      * Searches for replacement foods that match specified nutrient constraints.
      * Excludes foods in the exclusion list.
@@ -35,4 +75,50 @@ public interface ICNFDataDAO {
      */
     List<Food> searchReplacementFoods(List<NutrientConstraint> constraints, List<Integer> excludedFoodIds) 
             throws DatabaseAccessException;
+    
+    /**
+     * Searches for replacement foods that match specified nutrient constraints and returns
+     * each match with the requested nutrients already attached.
+     * Matches and their nutrient rows are fetched in a single round trip, so callers comparing
+     * candidates do not need a follow-up {@link #retrieveNutrientDataForFood(String)} per result.
+     * 
+     * @param constraints List of nutrient constraints (nutrient ID with min/max values)
+     * @param excludedFoodIds List of food IDs to exclude from results
+     * @param nutrientIds IDs of the nutrients to attach to each food, or null/empty for all nutrients
+     * @return List of Food objects matching the criteria, with their nutrients populated
+     * @throws DatabaseAccessException if database access fails
+     */
+    List<Food> searchReplacementFoodsWithNutrients(List<NutrientConstraint> constraints, List<Integer> excludedFoodIds,
+                                                   List<Integer> nutrientIds) 
+            throws DatabaseAccessException;
+    
+    /**
+     * Exports the complete CNF food, nutrient and nutrient amount tables to a binary snapshot file
+     * that can be memory-mapped with {@link com.nutrisci.database.snapshot.CNFSnapshot#open(Path)}.
+     * An existing file at the target path is replaced atomically.
+     * 
+     * @param target Path of the snapshot file to write
+     * @throws DatabaseAccessException if database access fails or the snapshot cannot be written
+     */
+    void exportSnapshot(Path target) throws DatabaseAccessException;
+    
+    /**
+     * Loads every CNF food with its nutrient amounts into an in-memory index partitioned by food group.
+     * Reads the FOOD_GROUP, FOOD_NAME, NUTRIENT_NAME and NUTRIENT_AMOUNT tables in full, so the
+     * result is meant to be loaded once and shared, e.g. for swap candidate retrieval.
+     * @return FoodGroupIndex over all foods that belong to a known food group
+     * @throws DatabaseAccessException if database access fails
+     */
+    FoodGroupIndex loadFoodGroupIndex() throws DatabaseAccessException;
+    
+    /**
+     * Loads the foods of the given food groups with their nutrient amounts into an in-memory index.
+     * Every food group is registered, so group names and IDs can be resolved against the result,
+     * but only the requested groups have foods; with no group IDs only the groups themselves
+     * are loaded. Used to fill per-group candidate caches on demand instead of loading all foods.
+     * @param groupIds FoodGroupIDs whose foods to load
+     * @return FoodGroupIndex over the foods of the requested groups
+     * @throws DatabaseAccessException if database access fails
+     */
+    FoodGroupIndex loadFoodGroups(int... groupIds) throws DatabaseAccessException;
 }
\ No newline at end of file
@@ -1,11 +1,16 @@
 package com.nutrisci.database.dao;
 
 import com.nutrisci.database.dto.Meal;
+import com.nutrisci.database.dto.DailyNutrientTotals;
+import com.nutrisci.database.dto.MealCursor;
 import com.nutrisci.database.dto.MealItem;
+import com.nutrisci.database.dto.MealPage;
+import com.nutrisci.database.events.MealLogListener;
 import com.nutrisci.database.exceptions.*;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Data Access Object interface for meal logging operations.
@@ -14,8 +19,8 @@ import java.util.List;
 public interface IMealLogDAO {
     
     /**
-     * Logs a new meal with all its associated meal items.
-     * This operation should be transactional.
+     * Logs a new meal with all its associated meal items and adds their nutrients to the
+     * daily nutrient rollup. This operation should be transactional.
      * 
      * @param userId The ID of the user logging the meal
      * @param meal Meal object containing meal details and items
@@ -25,7 +30,18 @@ public interface IMealLogDAO {
     int logMeal(int userId, Meal meal) throws DatabaseAccessException;
     
     /**
-     * Loads logged meals for a user within a specified date range.
+     * Logs several meals for one user in a single transaction, sending all of their items in
+     * one batch. Intended for bulk imports; either every meal is logged or none is.
+     * 
+     * @param userId The ID of the user logging the meals
+     * @param meals Meals with their items
+     * @return The meal_id of each logged meal, in the order given
+     * @throws DatabaseAccessException if database access fails
+     */
+    int[] logMeals(int userId, List<Meal> meals) throws DatabaseAccessException;
+    
+    /**
+     * Loads logged meals for a user within a specified date range, newest first.
      * Includes nested meal items with food names.
      * 
      * @param userId The user's ID
@@ -38,8 +54,96 @@ public interface IMealLogDAO {
             throws DatabaseAccessException;
     
     /**
-     * Removes a specific meal item from a logged meal.
-     * If no items remain for the meal, the meal record is also deleted.
+     * Streams logged meals for a user within a specified date range to a consumer.
+     * Meals arrive newest first, in the same order as {@link #loadLoggedMeals}, and each meal
+     * is passed on complete with its items as soon as its rows have been read, so only one
+     * meal is held in memory at a time.
+     * 
+     * @param userId The user's ID
+     * @param startDate Start date of the range (inclusive)
+     * @param endDate End date of the range (inclusive)
+     * @param consumer Receives each meal with its associated meal items
+     * @return The number of meals passed to the consumer
+     * @throws DatabaseAccessException if database access fails
+     */
+    int streamLoggedMeals(int userId, LocalDate startDate, LocalDate endDate, Consumer<? super Meal> consumer) 
+            throws DatabaseAccessException;
+    
+    /**
+     * Loads one page of a user's meal history using keyset pagination.
+     * Meals are ordered newest first by meal date, logged time and meal ID; the page starts
+     * at the first meal older than the cursor, so pages stay consistent while meals are
+     * logged or removed and each page costs the same regardless of its depth.
+     * 
+     * @param userId The user's ID
+     * @param before Cursor from the previous page's {@link MealPage#getNextCursor()}, or null for the newest meals
+     * @param limit Maximum number of meals on the page, capped at {@code DatabaseConstants.MAX_PAGE_SIZE};
+     *              values of zero or less use {@code DatabaseConstants.DEFAULT_PAGE_SIZE}
+     * @return The page of meals with their items and the cursor for the next page
+     * @throws DatabaseAccessException if database access fails
+     */
+    MealPage loadLoggedMealsPage(int userId, MealCursor before, int limit) throws DatabaseAccessException;
+    
+    /**
+     * Computes per-day nutrient totals for a user's logged meals.
+     * The join with NUTRIENT_AMOUNT, the per-100 g scaling by quantity and the grouping by
+     * day and nutrient all run in the database, so one row per (day, nutrient) is returned
+     * instead of one per (item, nutrient).
+     * 
+     * @param userId The user's ID
+     * @param startDate Start date of the range (inclusive)
+     * @param endDate End date of the range (inclusive)
+     * @param nutrientIds CNF NutrientIDs to total, in column order; none for every nutrient
+     * @return Totals for each day with logged meals
+     * @throws DatabaseAccessException if database access fails
+     */
+    DailyNutrientTotals loadDailyNutrientTotals(int userId, LocalDate startDate, LocalDate endDate, int... nutrientIds) 
+            throws DatabaseAccessException;
+    
+    /**
+     * Reads per-day nutrient totals from the DAILY_NUTRIENT_ROLLUP table.
+     * The rollup is kept current by {@link #logMeal}, {@link #addMealItem} and
+     * {@link #removeMealItem}, so this reads one stored row per (day, nutrient) without
+     * touching the meal items. Results match {@link #loadDailyNutrientTotals} as long as
+     * the rollup is in sync.
+     * 
+     * @param userId The user's ID
+     * @param startDate Start date of the range (inclusive)
+     * @param endDate End date of the range (inclusive)
+     * @param nutrientIds CNF NutrientIDs to read, in column order; none for every nutrient
+     * @return Totals for each day with rollup rows
+     * @throws DatabaseAccessException if database access fails
+     */
+    DailyNutrientTotals loadDailyNutrientRollup(int userId, LocalDate startDate, LocalDate endDate, int... nutrientIds) 
+            throws DatabaseAccessException;
+    
+    /**
+     * Recomputes a user's DAILY_NUTRIENT_ROLLUP rows in a date range from the logged meal items.
+     * Used to backfill the rollup and to repair it after out-of-band changes to the meal tables.
+     * This operation is transactional.
+     * 
+     * @param userId The user's ID
+     * @param startDate Start date of the range (inclusive)
+     * @param endDate End date of the range (inclusive)
+     * @return The number of rollup rows written
+     * @throws DatabaseAccessException if database access fails
+     */
+    int rebuildDailyNutrientRollup(int userId, LocalDate startDate, LocalDate endDate) throws DatabaseAccessException;
+    
+    /**
+     * Recomputes every user's DAILY_NUTRIENT_ROLLUP rows in a date range.
+     * This operation is transactional.
+     * 
+     * @param startDate Start date of the range (inclusive)
+     * @param endDate End date of the range (inclusive)
+     * @return The number of rollup rows written
+     * @throws DatabaseAccessException if database access fails
+     */
+    int rebuildDailyNutrientRollup(LocalDate startDate, LocalDate endDate) throws DatabaseAccessException;
+    
+    /**
+     * Removes a specific meal item from a logged meal and subtracts its nutrients from the
+     * daily nutrient rollup. If no items remain for the meal, the meal record is also deleted.
      * 
      * @param userId The user's ID (for authorization)
      * @param mealId The meal's ID
@@ -54,7 +158,7 @@ public interface IMealLogDAO {
             throws DatabaseAccessException, MealNotFoundException, MealItemNotFoundException, UnauthorizedAccessException;
     
     /**
-     * Adds a new item to an existing meal.
+     * Adds a new item to an existing meal and adds its nutrients to the daily nutrient rollup.
      * 
      * @param userId The user's ID (for authorization)
      * @param mealId The meal's ID
@@ -66,4 +170,21 @@ public interface IMealLogDAO {
      */
     int addMealItem(int userId, int mealId, MealItem item) 
             throws DatabaseAccessException, MealNotFoundException, UnauthorizedAccessException;
+    
+    /**
+     * Registers a listener for committed changes made through this DAO. Listeners receive
+     * {@code MealLogged}, {@code MealItemAdded}, {@code MealItemRemoved} and {@code MealDeleted}
+     * events in batches on a dispatch thread, after the transaction of each change has
+     * committed, so writes never wait for them.
+     * 
+     * @param listener The listener to add
+     */
+    void addMealLogListener(MealLogListener listener);
+    
+    /**
+     * Removes a previously registered change listener.
+     * 
+     * @param listener The listener to remove
+     */
+    void removeMealLogListener(MealLogListener listener);
 }
\ No newline at end of file
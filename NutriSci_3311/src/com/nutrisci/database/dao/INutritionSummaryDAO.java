@@ -0,0 +1,48 @@
+package com.nutrisci.database.dao;
+
+import com.nutrisci.database.dto.NutritionPeriodSummary;
+import com.nutrisci.database.dto.SummaryPeriod;
+import com.nutrisci.database.exceptions.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Data Access Object interface for precomputed nutrition summaries.
+ * Defines contracts for storing and reading the weekly and monthly totals in NUTRITION_SUMMARY.
+ */
+public interface INutritionSummaryDAO {
+    
+    /**
+     * Replaces, in bulk, the stored summaries of a contiguous range of users. Every stored
+     * summary of those users for the given kinds of period overlapping the date range is deleted
+     * and the new summaries are inserted, so a period that no longer has any logged meals loses
+     * its stale row. All rows are sent as JDBC batches in a single transaction, so either the
+     * whole range is replaced or nothing changes.
+     * 
+     * @param firstUserId First user ID of the range (inclusive)
+     * @param lastUserId Last user ID of the range (inclusive)
+     * @param startDate Start of the summarized dates (inclusive)
+     * @param endDate End of the summarized dates (inclusive)
+     * @param periods The kinds of period being replaced
+     * @param summaries The new summaries, all for users and periods within the range
+     * @return The number of nutrient rows written
+     * @throws DatabaseAccessException if database access fails
+     */
+    int replaceSummaries(int firstUserId, int lastUserId, LocalDate startDate, LocalDate endDate,
+                         Set<SummaryPeriod> periods, List<NutritionPeriodSummary> summaries) throws DatabaseAccessException;
+    
+    /**
+     * Loads a user's stored summaries whose periods start within a date range.
+     * 
+     * @param userId The user's ID
+     * @param period The kind of period
+     * @param startDate Start of the range of period starts (inclusive)
+     * @param endDate End of the range of period starts (inclusive)
+     * @return The summaries in ascending period order
+     * @throws DatabaseAccessException if database access fails
+     */
+    List<NutritionPeriodSummary> loadSummaries(int userId, SummaryPeriod period, LocalDate startDate, LocalDate endDate) 
+            throws DatabaseAccessException;
+}
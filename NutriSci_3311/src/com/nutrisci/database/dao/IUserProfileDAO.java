@@ -41,4 +41,16 @@ public interface IUserProfileDAO {
      * @throws UserNotFoundException if user doesn't exist
      */
     User loadUserProfile(int userId) throws DatabaseAccessException, UserNotFoundException;
+    
+    /**
+     * Lists user IDs in ascending order using keyset pagination, for jobs that visit every user.
+     * Pass the last ID of one page to get the next; users created or deleted in between do not
+     * shift the pages.
+     * 
+     * @param afterUserId Only IDs greater than this are returned; 0 for the first page
+     * @param limit Maximum number of IDs to return
+     * @return The user IDs, ascending; fewer than limit on the last page
+     * @throws DatabaseAccessException if database access fails
+     */
+    int[] listUserIds(int afterUserId, int limit) throws DatabaseAccessException;
 }
\ No newline at end of file
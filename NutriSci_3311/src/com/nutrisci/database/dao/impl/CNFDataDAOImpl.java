@@ -5,13 +5,24 @@ import com.nutrisci.database.dao.ICNFDataDAO;
 import com.nutrisci.database.dto.Food;
 import com.nutrisci.database.dto.FoodNutrient;
 import com.nutrisci.database.dto.NutrientConstraint;
+import com.nutrisci.database.dto.NutrientDefinition;
 import com.nutrisci.database.exceptions.*;
+import com.nutrisci.database.index.FoodGroupIndex;
+import com.nutrisci.database.index.FoodSearchIndex;
+import com.nutrisci.database.index.SearchMode;
 import com.nutrisci.database.constants.DatabaseConstants;
+import com.nutrisci.database.snapshot.CNFSnapshotHolder;
+import com.nutrisci.database.snapshot.CNFSnapshotWriter;
+import com.nutrisci.database.util.FixedPoint;
+import com.nutrisci.database.util.NutrientDictionary;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implementation of ICNFDataDAO for SQL Server database operations.
@@ -28,9 +39,23 @@ public class CNFDataDAOImpl extends BaseDAO implements ICNFDataDAO {
         "FROM " + DatabaseConstants.TABLE_FOOD_NAME + " fn " +
         DatabaseConstants.JOIN_NUTRIENT_AMOUNT +
         DatabaseConstants.JOIN_NUTRIENT_NAME +
-        " WHERE fn." + DatabaseConstants.COL_FOOD_DESCRIPTION + " LIKE ?" +
+        " WHERE fn." + DatabaseConstants.COL_FOOD_ID_CAPS + " = (SELECT TOP (1) " + DatabaseConstants.COL_FOOD_ID_CAPS +
+        " FROM " + DatabaseConstants.TABLE_FOOD_NAME + " WHERE " + DatabaseConstants.COL_FOOD_DESCRIPTION + " LIKE ?" +
+        " ORDER BY LEN(" + DatabaseConstants.COL_FOOD_DESCRIPTION + "), " + DatabaseConstants.COL_FOOD_ID_CAPS + ")" +
         DatabaseConstants.ORDER_BY_NUTRIENT_ID;
     
+    // Nutrients of an explicit set of foods, grouped by food for single-pass assembly
+    private static final String SELECT_FOODS_BY_ID_WITH_NUTRIENTS_PREFIX = 
+        "SELECT fn." + DatabaseConstants.COL_FOOD_ID_CAPS + ", fn." + DatabaseConstants.COL_FOOD_DESCRIPTION + ", " +
+        "na." + DatabaseConstants.COL_NUTRIENT_ID + ", nn." + DatabaseConstants.COL_NUTRIENT_NAME + ", " +
+        "na." + DatabaseConstants.COL_NUTRIENT_VALUE + ", nn." + DatabaseConstants.COL_NUTRIENT_UNIT + " " +
+        "FROM " + DatabaseConstants.TABLE_FOOD_NAME + " fn " +
+        DatabaseConstants.JOIN_NUTRIENT_AMOUNT +
+        DatabaseConstants.JOIN_NUTRIENT_NAME +
+        " WHERE fn." + DatabaseConstants.COL_FOOD_ID_CAPS + " IN (";
+    private static final String SELECT_FOODS_BY_ID_WITH_NUTRIENTS_SUFFIX = 
+        ") ORDER BY fn." + DatabaseConstants.COL_FOOD_ID_CAPS + ", na." + DatabaseConstants.COL_NUTRIENT_ID;
+    
     private static final String SELECT_REPLACEMENT_FOODS_BASE = 
         "SELECT DISTINCT fn." + DatabaseConstants.COL_FOOD_ID_CAPS + ", fn." + DatabaseConstants.COL_FOOD_DESCRIPTION + " " +
         "FROM " + DatabaseConstants.TABLE_FOOD_NAME + " fn ";
@@ -44,13 +69,96 @@ public class CNFDataDAOImpl extends BaseDAO implements ICNFDataDAO {
     private static final String EXCLUSION_CLAUSE_PREFIX = " AND fn." + DatabaseConstants.COL_FOOD_ID_CAPS + " NOT IN (";
     private static final String EXCLUSION_CLAUSE_SUFFIX = ") ";
     
+    // Replacement search with nutrient payloads: the matched foods are computed in a derived table
+    // and joined back to their nutrient rows so both arrive in one round trip
+    private static final String SELECT_REPLACEMENT_FOODS_WITH_NUTRIENTS_PREFIX = 
+        "SELECT fn." + DatabaseConstants.COL_FOOD_ID_CAPS + ", fn." + DatabaseConstants.COL_FOOD_DESCRIPTION + ", " +
+        "na." + DatabaseConstants.COL_NUTRIENT_ID + ", nn." + DatabaseConstants.COL_NUTRIENT_NAME + ", " +
+        "na." + DatabaseConstants.COL_NUTRIENT_VALUE + ", nn." + DatabaseConstants.COL_NUTRIENT_UNIT + " " +
+        "FROM (SELECT DISTINCT TOP (" + DatabaseConstants.MAX_SEARCH_RESULTS + ") fn." + DatabaseConstants.COL_FOOD_ID_CAPS + 
+        ", fn." + DatabaseConstants.COL_FOOD_DESCRIPTION + " " +
+        "FROM " + DatabaseConstants.TABLE_FOOD_NAME + " fn ";
+    private static final String SELECT_REPLACEMENT_FOODS_WITH_NUTRIENTS_JOIN = 
+        ") fn LEFT JOIN " + DatabaseConstants.TABLE_NUTRIENT_AMOUNT + " na ON fn." + DatabaseConstants.COL_FOOD_ID_CAPS + 
+        " = na." + DatabaseConstants.COL_FOOD_ID_CAPS;
+    private static final String NUTRIENT_ID_FILTER_PREFIX = " AND na." + DatabaseConstants.COL_NUTRIENT_ID + " IN (";
+    private static final String NUTRIENT_ID_FILTER_SUFFIX = ")";
+    private static final String REPLACEMENT_FOODS_WITH_NUTRIENTS_ORDER_BY = 
+        DatabaseConstants.ORDER_BY_FOOD_DESCRIPTION + ", fn." + DatabaseConstants.COL_FOOD_ID_CAPS + 
+        ", na." + DatabaseConstants.COL_NUTRIENT_ID;
+    
+    // Snapshot export queries - full table scans in snapshot order
+    private static final String SELECT_ALL_NUTRIENTS_SQL = 
+        "SELECT " + DatabaseConstants.COL_NUTRIENT_ID + ", " + DatabaseConstants.COL_NUTRIENT_NAME + ", " + 
+        DatabaseConstants.COL_NUTRIENT_UNIT + " FROM " + DatabaseConstants.TABLE_NUTRIENT_NAME + 
+        " ORDER BY " + DatabaseConstants.COL_NUTRIENT_ID;
+    
+    private static final String SELECT_ALL_FOODS_SQL = 
+        "SELECT " + DatabaseConstants.COL_FOOD_ID_CAPS + ", " + DatabaseConstants.COL_FOOD_DESCRIPTION + 
+        " FROM " + DatabaseConstants.TABLE_FOOD_NAME + " ORDER BY " + DatabaseConstants.COL_FOOD_ID_CAPS;
+    
+    private static final String SELECT_ALL_NUTRIENT_AMOUNTS_SQL = 
+        "SELECT " + DatabaseConstants.COL_FOOD_ID_CAPS + ", " + DatabaseConstants.COL_NUTRIENT_ID + ", " + 
+        DatabaseConstants.COL_NUTRIENT_VALUE + " FROM " + DatabaseConstants.TABLE_NUTRIENT_AMOUNT + 
+        " ORDER BY " + DatabaseConstants.COL_FOOD_ID_CAPS + ", " + DatabaseConstants.COL_NUTRIENT_ID;
+    
+    // Food group index queries
+    private static final String SELECT_ALL_FOOD_GROUPS_SQL = 
+        "SELECT " + DatabaseConstants.COL_FOOD_GROUP_ID + ", " + DatabaseConstants.COL_FOOD_GROUP_CODE + ", " + 
+        DatabaseConstants.COL_FOOD_GROUP_NAME + " FROM " + DatabaseConstants.TABLE_FOOD_GROUP;
+    
+    private static final String SELECT_ALL_FOODS_WITH_GROUP_SQL = 
+        "SELECT " + DatabaseConstants.COL_FOOD_ID_CAPS + ", " + DatabaseConstants.COL_FOOD_GROUP_ID + ", " + 
+        DatabaseConstants.COL_FOOD_DESCRIPTION + " FROM " + DatabaseConstants.TABLE_FOOD_NAME;
+    
+    private static final String GROUP_ID_FILTER_PREFIX = " WHERE " + DatabaseConstants.COL_FOOD_GROUP_ID + " IN (";
+    
+    private static final String SELECT_GROUP_NUTRIENT_AMOUNTS_PREFIX = 
+        "SELECT na." + DatabaseConstants.COL_FOOD_ID_CAPS + ", na." + DatabaseConstants.COL_NUTRIENT_ID + ", na." + 
+        DatabaseConstants.COL_NUTRIENT_VALUE + " FROM " + DatabaseConstants.TABLE_NUTRIENT_AMOUNT + " na" + 
+        " JOIN " + DatabaseConstants.TABLE_FOOD_NAME + " fn ON fn." + DatabaseConstants.COL_FOOD_ID_CAPS + 
+        " = na." + DatabaseConstants.COL_FOOD_ID_CAPS + " WHERE fn." + DatabaseConstants.COL_FOOD_GROUP_ID + " IN (";
+    
+    private static final String GROUP_NUTRIENT_AMOUNTS_ORDER_BY = 
+        " ORDER BY na." + DatabaseConstants.COL_FOOD_ID_CAPS + ", na." + DatabaseConstants.COL_NUTRIENT_ID;
+    
     // Search configuration constants
     private static final int MAX_CONSTRAINT_PARAMS = 3; // nutrientId, minValue, maxValue
     
+    // Rows fetched per round trip when scanning whole CNF tables
+    private static final int EXPORT_FETCH_SIZE = 5000;
+    
+    // Ranked search index over all food descriptions, shared by every instance since they all
+    // read the configured database; loaded on first use and again after each CNF version change
+    private static volatile VersionedSearchIndex sharedSearchIndex;
+    private static final Object SEARCH_INDEX_LOCK = new Object();
+    // Source of the CNF version the shared index is keyed to; null loads it once per JVM
+    private static volatile CNFSnapshotHolder referenceData;
+    
+    /**
+     * Keys the shared food search index to the version published by a snapshot holder, so a
+     * CNF reload that publishes a new snapshot rebuilds the index on the next search instead
+     * of returning stale FoodIDs.
+     * @param holder the holder whose snapshots are built from the configured database
+     */
+    public static void trackReferenceData(CNFSnapshotHolder holder) {
+        synchronized (SEARCH_INDEX_LOCK) {
+            // Versions of different holders are not comparable
+            referenceData = holder;
+            sharedSearchIndex = null;
+        }
+    }
+    
     @Override
     public Food retrieveNutrientDataForFood(String foodName) 
             throws DatabaseAccessException, FoodNotFoundException {
         
+        // Best ranked match first; the LIKE query only covers matches inside words
+        List<Food> ranked = searchFoods(foodName, 1);
+        if (!ranked.isEmpty()) {
+            return ranked.get(0);
+        }
+        
         String searchPattern = DatabaseConstants.LIKE_PATTERN_PREFIX + foodName + DatabaseConstants.LIKE_PATTERN_SUFFIX;
         
         List<FoodData> foodDataList = new ArrayList<>();
@@ -72,12 +180,137 @@ public class CNFDataDAOImpl extends BaseDAO implements ICNFDataDAO {
         }
         
         if (foodDataList.isEmpty()) {
+            // Last resort for misspelled names such as "brocoli"
+            List<Food> fuzzy = searchFoods(foodName, 1, SearchMode.FUZZY);
+            if (!fuzzy.isEmpty()) {
+                return fuzzy.get(0);
+            }
             throw new FoodNotFoundException(DatabaseConstants.ERROR_FOOD_NOT_FOUND + foodName);
         }
         
         return buildFoodFromDataList(foodDataList);
     }
     
+    @Override
+    public List<Food> searchFoods(String query, int limit) throws DatabaseAccessException {
+        return searchFoods(query, limit, SearchMode.EXACT);
+    }
+    
+    @Override
+    public List<Food> searchFoods(String query, int limit, SearchMode mode) throws DatabaseAccessException {
+        if (query == null || query.trim().isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        
+        List<FoodSearchIndex.Hit> hits = getSearchIndex().search(query, limit, mode);
+        if (hits.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        StringBuilder sqlBuilder = new StringBuilder(SELECT_FOODS_BY_ID_WITH_NUTRIENTS_PREFIX);
+        for (int i = 0; i < hits.size(); i++) {
+            if (i > NO_ROWS_AFFECTED) {
+                sqlBuilder.append(", ");
+            }
+            sqlBuilder.append("?");
+        }
+        sqlBuilder.append(SELECT_FOODS_BY_ID_WITH_NUTRIENTS_SUFFIX);
+        
+        Map<Integer, Food> foodsById = new HashMap<>();
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sqlBuilder.toString())) {
+            
+            int paramIndex = FIRST_GENERATED_KEY_INDEX;
+            for (FoodSearchIndex.Hit hit : hits) {
+                stmt.setInt(paramIndex++, hit.getFoodId());
+            }
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                for (Food food : groupFoodsWithNutrients(rs)) {
+                    foodsById.put(food.getFoodId(), food);
+                }
+            }
+            
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Failed to search foods", e);
+        }
+        
+        // Return foods in rank order, skipping any removed since the index was loaded
+        List<Food> foods = new ArrayList<>(hits.size());
+        for (FoodSearchIndex.Hit hit : hits) {
+            Food food = foodsById.get(hit.getFoodId());
+            if (food != null) {
+                foods.add(food);
+            }
+        }
+        return foods;
+    }
+    
+    @Override
+    public FoodSearchIndex loadFoodSearchIndex() throws DatabaseAccessException {
+        long version = currentVersion();
+        FoodSearchIndex.Builder builder = FoodSearchIndex.builder();
+        
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_FOODS_SQL)) {
+            
+            stmt.setFetchSize(EXPORT_FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    builder.addFood(rs.getInt(DatabaseConstants.COL_FOOD_ID_CAPS),
+                            rs.getString(DatabaseConstants.COL_FOOD_DESCRIPTION));
+                }
+            }
+            
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Failed to load food search index", e);
+        }
+        
+        FoodSearchIndex loaded = builder.build();
+        // Stamped with the version read before the scan, so a reload during it is not masked
+        synchronized (SEARCH_INDEX_LOCK) {
+            VersionedSearchIndex current = sharedSearchIndex;
+            if (current == null || current.version <= version) {
+                sharedSearchIndex = new VersionedSearchIndex(loaded, version);
+            }
+        }
+        return loaded;
+    }
+    
+    /**
+     * Gets the shared search index, loading it on first use and when the CNF version changed.
+     */
+    private FoodSearchIndex getSearchIndex() throws DatabaseAccessException {
+        VersionedSearchIndex current = sharedSearchIndex;
+        if (current == null || current.version != currentVersion()) {
+            synchronized (SEARCH_INDEX_LOCK) {
+                current = sharedSearchIndex;
+                if (current == null || current.version != currentVersion()) {
+                    return loadFoodSearchIndex();
+                }
+            }
+        }
+        return current.index;
+    }
+    
+    private static long currentVersion() {
+        CNFSnapshotHolder holder = referenceData;
+        return holder != null ? holder.getVersion() : CNFSnapshotHolder.NO_VERSION;
+    }
+    
+    /**
+     * A search index and the CNF version it was loaded at.
+     */
+    private static final class VersionedSearchIndex {
+        final FoodSearchIndex index;
+        final long version;
+        
+        VersionedSearchIndex(FoodSearchIndex index, long version) {
+            this.index = index;
+            this.version = version;
+        }
+    }
+    
     /**
      * Extracts food and nutrient data from a result set row.
      */
@@ -88,18 +321,35 @@ public class CNFDataDAOImpl extends BaseDAO implements ICNFDataDAO {
         FoodNutrient nutrient = null;
         if (rs.getObject(DatabaseConstants.COL_NUTRIENT_ID) != null) {
             int nutrientId = rs.getInt(DatabaseConstants.COL_NUTRIENT_ID);
-            String nutrientName = rs.getString(DatabaseConstants.COL_NUTRIENT_NAME);
-            BigDecimal nutrientValue = rs.getBigDecimal(DatabaseConstants.COL_NUTRIENT_VALUE);
-            String nutrientUnit = rs.getString(DatabaseConstants.COL_NUTRIENT_UNIT);
+            // The driver decodes DECIMAL through BigDecimal either way; converting that keeps the value exact
+            long nutrientValue = FixedPoint.fromBigDecimal(rs.getBigDecimal(DatabaseConstants.COL_NUTRIENT_VALUE));
             
-            if (nutrientValue != null) {
-                nutrient = new FoodNutrient(nutrientId, nutrientName, nutrientValue, nutrientUnit);
+            if (nutrientValue != FixedPoint.NULL) {
+                // Name and unit strings are only read the first time a nutrient is seen
+                NutrientDefinition definition = NutrientDictionary.getDefault().getById(nutrientId);
+                if (definition == null) {
+                    definition = registerNutrient(nutrientId,
+                        rs.getString(DatabaseConstants.COL_NUTRIENT_NAME),
+                        rs.getString(DatabaseConstants.COL_NUTRIENT_UNIT));
+                }
+                nutrient = new FoodNutrient(definition, nutrientValue);
             }
         }
         
         return new FoodData(foodId, foodDescription, nutrient);
     }
     
+    /**
+     * Registers a nutrient read from a NUTRIENT_NAME row. The first registration of a NutrientID
+     * is permanent, so a row missing its name or unit is returned detached instead of registered.
+     */
+    private NutrientDefinition registerNutrient(int nutrientId, String name, String unit) {
+        if (name == null || unit == null) {
+            return new NutrientDefinition(NutrientDefinition.UNREGISTERED, nutrientId, name, unit, null);
+        }
+        return NutrientDictionary.getDefault().register(nutrientId, name, unit);
+    }
+    
     /**
      * Builds a Food object from the collected food data.
      */
@@ -150,7 +400,17 @@ public class CNFDataDAOImpl extends BaseDAO implements ICNFDataDAO {
      */
     private String buildReplacementFoodsQuery(List<NutrientConstraint> constraints, List<Integer> excludedFoodIds) {
         StringBuilder sqlBuilder = new StringBuilder(SELECT_REPLACEMENT_FOODS_BASE);
-        
+        appendReplacementFoodsFilter(sqlBuilder, constraints, excludedFoodIds);
+        sqlBuilder.append(REPLACEMENT_FOODS_ORDER_BY);
+        return sqlBuilder.toString();
+    }
+    
+    /**
+     * Appends the constraint joins, constraint predicates and exclusion clause shared by both
+     * replacement food queries.
+     */
+    private void appendReplacementFoodsFilter(StringBuilder sqlBuilder, List<NutrientConstraint> constraints, 
+                                              List<Integer> excludedFoodIds) {
         // Add JOIN clauses for each constraint
         for (int i = 0; i < constraints.size(); i++) {
             sqlBuilder.append(String.format(JOIN_NUTRIENT_AMOUNT_TEMPLATE, i, i));
@@ -177,15 +437,14 @@ public class CNFDataDAOImpl extends BaseDAO implements ICNFDataDAO {
             }
             sqlBuilder.append(EXCLUSION_CLAUSE_SUFFIX);
         }
-        
-        sqlBuilder.append(REPLACEMENT_FOODS_ORDER_BY);
-        return sqlBuilder.toString();
     }
     
     /**
      * Sets parameters for the replacement foods query.
+     * 
+     * @return the index of the next unset parameter
      */
-    private void setReplacementFoodsParameters(PreparedStatement stmt, List<NutrientConstraint> constraints, 
+    private int setReplacementFoodsParameters(PreparedStatement stmt, List<NutrientConstraint> constraints, 
                                              List<Integer> excludedFoodIds) throws SQLException {
         int paramIndex = FIRST_GENERATED_KEY_INDEX;
         
@@ -202,6 +461,91 @@ public class CNFDataDAOImpl extends BaseDAO implements ICNFDataDAO {
                 stmt.setInt(paramIndex++, excludedId);
             }
         }
+        return paramIndex;
+    }
+    
+    @Override
+    public List<Food> searchReplacementFoodsWithNutrients(List<NutrientConstraint> constraints, List<Integer> excludedFoodIds,
+                                                          List<Integer> nutrientIds) 
+            throws DatabaseAccessException {
+        
+        if (constraints == null || constraints.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        String sql = buildReplacementFoodsWithNutrientsQuery(constraints, excludedFoodIds, nutrientIds);
+        
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int paramIndex = setReplacementFoodsParameters(stmt, constraints, excludedFoodIds);
+            if (nutrientIds != null) {
+                for (Integer nutrientId : nutrientIds) {
+                    stmt.setInt(paramIndex++, nutrientId);
+                }
+            }
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                return groupFoodsWithNutrients(rs);
+            }
+            
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Failed to search replacement foods with nutrients", e);
+        }
+    }
+    
+    /**
+     * Builds the replacement food query that also returns the requested nutrient rows of each match.
+     */
+    private String buildReplacementFoodsWithNutrientsQuery(List<NutrientConstraint> constraints, List<Integer> excludedFoodIds,
+                                                          List<Integer> nutrientIds) {
+        StringBuilder sqlBuilder = new StringBuilder(SELECT_REPLACEMENT_FOODS_WITH_NUTRIENTS_PREFIX);
+        appendReplacementFoodsFilter(sqlBuilder, constraints, excludedFoodIds);
+        sqlBuilder.append(REPLACEMENT_FOODS_ORDER_BY);
+        sqlBuilder.append(SELECT_REPLACEMENT_FOODS_WITH_NUTRIENTS_JOIN);
+        
+        // Restrict the joined nutrient rows to the requested subset
+        if (nutrientIds != null && !nutrientIds.isEmpty()) {
+            sqlBuilder.append(NUTRIENT_ID_FILTER_PREFIX);
+            for (int i = 0; i < nutrientIds.size(); i++) {
+                if (i > NO_ROWS_AFFECTED) {
+                    sqlBuilder.append(", ");
+                }
+                sqlBuilder.append("?");
+            }
+            sqlBuilder.append(NUTRIENT_ID_FILTER_SUFFIX);
+        }
+        
+        sqlBuilder.append(DatabaseConstants.JOIN_NUTRIENT_NAME);
+        sqlBuilder.append(REPLACEMENT_FOODS_WITH_NUTRIENTS_ORDER_BY);
+        return sqlBuilder.toString();
+    }
+    
+    /**
+     * Assembles Food objects in a single pass over rows ordered by food.
+     * Consecutive rows with the same food ID belong to the same Food.
+     */
+    private List<Food> groupFoodsWithNutrients(ResultSet rs) throws SQLException {
+        List<Food> foods = new ArrayList<>();
+        Food current = null;
+        
+        while (rs.next()) {
+            FoodData foodData = extractFoodDataFromResultSet(rs);
+            
+            if (current == null || current.getFoodId() != foodData.foodId) {
+                current = Food.builder()
+                    .foodId(foodData.foodId)
+                    .foodName(foodData.foodDescription)
+                    .build();
+                foods.add(current);
+            }
+            
+            if (foodData.nutrient != null) {
+                current.addNutrient(foodData.nutrient);
+            }
+        }
+        
+        return foods;
     }
     
     /**
@@ -229,6 +573,150 @@ public class CNFDataDAOImpl extends BaseDAO implements ICNFDataDAO {
         return foods;
     }
     
+    @Override
+    public void exportSnapshot(Path target) throws DatabaseAccessException {
+        CNFSnapshotWriter writer = new CNFSnapshotWriter(System.currentTimeMillis());
+        
+        try (Connection conn = DatabaseConnectionManager.getConnection()) {
+            
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_NUTRIENTS_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    writer.addNutrient(rs.getInt(DatabaseConstants.COL_NUTRIENT_ID),
+                            rs.getString(DatabaseConstants.COL_NUTRIENT_NAME),
+                            rs.getString(DatabaseConstants.COL_NUTRIENT_UNIT));
+                }
+            }
+            
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_FOODS_SQL)) {
+                stmt.setFetchSize(EXPORT_FETCH_SIZE);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        writer.addFood(rs.getInt(DatabaseConstants.COL_FOOD_ID_CAPS),
+                                rs.getString(DatabaseConstants.COL_FOOD_DESCRIPTION));
+                    }
+                }
+            }
+            
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_NUTRIENT_AMOUNTS_SQL)) {
+                stmt.setFetchSize(EXPORT_FETCH_SIZE);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        double value = rs.getDouble(DatabaseConstants.COL_NUTRIENT_VALUE);
+                        if (!rs.wasNull()) {
+                            writer.addAmount(rs.getInt(DatabaseConstants.COL_FOOD_ID_CAPS),
+                                    rs.getInt(DatabaseConstants.COL_NUTRIENT_ID), value);
+                        }
+                    }
+                }
+            }
+            
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Failed to read CNF data for snapshot export", e);
+        }
+        
+        try {
+            writer.writeTo(target);
+        } catch (IOException | IllegalStateException e) {
+            throw new DatabaseAccessException("Failed to write CNF snapshot: " + target, e);
+        }
+    }
+    
+    @Override
+    public FoodGroupIndex loadFoodGroupIndex() throws DatabaseAccessException {
+        return loadFoodGroupIndex(SELECT_ALL_FOODS_WITH_GROUP_SQL, SELECT_ALL_NUTRIENT_AMOUNTS_SQL, new int[0]);
+    }
+    
+    @Override
+    public FoodGroupIndex loadFoodGroups(int... groupIds) throws DatabaseAccessException {
+        if (groupIds.length == 0) {
+            return loadFoodGroupIndex(null, null, groupIds);
+        }
+        String placeholders = buildPlaceholders(groupIds.length) + ")";
+        return loadFoodGroupIndex(SELECT_ALL_FOODS_WITH_GROUP_SQL + GROUP_ID_FILTER_PREFIX + placeholders,
+                SELECT_GROUP_NUTRIENT_AMOUNTS_PREFIX + placeholders + GROUP_NUTRIENT_AMOUNTS_ORDER_BY, groupIds);
+    }
+    
+    /**
+     * Loads every food group and nutrient, then the foods and amounts returned by the given
+     * queries, each bound to the group IDs; null queries load groups only.
+     */
+    private FoodGroupIndex loadFoodGroupIndex(String foodsSql, String amountsSql, int[] groupIds) 
+            throws DatabaseAccessException {
+        FoodGroupIndex.Builder builder = FoodGroupIndex.builder();
+        
+        try (Connection conn = DatabaseConnectionManager.getConnection()) {
+            
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_FOOD_GROUPS_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    builder.addGroup(rs.getInt(DatabaseConstants.COL_FOOD_GROUP_ID),
+                            rs.getInt(DatabaseConstants.COL_FOOD_GROUP_CODE),
+                            rs.getString(DatabaseConstants.COL_FOOD_GROUP_NAME));
+                }
+            }
+            
+            // Register every nutrient first so the index has a column for each of them
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_NUTRIENTS_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    registerNutrient(rs.getInt(DatabaseConstants.COL_NUTRIENT_ID),
+                            rs.getString(DatabaseConstants.COL_NUTRIENT_NAME),
+                            rs.getString(DatabaseConstants.COL_NUTRIENT_UNIT));
+                }
+            }
+            
+            if (foodsSql == null) {
+                return builder.build();
+            }
+            
+            try (PreparedStatement stmt = conn.prepareStatement(foodsSql)) {
+                stmt.setFetchSize(EXPORT_FETCH_SIZE);
+                setGroupIds(stmt, groupIds);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        builder.addFood(rs.getInt(DatabaseConstants.COL_FOOD_ID_CAPS),
+                                rs.getInt(DatabaseConstants.COL_FOOD_GROUP_ID),
+                                rs.getString(DatabaseConstants.COL_FOOD_DESCRIPTION));
+                    }
+                }
+            }
+            
+            try (PreparedStatement stmt = conn.prepareStatement(amountsSql)) {
+                stmt.setFetchSize(EXPORT_FETCH_SIZE);
+                setGroupIds(stmt, groupIds);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        double value = rs.getDouble(DatabaseConstants.COL_NUTRIENT_VALUE);
+                        if (!rs.wasNull()) {
+                            builder.addAmount(rs.getInt(DatabaseConstants.COL_FOOD_ID_CAPS),
+                                    rs.getInt(DatabaseConstants.COL_NUTRIENT_ID), value);
+                        }
+                    }
+                }
+            }
+            
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Failed to load food group index", e);
+        }
+        
+        return builder.build();
+    }
+    
+    private static String buildPlaceholders(int count) {
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            placeholders.append(i > 0 ? ", ?" : "?");
+        }
+        return placeholders.toString();
+    }
+    
+    private static void setGroupIds(PreparedStatement stmt, int[] groupIds) throws SQLException {
+        for (int i = 0; i < groupIds.length; i++) {
+            stmt.setInt(i + 1, groupIds[i]);
+        }
+    }
+    
     /**
      * Helper class to hold food data during processing.
      */
@@ -1,28 +1,43 @@
 package com.nutrisci.database.dao.impl;
 
 import com.nutrisci.database.DatabaseConnectionManager;
+import com.nutrisci.database.cache.MealHistoryCache;
 import com.nutrisci.database.dao.IMealLogDAO;
 import com.nutrisci.database.dto.Meal;
+import com.nutrisci.database.dto.DailyNutrientTotals;
+import com.nutrisci.database.dto.MealCursor;
 import com.nutrisci.database.dto.MealItem;
+import com.nutrisci.database.dto.MealPage;
 import com.nutrisci.database.dto.MealType;
+import com.nutrisci.database.events.MealDeleted;
+import com.nutrisci.database.events.MealItemAdded;
+import com.nutrisci.database.events.MealItemRemoved;
+import com.nutrisci.database.events.MealLogEventBus;
+import com.nutrisci.database.events.MealLogListener;
+import com.nutrisci.database.events.MealLogged;
 import com.nutrisci.database.exceptions.*;
+import com.nutrisci.database.migration.SchemaMigrationRunner;
 import com.nutrisci.database.constants.DatabaseConstants;
+import com.nutrisci.database.util.FixedPoint;
 
-import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Implementation of IMealLogDAO for SQL Server database operations.
  * Provides concrete logic for meal logging operations using JDBC.
  * Extends BaseDAO to leverage common database operation patterns.
+ * 
+ * <p>A DAO constructed without an event bus creates its own, whose dispatch thread starts
+ * when the first listener is added; {@link #close()} stops it. A bus passed in by the caller
+ * belongs to the caller and is left running.</p>
  */
-public class MealLogDAOImpl extends BaseDAO implements IMealLogDAO {
+public class MealLogDAOImpl extends BaseDAO implements IMealLogDAO, AutoCloseable {
     
     // SQL Query Constants
     private static final String INSERT_MEAL_SQL = 
@@ -35,6 +50,10 @@ public class MealLogDAOImpl extends BaseDAO implements IMealLogDAO {
         " (" + DatabaseConstants.COL_MEAL_ID + ", " + DatabaseConstants.COL_FOOD_ID + ", " + DatabaseConstants.COL_QUANTITY_GRAMS + ") " +
         "VALUES (?, ?, ?)";
     
+    // History order; meal_id breaks ties so each meal's rows stay together and cursors are unique
+    private static final String ORDER_BY_MEAL_HISTORY = 
+        DatabaseConstants.ORDER_BY_MEAL_DATE_DESC + ", m." + DatabaseConstants.COL_MEAL_ID + " DESC";
+    
     private static final String SELECT_MEALS_WITH_ITEMS_SQL = 
         "SELECT " + DatabaseConstants.SELECT_ALL_MEAL_COLUMNS + ", " +
         DatabaseConstants.SELECT_ALL_MEAL_ITEM_COLUMNS + ", fn." + DatabaseConstants.COL_FOOD_DESCRIPTION + " " +
@@ -42,21 +61,140 @@ public class MealLogDAOImpl extends BaseDAO implements IMealLogDAO {
         DatabaseConstants.JOIN_MEAL_ITEMS +
         DatabaseConstants.JOIN_FOOD_NAME +
         " WHERE m." + DatabaseConstants.COL_USER_ID + " = ? AND m." + DatabaseConstants.COL_MEAL_DATE + " BETWEEN ? AND ?" +
-        DatabaseConstants.ORDER_BY_MEAL_DATE_DESC + ", mi." + DatabaseConstants.COL_ITEM_ID;
+        ORDER_BY_MEAL_HISTORY + ", mi." + DatabaseConstants.COL_ITEM_ID;
+    
+    // Page queries limit meals, not joined rows, so TOP applies to a derived table of meals
+    private static final String SELECT_MEAL_PAGE_PREFIX = 
+        "SELECT " + DatabaseConstants.SELECT_ALL_MEAL_COLUMNS + ", " +
+        DatabaseConstants.SELECT_ALL_MEAL_ITEM_COLUMNS + ", fn." + DatabaseConstants.COL_FOOD_DESCRIPTION + " " +
+        "FROM (SELECT TOP (?) " + DatabaseConstants.SELECT_ALL_MEAL_COLUMNS + 
+        " FROM " + DatabaseConstants.TABLE_LOGGED_MEALS + " m" +
+        " WHERE m." + DatabaseConstants.COL_USER_ID + " = ?";
+    
+    private static final String MEAL_PAGE_KEYSET_CONDITION = 
+        " AND (m." + DatabaseConstants.COL_MEAL_DATE + " < ? OR (m." + DatabaseConstants.COL_MEAL_DATE + " = ? AND " +
+        "(m." + DatabaseConstants.COL_LOGGED_AT + " < ? OR (m." + DatabaseConstants.COL_LOGGED_AT + " = ? AND " +
+        "m." + DatabaseConstants.COL_MEAL_ID + " < ?))))";
+    
+    private static final String SELECT_MEAL_PAGE_SUFFIX = 
+        ORDER_BY_MEAL_HISTORY + ") m" +
+        DatabaseConstants.JOIN_MEAL_ITEMS +
+        DatabaseConstants.JOIN_FOOD_NAME +
+        ORDER_BY_MEAL_HISTORY + ", mi." + DatabaseConstants.COL_ITEM_ID;
     
-    private static final String SELECT_MEAL_ITEM_ACCESS_SQL = 
-        "SELECT mi." + DatabaseConstants.COL_ITEM_ID + " FROM " + DatabaseConstants.TABLE_MEAL_ITEMS + " mi " +
+    private static final String SELECT_FIRST_MEAL_PAGE_SQL = SELECT_MEAL_PAGE_PREFIX + SELECT_MEAL_PAGE_SUFFIX;
+    
+    private static final String SELECT_NEXT_MEAL_PAGE_SQL = 
+        SELECT_MEAL_PAGE_PREFIX + MEAL_PAGE_KEYSET_CONDITION + SELECT_MEAL_PAGE_SUFFIX;
+    
+    // Nutrient amounts are per 100 g, so each item contributes quantity_grams / 100 * NutrientValue
+    private static final String SELECT_DAILY_NUTRIENT_TOTALS_PREFIX = 
+        "SELECT m." + DatabaseConstants.COL_MEAL_DATE + ", na." + DatabaseConstants.COL_NUTRIENT_ID + ", " +
+        "SUM(mi." + DatabaseConstants.COL_QUANTITY_GRAMS + " * na." + DatabaseConstants.COL_NUTRIENT_VALUE + ") / 100 AS " + DatabaseConstants.COL_TOTAL + " " +
+        "FROM " + DatabaseConstants.TABLE_LOGGED_MEALS + " m " +
+        "JOIN " + DatabaseConstants.TABLE_MEAL_ITEMS + " mi ON m." + DatabaseConstants.COL_MEAL_ID + " = mi." + DatabaseConstants.COL_MEAL_ID + " " +
+        "JOIN " + DatabaseConstants.TABLE_NUTRIENT_AMOUNT + " na ON mi." + DatabaseConstants.COL_FOOD_ID + " = na." + DatabaseConstants.COL_FOOD_ID_CAPS +
+        " WHERE m." + DatabaseConstants.COL_USER_ID + " = ? AND m." + DatabaseConstants.COL_MEAL_DATE + " BETWEEN ? AND ?";
+    
+    private static final String DAILY_NUTRIENT_FILTER_PREFIX = " AND na." + DatabaseConstants.COL_NUTRIENT_ID + " IN (";
+    
+    private static final String SELECT_DAILY_NUTRIENT_TOTALS_SUFFIX = 
+        " GROUP BY m." + DatabaseConstants.COL_MEAL_DATE + ", na." + DatabaseConstants.COL_NUTRIENT_ID;
+    
+    // Per-(user, day, nutrient) contribution of a set of meal items, scaled by a sign parameter
+    private static final String ROLLUP_DELTA_SOURCE_PREFIX = 
+        "SELECT m." + DatabaseConstants.COL_USER_ID + ", m." + DatabaseConstants.COL_MEAL_DATE + ", na." + DatabaseConstants.COL_NUTRIENT_ID + ", " +
+        "SUM(mi." + DatabaseConstants.COL_QUANTITY_GRAMS + " * na." + DatabaseConstants.COL_NUTRIENT_VALUE + ") / 100 * ? AS delta " +
+        "FROM " + DatabaseConstants.TABLE_MEAL_ITEMS + " mi " +
         "JOIN " + DatabaseConstants.TABLE_LOGGED_MEALS + " m ON mi." + DatabaseConstants.COL_MEAL_ID + " = m." + DatabaseConstants.COL_MEAL_ID + " " +
-        "WHERE mi." + DatabaseConstants.COL_ITEM_ID + " = ? AND mi." + DatabaseConstants.COL_MEAL_ID + " = ? AND m." + DatabaseConstants.COL_USER_ID + " = ?";
+        "JOIN " + DatabaseConstants.TABLE_NUTRIENT_AMOUNT + " na ON mi." + DatabaseConstants.COL_FOOD_ID + " = na." + DatabaseConstants.COL_FOOD_ID_CAPS;
+    
+    // HOLDLOCK keeps concurrent writers from inserting the same rollup row twice;
+    // rows whose total returns to zero are removed so emptied days disappear
+    private static final String MERGE_ROLLUP_DELTA_SUFFIX = 
+        " GROUP BY m." + DatabaseConstants.COL_USER_ID + ", m." + DatabaseConstants.COL_MEAL_DATE + ", na." + DatabaseConstants.COL_NUTRIENT_ID + ") d " +
+        "ON r." + DatabaseConstants.COL_USER_ID + " = d." + DatabaseConstants.COL_USER_ID + 
+        " AND r." + DatabaseConstants.COL_DAY + " = d." + DatabaseConstants.COL_MEAL_DATE + 
+        " AND r." + DatabaseConstants.COL_ROLLUP_NUTRIENT_ID + " = d." + DatabaseConstants.COL_NUTRIENT_ID + " " +
+        "WHEN MATCHED AND r." + DatabaseConstants.COL_TOTAL + " + d.delta = 0 THEN DELETE " +
+        "WHEN MATCHED THEN UPDATE SET " + DatabaseConstants.COL_TOTAL + " = r." + DatabaseConstants.COL_TOTAL + " + d.delta " +
+        "WHEN NOT MATCHED THEN INSERT (" + DatabaseConstants.COL_USER_ID + ", " + DatabaseConstants.COL_DAY + ", " +
+        DatabaseConstants.COL_ROLLUP_NUTRIENT_ID + ", " + DatabaseConstants.COL_TOTAL + ") " +
+        "VALUES (d." + DatabaseConstants.COL_USER_ID + ", d." + DatabaseConstants.COL_MEAL_DATE + ", d." + DatabaseConstants.COL_NUTRIENT_ID + ", d.delta);";
+    
+    private static final String MERGE_ROLLUP_DELTA_PREFIX = 
+        "MERGE INTO " + DatabaseConstants.TABLE_DAILY_NUTRIENT_ROLLUP + " WITH (HOLDLOCK) AS r USING (" + ROLLUP_DELTA_SOURCE_PREFIX;
     
-    private static final String COUNT_MEAL_ITEMS_SQL = 
-        SELECT_COUNT_FROM + DatabaseConstants.TABLE_MEAL_ITEMS + DatabaseConstants.WHERE_MEAL_ID;
+    private static final String MERGE_ROLLUP_FOR_MEAL_SQL = 
+        MERGE_ROLLUP_DELTA_PREFIX + " WHERE mi." + DatabaseConstants.COL_MEAL_ID + " = ?" + MERGE_ROLLUP_DELTA_SUFFIX;
     
-    private static final String DELETE_MEAL_ITEM_SQL = 
-        DELETE_FROM + DatabaseConstants.TABLE_MEAL_ITEMS + DatabaseConstants.WHERE_ITEM_ID;
+    private static final String MERGE_ROLLUP_FOR_ITEM_SQL = 
+        MERGE_ROLLUP_DELTA_PREFIX + " WHERE mi." + DatabaseConstants.COL_ITEM_ID + " = ?" + MERGE_ROLLUP_DELTA_SUFFIX;
     
-    private static final String DELETE_MEAL_SQL = 
-        DELETE_FROM + DatabaseConstants.TABLE_LOGGED_MEALS + DatabaseConstants.WHERE_MEAL_ID;
+    private static final int ROLLUP_ADD = 1;
+    private static final int ROLLUP_SUBTRACT = -1;
+    
+    private static final String DELETE_ROLLUP_RANGE_SQL = 
+        DELETE_FROM + DatabaseConstants.TABLE_DAILY_NUTRIENT_ROLLUP + 
+        " WHERE " + DatabaseConstants.COL_DAY + " BETWEEN ? AND ?";
+    
+    private static final String INSERT_ROLLUP_RANGE_SQL = 
+        INSERT_INTO + DatabaseConstants.TABLE_DAILY_NUTRIENT_ROLLUP + 
+        " (" + DatabaseConstants.COL_USER_ID + ", " + DatabaseConstants.COL_DAY + ", " +
+        DatabaseConstants.COL_ROLLUP_NUTRIENT_ID + ", " + DatabaseConstants.COL_TOTAL + ") " +
+        "SELECT m." + DatabaseConstants.COL_USER_ID + ", m." + DatabaseConstants.COL_MEAL_DATE + ", na." + DatabaseConstants.COL_NUTRIENT_ID + ", " +
+        "SUM(mi." + DatabaseConstants.COL_QUANTITY_GRAMS + " * na." + DatabaseConstants.COL_NUTRIENT_VALUE + ") / 100 " +
+        "FROM " + DatabaseConstants.TABLE_LOGGED_MEALS + " m " +
+        "JOIN " + DatabaseConstants.TABLE_MEAL_ITEMS + " mi ON m." + DatabaseConstants.COL_MEAL_ID + " = mi." + DatabaseConstants.COL_MEAL_ID + " " +
+        "JOIN " + DatabaseConstants.TABLE_NUTRIENT_AMOUNT + " na ON mi." + DatabaseConstants.COL_FOOD_ID + " = na." + DatabaseConstants.COL_FOOD_ID_CAPS +
+        " WHERE m." + DatabaseConstants.COL_MEAL_DATE + " BETWEEN ? AND ?";
+    
+    private static final String ROLLUP_GROUP_BY = 
+        " GROUP BY m." + DatabaseConstants.COL_USER_ID + ", m." + DatabaseConstants.COL_MEAL_DATE + ", na." + DatabaseConstants.COL_NUTRIENT_ID;
+    
+    private static final String SELECT_DAILY_ROLLUP_PREFIX = 
+        "SELECT r." + DatabaseConstants.COL_DAY + " AS " + DatabaseConstants.COL_MEAL_DATE + 
+        ", r." + DatabaseConstants.COL_ROLLUP_NUTRIENT_ID + " AS " + DatabaseConstants.COL_NUTRIENT_ID + 
+        ", r." + DatabaseConstants.COL_TOTAL + " " +
+        "FROM " + DatabaseConstants.TABLE_DAILY_NUTRIENT_ROLLUP + " r" +
+        " WHERE r." + DatabaseConstants.COL_USER_ID + " = ? AND r." + DatabaseConstants.COL_DAY + " BETWEEN ? AND ?";
+    
+    private static final String DAILY_ROLLUP_FILTER_PREFIX = " AND r." + DatabaseConstants.COL_ROLLUP_NUTRIENT_ID + " IN (";
+    
+    private static final String MERGE_ROLLUP_FOR_MEALS_PREFIX = 
+        MERGE_ROLLUP_DELTA_PREFIX + " WHERE mi." + DatabaseConstants.COL_MEAL_ID + " IN (";
+    
+    // Stays well below the 2100 parameter limit of SQL Server
+    private static final int MAX_IN_LIST_PARAMETERS = 1000;
+    
+    // Authorized item removal in one round trip: the ownership check is part of every
+    // statement, so an unauthorized or missing item simply removes nothing
+    private static final String OWNED_ITEM_CONDITION = 
+        "mi." + DatabaseConstants.COL_ITEM_ID + " = ? AND mi." + DatabaseConstants.COL_MEAL_ID + " = ?";
+    
+    private static final String REMOVE_OWNED_MEAL_ITEM_SQL = 
+        "SET NOCOUNT ON; SET XACT_ABORT ON; " +
+        "DECLARE @removed TABLE (" + DatabaseConstants.COL_MEAL_ID + " INT NOT NULL); " +
+        "DECLARE @mealsDeleted INT = 0; " +
+        "BEGIN TRANSACTION; " +
+        // Rollup delta first, while the item row still exists
+        MERGE_ROLLUP_DELTA_PREFIX + " WHERE " + OWNED_ITEM_CONDITION + " AND m." + DatabaseConstants.COL_USER_ID + " = ?" + 
+        MERGE_ROLLUP_DELTA_SUFFIX + " " +
+        "DELETE mi OUTPUT DELETED." + DatabaseConstants.COL_MEAL_ID + " INTO @removed " +
+        "FROM " + DatabaseConstants.TABLE_MEAL_ITEMS + " mi WHERE " + OWNED_ITEM_CONDITION + 
+        " AND EXISTS (SELECT 1 FROM " + DatabaseConstants.TABLE_LOGGED_MEALS + " m WHERE m." + DatabaseConstants.COL_MEAL_ID + 
+        " = mi." + DatabaseConstants.COL_MEAL_ID + " AND m." + DatabaseConstants.COL_USER_ID + " = ?); " +
+        "DELETE m FROM " + DatabaseConstants.TABLE_LOGGED_MEALS + " m " +
+        "WHERE m." + DatabaseConstants.COL_MEAL_ID + " IN (SELECT " + DatabaseConstants.COL_MEAL_ID + " FROM @removed) " +
+        "AND NOT EXISTS (SELECT 1 FROM " + DatabaseConstants.TABLE_MEAL_ITEMS + " mi WHERE mi." + DatabaseConstants.COL_MEAL_ID + 
+        " = m." + DatabaseConstants.COL_MEAL_ID + "); " +
+        "SET @mealsDeleted = @@ROWCOUNT; " +
+        "COMMIT TRANSACTION; " +
+        "SELECT COUNT(*) + @mealsDeleted FROM @removed;";
+    
+    // Results of the removal batch: the item count plus the number of meals deleted with it
+    private static final int ITEM_REMOVED = 1;
+    private static final int ITEM_AND_MEAL_REMOVED = 2;
     
     private static final String SELECT_MEAL_ACCESS_SQL = 
         "SELECT " + DatabaseConstants.COL_MEAL_ID + " FROM " + DatabaseConstants.TABLE_LOGGED_MEALS + 
@@ -68,19 +206,128 @@ public class MealLogDAOImpl extends BaseDAO implements IMealLogDAO {
     private static final String CHECK_MEAL_ITEM_EXISTS_SQL = 
         SELECT_EXISTS_FROM + DatabaseConstants.TABLE_MEAL_ITEMS + DatabaseConstants.WHERE_ITEM_ID_AND_MEAL_ID;
 
+    // Optional cache of loaded meal history; null when caching is disabled
+    private final MealHistoryCache historyCache;
+    
+    // Change feed; publishing is a no-op until a listener registers
+    private final MealLogEventBus eventBus;
+    // Whether close() stops the bus; false when the caller supplied it
+    private final boolean ownsEventBus;
+    
+    /**
+     * Constructs a DAO that reads meal history from the database on every call.
+     */
+    public MealLogDAOImpl() {
+        this(null);
+    }
+    
+    /**
+     * Constructs a DAO that serves {@link #loadLoggedMeals} from the given cache where
+     * possible and keeps it up to date on writes. The cache may be shared between DAO
+     * instances, but all writes to the meal tables must go through DAOs that use it.
+     * 
+     * @param historyCache the cache, or null to disable caching
+     */
+    public MealLogDAOImpl(MealHistoryCache historyCache) {
+        this(historyCache, new MealLogEventBus(), true);
+    }
+    
+    /**
+     * Constructs a DAO that publishes its committed changes to the given event bus. Sharing
+     * one bus between DAO instances gives listeners a single ordered feed of all their writes.
+     * 
+     * @param historyCache the cache, or null to disable caching
+     * @param eventBus the bus change events are published to
+     */
+    public MealLogDAOImpl(MealHistoryCache historyCache, MealLogEventBus eventBus) {
+        this(historyCache, eventBus, false);
+    }
+    
+    private MealLogDAOImpl(MealHistoryCache historyCache, MealLogEventBus eventBus, boolean ownsEventBus) {
+        if (eventBus == null) {
+            throw new IllegalArgumentException("Event bus cannot be null");
+        }
+        this.historyCache = historyCache;
+        this.eventBus = eventBus;
+        this.ownsEventBus = ownsEventBus;
+    }
+    
+    /**
+     * Stops the event bus this DAO created, discarding undelivered events. A bus passed to the
+     * constructor is not closed. The DAO can still be used for reads and writes afterwards,
+     * but no longer publishes events or accepts listeners.
+     */
+    @Override
+    public void close() {
+        if (ownsEventBus) {
+            eventBus.close();
+        }
+    }
+    
+    @Override
+    public void addMealLogListener(MealLogListener listener) {
+        eventBus.addListener(listener);
+    }
+    
+    @Override
+    public void removeMealLogListener(MealLogListener listener) {
+        eventBus.removeListener(listener);
+    }
+    
     @Override
     public int logMeal(int userId, Meal meal) throws DatabaseAccessException {
-        return executeInTransaction(conn -> {
-            int mealId = insertMealRecord(conn, userId, meal);
-            insertMealItems(conn, mealId, meal.getMealItems());
-            return mealId;
+        int mealId = executeInTransaction(conn -> {
+            int newMealId = insertMealRecord(conn, userId, meal);
+            insertMealItems(conn, newMealId, meal.getMealItems());
+            applyRollupDelta(conn, MERGE_ROLLUP_FOR_MEAL_SQL, newMealId, ROLLUP_ADD);
+            return newMealId;
         });
+        if (historyCache != null) {
+            historyCache.invalidateDay(userId, meal.getMealDate());
+        }
+        if (eventBus.hasListeners()) {
+            eventBus.publish(new MealLogged(userId, mealId, meal));
+        }
+        return mealId;
+    }
+    
+    @Override
+    public int[] logMeals(int userId, List<Meal> meals) throws DatabaseAccessException {
+        if (meals.isEmpty()) {
+            return new int[0];
+        }
+        int[] mealIds = executeInTransaction(conn -> {
+            int[] newMealIds = new int[meals.size()];
+            for (int i = 0; i < newMealIds.length; i++) {
+                newMealIds[i] = insertMealRecord(conn, userId, meals.get(i));
+            }
+            insertMealItems(conn, newMealIds, meals);
+            for (int from = 0; from < newMealIds.length; from += MAX_IN_LIST_PARAMETERS) {
+                applyRollupDelta(conn, newMealIds, from, Math.min(newMealIds.length, from + MAX_IN_LIST_PARAMETERS));
+            }
+            return newMealIds;
+        });
+        if (historyCache != null) {
+            for (Meal meal : meals) {
+                historyCache.invalidateDay(userId, meal.getMealDate());
+            }
+        }
+        if (eventBus.hasListeners()) {
+            List<MealLogged> events = new ArrayList<>(mealIds.length);
+            for (int i = 0; i < mealIds.length; i++) {
+                events.add(new MealLogged(userId, mealIds[i], meals.get(i)));
+            }
+            eventBus.publishAll(events);
+        }
+        return mealIds;
     }
     
     /**
      * Executes database operations within a transaction.
      */
     private <T> T executeInTransaction(TransactionCallback<T> callback) throws DatabaseAccessException {
+        // Meal writes maintain the rollup, so its table must have been migrated
+        SchemaMigrationRunner.requireSchema();
         Connection conn = null;
         try {
             conn = DatabaseConnectionManager.getConnection();
@@ -139,6 +386,23 @@ public class MealLogDAOImpl extends BaseDAO implements IMealLogDAO {
         }
     }
     
+    /**
+     * Inserts the items of several meals in a single batch.
+     */
+    private void insertMealItems(Connection conn, int[] mealIds, List<Meal> meals) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_MEAL_ITEMS_SQL)) {
+            for (int i = 0; i < mealIds.length; i++) {
+                for (MealItem item : meals.get(i).getMealItems()) {
+                    stmt.setInt(1, mealIds[i]);
+                    stmt.setInt(2, item.getFoodId());
+                    stmt.setBigDecimal(3, item.getQuantityGrams());
+                    stmt.addBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+    }
+    
     /**
      * Extracts the generated key from a prepared statement.
      */
@@ -192,6 +456,40 @@ public class MealLogDAOImpl extends BaseDAO implements IMealLogDAO {
     public List<Meal> loadLoggedMeals(int userId, LocalDate startDate, LocalDate endDate) 
             throws DatabaseAccessException {
         
+        if (historyCache != null) {
+            List<Meal> cached = loadThroughCache(userId, startDate, endDate);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        
+        List<Meal> meals = new ArrayList<>();
+        streamLoggedMeals(userId, startDate, endDate, meals::add);
+        return meals;
+    }
+    
+    /**
+     * Fetches only the days of the range that are not cached, then serves the whole range
+     * from the cache. Returns null if a concurrent write invalidated part of the range.
+     */
+    private List<Meal> loadThroughCache(int userId, LocalDate startDate, LocalDate endDate) 
+            throws DatabaseAccessException {
+        
+        long generation = historyCache.getGeneration(userId);
+        for (MealHistoryCache.DateRange missing : historyCache.missingRanges(userId, startDate, endDate)) {
+            List<Meal> meals = new ArrayList<>();
+            streamLoggedMeals(userId, missing.getStartDate(), missing.getEndDate(), meals::add);
+            if (!historyCache.put(userId, missing.getStartDate(), missing.getEndDate(), meals, generation)) {
+                return null;
+            }
+        }
+        return historyCache.get(userId, startDate, endDate);
+    }
+    
+    @Override
+    public int streamLoggedMeals(int userId, LocalDate startDate, LocalDate endDate, Consumer<? super Meal> consumer) 
+            throws DatabaseAccessException {
+        
         try (Connection conn = DatabaseConnectionManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(SELECT_MEALS_WITH_ITEMS_SQL)) {
             
@@ -200,10 +498,7 @@ public class MealLogDAOImpl extends BaseDAO implements IMealLogDAO {
             stmt.setDate(3, Date.valueOf(endDate));
             
             try (ResultSet rs = stmt.executeQuery()) {
-                if (!rs.next()) {
-                    return new ArrayList<>(); // Return empty list if no results
-                }
-                return buildMealsFromResultSet(rs);
+                return streamMealsFromResultSet(rs, consumer);
             }
             
         } catch (SQLException e) {
@@ -211,26 +506,207 @@ public class MealLogDAOImpl extends BaseDAO implements IMealLogDAO {
         }
     }
     
+    @Override
+    public MealPage loadLoggedMealsPage(int userId, MealCursor before, int limit) 
+            throws DatabaseAccessException {
+        
+        int pageSize = limit > 0 ? Math.min(limit, DatabaseConstants.MAX_PAGE_SIZE) : DatabaseConstants.DEFAULT_PAGE_SIZE;
+        String sql = before != null ? SELECT_NEXT_MEAL_PAGE_SQL : SELECT_FIRST_MEAL_PAGE_SQL;
+        List<Meal> meals = new ArrayList<>(pageSize + 1);
+        
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            // One extra meal tells whether another page exists
+            stmt.setInt(1, pageSize + 1);
+            stmt.setInt(2, userId);
+            if (before != null) {
+                Date mealDate = Date.valueOf(before.getMealDate());
+                Timestamp loggedAt = Timestamp.valueOf(before.getLoggedAt());
+                stmt.setDate(3, mealDate);
+                stmt.setDate(4, mealDate);
+                stmt.setTimestamp(5, loggedAt);
+                stmt.setTimestamp(6, loggedAt);
+                stmt.setInt(7, before.getMealId());
+            }
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                streamMealsFromResultSet(rs, meals::add);
+            }
+            
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Failed to load logged meals page", e);
+        }
+        
+        boolean hasMore = meals.size() > pageSize;
+        return new MealPage(hasMore ? meals.subList(0, pageSize) : meals, hasMore);
+    }
+    
+    @Override
+    public DailyNutrientTotals loadDailyNutrientTotals(int userId, LocalDate startDate, LocalDate endDate, int... nutrientIds) 
+            throws DatabaseAccessException {
+        
+        return queryDailyTotals(SELECT_DAILY_NUTRIENT_TOTALS_PREFIX, DAILY_NUTRIENT_FILTER_PREFIX, SELECT_DAILY_NUTRIENT_TOTALS_SUFFIX,
+            userId, startDate, endDate, nutrientIds);
+    }
+    
+    @Override
+    public DailyNutrientTotals loadDailyNutrientRollup(int userId, LocalDate startDate, LocalDate endDate, int... nutrientIds) 
+            throws DatabaseAccessException {
+        
+        SchemaMigrationRunner.requireSchema();
+        return queryDailyTotals(SELECT_DAILY_ROLLUP_PREFIX, DAILY_ROLLUP_FILTER_PREFIX, "",
+            userId, startDate, endDate, nutrientIds);
+    }
+    
+    @Override
+    public int rebuildDailyNutrientRollup(int userId, LocalDate startDate, LocalDate endDate) 
+            throws DatabaseAccessException {
+        
+        return rebuildRollup(AND_USER_ID_EQUALS, userId, startDate, endDate);
+    }
+    
+    @Override
+    public int rebuildDailyNutrientRollup(LocalDate startDate, LocalDate endDate) throws DatabaseAccessException {
+        return rebuildRollup("", 0, startDate, endDate);
+    }
+    
+    /**
+     * Replaces the rollup rows in a date range with totals recomputed from the meal items,
+     * in one transaction so readers never see a partially rebuilt range.
+     */
+    private int rebuildRollup(String userFilter, int userId, LocalDate startDate, LocalDate endDate) 
+            throws DatabaseAccessException {
+        
+        boolean singleUser = !userFilter.isEmpty();
+        return executeInTransaction(conn -> {
+            try (PreparedStatement delete = conn.prepareStatement(DELETE_ROLLUP_RANGE_SQL + userFilter);
+                 PreparedStatement insert = conn.prepareStatement(
+                     INSERT_ROLLUP_RANGE_SQL + (singleUser ? " AND m." + DatabaseConstants.COL_USER_ID + " = ?" : "") + ROLLUP_GROUP_BY)) {
+                
+                for (PreparedStatement stmt : new PreparedStatement[] { delete, insert }) {
+                    stmt.setDate(1, Date.valueOf(startDate));
+                    stmt.setDate(2, Date.valueOf(endDate));
+                    if (singleUser) {
+                        stmt.setInt(3, userId);
+                    }
+                }
+                delete.executeUpdate();
+                return insert.executeUpdate();
+            }
+        });
+    }
+    
+    /**
+     * Runs a daily totals query and reads one (day, nutrient, total) row at a time.
+     */
+    private DailyNutrientTotals queryDailyTotals(String sqlPrefix, String filterPrefix, String sqlSuffix, 
+            int userId, LocalDate startDate, LocalDate endDate, int[] nutrientIds) throws DatabaseAccessException {
+        
+        boolean filtered = nutrientIds != null && nutrientIds.length > 0;
+        StringBuilder sqlBuilder = new StringBuilder(sqlPrefix);
+        if (filtered) {
+            sqlBuilder.append(filterPrefix);
+            for (int i = 0; i < nutrientIds.length; i++) {
+                sqlBuilder.append(i == 0 ? "?" : ", ?");
+            }
+            sqlBuilder.append(')');
+        }
+        sqlBuilder.append(sqlSuffix);
+        
+        DailyNutrientTotals.Builder builder = DailyNutrientTotals.builder();
+        if (filtered) {
+            builder.nutrientIds(nutrientIds);
+        }
+        
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sqlBuilder.toString())) {
+            
+            stmt.setInt(1, userId);
+            stmt.setDate(2, Date.valueOf(startDate));
+            stmt.setDate(3, Date.valueOf(endDate));
+            if (filtered) {
+                for (int i = 0; i < nutrientIds.length; i++) {
+                    stmt.setInt(4 + i, nutrientIds[i]);
+                }
+            }
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    builder.addTotal(
+                        rs.getDate(DatabaseConstants.COL_MEAL_DATE).toLocalDate(),
+                        rs.getInt(DatabaseConstants.COL_NUTRIENT_ID),
+                        FixedPoint.fromBigDecimal(rs.getBigDecimal(DatabaseConstants.COL_TOTAL)));
+                }
+            }
+            
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Failed to load daily nutrient totals", e);
+        }
+        
+        return builder.build();
+    }
+    
+    /**
+     * Adds the nutrient contribution of the meals {@code mealIds[from..to)} to the daily rollup,
+     * using the caller's transaction.
+     */
+    private void applyRollupDelta(Connection conn, int[] mealIds, int from, int to) throws SQLException {
+        StringBuilder sqlBuilder = new StringBuilder(MERGE_ROLLUP_FOR_MEALS_PREFIX);
+        for (int i = from; i < to; i++) {
+            sqlBuilder.append(i == from ? "?" : ", ?");
+        }
+        sqlBuilder.append(')').append(MERGE_ROLLUP_DELTA_SUFFIX);
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sqlBuilder.toString())) {
+            stmt.setInt(1, ROLLUP_ADD);
+            for (int i = from; i < to; i++) {
+                stmt.setInt(2 + i - from, mealIds[i]);
+            }
+            stmt.executeUpdate();
+        }
+    }
+    
+    /**
+     * Adds (or subtracts) the nutrient contribution of a meal or a single item to the
+     * daily rollup, using the caller's transaction.
+     */
+    private void applyRollupDelta(Connection conn, String mergeSql, int id, int sign) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(mergeSql)) {
+            stmt.setInt(1, sign);
+            stmt.setInt(2, id);
+            stmt.executeUpdate();
+        }
+    }
+    
     /**
-     * Builds meal objects from result set data.
+     * Assembles meals from result set rows and emits each one as soon as its last item row
+     * has been read. Rows must be ordered by meal, so only one meal is held at a time.
      */
-    private List<Meal> buildMealsFromResultSet(ResultSet rs) throws SQLException {
-        Map<Integer, Meal> mealMap = new HashMap<>();
+    private int streamMealsFromResultSet(ResultSet rs, Consumer<? super Meal> consumer) throws SQLException {
+        Meal current = null;
+        int count = 0;
         
-        do {
+        while (rs.next()) {
             int mealId = rs.getInt(DatabaseConstants.COL_MEAL_ID);
             
-            // Create meal if not exists
-            if (!mealMap.containsKey(mealId)) {
-                Meal meal = createMealFromResultSet(rs);
-                mealMap.put(mealId, meal);
+            // A new meal ID means the previous meal is complete
+            if (current == null || current.getMealId() != mealId) {
+                if (current != null) {
+                    consumer.accept(current);
+                    count++;
+                }
+                current = createMealFromResultSet(rs);
             }
             
-            // Add meal item if exists
-            addMealItemIfExists(rs, mealMap.get(mealId));
-        } while (rs.next());
+            addMealItemIfExists(rs, current);
+        }
         
-        return new ArrayList<>(mealMap.values());
+        if (current != null) {
+            consumer.accept(current);
+            count++;
+        }
+        return count;
     }
     
     /**
@@ -259,14 +735,14 @@ public class MealLogDAOImpl extends BaseDAO implements IMealLogDAO {
         if (rs.getObject(DatabaseConstants.COL_ITEM_ID) != null) {
             int itemId = rs.getInt(DatabaseConstants.COL_ITEM_ID);
             int foodId = rs.getInt(DatabaseConstants.COL_FOOD_ID);
-            BigDecimal quantity = rs.getBigDecimal(DatabaseConstants.COL_QUANTITY_GRAMS);
+            long quantity = FixedPoint.fromBigDecimal(rs.getBigDecimal(DatabaseConstants.COL_QUANTITY_GRAMS));
             String foodName = rs.getString(DatabaseConstants.COL_FOOD_DESCRIPTION);
             
             MealItem item = MealItem.builder()
                 .itemId(itemId)
                 .mealId(meal.getMealId())
                 .foodId(foodId)
-                .quantityGrams(quantity)
+                .quantityGramsFixed(quantity)
                 .foodName(foodName)
                 .build();
             meal.addMealItem(item);
@@ -277,33 +753,59 @@ public class MealLogDAOImpl extends BaseDAO implements IMealLogDAO {
     public boolean removeMealItem(int userId, int mealId, int itemId) 
             throws DatabaseAccessException, MealNotFoundException, MealItemNotFoundException, UnauthorizedAccessException {
         
-        try (Connection conn = DatabaseConnectionManager.getConnection()) {
-            validateMealItemAccess(conn, userId, mealId, itemId);
-            deleteMealItem(itemId);
-            cleanupEmptyMeal(mealId);
-            return true;
-            
-        } catch (MealNotFoundException | MealItemNotFoundException | UnauthorizedAccessException e) {
-            throw e;
-        } catch (SQLException e) {
-            throw new DatabaseAccessException("Failed to remove meal item", e);
+        int removed = removeOwnedMealItem(userId, mealId, itemId);
+        if (removed == NO_ROWS_AFFECTED) {
+            // Only the failure path pays for working out why nothing was removed
+            handleMealItemAccessFailure(userId, mealId, itemId);
+        }
+        if (removed != ITEM_REMOVED && removed != ITEM_AND_MEAL_REMOVED) {
+            throw new DatabaseAccessException("Unexpected meal item removal result: " + removed);
+        }
+        
+        invalidateCachedMeal(userId, mealId);
+        if (removed == ITEM_AND_MEAL_REMOVED) {
+            eventBus.publishAll(Arrays.asList(
+                new MealItemRemoved(userId, mealId, itemId), new MealDeleted(userId, mealId)));
+        } else {
+            eventBus.publish(new MealItemRemoved(userId, mealId, itemId));
         }
+        return true;
     }
     
     /**
-     * Validates that user has access to the meal item.
+     * Subtracts the item from the rollup, deletes it and deletes its meal if that left the
+     * meal empty, all in one batch and transaction that only touches items the user owns.
+     *
+     * @return 0 if nothing was removed, 1 if the item was removed, 2 if its meal was deleted as well
      */
-    private void validateMealItemAccess(Connection conn, int userId, int mealId, int itemId) 
-            throws SQLException, MealNotFoundException, MealItemNotFoundException, UnauthorizedAccessException, DatabaseAccessException {
-        
-        boolean hasAccess = recordExists(SELECT_MEAL_ITEM_ACCESS_SQL, stmt -> {
-            stmt.setInt(1, itemId);
-            stmt.setInt(2, mealId);
-            stmt.setInt(3, userId);
-        });
-        
-        if (!hasAccess) {
-            handleMealItemAccessFailure(userId, mealId, itemId);
+    private int removeOwnedMealItem(int userId, int mealId, int itemId) throws DatabaseAccessException {
+        SchemaMigrationRunner.requireSchema();
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(REMOVE_OWNED_MEAL_ITEM_SQL)) {
+            
+            int index = 1;
+            stmt.setInt(index++, ROLLUP_SUBTRACT);
+            stmt.setInt(index++, itemId);
+            stmt.setInt(index++, mealId);
+            stmt.setInt(index++, userId);
+            stmt.setInt(index++, itemId);
+            stmt.setInt(index++, mealId);
+            stmt.setInt(index, userId);
+            
+            // Skip any update counts the driver still reports before the final SELECT
+            boolean isResultSet = stmt.execute();
+            while (!isResultSet && stmt.getUpdateCount() != -1) {
+                isResultSet = stmt.getMoreResults();
+            }
+            if (!isResultSet) {
+                throw new DatabaseAccessException("Meal item removal returned no result");
+            }
+            try (ResultSet rs = stmt.getResultSet()) {
+                return rs.next() ? rs.getInt(1) : NO_ROWS_AFFECTED;
+            }
+            
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Failed to remove meal item", e);
         }
     }
     
@@ -321,39 +823,31 @@ public class MealLogDAOImpl extends BaseDAO implements IMealLogDAO {
         }
         throw new UnauthorizedAccessException(DatabaseConstants.ERROR_UNAUTHORIZED_ACCESS + "meal item");
     }
-    
-    /**
-     * Deletes a meal item from the database.
-     */
-    private void deleteMealItem(int itemId) throws DatabaseAccessException {
-        int rowsAffected = executeUpdate(DELETE_MEAL_ITEM_SQL, stmt -> stmt.setInt(1, itemId));
-        validateRowsAffected(rowsAffected, SINGLE_ROW_EXPECTED);
-    }
-    
-    /**
-     * Removes empty meals that have no remaining items.
-     */
-    private void cleanupEmptyMeal(int mealId) throws DatabaseAccessException {
-        int itemCount = countRecords(COUNT_MEAL_ITEMS_SQL, stmt -> stmt.setInt(1, mealId));
-        
-        if (itemCount == NO_ROWS_AFFECTED) {
-            deleteMeal(mealId);
-        }
-    }
-    
-    /**
-     * Deletes a meal from the database.
-     */
-    private void deleteMeal(int mealId) throws DatabaseAccessException {
-        executeUpdate(DELETE_MEAL_SQL, stmt -> stmt.setInt(1, mealId));
-    }
 
     @Override
     public int addMealItem(int userId, int mealId, MealItem item) 
             throws DatabaseAccessException, MealNotFoundException, UnauthorizedAccessException {
         
         validateMealAccess(userId, mealId);
-        return insertSingleMealItem(mealId, item);
+        int itemId = executeInTransaction(conn -> {
+            int newItemId = insertSingleMealItem(conn, mealId, item);
+            applyRollupDelta(conn, MERGE_ROLLUP_FOR_ITEM_SQL, newItemId, ROLLUP_ADD);
+            return newItemId;
+        });
+        invalidateCachedMeal(userId, mealId);
+        if (eventBus.hasListeners()) {
+            eventBus.publish(new MealItemAdded(userId, mealId, itemId, item));
+        }
+        return itemId;
+    }
+    
+    /**
+     * Drops the cached day holding a meal after its items changed.
+     */
+    private void invalidateCachedMeal(int userId, int mealId) {
+        if (historyCache != null) {
+            historyCache.invalidateMeal(userId, mealId);
+        }
     }
     
     /**
@@ -378,12 +872,18 @@ public class MealLogDAOImpl extends BaseDAO implements IMealLogDAO {
     /**
      * Inserts a single meal item and returns the generated item ID.
      */
-    private int insertSingleMealItem(int mealId, MealItem item) throws DatabaseAccessException {
-        return executeInsertWithGeneratedKey(INSERT_MEAL_ITEMS_SQL, stmt -> {
+    private int insertSingleMealItem(Connection conn, int mealId, MealItem item) throws SQLException, DatabaseAccessException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_MEAL_ITEMS_SQL, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setInt(1, mealId);
             stmt.setInt(2, item.getFoodId());
             stmt.setBigDecimal(3, item.getQuantityGrams());
-        });
+            
+            int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected == NO_ROWS_AFFECTED) {
+                throw new SQLException(String.format(DatabaseConstants.ERROR_NO_ROWS_AFFECTED, DatabaseConstants.OPERATION_INSERT));
+            }
+            return extractGeneratedKey(stmt);
+        }
     }
     
     // Helper methods using BaseDAO utilities
@@ -0,0 +1,192 @@
+package com.nutrisci.database.dao.impl;
+
+import com.nutrisci.database.DatabaseConnectionManager;
+import com.nutrisci.database.dao.INutritionSummaryDAO;
+import com.nutrisci.database.dto.NutritionPeriodSummary;
+import com.nutrisci.database.dto.SummaryPeriod;
+import com.nutrisci.database.exceptions.*;
+import com.nutrisci.database.migration.SchemaMigrationRunner;
+import com.nutrisci.database.constants.DatabaseConstants;
+import com.nutrisci.database.util.FixedPoint;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Implementation of INutritionSummaryDAO for SQL Server database operations.
+ * Stores one NUTRITION_SUMMARY row per (user, period, period start, nutrient).
+ * Extends BaseDAO to leverage common database operation patterns.
+ */
+public class NutritionSummaryDAOImpl extends BaseDAO implements INutritionSummaryDAO {
+    
+    // SQL Query Constants
+    private static final String DELETE_SUMMARY_RANGE_SQL = 
+        DELETE_FROM + DatabaseConstants.TABLE_NUTRITION_SUMMARY + 
+        " WHERE " + DatabaseConstants.COL_USER_ID + " BETWEEN ? AND ? AND " + DatabaseConstants.COL_PERIOD + " = ? AND " + 
+        DatabaseConstants.COL_PERIOD_START + " BETWEEN ? AND ?";
+    
+    private static final String INSERT_SUMMARY_SQL = 
+        INSERT_INTO + DatabaseConstants.TABLE_NUTRITION_SUMMARY + " (" + 
+        DatabaseConstants.COL_USER_ID + ", " + DatabaseConstants.COL_PERIOD + ", " + 
+        DatabaseConstants.COL_PERIOD_START + ", " + DatabaseConstants.COL_ROLLUP_NUTRIENT_ID + ", " + 
+        DatabaseConstants.COL_DAYS_LOGGED + ", " + DatabaseConstants.COL_TOTAL + ") VALUES (?, ?, ?, ?, ?, ?)";
+    
+    private static final String SELECT_SUMMARIES_SQL = 
+        "SELECT " + DatabaseConstants.COL_PERIOD_START + ", " + DatabaseConstants.COL_DAYS_LOGGED + ", " + 
+        DatabaseConstants.COL_ROLLUP_NUTRIENT_ID + ", " + DatabaseConstants.COL_TOTAL + 
+        " FROM " + DatabaseConstants.TABLE_NUTRITION_SUMMARY + 
+        " WHERE " + DatabaseConstants.COL_USER_ID + " = ? AND " + DatabaseConstants.COL_PERIOD + " = ? AND " + 
+        DatabaseConstants.COL_PERIOD_START + " BETWEEN ? AND ?" + 
+        " ORDER BY " + DatabaseConstants.COL_PERIOD_START + ", " + DatabaseConstants.COL_ROLLUP_NUTRIENT_ID;
+    
+    // Rows per executeBatch call, so driver buffers stay bounded for large writes
+    private static final int MAX_BATCH_ROWS = 5000;
+    
+    @Override
+    public int replaceSummaries(int firstUserId, int lastUserId, LocalDate startDate, LocalDate endDate,
+                                Set<SummaryPeriod> periods, List<NutritionPeriodSummary> summaries) throws DatabaseAccessException {
+        SchemaMigrationRunner.requireSchema();
+        Connection conn = null;
+        try {
+            conn = DatabaseConnectionManager.getConnection();
+            conn.setAutoCommit(false);
+            
+            deleteSummaries(conn, firstUserId, lastUserId, startDate, endDate, periods);
+            int rows = insertSummaries(conn, summaries);
+            
+            conn.commit();
+            return rows;
+            
+        } catch (SQLException e) {
+            rollbackTransaction(conn, e);
+            throw new DatabaseAccessException("Failed to store nutrition summaries", e);
+        } finally {
+            closeConnection(conn);
+        }
+    }
+    
+    /**
+     * Deletes the stored summaries of the user range for every period overlapping the dates.
+     */
+    private void deleteSummaries(Connection conn, int firstUserId, int lastUserId, LocalDate startDate, LocalDate endDate,
+                                 Set<SummaryPeriod> periods) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(DELETE_SUMMARY_RANGE_SQL)) {
+            for (SummaryPeriod period : periods) {
+                stmt.setInt(1, firstUserId);
+                stmt.setInt(2, lastUserId);
+                stmt.setString(3, period.getValue());
+                stmt.setDate(4, Date.valueOf(period.startOf(startDate)));
+                stmt.setDate(5, Date.valueOf(period.startOf(endDate)));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+    
+    /**
+     * Inserts one row per summary and nutrient.
+     */
+    private int insertSummaries(Connection conn, List<NutritionPeriodSummary> summaries) throws SQLException {
+        int rows = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SUMMARY_SQL)) {
+            int pending = 0;
+            for (NutritionPeriodSummary summary : summaries) {
+                stmt.setInt(1, summary.getUserId());
+                stmt.setString(2, summary.getPeriod().getValue());
+                stmt.setDate(3, Date.valueOf(summary.getPeriodStart()));
+                stmt.setInt(5, summary.getDaysLogged());
+                for (int i = 0; i < summary.getNutrientCount(); i++) {
+                    stmt.setInt(4, summary.getNutrientId(i));
+                    stmt.setBigDecimal(6, FixedPoint.toBigDecimal(summary.getTotalFixed(i)));
+                    stmt.addBatch();
+                    rows++;
+                    if (++pending == MAX_BATCH_ROWS) {
+                        stmt.executeBatch();
+                        pending = 0;
+                    }
+                }
+            }
+            if (pending > 0) {
+                stmt.executeBatch();
+            }
+        }
+        return rows;
+    }
+    
+    @Override
+    public List<NutritionPeriodSummary> loadSummaries(int userId, SummaryPeriod period, LocalDate startDate, LocalDate endDate) 
+            throws DatabaseAccessException {
+        
+        SchemaMigrationRunner.requireSchema();
+        List<NutritionPeriodSummary> summaries = new ArrayList<>();
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_SUMMARIES_SQL)) {
+            
+            stmt.setInt(1, userId);
+            stmt.setString(2, period.getValue());
+            stmt.setDate(3, Date.valueOf(startDate));
+            stmt.setDate(4, Date.valueOf(endDate));
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                // Rows arrive grouped by period start; each group becomes one summary
+                LocalDate currentStart = null;
+                int daysLogged = 0;
+                int[] nutrientIds = new int[0];
+                long[] totals = new long[0];
+                int count = 0;
+                while (rs.next()) {
+                    LocalDate periodStart = rs.getDate(1).toLocalDate();
+                    if (!periodStart.equals(currentStart)) {
+                        if (currentStart != null) {
+                            summaries.add(new NutritionPeriodSummary(userId, period, currentStart, daysLogged,
+                                Arrays.copyOf(nutrientIds, count), Arrays.copyOf(totals, count)));
+                        }
+                        currentStart = periodStart;
+                        daysLogged = rs.getInt(2);
+                        count = 0;
+                    }
+                    if (count == nutrientIds.length) {
+                        nutrientIds = Arrays.copyOf(nutrientIds, Math.max(8, count * 2));
+                        totals = Arrays.copyOf(totals, nutrientIds.length);
+                    }
+                    nutrientIds[count] = rs.getInt(3);
+                    totals[count++] = FixedPoint.fromBigDecimal(rs.getBigDecimal(4));
+                }
+                if (currentStart != null) {
+                    summaries.add(new NutritionPeriodSummary(userId, period, currentStart, daysLogged,
+                        Arrays.copyOf(nutrientIds, count), Arrays.copyOf(totals, count)));
+                }
+            }
+            
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Failed to load nutrition summaries", e);
+        }
+        return summaries;
+    }
+    
+    private void rollbackTransaction(Connection conn, SQLException cause) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException e) {
+                cause.addSuppressed(e);
+            }
+        }
+    }
+    
+    private void closeConnection(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.setAutoCommit(true);
+                conn.close();
+            } catch (SQLException e) {
+                // Log error but don't throw in finally block
+                System.err.println("Error closing connection: " + e.getMessage());
+            }
+        }
+    }
+}
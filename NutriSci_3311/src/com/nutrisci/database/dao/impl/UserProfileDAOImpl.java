@@ -9,6 +9,7 @@ import com.nutrisci.database.constants.DatabaseConstants;
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 
 /**
  * Implementation of IUserProfileDAO for SQL Server database operations.
@@ -34,6 +35,12 @@ public class UserProfileDAOImpl extends BaseDAO implements IUserProfileDAO {
         "SELECT " + DatabaseConstants.SELECT_ALL_USER_COLUMNS + 
         " FROM " + DatabaseConstants.TABLE_USERS + DatabaseConstants.WHERE_USER_ID;
     
+    private static final int INITIAL_USER_ID_CAPACITY = 1024;
+    
+    private static final String SELECT_USER_ID_PAGE_SQL = 
+        "SELECT TOP (?) " + DatabaseConstants.COL_USER_ID + " FROM " + DatabaseConstants.TABLE_USERS + 
+        " WHERE " + DatabaseConstants.COL_USER_ID + " > ? ORDER BY " + DatabaseConstants.COL_USER_ID;
+    
     @Override
     public int createUserProfile(User user) throws DatabaseAccessException, DuplicateUserException {
         try {
@@ -122,6 +129,34 @@ public class UserProfileDAOImpl extends BaseDAO implements IUserProfileDAO {
         return user;
     }
     
+    @Override
+    public int[] listUserIds(int afterUserId, int limit) throws DatabaseAccessException {
+        if (limit <= 0) {
+            return new int[0];
+        }
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_USER_ID_PAGE_SQL)) {
+            
+            stmt.setInt(1, limit);
+            stmt.setInt(2, afterUserId);
+            
+            int[] userIds = new int[Math.min(limit, INITIAL_USER_ID_CAPACITY)];
+            int count = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (count == userIds.length) {
+                        userIds = Arrays.copyOf(userIds, (int) Math.min(limit, userIds.length * 2L));
+                    }
+                    userIds[count++] = rs.getInt(1);
+                }
+            }
+            return count == userIds.length ? userIds : Arrays.copyOf(userIds, count);
+            
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Failed to list user IDs", e);
+        }
+    }
+    
     /**
      * Helper method to map ResultSet to User object using DatabaseConstants for column names.
      */
@@ -0,0 +1,220 @@
+package com.nutrisci.database.dto;
+
+import com.nutrisci.database.util.FixedPoint;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable per-day nutrient totals for one user over a date range.
+ *
+ * <p>Totals are stored as a dense matrix of {@link FixedPoint} values: one row per day that has
+ * logged meals, in ascending date order, and one column per nutrient. Each value is the sum over
+ * the day's meal items of {@code quantity_grams / 100 * NutrientValue}, in the nutrient's CNF
+ * unit. Nutrients that a day's foods do not contain total zero.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class DailyNutrientTotals {
+
+    /** Sentinel returned by index lookups when the day or nutrient is not present. */
+    public static final int NOT_FOUND = -1;
+
+    private final LocalDate[] days;
+    private final int[] nutrientIds;
+    private final long[] totals;
+
+    private DailyNutrientTotals(LocalDate[] days, int[] nutrientIds, long[] totals) {
+        this.days = days;
+        this.nutrientIds = nutrientIds;
+        this.totals = totals;
+    }
+
+    /**
+     * Creates a new Builder instance for assembling DailyNutrientTotals.
+     *
+     * @return new Builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the number of days with logged meals.
+     *
+     * @return the day count
+     */
+    public int getDayCount() { return days.length; }
+
+    /**
+     * Gets the number of nutrients per day.
+     *
+     * @return the nutrient count
+     */
+    public int getNutrientCount() { return nutrientIds.length; }
+
+    /**
+     * Gets the days with logged meals.
+     *
+     * @return unmodifiable list of days in ascending order
+     */
+    public List<LocalDate> getDays() {
+        return Collections.unmodifiableList(Arrays.asList(days));
+    }
+
+    /**
+     * Gets a day by index.
+     *
+     * @param dayIndex the day index
+     * @return the day
+     */
+    public LocalDate getDay(int dayIndex) { return days[dayIndex]; }
+
+    /**
+     * Gets a CNF NutrientID by column index.
+     *
+     * @param nutrientIndex the nutrient index
+     * @return the NutrientID
+     */
+    public int getNutrientId(int nutrientIndex) { return nutrientIds[nutrientIndex]; }
+
+    /**
+     * Gets the index of a day.
+     *
+     * @param day the day
+     * @return the day index, or {@link #NOT_FOUND} if no meals were logged that day
+     */
+    public int indexOfDay(LocalDate day) {
+        int index = Arrays.binarySearch(days, day);
+        return index >= 0 ? index : NOT_FOUND;
+    }
+
+    /**
+     * Gets the column index of a nutrient.
+     *
+     * @param nutrientId the CNF NutrientID
+     * @return the nutrient index, or {@link #NOT_FOUND} if the nutrient is not included
+     */
+    public int indexOfNutrient(int nutrientId) {
+        for (int i = 0; i < nutrientIds.length; i++) {
+            if (nutrientIds[i] == nutrientId) {
+                return i;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Gets a total by position.
+     *
+     * @param dayIndex the day index
+     * @param nutrientIndex the nutrient index
+     * @return the total as a fixed-point value
+     */
+    public long getTotalFixed(int dayIndex, int nutrientIndex) {
+        return totals[dayIndex * nutrientIds.length + nutrientIndex];
+    }
+
+    /**
+     * Gets the total of a nutrient on a day.
+     *
+     * @param day the day
+     * @param nutrientId the CNF NutrientID
+     * @return the total, zero if no meals were logged that day, or null if the nutrient is not included
+     */
+    public BigDecimal getTotal(LocalDate day, int nutrientId) {
+        int nutrientIndex = indexOfNutrient(nutrientId);
+        if (nutrientIndex == NOT_FOUND) {
+            return null;
+        }
+        int dayIndex = indexOfDay(day);
+        return FixedPoint.toBigDecimal(dayIndex != NOT_FOUND ? getTotalFixed(dayIndex, nutrientIndex) : FixedPoint.ZERO);
+    }
+
+    /**
+     * Returns a string representation of the DailyNutrientTotals object.
+     *
+     * @return string representation of the totals
+     */
+    @Override
+    public String toString() {
+        return "DailyNutrientTotals{" +
+                "days=" + days.length +
+                ", nutrients=" + nutrientIds.length +
+                '}';
+    }
+
+    /**
+     * Builder for assembling DailyNutrientTotals from (day, nutrient, total) rows.
+     */
+    public static final class Builder {
+
+        private int[] nutrientIds;
+        private final Map<LocalDate, Map<Integer, Long>> rows = new TreeMap<>();
+
+        private Builder() {}
+
+        /**
+         * Fixes the nutrient columns and their order. Without this, the columns are every
+         * nutrient added, in ascending NutrientID order.
+         *
+         * @param nutrientIds the CNF NutrientIDs
+         * @return this builder for method chaining
+         */
+        public Builder nutrientIds(int... nutrientIds) {
+            this.nutrientIds = nutrientIds.clone();
+            return this;
+        }
+
+        /**
+         * Adds to the total of a nutrient on a day.
+         *
+         * @param day the day
+         * @param nutrientId the CNF NutrientID
+         * @param total the amount as a fixed-point value; {@link FixedPoint#NULL} is ignored
+         * @return this builder for method chaining
+         */
+        public Builder addTotal(LocalDate day, int nutrientId, long total) {
+            Map<Integer, Long> dayTotals = rows.computeIfAbsent(day, key -> new TreeMap<>());
+            if (!FixedPoint.isNull(total)) {
+                dayTotals.merge(nutrientId, total, FixedPoint::add);
+            }
+            return this;
+        }
+
+        /**
+         * Builds the totals.
+         *
+         * @return new DailyNutrientTotals instance
+         */
+        public DailyNutrientTotals build() {
+            int[] columns = nutrientIds;
+            if (columns == null) {
+                columns = rows.values().stream()
+                    .flatMap(dayTotals -> dayTotals.keySet().stream())
+                    .mapToInt(Integer::intValue)
+                    .distinct()
+                    .sorted()
+                    .toArray();
+            }
+
+            List<LocalDate> dayList = new ArrayList<>(rows.keySet());
+            long[] totals = new long[dayList.size() * columns.length];
+            for (int d = 0; d < dayList.size(); d++) {
+                Map<Integer, Long> dayTotals = rows.get(dayList.get(d));
+                for (int n = 0; n < columns.length; n++) {
+                    totals[d * columns.length + n] = dayTotals.getOrDefault(columns[n], FixedPoint.ZERO);
+                }
+            }
+            return new DailyNutrientTotals(dayList.toArray(new LocalDate[0]), columns, totals);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.nutrisci.database.dto;
 
+import com.nutrisci.database.util.FixedPoint;
+import com.nutrisci.database.util.NutrientDictionary;
+
 import java.math.BigDecimal;
 
 /**
@@ -10,16 +13,26 @@ import java.math.BigDecimal;
  * <p>Each FoodNutrient represents one row from the NUTRIENT_AMOUNT table joined with
  * the NUTRIENT_NAME table to provide both the numeric value and descriptive information.</p>
  * 
+ * <p>Rows read by the DAO share the {@link NutrientDefinition} registered for their NutrientID in
+ * the {@link NutrientDictionary}, so they do not repeat the name and unit strings and consumers
+ * can index arrays by {@link #getNutrientOrdinal()}. The name and unit are still held per
+ * instance: constructors and setters only look the NutrientID up and never register it, so a
+ * caller's values are kept as given and never leak into the shared dictionary.</p>
+ * 
+ * <p>The amount is held internally as a {@link FixedPoint} value so that reading and
+ * aggregating nutrients does not allocate; {@link #getAmount()} converts to BigDecimal
+ * on demand for callers that need it.</p>
+ * 
  * @author NutriSci Development Team
  * @version 1.0
  * @since 1.0
  */
 public class FoodNutrient {
     
-    private int nutrientId;
+    private int nutrientId = NutrientDefinition.NO_NUTRIENT_ID;
     private String nutrientName;
-    private BigDecimal amount;
     private String unit;
+    private long amount = FixedPoint.NULL;
     
     /**
      * Default constructor for creating an empty FoodNutrient object.
@@ -33,12 +46,40 @@ public class FoodNutrient {
      * @param nutrientName the human-readable name of the nutrient
      * @param amount the quantity of the nutrient in the specified unit
      * @param unit the unit of measurement (e.g., "g", "mg", "μg", "IU")
+     * @throws ArithmeticException if the amount has more decimal places than {@link FixedPoint} holds
      */
     public FoodNutrient(int nutrientId, String nutrientName, BigDecimal amount, String unit) {
+        this(nutrientId, nutrientName, FixedPoint.fromBigDecimalExact(amount), unit);
+    }
+    
+    /**
+     * Full constructor taking the amount in fixed-point form, used on hot paths that read
+     * amounts without going through BigDecimal.
+     * 
+     * @param nutrientId the unique identifier for the nutrient from CNF database
+     * @param nutrientName the human-readable name of the nutrient
+     * @param amountFixed the quantity of the nutrient as a {@link FixedPoint} value
+     * @param unit the unit of measurement (e.g., "g", "mg", "μg", "IU")
+     */
+    public FoodNutrient(int nutrientId, String nutrientName, long amountFixed, String unit) {
         this.nutrientId = nutrientId;
         this.nutrientName = nutrientName;
-        this.amount = amount;
         this.unit = unit;
+        this.amount = amountFixed;
+    }
+    
+    /**
+     * Constructor for an already resolved nutrient, which takes the name and unit of the
+     * dictionary's definition so rows share those strings instead of copying them.
+     * 
+     * @param nutrient the nutrient definition from the {@link NutrientDictionary}
+     * @param amountFixed the quantity of the nutrient as a {@link FixedPoint} value
+     */
+    public FoodNutrient(NutrientDefinition nutrient, long amountFixed) {
+        this.nutrientId = nutrient.getNutrientId();
+        this.nutrientName = nutrient.getName();
+        this.unit = nutrient.getUnit();
+        this.amount = amountFixed;
     }
     
     // Getters and Setters
@@ -73,20 +114,52 @@ public class FoodNutrient {
      */
     public void setNutrientName(String nutrientName) { this.nutrientName = nutrientName; }
     
+    /**
+     * Gets the shared definition registered for the NutrientID in the default
+     * {@link NutrientDictionary}. Its canonical name and unit may differ from this instance's.
+     * 
+     * @return the nutrient definition, or null if the NutrientID is not registered
+     */
+    public NutrientDefinition getNutrient() { return NutrientDictionary.getDefault().getById(nutrientId); }
+    
+    /**
+     * Gets the dense ordinal of the nutrient in the {@link NutrientDictionary}.
+     * 
+     * @return the ordinal, or {@link NutrientDefinition#UNREGISTERED} if the nutrient is not registered
+     */
+    public int getNutrientOrdinal() {
+        NutrientDefinition nutrient = getNutrient();
+        return nutrient != null ? nutrient.getOrdinal() : NutrientDefinition.UNREGISTERED;
+    }
+    
     /**
      * Gets the amount of the nutrient per 100g of food.
      * 
-     * @return the nutrient amount as a precise decimal value
+     * @return the nutrient amount as a precise decimal value with a scale of six, or null if not set
      */
-    public BigDecimal getAmount() { return amount; }
+    public BigDecimal getAmount() { return FixedPoint.toBigDecimal(amount); }
     
     /**
      * Sets the amount of the nutrient per 100g of food.
-     * Uses BigDecimal for precise decimal arithmetic in nutritional calculations.
      * 
      * @param amount the nutrient amount to set
+     * @throws ArithmeticException if the amount has more decimal places than {@link FixedPoint} holds
+     */
+    public void setAmount(BigDecimal amount) { this.amount = FixedPoint.fromBigDecimalExact(amount); }
+    
+    /**
+     * Gets the amount of the nutrient per 100g of food without allocating.
+     * 
+     * @return the nutrient amount as a {@link FixedPoint} value, or {@link FixedPoint#NULL} if not set
+     */
+    public long getAmountFixed() { return amount; }
+    
+    /**
+     * Sets the amount of the nutrient per 100g of food.
+     * 
+     * @param amountFixed the nutrient amount as a {@link FixedPoint} value
      */
-    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public void setAmountFixed(long amountFixed) { this.amount = amountFixed; }
     
     /**
      * Gets the unit of measurement for the nutrient amount.
@@ -113,10 +186,10 @@ public class FoodNutrient {
     @Override
     public String toString() {
         return "FoodNutrient{" +
-                "nutrientId=" + nutrientId +
-                ", nutrientName='" + nutrientName + '\'' +
-                ", amount=" + amount +
-                ", unit='" + unit + '\'' +
+                "nutrientId=" + getNutrientId() +
+                ", nutrientName='" + getNutrientName() + '\'' +
+                ", amount=" + getAmount() +
+                ", unit='" + getUnit() + '\'' +
                 '}';
     }
 }
\ No newline at end of file
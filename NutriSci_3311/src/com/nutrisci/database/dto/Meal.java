@@ -33,6 +33,24 @@ public class Meal {
         this.mealItems = new ArrayList<>();
     }
     
+    /**
+     * Copy constructor. The copy gets its own list of copied meal items, so changes to either
+     * meal or its items do not affect the other.
+     * 
+     * @param other the meal to copy
+     */
+    public Meal(Meal other) {
+        this.mealId = other.mealId;
+        this.mealType = other.mealType;
+        this.mealDate = other.mealDate;
+        this.userId = other.userId;
+        this.loggedAt = other.loggedAt;
+        this.mealItems = new ArrayList<>(other.mealItems.size());
+        for (MealItem item : other.mealItems) {
+            this.mealItems.add(new MealItem(item));
+        }
+    }
+    
     /**
      * Creates a new Builder instance for constructing Meal objects.
      * 
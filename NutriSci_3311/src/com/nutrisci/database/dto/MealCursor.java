@@ -0,0 +1,96 @@
+package com.nutrisci.database.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Immutable position in a user's meal history, used for keyset pagination.
+ *
+ * <p>A cursor holds the sort key of a meal in history order (meal date, then logged time,
+ * then meal ID, all descending). A page requested with a cursor starts at the first meal
+ * strictly older than that key. Pages therefore stay stable when meals are logged or removed
+ * between requests, and the database seeks to the page instead of skipping rows.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class MealCursor {
+
+    private final LocalDate mealDate;
+    private final LocalDateTime loggedAt;
+    private final int mealId;
+
+    /**
+     * Constructs a cursor positioned at the given sort key.
+     *
+     * @param mealDate the date of the last meal already seen
+     * @param loggedAt the logging timestamp of the last meal already seen
+     * @param mealId the ID of the last meal already seen
+     * @throws NullPointerException if mealDate or loggedAt is null
+     */
+    public MealCursor(LocalDate mealDate, LocalDateTime loggedAt, int mealId) {
+        this.mealDate = Objects.requireNonNull(mealDate, "mealDate");
+        this.loggedAt = Objects.requireNonNull(loggedAt, "loggedAt");
+        this.mealId = mealId;
+    }
+
+    /**
+     * Creates a cursor positioned after the given meal.
+     *
+     * @param meal a meal loaded from the database
+     * @return cursor for the page following the meal
+     */
+    public static MealCursor after(Meal meal) {
+        return new MealCursor(meal.getMealDate(), meal.getLoggedAt(), meal.getMealId());
+    }
+
+    /**
+     * Gets the meal date of the cursor position.
+     *
+     * @return the meal date
+     */
+    public LocalDate getMealDate() { return mealDate; }
+
+    /**
+     * Gets the logging timestamp of the cursor position.
+     *
+     * @return the logging timestamp
+     */
+    public LocalDateTime getLoggedAt() { return loggedAt; }
+
+    /**
+     * Gets the meal ID of the cursor position.
+     *
+     * @return the meal ID
+     */
+    public int getMealId() { return mealId; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MealCursor)) return false;
+        MealCursor other = (MealCursor) o;
+        return mealId == other.mealId && mealDate.equals(other.mealDate) && loggedAt.equals(other.loggedAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(mealDate, loggedAt, mealId);
+    }
+
+    /**
+     * Returns a string representation of the MealCursor object.
+     *
+     * @return string representation of the cursor
+     */
+    @Override
+    public String toString() {
+        return "MealCursor{" +
+                "mealDate=" + mealDate +
+                ", loggedAt=" + loggedAt +
+                ", mealId=" + mealId +
+                '}';
+    }
+}
@@ -1,17 +1,22 @@
 package com.nutrisci.database.dto;
 
+import com.nutrisci.database.util.FixedPoint;
+
 import java.math.BigDecimal;
 
 /**
  * Data Transfer Object representing a meal item (food with quantity) within a logged meal.
  * Uses Builder pattern to handle complex object construction with many parameters.
+ * The quantity is held as a {@link FixedPoint} value and converted to BigDecimal on demand, so
+ * it is always read back with a scale of six: compare quantities with {@code compareTo}, since
+ * {@code equals} also compares the scale the caller happened to use.
  */
 public class MealItem {
     
     private int itemId;
     private int mealId;
     private int foodId;
-    private BigDecimal quantityGrams;
+    private long quantityGrams = FixedPoint.NULL;
     private String foodName; // For display purposes when joining with FOOD_NAME table
     
     // Private constructor for Builder pattern
@@ -26,6 +31,19 @@ public class MealItem {
     // Default constructor for frameworks/serialization
     public MealItem() {}
     
+    /**
+     * Copy constructor.
+     * 
+     * @param other the meal item to copy
+     */
+    public MealItem(MealItem other) {
+        this.itemId = other.itemId;
+        this.mealId = other.mealId;
+        this.foodId = other.foodId;
+        this.quantityGrams = other.quantityGrams;
+        this.foodName = other.foodName;
+    }
+    
     /**
      * Creates a new Builder instance for constructing MealItem objects.
      * 
@@ -43,7 +61,7 @@ public class MealItem {
         private int itemId;
         private int mealId;
         private int foodId;
-        private BigDecimal quantityGrams;
+        private long quantityGrams = FixedPoint.NULL;
         private String foodName;
         
         private Builder() {}
@@ -86,20 +104,33 @@ public class MealItem {
          * 
          * @param quantityGrams the quantity in grams
          * @return this builder for method chaining
+         * @throws ArithmeticException if the quantity has more decimal places than {@link FixedPoint} holds
          */
         public Builder quantityGrams(BigDecimal quantityGrams) {
-            this.quantityGrams = quantityGrams;
+            this.quantityGrams = FixedPoint.fromBigDecimalExact(quantityGrams);
             return this;
         }
         
         /**
          * Sets the quantity in grams using double value (convenience method).
+         * The value is rounded to the six decimal places of {@link FixedPoint}.
          * 
          * @param quantityGrams the quantity in grams as double
          * @return this builder for method chaining
          */
         public Builder quantityGrams(double quantityGrams) {
-            this.quantityGrams = BigDecimal.valueOf(quantityGrams);
+            this.quantityGrams = FixedPoint.fromDouble(quantityGrams);
+            return this;
+        }
+        
+        /**
+         * Sets the quantity in grams as a fixed-point value.
+         * 
+         * @param quantityGramsFixed the quantity in grams as a {@link FixedPoint} value
+         * @return this builder for method chaining
+         */
+        public Builder quantityGramsFixed(long quantityGramsFixed) {
+            this.quantityGrams = quantityGramsFixed;
             return this;
         }
         
@@ -137,7 +168,7 @@ public class MealItem {
             if (foodId <= 0) {
                 throw new IllegalStateException("Valid food ID is required");
             }
-            if (quantityGrams == null || quantityGrams.compareTo(BigDecimal.ZERO) <= 0) {
+            if (quantityGrams == FixedPoint.NULL || quantityGrams <= FixedPoint.ZERO) {
                 throw new IllegalStateException("Valid quantity (greater than 0) is required");
             }
         }
@@ -193,17 +224,33 @@ public class MealItem {
     /**
      * Gets the quantity of food consumed in grams.
      * 
-     * @return the quantity in grams as a precise decimal value
+     * @return the quantity in grams as a precise decimal value with a scale of six, whatever
+     *         scale it was set with
      */
-    public BigDecimal getQuantityGrams() { return quantityGrams; }
+    public BigDecimal getQuantityGrams() { return FixedPoint.toBigDecimal(quantityGrams); }
     
     /**
      * Sets the quantity of food consumed in grams.
      * Used for accurate nutritional calculations based on portion size.
      * 
      * @param quantityGrams the quantity in grams to set
+     * @throws ArithmeticException if the quantity has more decimal places than {@link FixedPoint} holds
+     */
+    public void setQuantityGrams(BigDecimal quantityGrams) { this.quantityGrams = FixedPoint.fromBigDecimalExact(quantityGrams); }
+    
+    /**
+     * Gets the quantity of food consumed in grams without allocating.
+     * 
+     * @return the quantity as a {@link FixedPoint} value, or {@link FixedPoint#NULL} if not set
+     */
+    public long getQuantityGramsFixed() { return quantityGrams; }
+    
+    /**
+     * Sets the quantity of food consumed in grams.
+     * 
+     * @param quantityGramsFixed the quantity as a {@link FixedPoint} value
      */
-    public void setQuantityGrams(BigDecimal quantityGrams) { this.quantityGrams = quantityGrams; }
+    public void setQuantityGramsFixed(long quantityGramsFixed) { this.quantityGrams = quantityGramsFixed; }
     
     /**
      * Gets the human-readable name of the food.
@@ -233,7 +280,7 @@ public class MealItem {
                 "itemId=" + itemId +
                 ", mealId=" + mealId +
                 ", foodId=" + foodId +
-                ", quantityGrams=" + quantityGrams +
+                ", quantityGrams=" + getQuantityGrams() +
                 ", foodName='" + foodName + '\'' +
                 '}';
     }
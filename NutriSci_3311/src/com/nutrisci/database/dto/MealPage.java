@@ -0,0 +1,69 @@
+package com.nutrisci.database.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a user's meal history, newest meal first.
+ *
+ * <p>When {@link #hasMore()} is true, passing {@link #getNextCursor()} to
+ * {@code IMealLogDAO.loadLoggedMealsPage} returns the following page.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class MealPage {
+
+    private final List<Meal> meals;
+    private final MealCursor nextCursor;
+    private final boolean hasMore;
+
+    /**
+     * Constructs a page.
+     *
+     * @param meals the meals on this page, in history order
+     * @param hasMore whether older meals exist beyond this page
+     */
+    public MealPage(List<Meal> meals, boolean hasMore) {
+        this.meals = Collections.unmodifiableList(new ArrayList<>(meals));
+        this.hasMore = hasMore;
+        this.nextCursor = hasMore && !meals.isEmpty() ? MealCursor.after(meals.get(meals.size() - 1)) : null;
+    }
+
+    /**
+     * Gets the meals on this page.
+     *
+     * @return unmodifiable list of meals with their items, newest first
+     */
+    public List<Meal> getMeals() { return meals; }
+
+    /**
+     * Gets the cursor for the next page.
+     *
+     * @return the cursor after the last meal on this page, or null if there are no more meals
+     */
+    public MealCursor getNextCursor() { return nextCursor; }
+
+    /**
+     * Checks whether older meals exist beyond this page.
+     *
+     * @return true if another page can be loaded
+     */
+    public boolean hasMore() { return hasMore; }
+
+    /**
+     * Returns a string representation of the MealPage object.
+     *
+     * @return string representation of the page
+     */
+    @Override
+    public String toString() {
+        return "MealPage{" +
+                "meals=" + meals.size() +
+                ", nextCursor=" + nextCursor +
+                ", hasMore=" + hasMore +
+                '}';
+    }
+}
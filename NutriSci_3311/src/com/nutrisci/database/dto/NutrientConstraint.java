@@ -1,5 +1,7 @@
 package com.nutrisci.database.dto;
 
+import com.nutrisci.database.util.FixedPoint;
+
 import java.math.BigDecimal;
 
 /**
@@ -11,6 +13,9 @@ import java.math.BigDecimal;
  * minimum and maximum values for nutrients of interest. For example, finding foods
  * with high protein (min 20g) and low sodium (max 200mg).</p>
  * 
+ * <p>Bounds are held as {@link FixedPoint} values so candidate foods can be checked
+ * against them without allocating; an absent bound is {@link FixedPoint#NULL}.</p>
+ * 
  * @author NutriSci Development Team
  * @version 1.0
  * @since 1.0
@@ -18,8 +23,8 @@ import java.math.BigDecimal;
 public class NutrientConstraint {
     
     private int nutrientId;
-    private BigDecimal minValue;
-    private BigDecimal maxValue;
+    private long minValue = FixedPoint.NULL;
+    private long maxValue = FixedPoint.NULL;
     
     /**
      * Default constructor for creating an empty NutrientConstraint object.
@@ -32,11 +37,12 @@ public class NutrientConstraint {
      * @param nutrientId the unique identifier for the nutrient from CNF database
      * @param minValue the minimum acceptable value for the nutrient (inclusive)
      * @param maxValue the maximum acceptable value for the nutrient (inclusive)
+     * @throws ArithmeticException if a bound has more decimal places than {@link FixedPoint} holds
      */
     public NutrientConstraint(int nutrientId, BigDecimal minValue, BigDecimal maxValue) {
         this.nutrientId = nutrientId;
-        this.minValue = minValue;
-        this.maxValue = maxValue;
+        this.minValue = FixedPoint.fromBigDecimalExact(minValue);
+        this.maxValue = FixedPoint.fromBigDecimalExact(maxValue);
     }
     
     // Getters and Setters
@@ -59,32 +65,63 @@ public class NutrientConstraint {
     /**
      * Gets the minimum acceptable value for the nutrient.
      * 
-     * @return the minimum value (inclusive), or null if no minimum constraint
+     * @return the minimum value (inclusive) with a scale of six, or null if no minimum constraint
      */
-    public BigDecimal getMinValue() { return minValue; }
+    public BigDecimal getMinValue() { return FixedPoint.toBigDecimal(minValue); }
     
     /**
      * Sets the minimum acceptable value for the nutrient.
      * Set to null to indicate no minimum constraint.
      * 
      * @param minValue the minimum value to set (inclusive)
+     * @throws ArithmeticException if the value has more decimal places than {@link FixedPoint} holds
      */
-    public void setMinValue(BigDecimal minValue) { this.minValue = minValue; }
+    public void setMinValue(BigDecimal minValue) { this.minValue = FixedPoint.fromBigDecimalExact(minValue); }
     
     /**
      * Gets the maximum acceptable value for the nutrient.
      * 
-     * @return the maximum value (inclusive), or null if no maximum constraint
+     * @return the maximum value (inclusive) with a scale of six, or null if no maximum constraint
      */
-    public BigDecimal getMaxValue() { return maxValue; }
+    public BigDecimal getMaxValue() { return FixedPoint.toBigDecimal(maxValue); }
     
     /**
      * Sets the maximum acceptable value for the nutrient.
      * Set to null to indicate no maximum constraint.
      * 
      * @param maxValue the maximum value to set (inclusive)
+     * @throws ArithmeticException if the value has more decimal places than {@link FixedPoint} holds
+     */
+    public void setMaxValue(BigDecimal maxValue) { this.maxValue = FixedPoint.fromBigDecimalExact(maxValue); }
+    
+    /**
+     * Gets the minimum acceptable value without allocating.
+     * 
+     * @return the minimum as a {@link FixedPoint} value, or {@link FixedPoint#NULL} if no minimum constraint
      */
-    public void setMaxValue(BigDecimal maxValue) { this.maxValue = maxValue; }
+    public long getMinValueFixed() { return minValue; }
+    
+    /**
+     * Gets the maximum acceptable value without allocating.
+     * 
+     * @return the maximum as a {@link FixedPoint} value, or {@link FixedPoint#NULL} if no maximum constraint
+     */
+    public long getMaxValueFixed() { return maxValue; }
+    
+    /**
+     * Checks whether an amount satisfies this constraint. A missing bound does not restrict
+     * the amount, but a missing amount never satisfies a constraint.
+     * 
+     * @param amountFixed the nutrient amount as a {@link FixedPoint} value
+     * @return true if the amount lies within the bounds (inclusive)
+     */
+    public boolean accepts(long amountFixed) {
+        if (amountFixed == FixedPoint.NULL) {
+            return false;
+        }
+        return (minValue == FixedPoint.NULL || amountFixed >= minValue)
+            && (maxValue == FixedPoint.NULL || amountFixed <= maxValue);
+    }
     
     /**
      * Returns a string representation of the NutrientConstraint object.
@@ -96,8 +133,8 @@ public class NutrientConstraint {
     public String toString() {
         return "NutrientConstraint{" +
                 "nutrientId=" + nutrientId +
-                ", minValue=" + minValue +
-                ", maxValue=" + maxValue +
+                ", minValue=" + getMinValue() +
+                ", maxValue=" + getMaxValue() +
                 '}';
     }
 }
\ No newline at end of file
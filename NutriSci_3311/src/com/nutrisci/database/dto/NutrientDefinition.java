@@ -0,0 +1,119 @@
+package com.nutrisci.database.dto;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable description of a nutrient registered in the
+ * {@link com.nutrisci.database.util.NutrientDictionary}.
+ *
+ * <p>Each definition pairs the CNF NutrientID with a dense ordinal assigned by the dictionary,
+ * the canonical name and unit from the NUTRIENT_NAME table, and a short key used by the
+ * backend models (e.g. "protein", "sodium"). A definition is shared by every
+ * {@link FoodNutrient} and backend model that refers to the nutrient, so the name and unit
+ * strings are stored once rather than on every row.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class NutrientDefinition {
+
+    /** NutrientID used for nutrients that are known only by a backend key. */
+    public static final int NO_NUTRIENT_ID = 0;
+
+    /** Ordinal of a definition that has not been registered in a dictionary. */
+    public static final int UNREGISTERED = -1;
+
+    private final int ordinal;
+    private final int nutrientId;
+    private final String name;
+    private final String unit;
+    private final String key;
+    private final List<String> aliases;
+
+    /**
+     * Constructs a nutrient definition. Definitions are normally created by the dictionary.
+     *
+     * @param ordinal the dense ordinal assigned by the dictionary, or {@link #UNREGISTERED}
+     * @param nutrientId the CNF NutrientID, or {@link #NO_NUTRIENT_ID}
+     * @param name the canonical nutrient name (e.g., "PROTEIN")
+     * @param unit the unit of measurement (e.g., "g", "mg", "kCal")
+     * @param key the short key used by the backend models (e.g., "protein")
+     * @param aliases additional names the nutrient can be looked up by
+     */
+    public NutrientDefinition(int ordinal, int nutrientId, String name, String unit, String key, String... aliases) {
+        this.ordinal = ordinal;
+        this.nutrientId = nutrientId;
+        this.name = name;
+        this.unit = unit;
+        this.key = key;
+        this.aliases = Collections.unmodifiableList(Arrays.asList(aliases.clone()));
+    }
+
+    /**
+     * Gets the dense ordinal assigned by the dictionary, suitable for array indexing.
+     *
+     * @return the ordinal, or {@link #UNREGISTERED} for a detached definition
+     */
+    public int getOrdinal() { return ordinal; }
+
+    /**
+     * Gets the CNF nutrient identifier.
+     *
+     * @return the NutrientID, or {@link #NO_NUTRIENT_ID} if the nutrient is not from CNF
+     */
+    public int getNutrientId() { return nutrientId; }
+
+    /**
+     * Gets the canonical nutrient name.
+     *
+     * @return the nutrient name (e.g., "PROTEIN", "VITAMIN C")
+     */
+    public String getName() { return name; }
+
+    /**
+     * Gets the unit of measurement for amounts of this nutrient.
+     *
+     * @return the unit, or null if unknown
+     */
+    public String getUnit() { return unit; }
+
+    /**
+     * Gets the short key used by the backend models.
+     *
+     * @return the key (e.g., "protein", "vitaminC")
+     */
+    public String getKey() { return key; }
+
+    /**
+     * Gets the additional names this nutrient can be looked up by.
+     *
+     * @return unmodifiable list of aliases
+     */
+    public List<String> getAliases() { return aliases; }
+
+    /**
+     * Checks whether this definition is registered in a dictionary.
+     *
+     * @return true if the ordinal can be used for array indexing
+     */
+    public boolean isRegistered() { return ordinal != UNREGISTERED; }
+
+    /**
+     * Returns a string representation of the NutrientDefinition object.
+     *
+     * @return string representation of the nutrient definition
+     */
+    @Override
+    public String toString() {
+        return "NutrientDefinition{" +
+                "ordinal=" + ordinal +
+                ", nutrientId=" + nutrientId +
+                ", name='" + name + '\'' +
+                ", unit='" + unit + '\'' +
+                ", key='" + key + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,150 @@
+package com.nutrisci.database.dto;
+
+import com.nutrisci.database.util.FixedPoint;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+/**
+ * Immutable nutrient totals of one user over one week or month.
+ *
+ * <p>Totals are {@link FixedPoint} sums of the daily totals of the days in the period that have
+ * logged meals, one per nutrient. The daily average divides by those days only, so days without
+ * any logged meal do not pull the average towards zero.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class NutritionPeriodSummary {
+
+    private final int userId;
+    private final SummaryPeriod period;
+    private final LocalDate periodStart;
+    private final int daysLogged;
+    private final int[] nutrientIds;
+    private final long[] totals;
+
+    /**
+     * Constructs a summary.
+     *
+     * @param userId the user the summary belongs to
+     * @param period the kind of period
+     * @param periodStart the first day of the period
+     * @param daysLogged the number of days in the period with logged meals
+     * @param nutrientIds the CNF NutrientIDs, in column order
+     * @param totals the fixed-point total of each nutrient, parallel to nutrientIds
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    public NutritionPeriodSummary(int userId, SummaryPeriod period, LocalDate periodStart, int daysLogged,
+                                  int[] nutrientIds, long[] totals) {
+        if (nutrientIds.length != totals.length) {
+            throw new IllegalArgumentException("Expected one total per nutrient");
+        }
+        this.userId = userId;
+        this.period = period;
+        this.periodStart = periodStart;
+        this.daysLogged = daysLogged;
+        this.nutrientIds = nutrientIds.clone();
+        this.totals = totals.clone();
+    }
+
+    /**
+     * Gets the user the summary belongs to.
+     *
+     * @return the user ID
+     */
+    public int getUserId() { return userId; }
+
+    /**
+     * Gets the kind of period.
+     *
+     * @return the period
+     */
+    public SummaryPeriod getPeriod() { return period; }
+
+    /**
+     * Gets the first day of the period.
+     *
+     * @return the period start
+     */
+    public LocalDate getPeriodStart() { return periodStart; }
+
+    /**
+     * Gets the last day of the period.
+     *
+     * @return the period end (inclusive)
+     */
+    public LocalDate getPeriodEnd() { return period.endOf(periodStart); }
+
+    /**
+     * Gets the number of days in the period with logged meals.
+     *
+     * @return the days logged
+     */
+    public int getDaysLogged() { return daysLogged; }
+
+    /**
+     * Gets the number of nutrients summarized.
+     *
+     * @return the nutrient count
+     */
+    public int getNutrientCount() { return nutrientIds.length; }
+
+    /**
+     * Gets the NutrientID at a column position.
+     *
+     * @param nutrientIndex the column index
+     * @return the CNF NutrientID
+     */
+    public int getNutrientId(int nutrientIndex) { return nutrientIds[nutrientIndex]; }
+
+    /**
+     * Gets a total by position.
+     *
+     * @param nutrientIndex the column index
+     * @return the total as a fixed-point value
+     */
+    public long getTotalFixed(int nutrientIndex) { return totals[nutrientIndex]; }
+
+    /**
+     * Gets the total of a nutrient over the period.
+     *
+     * @param nutrientId the CNF NutrientID
+     * @return the total, or null if the nutrient is not included
+     */
+    public BigDecimal getTotal(int nutrientId) {
+        int index = indexOfNutrient(nutrientId);
+        return index != DailyNutrientTotals.NOT_FOUND ? FixedPoint.toBigDecimal(totals[index]) : null;
+    }
+
+    /**
+     * Gets the average daily intake of a nutrient over the days with logged meals.
+     *
+     * @param nutrientId the CNF NutrientID
+     * @return the daily average, or null if the nutrient is not included
+     */
+    public BigDecimal getDailyAverage(int nutrientId) {
+        BigDecimal total = getTotal(nutrientId);
+        if (total == null || daysLogged == 0) {
+            return total;
+        }
+        return total.divide(BigDecimal.valueOf(daysLogged), FixedPoint.SCALE_DIGITS, RoundingMode.HALF_UP);
+    }
+
+    private int indexOfNutrient(int nutrientId) {
+        for (int i = 0; i < nutrientIds.length; i++) {
+            if (nutrientIds[i] == nutrientId) {
+                return i;
+            }
+        }
+        return DailyNutrientTotals.NOT_FOUND;
+    }
+
+    @Override
+    public String toString() {
+        return "NutritionPeriodSummary{userId=" + userId + ", " + period.getValue() + " of " + periodStart +
+            ", daysLogged=" + daysLogged + ", nutrients=" + nutrientIds.length + "}";
+    }
+}
@@ -0,0 +1,102 @@
+package com.nutrisci.database.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Calendar periods that nutrition summaries are computed over.
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public enum SummaryPeriod {
+    /** ISO week, Monday to Sunday */
+    WEEK("week") {
+        @Override
+        public LocalDate startOf(LocalDate date) {
+            return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+
+        @Override
+        public LocalDate nextStart(LocalDate periodStart) {
+            return periodStart.plusWeeks(1);
+        }
+    },
+
+    /** Calendar month */
+    MONTH("month") {
+        @Override
+        public LocalDate startOf(LocalDate date) {
+            return date.withDayOfMonth(1);
+        }
+
+        @Override
+        public LocalDate nextStart(LocalDate periodStart) {
+            return periodStart.plusMonths(1);
+        }
+    };
+
+    private final String value;
+
+    /**
+     * Constructs a SummaryPeriod with the specified string value.
+     *
+     * @param value the string representation used in database storage
+     */
+    SummaryPeriod(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Gets the first day of the period containing a date.
+     *
+     * @param date any date
+     * @return the start of its period
+     */
+    public abstract LocalDate startOf(LocalDate date);
+
+    /**
+     * Gets the first day of the period following the one starting on the given date.
+     *
+     * @param periodStart the start of a period
+     * @return the start of the next period
+     */
+    public abstract LocalDate nextStart(LocalDate periodStart);
+
+    /**
+     * Gets the last day of the period starting on the given date.
+     *
+     * @param periodStart the start of a period
+     * @return the end of the period (inclusive)
+     */
+    public LocalDate endOf(LocalDate periodStart) {
+        return nextStart(periodStart).minusDays(1);
+    }
+
+    /**
+     * Gets the string value used for database storage and display.
+     *
+     * @return the lowercase string representation of the period
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Converts a string value to SummaryPeriod enum, ignoring case.
+     *
+     * @param value String representation of the period
+     * @return Corresponding SummaryPeriod enum value
+     * @throws IllegalArgumentException if value doesn't match any enum constant
+     */
+    public static SummaryPeriod fromString(String value) {
+        for (SummaryPeriod period : SummaryPeriod.values()) {
+            if (period.value.equalsIgnoreCase(value)) {
+                return period;
+            }
+        }
+        throw new IllegalArgumentException("Invalid summary period: " + value);
+    }
+}
@@ -0,0 +1,26 @@
+package com.nutrisci.database.events;
+
+/**
+ * Published after a meal record has been deleted because its last item was removed.
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class MealDeleted extends MealLogEvent {
+
+    /**
+     * Constructs the event.
+     *
+     * @param userId the user who owned the meal
+     * @param mealId the deleted meal's ID
+     */
+    public MealDeleted(int userId, int mealId) {
+        super(userId, mealId);
+    }
+
+    @Override
+    public Type getType() {
+        return Type.MEAL_DELETED;
+    }
+}
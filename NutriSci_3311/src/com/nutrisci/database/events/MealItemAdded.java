@@ -0,0 +1,49 @@
+package com.nutrisci.database.events;
+
+import com.nutrisci.database.dto.MealItem;
+
+/**
+ * Published after an item has been added to an existing meal.
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class MealItemAdded extends MealLogEvent {
+
+    private final int itemId;
+    private final MealItem item;
+
+    /**
+     * Constructs the event.
+     *
+     * @param userId the user who owns the meal
+     * @param mealId the meal the item was added to
+     * @param itemId the generated item ID
+     * @param item the item as it was added; the event keeps a copy
+     */
+    public MealItemAdded(int userId, int mealId, int itemId, MealItem item) {
+        super(userId, mealId);
+        this.itemId = itemId;
+        this.item = new MealItem(item);
+    }
+
+    @Override
+    public Type getType() {
+        return Type.MEAL_ITEM_ADDED;
+    }
+
+    /**
+     * Gets the ID of the added item.
+     *
+     * @return the item ID
+     */
+    public int getItemId() { return itemId; }
+
+    /**
+     * Gets a copy of the item as it was passed to the DAO, with its food and quantity.
+     *
+     * @return the added item
+     */
+    public MealItem getItem() { return item; }
+}
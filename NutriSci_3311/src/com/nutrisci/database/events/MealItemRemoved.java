@@ -0,0 +1,38 @@
+package com.nutrisci.database.events;
+
+/**
+ * Published after an item has been removed from a meal. If that left the meal empty, a
+ * {@link MealDeleted} event for the same meal follows.
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class MealItemRemoved extends MealLogEvent {
+
+    private final int itemId;
+
+    /**
+     * Constructs the event.
+     *
+     * @param userId the user who owns the meal
+     * @param mealId the meal the item was removed from
+     * @param itemId the removed item's ID
+     */
+    public MealItemRemoved(int userId, int mealId, int itemId) {
+        super(userId, mealId);
+        this.itemId = itemId;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.MEAL_ITEM_REMOVED;
+    }
+
+    /**
+     * Gets the ID of the removed item.
+     *
+     * @return the item ID
+     */
+    public int getItemId() { return itemId; }
+}
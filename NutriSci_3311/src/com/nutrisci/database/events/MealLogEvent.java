@@ -0,0 +1,84 @@
+package com.nutrisci.database.events;
+
+/**
+ * A committed change to a user's meal log, published by the meal log DAO so downstream
+ * computations can update incrementally instead of rereading the history.
+ *
+ * <p>Events are published only after the transaction that made the change has committed, so a
+ * listener never sees a change that was rolled back. Each event carries a sequence number that
+ * increases in publication order; listeners receive events in that order.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public abstract class MealLogEvent {
+
+    /**
+     * Kind of change an event describes.
+     */
+    public enum Type {
+        /** A meal was logged with its items */
+        MEAL_LOGGED,
+        /** An item was added to an existing meal */
+        MEAL_ITEM_ADDED,
+        /** An item was removed from a meal */
+        MEAL_ITEM_REMOVED,
+        /** A meal was deleted because its last item was removed */
+        MEAL_DELETED
+    }
+
+    private final int userId;
+    private final int mealId;
+
+    // Assigned by the event bus when the event is published
+    private long sequence;
+
+    /**
+     * Constructs an event for a meal.
+     *
+     * @param userId the user who owns the meal
+     * @param mealId the meal's ID
+     */
+    protected MealLogEvent(int userId, int mealId) {
+        this.userId = userId;
+        this.mealId = mealId;
+    }
+
+    /**
+     * Gets the kind of change.
+     *
+     * @return the event type
+     */
+    public abstract Type getType();
+
+    /**
+     * Gets the user who owns the meal.
+     *
+     * @return the user ID
+     */
+    public int getUserId() { return userId; }
+
+    /**
+     * Gets the meal the change applies to.
+     *
+     * @return the meal ID
+     */
+    public int getMealId() { return mealId; }
+
+    /**
+     * Gets the position of this event in publication order.
+     *
+     * @return the sequence number, starting at 1, or 0 if the event has not been published
+     */
+    public long getSequence() { return sequence; }
+
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    @Override
+    public String toString() {
+        return getType() + "#" + sequence + "{userId=" + userId + ", mealId=" + mealId + "}";
+    }
+}
@@ -0,0 +1,228 @@
+package com.nutrisci.database.events;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers committed meal log changes to listeners asynchronously, in batches.
+ *
+ * <p>Publishing only stamps the event with the next sequence number and appends it to a queue,
+ * so the writing thread never waits for listeners. A dedicated dispatch thread takes whatever
+ * has accumulated, up to the maximum batch size, and hands it to every listener as one list;
+ * under load batches grow and per-event overhead shrinks, while a lone event is delivered
+ * immediately. Delivery follows publication order.</p>
+ *
+ * <p>While no listener is registered, events are discarded at publication and the dispatch
+ * thread is not started, so a DAO without subscribers pays nothing. A listener added later
+ * receives only events published after it was added.</p>
+ *
+ * <pre>
+ * MealLogEventBus bus = new MealLogEventBus();
+ * IMealLogDAO dao = new MealLogDAOImpl(historyCache, bus);
+ * bus.addListener(events -&gt; summaries.apply(events));
+ * </pre>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class MealLogEventBus implements AutoCloseable {
+
+    /** Default maximum number of events handed to a listener in one call. */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+    private final int maxBatchSize;
+    private final List<MealLogListener> listeners = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<MealLogEvent> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService dispatchExecutor;
+
+    // Guards the sequence counters, so numbering and enqueueing happen in the same order
+    private final Object sequenceLock = new Object();
+    private long publishedSequence;
+    private long deliveredSequence;
+
+    // Guarded by this
+    private boolean dispatching;
+    private volatile boolean closed;
+
+    /**
+     * Constructs a bus with the default maximum batch size.
+     */
+    public MealLogEventBus() {
+        this(DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs a bus.
+     *
+     * @param maxBatchSize maximum number of events handed to a listener in one call
+     */
+    public MealLogEventBus(int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Max batch size must be greater than 0");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.dispatchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "meal-log-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Registers a listener and starts the dispatch thread if it is not running yet.
+     *
+     * @param listener the listener to add
+     * @throws IllegalStateException if the bus has been closed
+     */
+    public synchronized void addListener(MealLogListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        if (closed) {
+            throw new IllegalStateException("Event bus is closed");
+        }
+        listeners.add(listener);
+        if (!dispatching) {
+            dispatching = true;
+            dispatchExecutor.execute(this::dispatchLoop);
+        }
+    }
+
+    /**
+     * Removes a previously registered listener. Batches already being delivered may still
+     * reach it.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(MealLogListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Checks whether any listener is registered. Publishers can skip building events when
+     * this returns false.
+     *
+     * @return true if published events will be delivered
+     */
+    public boolean hasListeners() {
+        return !listeners.isEmpty() && !closed;
+    }
+
+    /**
+     * Publishes one event. Must be called only after the change it describes has committed.
+     *
+     * @param event the event to deliver
+     */
+    public void publish(MealLogEvent event) {
+        if (!hasListeners()) {
+            return;
+        }
+        synchronized (sequenceLock) {
+            event.setSequence(++publishedSequence);
+            queue.add(event);
+        }
+    }
+
+    /**
+     * Publishes several events with consecutive sequence numbers, so no other publisher's
+     * events are interleaved with them.
+     *
+     * @param events the events to deliver, in order
+     */
+    public void publishAll(List<? extends MealLogEvent> events) {
+        if (events.isEmpty() || !hasListeners()) {
+            return;
+        }
+        synchronized (sequenceLock) {
+            for (MealLogEvent event : events) {
+                event.setSequence(++publishedSequence);
+                queue.add(event);
+            }
+        }
+    }
+
+    /**
+     * Waits until every event published before this call has been delivered to the listeners.
+     *
+     * @param timeout maximum time to wait
+     * @param unit unit of the timeout
+     * @return true if delivery caught up, false if the timeout elapsed first
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitDelivery(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (sequenceLock) {
+            long target = publishedSequence;
+            while (deliveredSequence < target) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(sequenceLock, remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Gets the sequence number of the last event delivered to the listeners.
+     *
+     * @return the last delivered sequence number, or 0 if none has been delivered
+     */
+    public long getDeliveredSequence() {
+        synchronized (sequenceLock) {
+            return deliveredSequence;
+        }
+    }
+
+    /**
+     * Stops the dispatch thread. Events not yet delivered are discarded; call
+     * {@link #awaitDelivery} first to let them drain.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        dispatchExecutor.shutdownNow();
+    }
+
+    /**
+     * Delivers queued events in batches until the bus is closed.
+     */
+    private void dispatchLoop() {
+        try {
+            while (!closed) {
+                // A fresh list per batch, so listeners may keep the one they were given
+                List<MealLogEvent> batch = new ArrayList<>();
+                batch.add(queue.take());
+                queue.drainTo(batch, maxBatchSize - 1);
+                deliver(batch);
+                synchronized (sequenceLock) {
+                    deliveredSequence = batch.get(batch.size() - 1).getSequence();
+                    sequenceLock.notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            // Closed while waiting for events
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deliver(List<MealLogEvent> batch) {
+        List<MealLogEvent> events = Collections.unmodifiableList(batch);
+        for (MealLogListener listener : listeners) {
+            try {
+                listener.onEvents(events);
+            } catch (RuntimeException e) {
+                System.err.println("Meal log listener failed: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.nutrisci.database.events;
+
+import java.util.List;
+
+/**
+ * Receives committed meal log changes from a {@link MealLogEventBus}.
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+@FunctionalInterface
+public interface MealLogListener {
+
+    /**
+     * Called on the bus's dispatch thread with the next batch of events, in publication order.
+     * Consecutive batches never overlap or skip events. Implementations should return quickly,
+     * since later batches wait for this one; exceptions are reported and do not stop delivery.
+     *
+     * @param events the events, oldest first; never empty
+     */
+    void onEvents(List<MealLogEvent> events);
+}
@@ -0,0 +1,41 @@
+package com.nutrisci.database.events;
+
+import com.nutrisci.database.dto.Meal;
+
+/**
+ * Published after a meal and its items have been logged.
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class MealLogged extends MealLogEvent {
+
+    private final Meal meal;
+
+    /**
+     * Constructs the event.
+     *
+     * @param userId the user who logged the meal
+     * @param mealId the generated meal ID
+     * @param meal the meal as it was logged; the event keeps a copy
+     */
+    public MealLogged(int userId, int mealId, Meal meal) {
+        super(userId, mealId);
+        this.meal = new Meal(meal);
+    }
+
+    @Override
+    public Type getType() {
+        return Type.MEAL_LOGGED;
+    }
+
+    /**
+     * Gets a copy of the meal as it was passed to the DAO: date, type and items with their
+     * foods and quantities. Item IDs are not filled in, since items are inserted in batches.
+     * Later changes to the caller's meal do not show here.
+     *
+     * @return the logged meal
+     */
+    public Meal getMeal() { return meal; }
+}
@@ -0,0 +1,144 @@
+package com.nutrisci.database.export;
+
+import com.nutrisci.database.util.FixedPoint;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered writer of binary values and ASCII/UTF-8 text to a channel.
+ *
+ * <p>Values are encoded straight into one reusable direct buffer, which is handed to the
+ * channel whenever it fills up, so the memory used by an export is the buffer size no matter
+ * how much is written. Numbers are formatted without creating strings; only text fields are
+ * encoded through a temporary byte array. Multi-byte binary values are little-endian.</p>
+ */
+final class ChannelWriter {
+
+    private static final int MAX_LONG_DIGITS = 20;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] digits = new byte[MAX_LONG_DIGITS];
+    private long bytesWritten;
+
+    ChannelWriter(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    void putByte(int value) throws IOException {
+        ensure(Byte.BYTES);
+        buffer.put((byte) value);
+    }
+
+    void putInt(int value) throws IOException {
+        ensure(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    void putLong(long value) throws IOException {
+        ensure(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    /**
+     * Writes text whose characters are all ASCII, e.g. names and formatted dates.
+     */
+    void putAscii(CharSequence text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            ensure(1);
+            buffer.put((byte) text.charAt(i));
+        }
+    }
+
+    /**
+     * Writes text as UTF-8.
+     */
+    void putUtf8(String text) throws IOException {
+        putBytes(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    void putBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            ensure(1);
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    /**
+     * Writes an integer in decimal.
+     */
+    void putDecimal(long value) throws IOException {
+        if (value < 0) {
+            putByte('-');
+            if (value == Long.MIN_VALUE) {
+                putAscii("9223372036854775808");
+                return;
+            }
+            value = -value;
+        }
+        int length = 0;
+        do {
+            digits[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        ensure(length);
+        while (length > 0) {
+            buffer.put(digits[--length]);
+        }
+    }
+
+    /**
+     * Writes a {@link FixedPoint} value in decimal, without trailing fractional zeros.
+     */
+    void putFixed(long fixed) throws IOException {
+        if (fixed < 0) {
+            putByte('-');
+            fixed = -fixed;
+        }
+        putDecimal(fixed / FixedPoint.SCALE);
+        long fraction = fixed % FixedPoint.SCALE;
+        if (fraction == 0) {
+            return;
+        }
+        putByte('.');
+        long place = FixedPoint.SCALE / 10;
+        while (fraction > 0) {
+            putByte((int) ('0' + fraction / place));
+            fraction %= place;
+            place /= 10;
+        }
+    }
+
+    /**
+     * Gets the number of bytes handed to the channel or still buffered.
+     */
+    long getBytesWritten() {
+        return bytesWritten + buffer.position();
+    }
+
+    /**
+     * Hands everything buffered so far to the channel.
+     */
+    void flush() throws IOException {
+        buffer.flip();
+        bytesWritten += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+}
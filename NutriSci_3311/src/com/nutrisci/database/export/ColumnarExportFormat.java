@@ -0,0 +1,52 @@
+package com.nutrisci.database.export;
+
+/**
+ * Layout constants for the columnar binary meal history export written by
+ * {@link MealHistoryExporter.Format#COLUMNAR}.
+ *
+ * <p>The file is little-endian and holds one row per meal item, stored in blocks so that a
+ * writer and a reader only ever need one block in memory:</p>
+ * <ul>
+ *   <li><b>Header</b> - {@code int magic, int formatVersion, int userId, int nutrientCount},
+ *       followed by {@code nutrientCount} {@code int} NutrientIDs.</li>
+ *   <li><b>Blocks</b> - each starts with an {@code int rowCount} greater than zero, followed by
+ *       one column after the other, each holding {@code rowCount} values:
+ *       {@code int mealId}, {@code int mealDate} (epoch day), {@code long loggedAt} (seconds of
+ *       the local date-time since 1970-01-01T00:00), {@code byte mealType} (ordinal of
+ *       {@link com.nutrisci.database.dto.MealType}), {@code int itemId}, {@code int foodId},
+ *       {@code long quantityGrams}, then one {@code long} column per header nutrient with the
+ *       item's amount of that nutrient.</li>
+ *   <li><b>End marker</b> - an {@code int} row count of zero.</li>
+ * </ul>
+ *
+ * <p>Quantities and nutrient amounts are {@link com.nutrisci.database.util.FixedPoint}
+ * values; a nutrient the food has no amount for is
+ * {@link com.nutrisci.database.util.FixedPoint#NULL}. Food names are not repeated per row;
+ * they are available from the CNF data by FoodID.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ColumnarExportFormat {
+
+    // Prevent instantiation
+    private ColumnarExportFormat() {
+        throw new UnsupportedOperationException("Constants class cannot be instantiated");
+    }
+
+    /** File magic number, the ASCII bytes "NSMH" read as a little-endian int. */
+    public static final int MAGIC = 0x484D534E;
+
+    /** Current layout version. Readers reject files with any other version. */
+    public static final int FORMAT_VERSION = 1;
+
+    /** Row count that marks the end of the file. */
+    public static final int END_OF_BLOCKS = 0;
+
+    /** Bytes per row in a block, excluding the nutrient columns. */
+    public static final int FIXED_ROW_BYTES = Integer.BYTES * 4 + Long.BYTES * 2 + Byte.BYTES;
+
+    /** Bytes per row for each nutrient column. */
+    public static final int NUTRIENT_COLUMN_BYTES = Long.BYTES;
+}
@@ -0,0 +1,108 @@
+package com.nutrisci.database.export;
+
+import com.nutrisci.database.dto.Meal;
+import com.nutrisci.database.dto.MealItem;
+
+import java.io.IOException;
+import java.time.ZoneOffset;
+
+/**
+ * Writes exported items in the block layout described by {@link ColumnarExportFormat}.
+ * Rows are collected in primitive arrays of one block and written column by column when the
+ * block is full, so memory use is fixed by the block size.
+ */
+final class ColumnarRowWriter extends MealRowWriter {
+
+    private final int blockRows;
+    private final int[] mealIds;
+    private final int[] mealDates;
+    private final long[] loggedAt;
+    private final byte[] mealTypes;
+    private final int[] itemIds;
+    private final int[] foodIds;
+    private final long[] quantities;
+    // Column-major: nutrientAmounts[nutrient][row]
+    private final long[][] nutrientAmounts;
+    private int rows;
+
+    ColumnarRowWriter(ChannelWriter out, int[] nutrientIds, int blockRows) {
+        super(out, nutrientIds);
+        this.blockRows = blockRows;
+        this.mealIds = new int[blockRows];
+        this.mealDates = new int[blockRows];
+        this.loggedAt = new long[blockRows];
+        this.mealTypes = new byte[blockRows];
+        this.itemIds = new int[blockRows];
+        this.foodIds = new int[blockRows];
+        this.quantities = new long[blockRows];
+        this.nutrientAmounts = new long[nutrientIds.length][blockRows];
+    }
+
+    @Override
+    void begin(int userId) throws IOException {
+        out.putInt(ColumnarExportFormat.MAGIC);
+        out.putInt(ColumnarExportFormat.FORMAT_VERSION);
+        out.putInt(userId);
+        out.putInt(nutrientIds.length);
+        for (int nutrientId : nutrientIds) {
+            out.putInt(nutrientId);
+        }
+    }
+
+    @Override
+    void write(Meal meal, MealItem item, long[] nutrients) throws IOException {
+        mealIds[rows] = meal.getMealId();
+        mealDates[rows] = (int) meal.getMealDate().toEpochDay();
+        loggedAt[rows] = meal.getLoggedAt() != null ? meal.getLoggedAt().toEpochSecond(ZoneOffset.UTC) : 0L;
+        mealTypes[rows] = (byte) meal.getMealType().ordinal();
+        itemIds[rows] = item.getItemId();
+        foodIds[rows] = item.getFoodId();
+        quantities[rows] = item.getQuantityGramsFixed();
+        for (int i = 0; i < nutrients.length; i++) {
+            nutrientAmounts[i][rows] = nutrients[i];
+        }
+        if (++rows == blockRows) {
+            writeBlock();
+        }
+    }
+
+    @Override
+    void finish() throws IOException {
+        if (rows > 0) {
+            writeBlock();
+        }
+        out.putInt(ColumnarExportFormat.END_OF_BLOCKS);
+        out.flush();
+    }
+
+    private void writeBlock() throws IOException {
+        out.putInt(rows);
+        for (int i = 0; i < rows; i++) {
+            out.putInt(mealIds[i]);
+        }
+        for (int i = 0; i < rows; i++) {
+            out.putInt(mealDates[i]);
+        }
+        for (int i = 0; i < rows; i++) {
+            out.putLong(loggedAt[i]);
+        }
+        for (int i = 0; i < rows; i++) {
+            out.putByte(mealTypes[i]);
+        }
+        for (int i = 0; i < rows; i++) {
+            out.putInt(itemIds[i]);
+        }
+        for (int i = 0; i < rows; i++) {
+            out.putInt(foodIds[i]);
+        }
+        for (int i = 0; i < rows; i++) {
+            out.putLong(quantities[i]);
+        }
+        for (long[] column : nutrientAmounts) {
+            for (int i = 0; i < rows; i++) {
+                out.putLong(column[i]);
+            }
+        }
+        rows = 0;
+    }
+}
@@ -0,0 +1,71 @@
+package com.nutrisci.database.export;
+
+import com.nutrisci.database.dto.Meal;
+import com.nutrisci.database.dto.MealItem;
+import com.nutrisci.database.util.FixedPoint;
+
+import java.io.IOException;
+
+/**
+ * Writes exported items as UTF-8 CSV with a header row. Food names are always quoted; unknown
+ * nutrient amounts are left empty.
+ */
+final class CsvRowWriter extends MealRowWriter {
+
+    private static final char DELIMITER = ',';
+    private static final char QUOTE = '"';
+    private static final char NEWLINE = '\n';
+
+    CsvRowWriter(ChannelWriter out, int[] nutrientIds) {
+        super(out, nutrientIds);
+    }
+
+    @Override
+    void begin(int userId) throws IOException {
+        out.putAscii(String.join(String.valueOf(DELIMITER), COL_MEAL_ID, COL_MEAL_DATE, COL_MEAL_TYPE, COL_LOGGED_AT,
+            COL_ITEM_ID, COL_FOOD_ID, COL_FOOD_NAME, COL_QUANTITY_GRAMS));
+        for (int nutrientId : nutrientIds) {
+            out.putByte(DELIMITER);
+            out.putAscii(NUTRIENT_COLUMN_PREFIX);
+            out.putDecimal(nutrientId);
+        }
+        out.putByte(NEWLINE);
+    }
+
+    @Override
+    void write(Meal meal, MealItem item, long[] nutrients) throws IOException {
+        out.putDecimal(meal.getMealId());
+        out.putByte(DELIMITER);
+        out.putAscii(meal.getMealDate().toString());
+        out.putByte(DELIMITER);
+        out.putAscii(meal.getMealType().getValue());
+        out.putByte(DELIMITER);
+        if (meal.getLoggedAt() != null) {
+            out.putAscii(meal.getLoggedAt().toString());
+        }
+        out.putByte(DELIMITER);
+        out.putDecimal(item.getItemId());
+        out.putByte(DELIMITER);
+        out.putDecimal(item.getFoodId());
+        out.putByte(DELIMITER);
+        out.putByte(QUOTE);
+        if (item.getFoodName() != null) {
+            out.putUtf8(item.getFoodName().replace("\"", "\"\""));
+        }
+        out.putByte(QUOTE);
+        out.putByte(DELIMITER);
+        out.putFixed(item.getQuantityGramsFixed());
+        for (long amount : nutrients) {
+            out.putByte(DELIMITER);
+            if (!FixedPoint.isNull(amount)) {
+                out.putFixed(amount);
+            }
+        }
+        out.putByte(NEWLINE);
+    }
+
+    @Override
+    void finish() throws IOException {
+        out.flush();
+    }
+}
@@ -0,0 +1,309 @@
+package com.nutrisci.database.export;
+
+import com.nutrisci.database.dao.IMealLogDAO;
+import com.nutrisci.database.dao.impl.MealLogDAOImpl;
+import com.nutrisci.database.dto.MealItem;
+import com.nutrisci.database.exceptions.DatabaseAccessException;
+import com.nutrisci.database.snapshot.CNFSnapshot;
+import com.nutrisci.database.util.FixedPoint;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Streams a user's meal history, one row per meal item, to CSV, NDJSON or a columnar binary file.
+ *
+ * <p>Meals are read with {@link IMealLogDAO#streamLoggedMeals} and each one is encoded as soon as
+ * its rows have arrived, into a fixed-size buffer that is written to the channel whenever it
+ * fills up. No {@code List<Meal>} is built, so heap usage stays flat however long the history
+ * is. When a {@link CNFSnapshot} and nutrient IDs are configured, every row also carries the
+ * item's amount of each nutrient, computed from the memory-mapped snapshot rather than by
+ * joining NUTRIENT_AMOUNT.</p>
+ *
+ * <p>Uses Builder pattern for configuration:</p>
+ * <pre>
+ * long rows = MealHistoryExporter.builder()
+ *     .format(MealHistoryExporter.Format.NDJSON)
+ *     .nutrients(snapshotHolder.getSnapshot(), 208, 203, 204, 205)
+ *     .build()
+ *     .exportToFile(userId, Paths.get("history.ndjson"));
+ * </pre>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class MealHistoryExporter {
+
+    /**
+     * Output encoding.
+     */
+    public enum Format {
+        /** UTF-8 CSV with a header row */
+        CSV,
+        /** Newline-delimited JSON, one object per item */
+        NDJSON,
+        /** Little-endian column blocks, see {@link ColumnarExportFormat} */
+        COLUMNAR
+    }
+
+    /** First date representable by the SQL Server DATE type, used for whole-history exports. */
+    public static final LocalDate ALL_TIME_START = LocalDate.of(1, 1, 1);
+
+    /** Last date representable by the SQL Server DATE type, used for whole-history exports. */
+    public static final LocalDate ALL_TIME_END = LocalDate.of(9999, 12, 31);
+
+    // Defaults
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int DEFAULT_BLOCK_ROWS = 4096;
+    private static final int MIN_BUFFER_SIZE = 64;
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final IMealLogDAO mealLogDAO;
+    private final Format format;
+    private final CNFSnapshot snapshot;
+    private final int[] nutrientIds;
+    private final int bufferSize;
+    private final int blockRows;
+
+    // Private constructor for Builder pattern
+    private MealHistoryExporter(Builder builder) {
+        this.mealLogDAO = builder.mealLogDAO;
+        this.format = builder.format;
+        this.snapshot = builder.snapshot;
+        this.nutrientIds = builder.nutrientIds;
+        this.bufferSize = builder.bufferSize;
+        this.blockRows = builder.blockRows;
+    }
+
+    /**
+     * Creates a new Builder instance for configuring an exporter.
+     *
+     * @return new Builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder class for configuring MealHistoryExporter instances with fluent interface.
+     */
+    public static class Builder {
+        private IMealLogDAO mealLogDAO;
+        private Format format = Format.CSV;
+        private CNFSnapshot snapshot;
+        private int[] nutrientIds = new int[0];
+        private int bufferSize = DEFAULT_BUFFER_SIZE;
+        private int blockRows = DEFAULT_BLOCK_ROWS;
+
+        private Builder() {}
+
+        /**
+         * Sets the DAO meals are read through (defaults to a new {@link MealLogDAOImpl}).
+         *
+         * @param mealLogDAO the meal log DAO
+         * @return this builder for method chaining
+         */
+        public Builder mealLogDAO(IMealLogDAO mealLogDAO) {
+            this.mealLogDAO = mealLogDAO;
+            return this;
+        }
+
+        /**
+         * Sets the output encoding (defaults to CSV).
+         *
+         * @param format the export format
+         * @return this builder for method chaining
+         */
+        public Builder format(Format format) {
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * Adds per-item nutrient columns computed from a CNF snapshot.
+         *
+         * @param snapshot the CNF snapshot providing amounts per 100g
+         * @param nutrientIds the NutrientIDs to export, one column each
+         * @return this builder for method chaining
+         */
+        public Builder nutrients(CNFSnapshot snapshot, int... nutrientIds) {
+            this.snapshot = snapshot;
+            this.nutrientIds = nutrientIds != null ? nutrientIds.clone() : new int[0];
+            return this;
+        }
+
+        /**
+         * Sets the size of the output buffer in bytes.
+         *
+         * @param bufferSize the buffer size
+         * @return this builder for method chaining
+         */
+        public Builder bufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Sets the number of rows per block of the columnar format.
+         *
+         * @param blockRows rows per block
+         * @return this builder for method chaining
+         */
+        public Builder blockRows(int blockRows) {
+            this.blockRows = blockRows;
+            return this;
+        }
+
+        /**
+         * Builds and validates the exporter.
+         *
+         * @return new MealHistoryExporter instance
+         * @throws IllegalStateException if the configuration is invalid
+         */
+        public MealHistoryExporter build() {
+            if (format == null) {
+                throw new IllegalStateException("Format is required");
+            }
+            if (nutrientIds.length > 0 && snapshot == null) {
+                throw new IllegalStateException("A CNF snapshot is required to export nutrients");
+            }
+            if (bufferSize < MIN_BUFFER_SIZE) {
+                throw new IllegalStateException("Buffer size must be at least " + MIN_BUFFER_SIZE + " bytes");
+            }
+            if (blockRows <= 0) {
+                throw new IllegalStateException("Block rows must be greater than 0");
+            }
+            if (mealLogDAO == null) {
+                mealLogDAO = new MealLogDAOImpl();
+            }
+            return new MealHistoryExporter(this);
+        }
+    }
+
+    /**
+     * Exports a user's whole meal history to a channel.
+     *
+     * @param userId the user whose meals are exported
+     * @param channel the destination; left open
+     * @return the number of item rows written
+     * @throws IOException if writing fails
+     * @throws DatabaseAccessException if reading the meals fails
+     */
+    public long export(int userId, WritableByteChannel channel) throws IOException, DatabaseAccessException {
+        return export(userId, ALL_TIME_START, ALL_TIME_END, channel);
+    }
+
+    /**
+     * Exports the meals of a date range to a channel, newest first.
+     *
+     * @param userId the user whose meals are exported
+     * @param startDate start of the range (inclusive)
+     * @param endDate end of the range (inclusive)
+     * @param channel the destination; left open
+     * @return the number of item rows written
+     * @throws IOException if writing fails
+     * @throws DatabaseAccessException if reading the meals fails
+     */
+    public long export(int userId, LocalDate startDate, LocalDate endDate, WritableByteChannel channel)
+            throws IOException, DatabaseAccessException {
+
+        ChannelWriter out = new ChannelWriter(channel, bufferSize);
+        MealRowWriter writer = createRowWriter(out);
+        long[] nutrients = new long[nutrientIds.length];
+        long[] rows = new long[1];
+
+        writer.begin(userId);
+        try {
+            mealLogDAO.streamLoggedMeals(userId, startDate, endDate, meal -> {
+                try {
+                    for (MealItem item : meal.getMealItems()) {
+                        computeNutrients(item, nutrients);
+                        writer.write(meal, item, nutrients);
+                        rows[0]++;
+                    }
+                } catch (IOException e) {
+                    // Abandons the result set; the DAO closes it on the way out
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+        return rows[0];
+    }
+
+    /**
+     * Exports a user's whole meal history to a file.
+     *
+     * @param userId the user whose meals are exported
+     * @param target the file to write
+     * @return the number of item rows written
+     * @throws IOException if writing fails
+     * @throws DatabaseAccessException if reading the meals fails
+     */
+    public long exportToFile(int userId, Path target) throws IOException, DatabaseAccessException {
+        return exportToFile(userId, ALL_TIME_START, ALL_TIME_END, target);
+    }
+
+    /**
+     * Exports the meals of a date range to a file. The file is written to a temporary sibling
+     * and moved into place when complete, so a failed export never leaves a truncated file.
+     *
+     * @param userId the user whose meals are exported
+     * @param startDate start of the range (inclusive)
+     * @param endDate end of the range (inclusive)
+     * @param target the file to write, replaced if it exists
+     * @return the number of item rows written
+     * @throws IOException if writing fails
+     * @throws DatabaseAccessException if reading the meals fails
+     */
+    public long exportToFile(int userId, LocalDate startDate, LocalDate endDate, Path target)
+            throws IOException, DatabaseAccessException {
+
+        Path absoluteTarget = target.toAbsolutePath();
+        Path temp = absoluteTarget.resolveSibling(absoluteTarget.getFileName() + TEMP_FILE_SUFFIX);
+        long rows;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            rows = export(userId, startDate, endDate, channel);
+        } catch (IOException | DatabaseAccessException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, absoluteTarget, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return rows;
+    }
+
+    private MealRowWriter createRowWriter(ChannelWriter out) {
+        switch (format) {
+            case NDJSON:
+                return new NdjsonRowWriter(out, nutrientIds);
+            case COLUMNAR:
+                return new ColumnarRowWriter(out, nutrientIds, blockRows);
+            default:
+                return new CsvRowWriter(out, nutrientIds);
+        }
+    }
+
+    /**
+     * Fills in the item's amount of each exported nutrient, or {@link FixedPoint#NULL} if the
+     * snapshot has no amount for its food.
+     */
+    private void computeNutrients(MealItem item, long[] nutrients) {
+        for (int i = 0; i < nutrientIds.length; i++) {
+            double per100g = snapshot.getNutrientAmount(item.getFoodId(), nutrientIds[i]);
+            nutrients[i] = Double.isNaN(per100g)
+                ? FixedPoint.NULL
+                : FixedPoint.scalePer100g(FixedPoint.fromDouble(per100g), item.getQuantityGramsFixed());
+        }
+    }
+}
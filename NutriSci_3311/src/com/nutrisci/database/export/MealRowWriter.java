@@ -0,0 +1,51 @@
+package com.nutrisci.database.export;
+
+import com.nutrisci.database.dto.Meal;
+import com.nutrisci.database.dto.MealItem;
+
+import java.io.IOException;
+
+/**
+ * Encodes exported meal items, one row per item, in one of the export formats.
+ *
+ * <p>Column names are shared by the text formats and match the aliases understood by
+ * {@link com.nutrisci.database.importer.MealHistoryImporter}, so an export can be imported
+ * again.</p>
+ */
+abstract class MealRowWriter {
+
+    static final String COL_MEAL_ID = "meal_id";
+    static final String COL_MEAL_DATE = "meal_date";
+    static final String COL_MEAL_TYPE = "meal_type";
+    static final String COL_LOGGED_AT = "logged_at";
+    static final String COL_ITEM_ID = "item_id";
+    static final String COL_FOOD_ID = "food_id";
+    static final String COL_FOOD_NAME = "food_name";
+    static final String COL_QUANTITY_GRAMS = "quantity_grams";
+    static final String NUTRIENT_COLUMN_PREFIX = "nutrient_";
+
+    protected final ChannelWriter out;
+    protected final int[] nutrientIds;
+
+    MealRowWriter(ChannelWriter out, int[] nutrientIds) {
+        this.out = out;
+        this.nutrientIds = nutrientIds;
+    }
+
+    /**
+     * Writes whatever precedes the first row.
+     */
+    abstract void begin(int userId) throws IOException;
+
+    /**
+     * Writes one item.
+     *
+     * @param nutrients the item's amount of each exported nutrient as FixedPoint, NULL if unknown
+     */
+    abstract void write(Meal meal, MealItem item, long[] nutrients) throws IOException;
+
+    /**
+     * Writes whatever follows the last row and flushes the output.
+     */
+    abstract void finish() throws IOException;
+}
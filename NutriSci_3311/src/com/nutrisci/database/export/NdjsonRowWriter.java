@@ -0,0 +1,103 @@
+package com.nutrisci.database.export;
+
+import com.nutrisci.database.dto.Meal;
+import com.nutrisci.database.dto.MealItem;
+import com.nutrisci.database.util.FixedPoint;
+
+import java.io.IOException;
+
+/**
+ * Writes exported items as newline-delimited JSON, one flat object per item. Unknown nutrient
+ * amounts are written as null.
+ */
+final class NdjsonRowWriter extends MealRowWriter {
+
+    private static final int FIRST_PRINTABLE = 0x20;
+    private static final String HEX_DIGITS = "0123456789abcdef";
+
+    NdjsonRowWriter(ChannelWriter out, int[] nutrientIds) {
+        super(out, nutrientIds);
+    }
+
+    @Override
+    void begin(int userId) {
+        // Every line stands alone
+    }
+
+    @Override
+    void write(Meal meal, MealItem item, long[] nutrients) throws IOException {
+        out.putByte('{');
+        key(COL_MEAL_ID, true);
+        out.putDecimal(meal.getMealId());
+        key(COL_MEAL_DATE, false);
+        quoted(meal.getMealDate().toString());
+        key(COL_MEAL_TYPE, false);
+        quoted(meal.getMealType().getValue());
+        key(COL_LOGGED_AT, false);
+        if (meal.getLoggedAt() != null) {
+            quoted(meal.getLoggedAt().toString());
+        } else {
+            out.putAscii("null");
+        }
+        key(COL_ITEM_ID, false);
+        out.putDecimal(item.getItemId());
+        key(COL_FOOD_ID, false);
+        out.putDecimal(item.getFoodId());
+        key(COL_FOOD_NAME, false);
+        if (item.getFoodName() != null) {
+            quoted(item.getFoodName());
+        } else {
+            out.putAscii("null");
+        }
+        key(COL_QUANTITY_GRAMS, false);
+        out.putFixed(item.getQuantityGramsFixed());
+        for (int i = 0; i < nutrientIds.length; i++) {
+            out.putAscii(",\"" + NUTRIENT_COLUMN_PREFIX);
+            out.putDecimal(nutrientIds[i]);
+            out.putAscii("\":");
+            if (FixedPoint.isNull(nutrients[i])) {
+                out.putAscii("null");
+            } else {
+                out.putFixed(nutrients[i]);
+            }
+        }
+        out.putAscii("}\n");
+    }
+
+    @Override
+    void finish() throws IOException {
+        out.flush();
+    }
+
+    private void key(String name, boolean first) throws IOException {
+        if (!first) {
+            out.putByte(',');
+        }
+        out.putByte('"');
+        out.putAscii(name);
+        out.putAscii("\":");
+    }
+
+    private void quoted(String value) throws IOException {
+        out.putByte('"');
+        int plainStart = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '"' && c != '\\' && c >= FIRST_PRINTABLE) {
+                continue;
+            }
+            out.putUtf8(value.substring(plainStart, i));
+            out.putByte('\\');
+            if (c == '"' || c == '\\') {
+                out.putByte(c);
+            } else {
+                out.putAscii("u00");
+                out.putByte(HEX_DIGITS.charAt(c >> 4));
+                out.putByte(HEX_DIGITS.charAt(c & 0xF));
+            }
+            plainStart = i + 1;
+        }
+        out.putUtf8(plainStart == 0 ? value : value.substring(plainStart));
+        out.putByte('"');
+    }
+}
@@ -0,0 +1,68 @@
+package com.nutrisci.database.importer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Row sink that loads rows with batched prepared INSERT statements, committing once per batch.
+ * Works with any JDBC database, including embedded stand-ins for SQL Server.
+ */
+class BatchInsertRowSink implements CNFRowSink {
+    
+    private final Connection conn;
+    
+    BatchInsertRowSink(Connection conn) throws SQLException {
+        this.conn = conn;
+        this.conn.setAutoCommit(false);
+    }
+    
+    @Override
+    public void write(CNFTable table, List<Object[]> rows) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(buildInsertSql(table))) {
+            List<CNFTable.Column> columns = table.getColumns();
+            for (Object[] row : rows) {
+                for (int i = 0; i < columns.size(); i++) {
+                    if (row[i] == null) {
+                        stmt.setNull(i + 1, columns.get(i).getSqlType());
+                    } else {
+                        stmt.setObject(i + 1, row[i], columns.get(i).getSqlType());
+                    }
+                }
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+    }
+    
+    /**
+     * Builds the INSERT statement for a table's imported columns.
+     */
+    private String buildInsertSql(CNFTable table) {
+        StringBuilder columns = new StringBuilder();
+        StringBuilder placeholders = new StringBuilder();
+        for (CNFTable.Column column : table.getColumns()) {
+            if (columns.length() > 0) {
+                columns.append(", ");
+                placeholders.append(", ");
+            }
+            columns.append(column.getName());
+            placeholders.append("?");
+        }
+        return "INSERT INTO " + table.getTableName() + " (" + columns + ") VALUES (" + placeholders + ")";
+    }
+    
+    @Override
+    public void close() throws SQLException {
+        try {
+            conn.setAutoCommit(true);
+        } finally {
+            conn.close();
+        }
+    }
+}
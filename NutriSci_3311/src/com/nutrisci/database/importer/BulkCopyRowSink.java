@@ -0,0 +1,108 @@
+package com.nutrisci.database.importer;
+
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkData;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopy;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions;
+import com.microsoft.sqlserver.jdbc.SQLServerConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Row sink that streams rows into SQL Server with {@link SQLServerBulkCopy}, which uses the
+ * TDS bulk load protocol instead of one INSERT per row.
+ */
+class BulkCopyRowSink implements CNFRowSink {
+    
+    // Bulk copy timeout in seconds; 0 disables the timeout for large tables
+    private static final int BULK_COPY_TIMEOUT_SECONDS = 0;
+    
+    private final Connection conn;
+    
+    BulkCopyRowSink(Connection conn) {
+        this.conn = conn;
+    }
+    
+    @Override
+    public void write(CNFTable table, List<Object[]> rows) throws SQLException {
+        try (SQLServerBulkCopy bulkCopy = new SQLServerBulkCopy(conn.unwrap(SQLServerConnection.class))) {
+            SQLServerBulkCopyOptions options = new SQLServerBulkCopyOptions();
+            options.setBatchSize(rows.size());
+            options.setBulkCopyTimeout(BULK_COPY_TIMEOUT_SECONDS);
+            options.setUseInternalTransaction(true);
+            bulkCopy.setBulkCopyOptions(options);
+            bulkCopy.setDestinationTableName(table.getTableName());
+            
+            List<CNFTable.Column> columns = table.getColumns();
+            for (int i = 0; i < columns.size(); i++) {
+                bulkCopy.addColumnMapping(i + 1, columns.get(i).getName());
+            }
+            
+            bulkCopy.writeToServer(new RowListBulkData(table, rows));
+        }
+    }
+    
+    @Override
+    public void close() throws SQLException {
+        conn.close();
+    }
+    
+    /**
+     * Adapts a batch of parsed rows to the bulk copy source interface.
+     */
+    private static class RowListBulkData implements ISQLServerBulkData {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final transient List<CNFTable.Column> columns;
+        private final transient List<Object[]> rows;
+        private int current = -1;
+        
+        RowListBulkData(CNFTable table, List<Object[]> rows) {
+            this.columns = table.getColumns();
+            this.rows = rows;
+        }
+        
+        @Override
+        public Set<Integer> getColumnOrdinals() {
+            Set<Integer> ordinals = new LinkedHashSet<>();
+            for (int i = 1; i <= columns.size(); i++) {
+                ordinals.add(i);
+            }
+            return ordinals;
+        }
+        
+        @Override
+        public String getColumnName(int column) {
+            return columns.get(column - 1).getName();
+        }
+        
+        @Override
+        public int getColumnType(int column) {
+            return columns.get(column - 1).getSqlType();
+        }
+        
+        @Override
+        public int getPrecision(int column) {
+            return columns.get(column - 1).getPrecision();
+        }
+        
+        @Override
+        public int getScale(int column) {
+            return columns.get(column - 1).getScale();
+        }
+        
+        @Override
+        public Object[] getRowData() {
+            return rows.get(current);
+        }
+        
+        @Override
+        public boolean next() {
+            return ++current < rows.size();
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package com.nutrisci.database.importer;
+
+import com.microsoft.sqlserver.jdbc.ISQLServerConnection;
+import com.nutrisci.database.ConnectionProvider;
+import com.nutrisci.database.DatabaseConnectionManager;
+import com.nutrisci.database.exceptions.DatabaseAccessException;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk importer for the Canadian Nutrient File (CNF) CSV distribution published by Health Canada.
+ *
+ * <p>Each CSV file is memory-mapped and split into line-aligned chunks that are parsed in
+ * parallel with a zero-copy {@link CsvChunkReader}. Every worker loads its rows through its own
+ * connection, using {@code SQLServerBulkCopy} when the connection is to SQL Server and batched
+ * INSERT statements otherwise (for example, against an embedded stand-in). Tables are loaded
+ * one at a time in foreign-key order; malformed rows are skipped and counted.</p>
+ *
+ * <p>Uses Builder pattern for configuration:</p>
+ * <pre>
+ * CNFImportReport report = CNFCsvImporter.builder()
+ *     .parallelism(8)
+ *     .replaceExisting(true)
+ *     .build()
+ *     .importDirectory(Paths.get("cnf-fcen-csv"));
+ * </pre>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class CNFCsvImporter {
+
+    /**
+     * Strategy used to write parsed rows to the database.
+     */
+    public enum LoadMode {
+        /** Bulk copy for SQL Server connections, batched inserts for anything else */
+        AUTO,
+        /** Always use {@code SQLServerBulkCopy} */
+        BULK_COPY,
+        /** Always use batched INSERT statements */
+        BATCH_INSERT
+    }
+
+    // Defaults
+    private static final int DEFAULT_BATCH_SIZE = 10000;
+    private static final Charset DEFAULT_CHARSET = Charset.forName("windows-1252");
+    private static final int CHUNKS_PER_WORKER = 4;
+    private static final int MIN_CHUNK_BYTES = 1024 * 1024;
+    private static final String WORKER_THREAD_PREFIX = "cnf-import-";
+
+    private final ConnectionProvider connectionProvider;
+    private final int parallelism;
+    private final int batchSize;
+    private final Charset charset;
+    private final LoadMode loadMode;
+    private final boolean replaceExisting;
+
+    // Private constructor for Builder pattern
+    private CNFCsvImporter(Builder builder) {
+        this.connectionProvider = builder.connectionProvider;
+        this.parallelism = builder.parallelism;
+        this.batchSize = builder.batchSize;
+        this.charset = builder.charset;
+        this.loadMode = builder.loadMode;
+        this.replaceExisting = builder.replaceExisting;
+    }
+
+    /**
+     * Creates a new Builder instance for configuring an importer.
+     *
+     * @return new Builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder class for configuring CNFCsvImporter instances with fluent interface.
+     */
+    public static class Builder {
+        private ConnectionProvider connectionProvider = DatabaseConnectionManager::getConnection;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private int batchSize = DEFAULT_BATCH_SIZE;
+        private Charset charset = DEFAULT_CHARSET;
+        private LoadMode loadMode = LoadMode.AUTO;
+        private boolean replaceExisting;
+
+        private Builder() {}
+
+        /**
+         * Sets the source of worker connections (defaults to the configured SQL Server database).
+         *
+         * @param connectionProvider the connection provider
+         * @return this builder for method chaining
+         */
+        public Builder connectionProvider(ConnectionProvider connectionProvider) {
+            this.connectionProvider = connectionProvider;
+            return this;
+        }
+
+        /**
+         * Sets the number of parallel parse/load workers (defaults to the number of processors).
+         *
+         * @param parallelism the worker count
+         * @return this builder for method chaining
+         */
+        public Builder parallelism(int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Sets the number of rows sent to the database per batch.
+         *
+         * @param batchSize rows per batch
+         * @return this builder for method chaining
+         */
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Sets the character encoding of the CSV files (defaults to windows-1252, as distributed).
+         *
+         * @param charset the file encoding
+         * @return this builder for method chaining
+         */
+        public Builder charset(Charset charset) {
+            this.charset = charset;
+            return this;
+        }
+
+        /**
+         * Sets how rows are written to the database.
+         *
+         * @param loadMode the load strategy
+         * @return this builder for method chaining
+         */
+        public Builder loadMode(LoadMode loadMode) {
+            this.loadMode = loadMode;
+            return this;
+        }
+
+        /**
+         * Sets whether existing rows in the imported tables are deleted before loading.
+         *
+         * @param replaceExisting true to replace existing CNF data
+         * @return this builder for method chaining
+         */
+        public Builder replaceExisting(boolean replaceExisting) {
+            this.replaceExisting = replaceExisting;
+            return this;
+        }
+
+        /**
+         * Builds and validates the importer.
+         *
+         * @return new CNFCsvImporter instance
+         * @throws IllegalStateException if the configuration is invalid
+         */
+        public CNFCsvImporter build() {
+            if (connectionProvider == null) {
+                throw new IllegalStateException("Connection provider is required");
+            }
+            if (parallelism <= 0) {
+                throw new IllegalStateException("Parallelism must be greater than 0");
+            }
+            if (batchSize <= 0) {
+                throw new IllegalStateException("Batch size must be greater than 0");
+            }
+            if (charset == null || loadMode == null) {
+                throw new IllegalStateException("Charset and load mode are required");
+            }
+            return new CNFCsvImporter(this);
+        }
+    }
+
+    /**
+     * Imports every CNF CSV file present in a directory, in foreign-key order.
+     * Files that are missing from the directory are skipped.
+     *
+     * @param directory the directory containing the CNF CSV files
+     * @return report of rows loaded, rejected and throughput per table
+     * @throws IOException if a file cannot be read or lacks a required column
+     * @throws DatabaseAccessException if loading fails
+     */
+    public CNFImportReport importDirectory(Path directory) throws IOException, DatabaseAccessException {
+        List<CNFTable> tables = new ArrayList<>();
+        for (CNFTable table : CNFTable.values()) {
+            if (Files.isRegularFile(directory.resolve(table.getFileName()))) {
+                tables.add(table);
+            }
+        }
+
+        if (replaceExisting) {
+            clearTables(tables);
+        }
+
+        CNFImportReport report = new CNFImportReport();
+        ExecutorService workers = createWorkerPool();
+        try {
+            for (CNFTable table : tables) {
+                report.add(importTable(table, directory.resolve(table.getFileName()), workers));
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return report;
+    }
+
+    /**
+     * Deletes existing rows from the tables about to be imported, children first.
+     */
+    private void clearTables(List<CNFTable> tables) throws DatabaseAccessException {
+        try (Connection conn = connectionProvider.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (int i = tables.size() - 1; i >= 0; i--) {
+                stmt.executeUpdate("DELETE FROM " + tables.get(i).getTableName());
+            }
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Failed to clear existing CNF tables", e);
+        }
+    }
+
+    /**
+     * Parses and loads one CSV file with the worker pool.
+     */
+    private CNFImportReport.TableResult importTable(CNFTable table, Path file, ExecutorService workers)
+            throws IOException, DatabaseAccessException {
+        long startTime = System.nanoTime();
+        MappedByteBuffer data = mapFile(file);
+        int size = data.capacity();
+
+        // Resolve the imported columns against the header row
+        CsvChunkReader header = new CsvChunkReader(data, 0, size);
+        header.skipByteOrderMark();
+        if (!header.nextRecord()) {
+            return new CNFImportReport.TableResult(table, 0, 0, size, System.nanoTime() - startTime);
+        }
+        int[] columnIndexes = resolveColumns(table, header, file);
+        int dataStart = nextLineStart(data, header.recordStart(), size);
+
+        int chunks = Math.max(1, Math.min(parallelism * CHUNKS_PER_WORKER, (size - dataStart) / MIN_CHUNK_BYTES));
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int[] range : CsvChunkReader.split(data, dataStart, size, chunks)) {
+            results.add(workers.submit(() -> loadChunk(table, data, range, columnIndexes)));
+        }
+
+        long loaded = 0;
+        long rejected = 0;
+        try {
+            for (Future<long[]> result : results) {
+                long[] counts = result.get();
+                loaded += counts[0];
+                rejected += counts[1];
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseAccessException("CNF import interrupted while loading " + table.getTableName(), e);
+        } catch (ExecutionException e) {
+            throw new DatabaseAccessException("Failed to load " + table.getTableName() + " from " + file, e.getCause());
+        } finally {
+            for (Future<long[]> result : results) {
+                result.cancel(true);
+            }
+        }
+
+        return new CNFImportReport.TableResult(table, loaded, rejected, size, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Parses one line-aligned chunk and loads it in batches through a dedicated sink.
+     *
+     * @return {@code {rowsLoaded, rowsRejected}}
+     */
+    private long[] loadChunk(CNFTable table, MappedByteBuffer data, int[] range, int[] columnIndexes)
+            throws SQLException {
+        long loaded = 0;
+        long rejected = 0;
+        CsvChunkReader reader = new CsvChunkReader(data, range[0], range[1]);
+        List<Object[]> batch = new ArrayList<>(batchSize);
+
+        try (CNFRowSink sink = openSink()) {
+            while (reader.nextRecord()) {
+                Object[] row = parseRow(table, reader, columnIndexes);
+                if (row == null) {
+                    rejected++;
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    sink.write(table, batch);
+                    loaded += batch.size();
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                sink.write(table, batch);
+                loaded += batch.size();
+            }
+        }
+        return new long[] { loaded, rejected };
+    }
+
+    /**
+     * Converts the current record into a row of typed column values.
+     *
+     * @return the row, or null if the record is malformed
+     */
+    private Object[] parseRow(CNFTable table, CsvChunkReader reader, int[] columnIndexes) {
+        List<CNFTable.Column> columns = table.getColumns();
+        Object[] row = new Object[columns.size()];
+        try {
+            for (int i = 0; i < row.length; i++) {
+                int field = columnIndexes[i];
+                if (field >= reader.fieldCount()) {
+                    return null;
+                }
+                if (reader.isBlank(field)) {
+                    continue; // NULL
+                }
+                switch (columns.get(i).getSqlType()) {
+                    case Types.INTEGER:
+                        row[i] = reader.parseInt(field);
+                        break;
+                    case Types.DECIMAL:
+                        row[i] = reader.parseDecimal(field);
+                        break;
+                    default:
+                        row[i] = reader.getString(field, charset);
+                        break;
+                }
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        // The leading column of every CNF table is part of its key
+        return row[0] != null ? row : null;
+    }
+
+    /**
+     * Opens a sink on a fresh connection according to the configured load mode.
+     */
+    private CNFRowSink openSink() throws SQLException {
+        Connection conn = connectionProvider.getConnection();
+        try {
+            boolean sqlServer = conn.isWrapperFor(ISQLServerConnection.class);
+            if (loadMode == LoadMode.BULK_COPY || (loadMode == LoadMode.AUTO && sqlServer)) {
+                return new BulkCopyRowSink(conn);
+            }
+            return new BatchInsertRowSink(conn);
+        } catch (SQLException | RuntimeException e) {
+            conn.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Maps the header row's column names to the field positions of the table's imported columns.
+     */
+    private int[] resolveColumns(CNFTable table, CsvChunkReader header, Path file) throws IOException {
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.fieldCount(); i++) {
+            positions.put(header.getString(i, charset).toLowerCase(Locale.ROOT), i);
+        }
+
+        List<CNFTable.Column> columns = table.getColumns();
+        int[] indexes = new int[columns.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            Integer position = positions.get(columns.get(i).getName().toLowerCase(Locale.ROOT));
+            if (position == null) {
+                throw new IOException("Column " + columns.get(i).getName() + " not found in " + file);
+            }
+            indexes[i] = position;
+        }
+        return indexes;
+    }
+
+    private static int nextLineStart(MappedByteBuffer data, int from, int size) {
+        int position = from;
+        while (position < size && data.get(position++) != '\n') {
+            // advance past the header row
+        }
+        return position;
+    }
+
+    private static MappedByteBuffer mapFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("CSV file too large to map: " + file);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private ExecutorService createWorkerPool() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, WORKER_THREAD_PREFIX + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Imports the CNF CSV files in the given directory into the configured database
+     * and prints the throughput report.
+     *
+     * @param args the CSV directory, optionally followed by {@code --replace}
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: CNFCsvImporter <cnf-csv-directory> [--replace]");
+            return;
+        }
+
+        boolean replace = args.length > 1 && "--replace".equals(args[1]);
+        try {
+            CNFImportReport report = CNFCsvImporter.builder()
+                .replaceExisting(replace)
+                .build()
+                .importDirectory(Paths.get(args[0]));
+            System.out.println(report);
+        } catch (IOException | DatabaseAccessException e) {
+            System.err.println("CNF import failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.nutrisci.database.importer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a {@link CNFCsvImporter} run: rows loaded and rejected per table, and the
+ * throughput achieved.
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class CNFImportReport {
+
+    private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+
+    private final List<TableResult> tables = new ArrayList<>();
+
+    /**
+     * Records the result of importing one table.
+     *
+     * @param result the table result to add
+     */
+    void add(TableResult result) {
+        tables.add(result);
+    }
+
+    /**
+     * Gets the per-table results in import order.
+     *
+     * @return unmodifiable list of table results
+     */
+    public List<TableResult> getTables() { return Collections.unmodifiableList(tables); }
+
+    /**
+     * Gets the total number of rows loaded across all tables.
+     *
+     * @return total rows loaded
+     */
+    public long getRowsLoaded() {
+        long total = 0;
+        for (TableResult table : tables) {
+            total += table.getRowsLoaded();
+        }
+        return total;
+    }
+
+    /**
+     * Gets the total number of malformed rows skipped across all tables.
+     *
+     * @return total rows rejected
+     */
+    public long getRowsRejected() {
+        long total = 0;
+        for (TableResult table : tables) {
+            total += table.getRowsRejected();
+        }
+        return total;
+    }
+
+    /**
+     * Gets the total wall-clock import time.
+     *
+     * @return elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        long total = 0;
+        for (TableResult table : tables) {
+            total += table.getElapsedNanos();
+        }
+        return total;
+    }
+
+    /**
+     * Gets the overall throughput.
+     *
+     * @return rows loaded per second
+     */
+    public double getRowsPerSecond() {
+        return perSecond(getRowsLoaded(), getElapsedNanos());
+    }
+
+    private static double perSecond(double amount, long elapsedNanos) {
+        return elapsedNanos > 0 ? amount * TimeUnit.SECONDS.toNanos(1) / elapsedNanos : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder("CNF import report\n");
+        for (TableResult table : tables) {
+            report.append("  ").append(table).append('\n');
+        }
+        report.append(String.format("  TOTAL: %,d rows loaded, %,d rejected in %.2f s (%,.0f rows/s)",
+            getRowsLoaded(), getRowsRejected(), getElapsedNanos() / 1e9, getRowsPerSecond()));
+        return report.toString();
+    }
+
+    /**
+     * Import statistics for a single CNF table.
+     */
+    public static class TableResult {
+
+        private final CNFTable table;
+        private final long rowsLoaded;
+        private final long rowsRejected;
+        private final long bytesRead;
+        private final long elapsedNanos;
+
+        TableResult(CNFTable table, long rowsLoaded, long rowsRejected, long bytesRead, long elapsedNanos) {
+            this.table = table;
+            this.rowsLoaded = rowsLoaded;
+            this.rowsRejected = rowsRejected;
+            this.bytesRead = bytesRead;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Gets the imported table.
+         *
+         * @return the CNF table
+         */
+        public CNFTable getTable() { return table; }
+
+        /**
+         * Gets the number of rows loaded into the database.
+         *
+         * @return rows loaded
+         */
+        public long getRowsLoaded() { return rowsLoaded; }
+
+        /**
+         * Gets the number of malformed rows that were skipped.
+         *
+         * @return rows rejected
+         */
+        public long getRowsRejected() { return rowsRejected; }
+
+        /**
+         * Gets the size of the CSV file that was parsed.
+         *
+         * @return bytes read
+         */
+        public long getBytesRead() { return bytesRead; }
+
+        /**
+         * Gets the wall-clock time spent parsing and loading the table.
+         *
+         * @return elapsed time in nanoseconds
+         */
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        /**
+         * Gets the row throughput for this table.
+         *
+         * @return rows loaded per second
+         */
+        public double getRowsPerSecond() { return perSecond(rowsLoaded, elapsedNanos); }
+
+        /**
+         * Gets the parse throughput for this table.
+         *
+         * @return megabytes of CSV processed per second
+         */
+        public double getMegabytesPerSecond() { return perSecond(bytesRead / BYTES_PER_MEGABYTE, elapsedNanos); }
+
+        @Override
+        public String toString() {
+            return String.format("%-17s %,10d rows loaded, %,6d rejected in %6.2f s (%,.0f rows/s, %.1f MB/s)",
+                table.getTableName(), rowsLoaded, rowsRejected, elapsedNanos / 1e9,
+                getRowsPerSecond(), getMegabytesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.nutrisci.database.importer;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Destination for batches of parsed CNF rows. Each parallel import worker owns one sink
+ * (and its connection), so implementations need not be thread-safe.
+ */
+interface CNFRowSink extends AutoCloseable {
+    
+    /**
+     * Loads a batch of rows into the table. Each row holds one value per
+     * {@link CNFTable#getColumns() column}, in column order.
+     * 
+     * @param table the target table
+     * @param rows the rows to load
+     * @throws SQLException if the rows cannot be loaded
+     */
+    void write(CNFTable table, List<Object[]> rows) throws SQLException;
+    
+    /**
+     * Releases the sink's connection.
+     * 
+     * @throws SQLException if the connection cannot be closed
+     */
+    @Override
+    void close() throws SQLException;
+}
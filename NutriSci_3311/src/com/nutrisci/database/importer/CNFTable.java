@@ -0,0 +1,160 @@
+package com.nutrisci.database.importer;
+
+import com.nutrisci.database.constants.DatabaseConstants;
+import com.nutrisci.database.util.FixedPoint;
+
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Enumeration of the Canadian Nutrient File (CNF) CSV files imported by {@link CNFCsvImporter}
+ * and the database tables they load.
+ *
+ * <p>Constants are declared in foreign-key order, so loading them in {@link #values()} order
+ * never inserts a row before the row it references. CSV columns are matched by header name,
+ * so the column order of the distributed files does not matter and unused columns are ignored.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public enum CNFTable {
+
+    /** FOOD GROUP.csv - the food group dimension referenced by FOOD_NAME */
+    FOOD_GROUP("FOOD GROUP.csv", DatabaseConstants.TABLE_FOOD_GROUP,
+        Column.integer(DatabaseConstants.COL_FOOD_GROUP_ID),
+        Column.integer(DatabaseConstants.COL_FOOD_GROUP_CODE),
+        Column.text(DatabaseConstants.COL_FOOD_GROUP_NAME)),
+
+    /** NUTRIENT NAME.csv - the nutrient dictionary */
+    NUTRIENT_NAME("NUTRIENT NAME.csv", DatabaseConstants.TABLE_NUTRIENT_NAME,
+        Column.integer(DatabaseConstants.COL_NUTRIENT_ID),
+        Column.integer(DatabaseConstants.COL_NUTRIENT_CODE),
+        Column.text(DatabaseConstants.COL_NUTRIENT_SYMBOL),
+        Column.text(DatabaseConstants.COL_NUTRIENT_UNIT),
+        Column.text(DatabaseConstants.COL_NUTRIENT_NAME)),
+
+    /** FOOD NAME.csv - one row per food */
+    FOOD_NAME("FOOD NAME.csv", DatabaseConstants.TABLE_FOOD_NAME,
+        Column.integer(DatabaseConstants.COL_FOOD_ID_CAPS),
+        Column.integer(DatabaseConstants.COL_FOOD_CODE),
+        Column.integer(DatabaseConstants.COL_FOOD_GROUP_ID),
+        Column.text(DatabaseConstants.COL_FOOD_DESCRIPTION)),
+
+    /** NUTRIENT AMOUNT.csv - nutrient amounts per 100g of food, by far the largest file */
+    NUTRIENT_AMOUNT("NUTRIENT AMOUNT.csv", DatabaseConstants.TABLE_NUTRIENT_AMOUNT,
+        Column.integer(DatabaseConstants.COL_FOOD_ID_CAPS),
+        Column.integer(DatabaseConstants.COL_NUTRIENT_ID),
+        Column.decimal(DatabaseConstants.COL_NUTRIENT_VALUE)),
+
+    /** CONVERSION FACTOR.csv - household measure to 100g conversion factors per food */
+    CONVERSION_FACTOR("CONVERSION FACTOR.csv", DatabaseConstants.TABLE_CONVERSION_FACTOR,
+        Column.integer(DatabaseConstants.COL_FOOD_ID_CAPS),
+        Column.integer(DatabaseConstants.COL_MEASURE_ID),
+        Column.decimal(DatabaseConstants.COL_CONVERSION_FACTOR_VALUE));
+
+    private final String fileName;
+    private final String tableName;
+    private final List<Column> columns;
+
+    /**
+     * Constructs a CNFTable for a CSV file and its target table.
+     *
+     * @param fileName the file name used in the Health Canada CSV distribution
+     * @param tableName the database table the file is loaded into
+     * @param columns the imported columns, named identically in the CSV header and the table
+     */
+    CNFTable(String fileName, String tableName, Column... columns) {
+        this.fileName = fileName;
+        this.tableName = tableName;
+        this.columns = Collections.unmodifiableList(Arrays.asList(columns));
+    }
+
+    /**
+     * Gets the file name used in the Health Canada CSV distribution.
+     *
+     * @return the CSV file name
+     */
+    public String getFileName() { return fileName; }
+
+    /**
+     * Gets the database table this file is loaded into.
+     *
+     * @return the target table name
+     */
+    public String getTableName() { return tableName; }
+
+    /**
+     * Gets the imported columns in insert order.
+     *
+     * @return unmodifiable list of column definitions
+     */
+    public List<Column> getColumns() { return columns; }
+
+    /**
+     * Definition of one imported column. The CSV header and the table column share the name.
+     */
+    public static final class Column {
+
+        // Precision and scale reported to bulk copy for typed columns
+        private static final int TEXT_PRECISION = 4000;
+        private static final int INTEGER_PRECISION = 10;
+        private static final int DECIMAL_PRECISION = 18;
+        // FixedPoint holds every value of this scale exactly
+        private static final int DECIMAL_SCALE = FixedPoint.SCALE_DIGITS;
+
+        private final String name;
+        private final int sqlType;
+        private final int precision;
+        private final int scale;
+
+        private Column(String name, int sqlType, int precision, int scale) {
+            this.name = name;
+            this.sqlType = sqlType;
+            this.precision = precision;
+            this.scale = scale;
+        }
+
+        static Column integer(String name) {
+            return new Column(name, Types.INTEGER, INTEGER_PRECISION, 0);
+        }
+
+        static Column decimal(String name) {
+            return new Column(name, Types.DECIMAL, DECIMAL_PRECISION, DECIMAL_SCALE);
+        }
+
+        static Column text(String name) {
+            return new Column(name, Types.NVARCHAR, TEXT_PRECISION, 0);
+        }
+
+        /**
+         * Gets the column name, shared by the CSV header and the table.
+         *
+         * @return the column name
+         */
+        public String getName() { return name; }
+
+        /**
+         * Gets the JDBC type of the column.
+         *
+         * @return a {@link Types} constant
+         */
+        public int getSqlType() { return sqlType; }
+
+        /**
+         * Gets the precision reported for the column.
+         *
+         * @return the column precision
+         */
+        public int getPrecision() { return precision; }
+
+        /**
+         * Gets the scale reported for the column.
+         *
+         * @return the column scale
+         */
+        public int getScale() { return scale; }
+    }
+}
@@ -0,0 +1,276 @@
+package com.nutrisci.database.importer;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Zero-copy CSV record reader over a byte range of a (typically memory-mapped) buffer.
+ *
+ * <p>Records are never materialized as line strings: {@link #nextRecord()} only records the
+ * start and end offset of each field, and numeric fields are parsed straight from the buffer.
+ * Bytes are copied only when a text field is decoded. Fields may be quoted with {@code "}
+ * (embedded quotes doubled) and lines may end in LF or CRLF. As in the CNF distribution,
+ * quoted fields are assumed not to contain line breaks, which is what allows a file to be
+ * split into chunks at arbitrary newlines.</p>
+ *
+ * <p>A reader is not thread-safe; parallel parsing uses one reader per chunk over a shared
+ * read-only buffer.</p>
+ */
+final class CsvChunkReader {
+
+    private static final byte COMMA = ',';
+    private static final byte QUOTE = '"';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final int INITIAL_FIELDS = 16;
+    private static final int UTF8_BOM_LENGTH = 3;
+
+    private final ByteBuffer data;
+    private final int end;
+    private int position;
+    private int recordStart;
+
+    private int fieldCount;
+    private int[] fieldStart = new int[INITIAL_FIELDS];
+    private int[] fieldEnd = new int[INITIAL_FIELDS];
+    private boolean[] fieldEscaped = new boolean[INITIAL_FIELDS];
+
+    private char[] scratch = new char[64];
+
+    /**
+     * Creates a reader over the byte range {@code [start, end)} of the buffer.
+     */
+    CsvChunkReader(ByteBuffer data, int start, int end) {
+        this.data = data;
+        this.position = start;
+        this.end = end;
+    }
+
+    /**
+     * Splits {@code [start, end)} into up to {@code chunks} ranges that each begin at the start
+     * of a line, so they can be parsed independently.
+     *
+     * @return list of {@code {start, end}} pairs covering the range without gaps
+     */
+    static List<int[]> split(ByteBuffer data, int start, int end, int chunks) {
+        List<int[]> ranges = new ArrayList<>();
+        int chunkSize = Math.max(1, (end - start) / Math.max(1, chunks));
+        int chunkStart = start;
+        while (chunkStart < end) {
+            int chunkEnd = Math.min(end, chunkStart + chunkSize);
+            // Move the boundary forward to just past the next newline
+            while (chunkEnd < end && data.get(chunkEnd - 1) != LF) {
+                chunkEnd++;
+            }
+            ranges.add(new int[] { chunkStart, chunkEnd });
+            chunkStart = chunkEnd;
+        }
+        return ranges;
+    }
+
+    /**
+     * Skips a UTF-8 byte order mark at the current position if one is present.
+     */
+    void skipByteOrderMark() {
+        if (end - position >= UTF8_BOM_LENGTH
+                && (data.get(position) & 0xFF) == 0xEF
+                && (data.get(position + 1) & 0xFF) == 0xBB
+                && (data.get(position + 2) & 0xFF) == 0xBF) {
+            position += UTF8_BOM_LENGTH;
+        }
+    }
+
+    /**
+     * Advances to the next non-blank record and records its field boundaries.
+     *
+     * @return false when the range is exhausted
+     */
+    boolean nextRecord() {
+        while (position < end) {
+            recordStart = position;
+            fieldCount = 0;
+            boolean blank = true;
+
+            while (true) {
+                int start = position;
+                int stop;
+                boolean escaped = false;
+
+                if (position < end && data.get(position) == QUOTE) {
+                    // Quoted field: content runs to the next quote not followed by another quote
+                    start = ++position;
+                    while (true) {
+                        if (position >= end) {
+                            stop = position;
+                            break;
+                        }
+                        if (data.get(position) == QUOTE) {
+                            if (position + 1 < end && data.get(position + 1) == QUOTE) {
+                                escaped = true;
+                                position += 2;
+                                continue;
+                            }
+                            stop = position++;
+                            break;
+                        }
+                        position++;
+                    }
+                    // Skip anything between the closing quote and the delimiter
+                    while (position < end && data.get(position) != COMMA && data.get(position) != LF) {
+                        position++;
+                    }
+                } else {
+                    while (position < end && data.get(position) != COMMA && data.get(position) != LF) {
+                        position++;
+                    }
+                    stop = position;
+                    if (stop > start && data.get(stop - 1) == CR && (stop == end || data.get(stop) == LF)) {
+                        stop--;
+                    }
+                }
+
+                addField(start, stop, escaped);
+                if (stop > start) {
+                    blank = false;
+                }
+
+                if (position < end && data.get(position) == COMMA) {
+                    position++;
+                    continue;
+                }
+                if (position < end) {
+                    position++; // consume LF
+                }
+                break;
+            }
+
+            if (!blank || fieldCount > 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addField(int start, int stop, boolean escaped) {
+        if (fieldCount == fieldStart.length) {
+            int newLength = fieldStart.length * 2;
+            fieldStart = Arrays.copyOf(fieldStart, newLength);
+            fieldEnd = Arrays.copyOf(fieldEnd, newLength);
+            fieldEscaped = Arrays.copyOf(fieldEscaped, newLength);
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = stop;
+        fieldEscaped[fieldCount] = escaped;
+        fieldCount++;
+    }
+
+    /**
+     * Gets the number of fields in the current record.
+     */
+    int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Gets the byte offset at which the current record starts.
+     */
+    int recordStart() {
+        return recordStart;
+    }
+
+    /**
+     * Checks whether a field is empty or whitespace only.
+     */
+    boolean isBlank(int field) {
+        for (int i = fieldStart[field]; i < fieldEnd[field]; i++) {
+            if ((data.get(i) & 0xFF) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses a field as a signed decimal integer without allocating.
+     *
+     * @throws NumberFormatException if the field is not an integer
+     */
+    int parseInt(int field) {
+        int i = fieldStart[field];
+        int stop = fieldEnd[field];
+        while (i < stop && data.get(i) == ' ') {
+            i++;
+        }
+        while (stop > i && data.get(stop - 1) == ' ') {
+            stop--;
+        }
+        if (i == stop) {
+            throw new NumberFormatException("Empty integer field");
+        }
+
+        boolean negative = false;
+        byte first = data.get(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        if (i == stop) {
+            throw new NumberFormatException("Sign without digits");
+        }
+
+        long value = 0;
+        for (; i < stop; i++) {
+            int digit = data.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Invalid integer field");
+            }
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE + 1L) {
+                throw new NumberFormatException("Integer field out of range");
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Integer field out of range");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses a field as a decimal number. The ASCII digits are widened into a reusable
+     * character buffer, so the only allocation is the resulting BigDecimal.
+     *
+     * @throws NumberFormatException if the field is not a number
+     */
+    BigDecimal parseDecimal(int field) {
+        int i = fieldStart[field];
+        int stop = fieldEnd[field];
+        int length = 0;
+        if (stop - i > scratch.length) {
+            scratch = new char[stop - i];
+        }
+        for (; i < stop; i++) {
+            byte b = data.get(i);
+            if (b != ' ') {
+                scratch[length++] = (char) (b & 0xFF);
+            }
+        }
+        return new BigDecimal(scratch, 0, length);
+    }
+
+    /**
+     * Decodes a text field, un-doubling escaped quotes.
+     */
+    String getString(int field, Charset charset) {
+        int start = fieldStart[field];
+        int length = fieldEnd[field] - start;
+        byte[] bytes = new byte[length];
+        data.get(start, bytes);
+        String value = new String(bytes, charset).trim();
+        return fieldEscaped[field] ? value.replace("\"\"", "\"") : value;
+    }
+}
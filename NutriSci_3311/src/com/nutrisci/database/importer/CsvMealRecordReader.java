@@ -0,0 +1,75 @@
+package com.nutrisci.database.importer;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads meal records from a CSV export with a header row.
+ *
+ * <p>The file is memory-mapped and parsed with a {@link CsvChunkReader}, so memory use does not
+ * grow with the file size; only the four imported fields of each record are decoded. Like the
+ * CNF import, quoted fields must not contain line breaks.</p>
+ */
+final class CsvMealRecordReader implements MealRecordReader {
+
+    private final CsvChunkReader reader;
+    private final Charset charset;
+    // Field position in the CSV of each record field, or -1
+    private final int[] positions = new int[FIELD_COUNT];
+
+    /**
+     * Opens an export and resolves its header row.
+     *
+     * @throws IOException if the file cannot be mapped or lacks a required column
+     */
+    CsvMealRecordReader(Path file, Charset charset) throws IOException {
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("CSV file too large to map: " + file);
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        this.reader = new CsvChunkReader(data, 0, data.capacity());
+        this.charset = charset;
+
+        Arrays.fill(positions, -1);
+        reader.skipByteOrderMark();
+        if (reader.nextRecord()) {
+            for (int i = 0; i < reader.fieldCount(); i++) {
+                int field = MealRecordReader.fieldOf(reader.getString(i, charset));
+                if (field >= 0 && positions[field] < 0) {
+                    positions[field] = i;
+                }
+            }
+        }
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            if (positions[field] < 0) {
+                throw new IOException("Missing date, meal, food or grams column in " + file);
+            }
+        }
+    }
+
+    @Override
+    public boolean next(String[] record) {
+        if (!reader.nextRecord()) {
+            return false;
+        }
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            int position = positions[field];
+            record[field] = position < reader.fieldCount() && !reader.isBlank(position)
+                ? reader.getString(position, charset) : null;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        // The mapping is released when the buffer is collected
+    }
+}
@@ -0,0 +1,156 @@
+package com.nutrisci.database.importer;
+
+import com.nutrisci.database.dao.ICNFDataDAO;
+import com.nutrisci.database.exceptions.DatabaseAccessException;
+import com.nutrisci.database.index.FoodSearchIndex;
+import com.nutrisci.database.index.SearchMode;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resolves free-text food names from other trackers to CNF FoodIDs.
+ *
+ * <p>A name is looked up in an in-memory {@link FoodSearchIndex}, first with
+ * {@link SearchMode#EXACT} and then with {@link SearchMode#FUZZY} so that misspellings still
+ * resolve. The index scores any food that shares a single term with the name, so a hit is only
+ * accepted if its description covers at least {@link #MIN_TERM_COVERAGE} of the name's terms
+ * (all of them for names of up to three terms); the best-ranked such hit wins. A name like
+ * "protein shake" therefore does not resolve to an arbitrary "protein" food but is reported as
+ * unmatched. Exports repeat the same few hundred foods many times, so
+ * results are kept in a bounded least-recently-used cache keyed by the normalized name,
+ * including names that did not match. All methods are thread-safe.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class FoodNameMatcher {
+
+    /** Result of {@link #match(String)} for names that do not resolve to any food. */
+    public static final int NO_MATCH = -1;
+
+    /** Number of names cached by the single-argument constructor. */
+    public static final int DEFAULT_CACHE_SIZE = 10000;
+
+    /** Fraction of a name's terms a description must match, rounded up to whole terms. */
+    public static final double MIN_TERM_COVERAGE = 0.75;
+
+    // Hits per search mode checked for coverage; the top hit may miss a term a lower one matches
+    private static final int CANDIDATE_HITS = 10;
+
+    private final FoodSearchIndex index;
+    // Guarded by itself; access order for LRU eviction
+    private final LinkedHashMap<String, Integer> cache;
+
+    private long lookups;
+    private long cacheHits;
+
+    /**
+     * Constructs a matcher over a search index with the default cache size.
+     *
+     * @param index the food search index
+     */
+    public FoodNameMatcher(FoodSearchIndex index) {
+        this(index, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Constructs a matcher over a search index.
+     *
+     * @param index the food search index
+     * @param cacheSize the maximum number of distinct names cached
+     * @throws IllegalArgumentException if cacheSize is not positive
+     */
+    public FoodNameMatcher(FoodSearchIndex index, int cacheSize) {
+        if (index == null) {
+            throw new IllegalArgumentException("Search index is required");
+        }
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("cacheSize must be positive: " + cacheSize);
+        }
+        this.index = index;
+        this.cache = new LinkedHashMap<String, Integer>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Creates a matcher over the CNF food search index loaded from the database.
+     *
+     * @param cnfDataDAO the CNF data access object
+     * @return new FoodNameMatcher
+     * @throws DatabaseAccessException if the index cannot be loaded
+     */
+    public static FoodNameMatcher fromDao(ICNFDataDAO cnfDataDAO) throws DatabaseAccessException {
+        return new FoodNameMatcher(cnfDataDAO.loadFoodSearchIndex());
+    }
+
+    /**
+     * Resolves a food name to the FoodID of its best match.
+     *
+     * @param foodName the name as written in the export
+     * @return the FoodID, or {@link #NO_MATCH}
+     */
+    public int match(String foodName) {
+        String key = normalize(foodName);
+        if (key.isEmpty()) {
+            return NO_MATCH;
+        }
+        synchronized (cache) {
+            lookups++;
+            Integer cached = cache.get(key);
+            if (cached != null) {
+                cacheHits++;
+                return cached;
+            }
+        }
+
+        // Searched outside the lock; a name raced by two threads is simply resolved twice
+        int foodId = search(key);
+        synchronized (cache) {
+            cache.put(key, foodId);
+        }
+        return foodId;
+    }
+
+    /**
+     * Gets the fraction of lookups answered from the cache.
+     *
+     * @return the hit ratio between 0 and 1
+     */
+    public double getCacheHitRatio() {
+        synchronized (cache) {
+            return lookups > 0 ? (double) cacheHits / lookups : 0.0;
+        }
+    }
+
+    private int search(String name) {
+        int foodId = bestCoveringHit(index.search(name, CANDIDATE_HITS, SearchMode.EXACT));
+        if (foodId == NO_MATCH) {
+            foodId = bestCoveringHit(index.search(name, CANDIDATE_HITS, SearchMode.FUZZY));
+        }
+        return foodId;
+    }
+
+    // First hit, in rank order, that matches enough of the query's terms
+    private static int bestCoveringHit(List<FoodSearchIndex.Hit> hits) {
+        for (FoodSearchIndex.Hit hit : hits) {
+            int required = (int) Math.ceil(MIN_TERM_COVERAGE * hit.getQueryTermCount());
+            if (hit.getMatchedTermCount() >= required) {
+                return hit.getFoodId();
+            }
+        }
+        return NO_MATCH;
+    }
+
+    // Case and spacing differences should share one cache entry
+    private static String normalize(String foodName) {
+        return foodName == null ? "" : foodName.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
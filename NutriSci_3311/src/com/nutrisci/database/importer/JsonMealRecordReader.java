@@ -0,0 +1,201 @@
+package com.nutrisci.database.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Reads meal records from a JSON export, either one top-level array of objects or
+ * newline-delimited JSON with one object per line.
+ *
+ * <p>The input is scanned one character at a time and only the current object is held in
+ * memory, so exports of any size are read in constant space. Each object is one record; its
+ * string, number and boolean members are matched against the field aliases, and nested objects
+ * and arrays are skipped.</p>
+ */
+final class JsonMealRecordReader implements MealRecordReader {
+
+    private static final int END = -1;
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final Reader in;
+    private final StringBuilder text = new StringBuilder();
+    private int peeked = END - 1;
+
+    /**
+     * Opens an export for reading.
+     *
+     * @throws IOException if the file cannot be opened
+     */
+    JsonMealRecordReader(Path file, Charset charset) throws IOException {
+        this.in = Files.newBufferedReader(file, charset);
+    }
+
+    @Override
+    public boolean next(String[] record) throws IOException {
+        // Between objects, array brackets, commas and whitespace carry no information
+        int c = skipWhitespace();
+        while (c == '[' || c == ']' || c == ',' || c == BYTE_ORDER_MARK) {
+            read();
+            c = skipWhitespace();
+        }
+        if (c == END) {
+            return false;
+        }
+        if (c != '{') {
+            throw new IOException("Expected a JSON object but found '" + (char) c + "'");
+        }
+        read();
+
+        Arrays.fill(record, null);
+        c = skipWhitespace();
+        if (c == '}') {
+            read();
+            return true;
+        }
+        while (true) {
+            expect('"');
+            int field = MealRecordReader.fieldOf(readString());
+            skipWhitespace();
+            expect(':');
+            String value = readValue();
+            if (field >= 0) {
+                record[field] = value;
+            }
+
+            c = skipWhitespace();
+            read();
+            if (c == '}') {
+                return true;
+            }
+            if (c != ',') {
+                throw new IOException("Expected ',' or '}' in JSON object");
+            }
+            skipWhitespace();
+        }
+    }
+
+    /**
+     * Reads a member value; returns the text of scalars, or null for null and nested values.
+     */
+    private String readValue() throws IOException {
+        int c = skipWhitespace();
+        if (c == '"') {
+            read();
+            return readString();
+        }
+        if (c == '{' || c == '[') {
+            skipNested();
+            return null;
+        }
+        text.setLength(0);
+        while ((c = peek()) != END && c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+            text.append((char) read());
+        }
+        if (text.length() == 0) {
+            throw new IOException("Missing JSON value");
+        }
+        String literal = text.toString();
+        return "null".equals(literal) ? null : literal;
+    }
+
+    /**
+     * Reads the rest of a string whose opening quote has been consumed.
+     */
+    private String readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == END) {
+                throw new IOException("Unterminated JSON string");
+            }
+            if (c == '"') {
+                return text.toString();
+            }
+            if (c != '\\') {
+                text.append((char) c);
+                continue;
+            }
+            int escaped = read();
+            switch (escaped) {
+                case 'b': text.append('\b'); break;
+                case 'f': text.append('\f'); break;
+                case 'n': text.append('\n'); break;
+                case 'r': text.append('\r'); break;
+                case 't': text.append('\t'); break;
+                case 'u':
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(read(), 16);
+                        if (digit < 0) {
+                            throw new IOException("Invalid unicode escape in JSON string");
+                        }
+                        code = code * 16 + digit;
+                    }
+                    text.append((char) code);
+                    break;
+                case END:
+                    throw new IOException("Unterminated JSON string");
+                default:
+                    text.append((char) escaped);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Skips a nested object or array, including any brackets inside its strings.
+     */
+    private void skipNested() throws IOException {
+        int depth = 0;
+        do {
+            int c = read();
+            if (c == END) {
+                throw new IOException("Unterminated JSON value");
+            }
+            if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            } else if (c == '"') {
+                readString();
+            }
+        } while (depth > 0);
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = read();
+        if (c != expected) {
+            throw new IOException("Expected '" + expected + "' in JSON object");
+        }
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c;
+        while ((c = peek()) != END && Character.isWhitespace(c)) {
+            read();
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (peeked < END) {
+            peeked = in.read();
+        }
+        return peeked;
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        peeked = END - 1;
+        return c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
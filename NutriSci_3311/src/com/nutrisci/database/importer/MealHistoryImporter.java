@@ -0,0 +1,456 @@
+package com.nutrisci.database.importer;
+
+import com.nutrisci.database.dao.IMealLogDAO;
+import com.nutrisci.database.dao.impl.MealLogDAOImpl;
+import com.nutrisci.database.dto.Meal;
+import com.nutrisci.database.dto.MealItem;
+import com.nutrisci.database.dto.MealType;
+import com.nutrisci.database.exceptions.DatabaseAccessException;
+import com.nutrisci.database.util.FixedPoint;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Bulk importer for meal history exported from other nutrition trackers.
+ *
+ * <p>An export is read as a stream of food entries, one per CSV row or JSON object, each with a
+ * date, a meal type, a food name and a quantity in grams. Consecutive entries with the same date
+ * and meal type become one meal. Food names are resolved to CNF FoodIDs with a
+ * {@link FoodNameMatcher}. Meals are written through {@link IMealLogDAO#logMeals(int, List)} in
+ * batches, so each batch costs one transaction and one item batch, and memory use is bounded by
+ * the batch size rather than by the size of the export.</p>
+ *
+ * <p>Entries with an invalid date, meal type or quantity, or a food that does not match, are
+ * rejected and listed in the {@link MealImportReport}; the rest of their meal is still imported.</p>
+ *
+ * <p>When a checkpoint file is configured, the number of records covered by the last committed
+ * batch is written to it atomically after every commit. Running the same import again resumes
+ * after those records. If the process stops between a commit and the checkpoint write, the
+ * meals of that one batch are imported again on resume. A finished import keeps its checkpoint,
+ * so repeating it imports nothing; delete the checkpoint to start over.</p>
+ *
+ * <p>Uses Builder pattern for configuration:</p>
+ * <pre>
+ * MealImportReport report = MealHistoryImporter.builder()
+ *     .foodMatcher(FoodNameMatcher.fromDao(new CNFDataDAOImpl()))
+ *     .checkpointFile(Paths.get("history.csv.checkpoint"))
+ *     .build()
+ *     .importFile(userId, Paths.get("history.csv"));
+ * </pre>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class MealHistoryImporter {
+
+    /**
+     * Layout of the export file.
+     */
+    public enum Format {
+        /** Chosen from the file extension: .json, .ndjson or .jsonl for JSON, CSV otherwise */
+        AUTO,
+        /** Comma-separated values with a header row */
+        CSV,
+        /** One JSON array of objects, or newline-delimited JSON objects */
+        JSON
+    }
+
+    /**
+     * Receives the report after every committed batch.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * Called after a batch has been committed and checkpointed.
+         *
+         * @param report the report of the run so far
+         */
+        void onProgress(MealImportReport report);
+    }
+
+    // Defaults
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final int DEFAULT_MAX_REJECTIONS_RECORDED = 1000;
+    private static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
+
+    // Checkpoint file keys
+    private static final String CHECKPOINT_RECORDS = "records";
+    private static final String CHECKPOINT_SOURCE_SIZE = "source.size";
+    private static final String CHECKPOINT_USER_ID = "user.id";
+    private static final int DATE_LENGTH = 10;
+
+    private final IMealLogDAO mealLogDAO;
+    private final FoodNameMatcher foodMatcher;
+    private final int batchSize;
+    private final Path checkpointFile;
+    private final Format format;
+    private final Charset charset;
+    private final int maxRejectionsRecorded;
+    private final ProgressListener progressListener;
+
+    // Private constructor for Builder pattern
+    private MealHistoryImporter(Builder builder) {
+        this.mealLogDAO = builder.mealLogDAO;
+        this.foodMatcher = builder.foodMatcher;
+        this.batchSize = builder.batchSize;
+        this.checkpointFile = builder.checkpointFile;
+        this.format = builder.format;
+        this.charset = builder.charset;
+        this.maxRejectionsRecorded = builder.maxRejectionsRecorded;
+        this.progressListener = builder.progressListener;
+    }
+
+    /**
+     * Creates a new Builder instance for configuring an importer.
+     *
+     * @return new Builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder class for configuring MealHistoryImporter instances with fluent interface.
+     */
+    public static class Builder {
+        private IMealLogDAO mealLogDAO;
+        private FoodNameMatcher foodMatcher;
+        private int batchSize = DEFAULT_BATCH_SIZE;
+        private Path checkpointFile;
+        private Format format = Format.AUTO;
+        private Charset charset = DEFAULT_CHARSET;
+        private int maxRejectionsRecorded = DEFAULT_MAX_REJECTIONS_RECORDED;
+        private ProgressListener progressListener;
+
+        private Builder() {}
+
+        /**
+         * Sets the DAO meals are logged through (defaults to a new {@link MealLogDAOImpl}).
+         *
+         * @param mealLogDAO the meal log DAO
+         * @return this builder for method chaining
+         */
+        public Builder mealLogDAO(IMealLogDAO mealLogDAO) {
+            this.mealLogDAO = mealLogDAO;
+            return this;
+        }
+
+        /**
+         * Sets the matcher that resolves food names to CNF FoodIDs. Required.
+         *
+         * @param foodMatcher the food name matcher
+         * @return this builder for method chaining
+         */
+        public Builder foodMatcher(FoodNameMatcher foodMatcher) {
+            this.foodMatcher = foodMatcher;
+            return this;
+        }
+
+        /**
+         * Sets the number of meals logged per transaction.
+         *
+         * @param batchSize meals per batch
+         * @return this builder for method chaining
+         */
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Sets the file that records progress so an interrupted import can resume (none by default).
+         *
+         * @param checkpointFile the checkpoint file
+         * @return this builder for method chaining
+         */
+        public Builder checkpointFile(Path checkpointFile) {
+            this.checkpointFile = checkpointFile;
+            return this;
+        }
+
+        /**
+         * Sets the export layout (defaults to detection by file extension).
+         *
+         * @param format the export format
+         * @return this builder for method chaining
+         */
+        public Builder format(Format format) {
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * Sets the character encoding of the export (defaults to UTF-8).
+         *
+         * @param charset the file encoding
+         * @return this builder for method chaining
+         */
+        public Builder charset(Charset charset) {
+            this.charset = charset;
+            return this;
+        }
+
+        /**
+         * Sets how many rejections are kept in detail in the report.
+         *
+         * @param maxRejectionsRecorded the maximum number of rejections listed
+         * @return this builder for method chaining
+         */
+        public Builder maxRejectionsRecorded(int maxRejectionsRecorded) {
+            this.maxRejectionsRecorded = maxRejectionsRecorded;
+            return this;
+        }
+
+        /**
+         * Sets a listener notified after every committed batch.
+         *
+         * @param progressListener the progress listener
+         * @return this builder for method chaining
+         */
+        public Builder progressListener(ProgressListener progressListener) {
+            this.progressListener = progressListener;
+            return this;
+        }
+
+        /**
+         * Builds and validates the importer.
+         *
+         * @return new MealHistoryImporter instance
+         * @throws IllegalStateException if the configuration is invalid
+         */
+        public MealHistoryImporter build() {
+            if (foodMatcher == null) {
+                throw new IllegalStateException("Food matcher is required");
+            }
+            if (batchSize <= 0) {
+                throw new IllegalStateException("Batch size must be greater than 0");
+            }
+            if (maxRejectionsRecorded < 0) {
+                throw new IllegalStateException("Maximum rejections recorded must not be negative");
+            }
+            if (format == null || charset == null) {
+                throw new IllegalStateException("Format and charset are required");
+            }
+            if (mealLogDAO == null) {
+                mealLogDAO = new MealLogDAOImpl();
+            }
+            return new MealHistoryImporter(this);
+        }
+    }
+
+    /**
+     * Imports an export file into a user's meal log, resuming from the checkpoint if there is one.
+     *
+     * @param userId the user the meals are logged for
+     * @param file the export file
+     * @return report of records read and rejected, meals imported and throughput
+     * @throws IOException if the export or checkpoint cannot be read, the export is malformed,
+     *         or the checkpoint belongs to a different file or user
+     * @throws DatabaseAccessException if logging a batch fails; earlier batches stay committed
+     */
+    public MealImportReport importFile(int userId, Path file) throws IOException, DatabaseAccessException {
+        long sourceSize = Files.size(file);
+        long resumeAfter = readCheckpoint(userId, sourceSize);
+        MealImportReport report = new MealImportReport(maxRejectionsRecorded);
+
+        try (MealRecordReader reader = openReader(file)) {
+            String[] record = new String[MealRecordReader.FIELD_COUNT];
+            long recordNumber = 0;
+            while (recordNumber < resumeAfter && reader.next(record)) {
+                recordNumber++;
+            }
+            report.recordSkipped(recordNumber);
+
+            List<Meal> batch = new ArrayList<>(batchSize);
+            List<MealImportReport.Rejection> rejections = new ArrayList<>();
+            long[] pendingRejected = new long[1];
+            Entry entry = new Entry();
+            Meal current = null;
+            while (reader.next(record)) {
+                recordNumber++;
+                report.recordRead();
+
+                String rejection = parse(record, entry);
+                if (rejection != null) {
+                    pendingRejected[0]++;
+                    if (rejections.size() < maxRejectionsRecorded) {
+                        rejections.add(new MealImportReport.Rejection(recordNumber, rejection));
+                    }
+                    continue;
+                }
+
+                if (current == null || !current.getMealDate().equals(entry.mealDate) || current.getMealType() != entry.mealType) {
+                    if (current != null) {
+                        batch.add(current);
+                        if (batch.size() >= batchSize) {
+                            // Everything before this record is either in the batch or rejected
+                            commit(userId, batch, rejections, pendingRejected, recordNumber - 1, sourceSize, report);
+                        }
+                    }
+                    current = Meal.builder().userId(userId).mealDate(entry.mealDate).mealType(entry.mealType).build();
+                }
+
+                MealItem item = new MealItem();
+                item.setFoodId(entry.foodId);
+                item.setQuantityGramsFixed(entry.quantityGramsFixed);
+                current.addMealItem(item);
+            }
+
+            if (current != null) {
+                batch.add(current);
+            }
+            commit(userId, batch, rejections, pendingRejected, recordNumber, sourceSize, report);
+        }
+        report.finish();
+        return report;
+    }
+
+    /**
+     * Logs a batch, records its rejections and advances the checkpoint past recordNumber.
+     */
+    private void commit(int userId, List<Meal> batch, List<MealImportReport.Rejection> rejections,
+                        long[] pendingRejected, long recordNumber, long sourceSize, MealImportReport report)
+            throws IOException, DatabaseAccessException {
+        long items = 0;
+        for (Meal meal : batch) {
+            items += meal.getMealItems().size();
+        }
+        mealLogDAO.logMeals(userId, batch);
+        writeCheckpoint(userId, sourceSize, recordNumber);
+
+        report.addMeals(batch.size(), items);
+        report.addRejections(rejections, pendingRejected[0]);
+        batch.clear();
+        rejections.clear();
+        pendingRejected[0] = 0;
+        if (progressListener != null) {
+            progressListener.onProgress(report);
+        }
+    }
+
+    /**
+     * Parses and validates a record, resolving its food name.
+     *
+     * @return the reason the record is rejected, or null if the entry was filled in
+     */
+    private String parse(String[] record, Entry entry) {
+        String date = record[MealRecordReader.DATE];
+        String meal = record[MealRecordReader.MEAL];
+        String food = record[MealRecordReader.FOOD];
+        String grams = record[MealRecordReader.GRAMS];
+        if (date == null || meal == null || food == null || grams == null) {
+            return "missing date, meal, food or grams";
+        }
+        try {
+            entry.mealDate = parseDate(date);
+        } catch (DateTimeParseException e) {
+            return "invalid date '" + date + "'";
+        }
+        try {
+            entry.mealType = MealType.fromString(meal.trim());
+        } catch (IllegalArgumentException e) {
+            return "invalid meal type '" + meal + "'";
+        }
+        try {
+            BigDecimal quantity = new BigDecimal(grams.trim());
+            if (quantity.signum() <= 0) {
+                return "quantity must be greater than 0: " + grams;
+            }
+            entry.quantityGramsFixed = FixedPoint.fromBigDecimal(quantity);
+        } catch (ArithmeticException | IllegalArgumentException e) {
+            return "invalid quantity '" + grams + "'";
+        }
+        entry.foodId = foodMatcher.match(food);
+        if (entry.foodId == FoodNameMatcher.NO_MATCH) {
+            return "no CNF food matches '" + food + "'";
+        }
+        return null;
+    }
+
+    // Accepts an ISO date, or the date part of an ISO timestamp
+    private static LocalDate parseDate(String text) {
+        String date = text.trim();
+        if (date.length() > DATE_LENGTH && (date.charAt(DATE_LENGTH) == 'T' || date.charAt(DATE_LENGTH) == ' ')) {
+            date = date.substring(0, DATE_LENGTH);
+        }
+        return LocalDate.parse(date);
+    }
+
+    /**
+     * Parsed fields of the current record, reused across records.
+     */
+    private static final class Entry {
+        LocalDate mealDate;
+        MealType mealType;
+        int foodId;
+        long quantityGramsFixed;
+    }
+
+    private MealRecordReader openReader(Path file) throws IOException {
+        Format resolved = format;
+        if (resolved == Format.AUTO) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            resolved = name.endsWith(".json") || name.endsWith(".ndjson") || name.endsWith(".jsonl")
+                ? Format.JSON : Format.CSV;
+        }
+        return resolved == Format.JSON
+            ? new JsonMealRecordReader(file, charset)
+            : new CsvMealRecordReader(file, charset);
+    }
+
+    /**
+     * Reads the number of records already imported, or 0 without a checkpoint.
+     */
+    private long readCheckpoint(int userId, long sourceSize) throws IOException {
+        if (checkpointFile == null || !Files.exists(checkpointFile)) {
+            return 0;
+        }
+        Properties checkpoint = new Properties();
+        try (InputStream in = Files.newInputStream(checkpointFile)) {
+            checkpoint.load(in);
+        }
+        try {
+            if (Integer.parseInt(checkpoint.getProperty(CHECKPOINT_USER_ID)) != userId
+                    || Long.parseLong(checkpoint.getProperty(CHECKPOINT_SOURCE_SIZE)) != sourceSize) {
+                throw new IOException("Checkpoint " + checkpointFile + " belongs to a different import");
+            }
+            return Long.parseLong(checkpoint.getProperty(CHECKPOINT_RECORDS));
+        } catch (NumberFormatException e) {
+            throw new IOException("Corrupt checkpoint " + checkpointFile, e);
+        }
+    }
+
+    /**
+     * Replaces the checkpoint atomically, so a crash leaves either the old or the new one.
+     */
+    private void writeCheckpoint(int userId, long sourceSize, long records) throws IOException {
+        if (checkpointFile == null) {
+            return;
+        }
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty(CHECKPOINT_USER_ID, Integer.toString(userId));
+        checkpoint.setProperty(CHECKPOINT_SOURCE_SIZE, Long.toString(sourceSize));
+        checkpoint.setProperty(CHECKPOINT_RECORDS, Long.toString(records));
+
+        Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            checkpoint.store(out, "Meal history import progress");
+        }
+        Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,175 @@
+package com.nutrisci.database.importer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Progress and outcome of a {@link MealHistoryImporter} run: records read and rejected, meals
+ * and items logged, and the throughput achieved.
+ *
+ * <p>Counts cover the current run only; records skipped because an earlier, interrupted run
+ * already imported them are reported separately. Only the first rejections are kept in detail,
+ * up to the importer's configured limit, but every rejection is counted.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class MealImportReport {
+
+    private final int maxRejectionsRecorded;
+    private final long startTime = System.nanoTime();
+    private final List<Rejection> rejections = new ArrayList<>();
+
+    private long recordsSkipped;
+    private long recordsRead;
+    private long recordsRejected;
+    private long mealsImported;
+    private long itemsImported;
+    private long elapsedNanos;
+
+    MealImportReport(int maxRejectionsRecorded) {
+        this.maxRejectionsRecorded = maxRejectionsRecorded;
+    }
+
+    void recordSkipped(long records) {
+        recordsSkipped = records;
+    }
+
+    void recordRead() {
+        recordsRead++;
+    }
+
+    void addRejections(List<Rejection> batchRejections, long count) {
+        recordsRejected += count;
+        for (Rejection rejection : batchRejections) {
+            if (rejections.size() >= maxRejectionsRecorded) {
+                break;
+            }
+            rejections.add(rejection);
+        }
+    }
+
+    void addMeals(long meals, long items) {
+        mealsImported += meals;
+        itemsImported += items;
+    }
+
+    void finish() {
+        elapsedNanos = System.nanoTime() - startTime;
+    }
+
+    /**
+     * Gets the number of records skipped because a previous run had already imported them.
+     *
+     * @return records skipped on resume
+     */
+    public long getRecordsSkipped() { return recordsSkipped; }
+
+    /**
+     * Gets the number of records read in this run, including rejected ones.
+     *
+     * @return records read
+     */
+    public long getRecordsRead() { return recordsRead; }
+
+    /**
+     * Gets the number of committed records that were rejected.
+     *
+     * @return records rejected
+     */
+    public long getRecordsRejected() { return recordsRejected; }
+
+    /**
+     * Gets the number of meals logged.
+     *
+     * @return meals imported
+     */
+    public long getMealsImported() { return mealsImported; }
+
+    /**
+     * Gets the number of meal items logged.
+     *
+     * @return items imported
+     */
+    public long getItemsImported() { return itemsImported; }
+
+    /**
+     * Gets the recorded rejections in record order.
+     *
+     * @return unmodifiable list of at most the configured number of rejections
+     */
+    public List<Rejection> getRejections() { return Collections.unmodifiableList(rejections); }
+
+    /**
+     * Gets the wall-clock time of the run, or the time so far while it is in progress.
+     *
+     * @return elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos > 0 ? elapsedNanos : System.nanoTime() - startTime;
+    }
+
+    /**
+     * Gets the meal throughput.
+     *
+     * @return meals imported per second
+     */
+    public double getMealsPerSecond() {
+        long nanos = getElapsedNanos();
+        return nanos > 0 ? mealsImported * (double) TimeUnit.SECONDS.toNanos(1) / nanos : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder("Meal import report\n");
+        if (recordsSkipped > 0) {
+            report.append(String.format("  resumed after %,d records%n", recordsSkipped));
+        }
+        report.append(String.format("  %,d records read, %,d rejected%n", recordsRead, recordsRejected));
+        for (Rejection rejection : rejections) {
+            report.append("    ").append(rejection).append('\n');
+        }
+        if (recordsRejected > rejections.size()) {
+            report.append(String.format("    ... %,d more%n", recordsRejected - rejections.size()));
+        }
+        report.append(String.format("  TOTAL: %,d meals, %,d items imported in %.2f s (%,.0f meals/s)",
+            mealsImported, itemsImported, getElapsedNanos() / 1e9, getMealsPerSecond()));
+        return report.toString();
+    }
+
+    /**
+     * A record that could not be imported.
+     */
+    public static class Rejection {
+
+        private final long recordNumber;
+        private final String reason;
+
+        Rejection(long recordNumber, String reason) {
+            this.recordNumber = recordNumber;
+            this.reason = reason;
+        }
+
+        /**
+         * Gets the 1-based position of the record in the export, not counting a header row.
+         *
+         * @return the record number
+         */
+        public long getRecordNumber() { return recordNumber; }
+
+        /**
+         * Gets why the record was rejected.
+         *
+         * @return the reason
+         */
+        public String getReason() { return reason; }
+
+        @Override
+        public String toString() {
+            return "record " + recordNumber + ": " + reason;
+        }
+    }
+}
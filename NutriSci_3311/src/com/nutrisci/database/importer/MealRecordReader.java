@@ -0,0 +1,67 @@
+package com.nutrisci.database.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Streaming source of meal log records from another tracker's export, one food entry per record.
+ *
+ * <p>Each record is reduced to four text fields, addressed by {@link #DATE}, {@link #MEAL},
+ * {@link #FOOD} and {@link #GRAMS}; a field absent from the record is null. Column or key names
+ * are matched case-insensitively against the aliases used by common exports (see
+ * {@link #fieldOf(String)}). Values are not validated here.</p>
+ */
+interface MealRecordReader extends Closeable {
+
+    /** Index of the meal date (ISO date, optionally followed by a time). */
+    int DATE = 0;
+    /** Index of the meal type (breakfast, lunch, dinner or snack). */
+    int MEAL = 1;
+    /** Index of the food name. */
+    int FOOD = 2;
+    /** Index of the quantity in grams. */
+    int GRAMS = 3;
+    /** Number of fields in a record. */
+    int FIELD_COUNT = 4;
+
+    /**
+     * Reads the next record into the given array, overwriting all of its fields.
+     *
+     * @param record array of {@link #FIELD_COUNT} fields to fill
+     * @return false when the export is exhausted
+     * @throws IOException if the export cannot be read or is malformed beyond recovery
+     */
+    boolean next(String[] record) throws IOException;
+
+    /**
+     * Maps a column header or JSON key to the record field it feeds.
+     *
+     * @param name the column or key name
+     * @return the field index, or -1 if the column is not imported
+     */
+    static int fieldOf(String name) {
+        switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "date":
+            case "meal_date":
+            case "day":
+                return DATE;
+            case "meal":
+            case "meal_type":
+            case "type":
+                return MEAL;
+            case "food":
+            case "food_name":
+            case "name":
+            case "description":
+                return FOOD;
+            case "grams":
+            case "quantity":
+            case "quantity_grams":
+            case "amount":
+                return GRAMS;
+            default:
+                return -1;
+        }
+    }
+}
@@ -0,0 +1,504 @@
+package com.nutrisci.database.index;
+
+import com.nutrisci.database.util.NutrientDictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable in-memory index of CNF foods partitioned by food group.
+ *
+ * <p>Foods are stored contiguously by group, so the candidates of a group are a slice
+ * {@code [start, end)} of a few parallel arrays: food IDs, food names and a dense nutrient
+ * matrix with one row per food and one column per {@link NutrientDictionary} ordinal
+ * ({@code NaN} where the food has no amount). Retrieving the candidates of a group is an
+ * array lookup with no database round trip, and since the index is never modified after it
+ * is built it can be shared freely across calls and threads.</p>
+ *
+ * <p>Indexes are assembled with a {@link Builder}, typically by
+ * {@link com.nutrisci.database.dao.ICNFDataDAO#loadFoodGroupIndex()}.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class FoodGroupIndex {
+
+    /** Sentinel returned by index lookups when no entry exists. */
+    public static final int NOT_FOUND = -1;
+
+    private final int[] groupIds;
+    private final int[] groupCodes;
+    private final String[] groupNames;
+    private final int[] groupOffsets;
+    private final Map<String, Integer> groupsByName;
+
+    private final int[] foodIds;
+    private final String[] foodNames;
+    private final int[] sortedFoodIds;
+    private final int[] sortedFoodPositions;
+
+    private final int nutrientWidth;
+    private final double[] nutrientValues;
+
+    private FoodGroupIndex(int[] groupIds, int[] groupCodes, String[] groupNames, int[] groupOffsets,
+                           int[] foodIds, String[] foodNames, int nutrientWidth, double[] nutrientValues) {
+        this.groupIds = groupIds;
+        this.groupCodes = groupCodes;
+        this.groupNames = groupNames;
+        this.groupOffsets = groupOffsets;
+        this.foodIds = foodIds;
+        this.foodNames = foodNames;
+        this.nutrientWidth = nutrientWidth;
+        this.nutrientValues = nutrientValues;
+
+        this.groupsByName = new HashMap<>();
+        for (int g = 0; g < groupNames.length; g++) {
+            if (groupNames[g] != null) {
+                groupsByName.putIfAbsent(groupNames[g].trim().toLowerCase(Locale.ROOT), g);
+            }
+        }
+
+        // Secondary index from FoodID to position, for lookups that are not group scans
+        Integer[] order = new Integer[foodIds.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(foodIds[a], foodIds[b]));
+        this.sortedFoodIds = new int[foodIds.length];
+        this.sortedFoodPositions = new int[foodIds.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedFoodIds[i] = foodIds[order[i]];
+            sortedFoodPositions[i] = order[i];
+        }
+    }
+
+    /**
+     * Creates a new Builder instance for assembling a FoodGroupIndex.
+     *
+     * @return new Builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the number of food groups.
+     *
+     * @return the group count
+     */
+    public int getGroupCount() { return groupIds.length; }
+
+    /**
+     * Gets the total number of indexed foods.
+     *
+     * @return the food count
+     */
+    public int getFoodCount() { return foodIds.length; }
+
+    /**
+     * Gets the number of nutrient columns, i.e. the dictionary size when the index was built.
+     * Ordinals registered later have no column and read as absent.
+     *
+     * @return the nutrient matrix width
+     */
+    public int getNutrientWidth() { return nutrientWidth; }
+
+    /**
+     * Finds a group by its CNF FoodGroupID.
+     *
+     * @param groupId the FoodGroupID
+     * @return the group index, or {@link #NOT_FOUND}
+     */
+    public int indexOfGroup(int groupId) {
+        int g = Arrays.binarySearch(groupIds, groupId);
+        return g >= 0 ? g : NOT_FOUND;
+    }
+
+    /**
+     * Finds a group by name, ignoring case.
+     *
+     * @param groupName the FoodGroupName
+     * @return the group index, or {@link #NOT_FOUND}
+     */
+    public int indexOfGroupName(String groupName) {
+        if (groupName == null) {
+            return NOT_FOUND;
+        }
+        Integer g = groupsByName.get(groupName.trim().toLowerCase(Locale.ROOT));
+        return g != null ? g : NOT_FOUND;
+    }
+
+    /**
+     * Gets the CNF FoodGroupID of a group.
+     *
+     * @param group the group index
+     * @return the FoodGroupID
+     */
+    public int getGroupId(int group) { return groupIds[group]; }
+
+    /**
+     * Gets the CNF FoodGroupCode of a group.
+     *
+     * @param group the group index
+     * @return the FoodGroupCode
+     */
+    public int getGroupCode(int group) { return groupCodes[group]; }
+
+    /**
+     * Gets the name of a group.
+     *
+     * @param group the group index
+     * @return the FoodGroupName
+     */
+    public String getGroupName(int group) { return groupNames[group]; }
+
+    /**
+     * Gets the candidates of a group as a slice of the index.
+     *
+     * @param group the group index
+     * @return a view of the group's foods
+     */
+    public GroupSlice getGroup(int group) {
+        return new GroupSlice(this, group, groupOffsets[group], groupOffsets[group + 1]);
+    }
+
+    /**
+     * Gets the candidates of a group by its CNF FoodGroupID.
+     *
+     * @param groupId the FoodGroupID
+     * @return a view of the group's foods, or null if the group is not indexed
+     */
+    public GroupSlice getGroupById(int groupId) {
+        int g = indexOfGroup(groupId);
+        return g != NOT_FOUND ? getGroup(g) : null;
+    }
+
+    /**
+     * Finds the position of a food in the index.
+     *
+     * @param foodId the CNF FoodID
+     * @return the food position, or {@link #NOT_FOUND}
+     */
+    public int indexOfFood(int foodId) {
+        int i = Arrays.binarySearch(sortedFoodIds, foodId);
+        return i >= 0 ? sortedFoodPositions[i] : NOT_FOUND;
+    }
+
+    /**
+     * Gets the group a food belongs to.
+     *
+     * @param position the food position
+     * @return the group index
+     */
+    public int groupOfFood(int position) {
+        int g = Arrays.binarySearch(groupOffsets, position);
+        if (g >= 0) {
+            // Skip empty groups that share the same start offset
+            while (g + 1 < groupOffsets.length - 1 && groupOffsets[g + 1] == position) {
+                g++;
+            }
+            return g;
+        }
+        return -g - 2;
+    }
+
+    /**
+     * Gets the CNF FoodID of a food.
+     *
+     * @param position the food position
+     * @return the FoodID
+     */
+    public int getFoodId(int position) { return foodIds[position]; }
+
+    /**
+     * Gets the description of a food.
+     *
+     * @param position the food position
+     * @return the FoodDescription
+     */
+    public String getFoodName(int position) { return foodNames[position]; }
+
+    /**
+     * Gets a nutrient amount per 100 g of a food.
+     *
+     * @param position the food position
+     * @param nutrientOrdinal the {@link NutrientDictionary} ordinal
+     * @return the amount, or {@code NaN} if the food has no amount for the nutrient
+     */
+    public double getNutrient(int position, int nutrientOrdinal) {
+        if (nutrientOrdinal < 0 || nutrientOrdinal >= nutrientWidth) {
+            return Double.NaN;
+        }
+        return nutrientValues[position * nutrientWidth + nutrientOrdinal];
+    }
+
+    @Override
+    public String toString() {
+        return "FoodGroupIndex{" +
+                "groups=" + groupIds.length +
+                ", foods=" + foodIds.length +
+                ", nutrientWidth=" + nutrientWidth +
+                '}';
+    }
+
+    /**
+     * Lightweight view of the foods in one group. Positions passed to the accessors are
+     * relative to the slice, from 0 to {@link #size()} - 1.
+     */
+    public static final class GroupSlice {
+
+        private final FoodGroupIndex index;
+        private final int group;
+        private final int start;
+        private final int end;
+
+        private GroupSlice(FoodGroupIndex index, int group, int start, int end) {
+            this.index = index;
+            this.group = group;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Gets the index this slice belongs to.
+         *
+         * @return the owning index
+         */
+        public FoodGroupIndex getIndex() { return index; }
+
+        /**
+         * Gets the CNF FoodGroupID of the group.
+         *
+         * @return the FoodGroupID
+         */
+        public int getGroupId() { return index.groupIds[group]; }
+
+        /**
+         * Gets the name of the group.
+         *
+         * @return the FoodGroupName
+         */
+        public String getGroupName() { return index.groupNames[group]; }
+
+        /**
+         * Gets the number of foods in the group.
+         *
+         * @return the slice size
+         */
+        public int size() { return end - start; }
+
+        /**
+         * Gets the position of a slice entry in the whole index.
+         *
+         * @param i the slice-relative position
+         * @return the index-wide food position
+         */
+        public int toIndexPosition(int i) { return start + i; }
+
+        /**
+         * Gets the CNF FoodID of a food in the group.
+         *
+         * @param i the slice-relative position
+         * @return the FoodID
+         */
+        public int getFoodId(int i) { return index.foodIds[start + i]; }
+
+        /**
+         * Gets the description of a food in the group.
+         *
+         * @param i the slice-relative position
+         * @return the FoodDescription
+         */
+        public String getFoodName(int i) { return index.foodNames[start + i]; }
+
+        /**
+         * Gets a nutrient amount per 100 g of a food in the group.
+         *
+         * @param i the slice-relative position
+         * @param nutrientOrdinal the {@link NutrientDictionary} ordinal
+         * @return the amount, or {@code NaN} if the food has no amount for the nutrient
+         */
+        public double getNutrient(int i, int nutrientOrdinal) { return index.getNutrient(start + i, nutrientOrdinal); }
+    }
+
+    /**
+     * Builder for assembling a FoodGroupIndex from rows in any order.
+     * Foods in unknown groups and amounts for unknown foods or unregistered nutrients are
+     * skipped, mirroring the inner joins of the CNF queries.
+     */
+    public static final class Builder {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private final List<int[]> groups = new ArrayList<>();
+        private final List<String> groupNames = new ArrayList<>();
+
+        private int[] foodIds = new int[INITIAL_CAPACITY];
+        private int[] foodGroupIds = new int[INITIAL_CAPACITY];
+        private String[] foodNames = new String[INITIAL_CAPACITY];
+        private int foodCount;
+
+        private int[] amountFoodIds = new int[INITIAL_CAPACITY];
+        private int[] amountOrdinals = new int[INITIAL_CAPACITY];
+        private double[] amountValues = new double[INITIAL_CAPACITY];
+        private int amountCount;
+
+        private NutrientDictionary dictionary = NutrientDictionary.getDefault();
+
+        private Builder() {}
+
+        /**
+         * Sets the dictionary that defines the nutrient columns.
+         *
+         * @param dictionary the nutrient dictionary
+         * @return this builder for method chaining
+         */
+        public Builder dictionary(NutrientDictionary dictionary) {
+            this.dictionary = dictionary;
+            return this;
+        }
+
+        /**
+         * Adds a food group.
+         *
+         * @param groupId the FoodGroupID
+         * @param groupCode the FoodGroupCode
+         * @param groupName the FoodGroupName
+         * @return this builder for method chaining
+         */
+        public Builder addGroup(int groupId, int groupCode, String groupName) {
+            groups.add(new int[] { groupId, groupCode, groups.size() });
+            groupNames.add(groupName);
+            return this;
+        }
+
+        /**
+         * Adds a food.
+         *
+         * @param foodId the FoodID
+         * @param groupId the FoodGroupID of the food
+         * @param foodName the FoodDescription
+         * @return this builder for method chaining
+         */
+        public Builder addFood(int foodId, int groupId, String foodName) {
+            if (foodCount == foodIds.length) {
+                int newLength = foodIds.length * 2;
+                foodIds = Arrays.copyOf(foodIds, newLength);
+                foodGroupIds = Arrays.copyOf(foodGroupIds, newLength);
+                foodNames = Arrays.copyOf(foodNames, newLength);
+            }
+            foodIds[foodCount] = foodId;
+            foodGroupIds[foodCount] = groupId;
+            foodNames[foodCount] = foodName;
+            foodCount++;
+            return this;
+        }
+
+        /**
+         * Adds a nutrient amount per 100 g of a food.
+         *
+         * @param foodId the FoodID
+         * @param nutrientId the CNF NutrientID, which must be registered in the dictionary
+         * @param value the amount
+         * @return this builder for method chaining
+         */
+        public Builder addAmount(int foodId, int nutrientId, double value) {
+            int ordinal = dictionary.ordinalOfId(nutrientId);
+            if (ordinal == NutrientDictionary.NOT_FOUND) {
+                return this;
+            }
+            if (amountCount == amountFoodIds.length) {
+                int newLength = amountFoodIds.length * 2;
+                amountFoodIds = Arrays.copyOf(amountFoodIds, newLength);
+                amountOrdinals = Arrays.copyOf(amountOrdinals, newLength);
+                amountValues = Arrays.copyOf(amountValues, newLength);
+            }
+            amountFoodIds[amountCount] = foodId;
+            amountOrdinals[amountCount] = ordinal;
+            amountValues[amountCount] = value;
+            amountCount++;
+            return this;
+        }
+
+        /**
+         * Builds the index.
+         *
+         * @return new FoodGroupIndex instance
+         */
+        public FoodGroupIndex build() {
+            // Groups ordered by FoodGroupID
+            List<int[]> sortedGroups = new ArrayList<>(groups);
+            sortedGroups.sort((a, b) -> Integer.compare(a[0], b[0]));
+            int groupCount = sortedGroups.size();
+            int[] groupIds = new int[groupCount];
+            int[] groupCodes = new int[groupCount];
+            String[] names = new String[groupCount];
+            Map<Integer, Integer> groupIndexById = new HashMap<>();
+            for (int g = 0; g < groupCount; g++) {
+                int[] group = sortedGroups.get(g);
+                groupIds[g] = group[0];
+                groupCodes[g] = group[1];
+                names[g] = groupNames.get(group[2]);
+                groupIndexById.putIfAbsent(group[0], g);
+            }
+
+            // Foods ordered by group, then FoodID
+            int[] foodGroup = new int[foodCount];
+            int[] groupSizes = new int[groupCount];
+            int indexedFoods = 0;
+            for (int i = 0; i < foodCount; i++) {
+                Integer g = groupIndexById.get(foodGroupIds[i]);
+                foodGroup[i] = g != null ? g : NOT_FOUND;
+                if (g != null) {
+                    groupSizes[g]++;
+                    indexedFoods++;
+                }
+            }
+            Integer[] order = new Integer[foodCount];
+            for (int i = 0; i < foodCount; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> foodGroup[a] != foodGroup[b]
+                ? Integer.compare(foodGroup[a], foodGroup[b])
+                : Integer.compare(foodIds[a], foodIds[b]));
+
+            int[] groupOffsets = new int[groupCount + 1];
+            for (int g = 0; g < groupCount; g++) {
+                groupOffsets[g + 1] = groupOffsets[g] + groupSizes[g];
+            }
+
+            int[] indexedIds = new int[indexedFoods];
+            String[] indexedNames = new String[indexedFoods];
+            Map<Integer, Integer> positionById = new HashMap<>(indexedFoods * 2);
+            int position = 0;
+            for (Integer i : order) {
+                if (foodGroup[i] == NOT_FOUND) {
+                    continue;
+                }
+                indexedIds[position] = foodIds[i];
+                indexedNames[position] = foodNames[i];
+                positionById.putIfAbsent(foodIds[i], position);
+                position++;
+            }
+
+            // Dense nutrient rows
+            int width = dictionary.size();
+            double[] values = new double[indexedFoods * width];
+            Arrays.fill(values, Double.NaN);
+            for (int a = 0; a < amountCount; a++) {
+                Integer row = positionById.get(amountFoodIds[a]);
+                if (row != null) {
+                    values[row * width + amountOrdinals[a]] = amountValues[a];
+                }
+            }
+
+            return new FoodGroupIndex(groupIds, groupCodes, names, groupOffsets,
+                indexedIds, indexedNames, width, values);
+        }
+    }
+}
@@ -0,0 +1,462 @@
+package com.nutrisci.database.index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable in-memory inverted index over CNF food descriptions with ranked top-k search.
+ *
+ * <p>Descriptions are tokenized into lower-case, accent-free alphanumeric terms. Each term
+ * maps to a postings list of (food, term frequency) pairs stored in flat arrays. A query is
+ * scored with BM25 term weighting ({@code k1 = 1.2}, {@code b = 0.75}); the last query term
+ * is also expanded to every indexed term it is a prefix of, so results appear while the user
+ * is still typing. Two boosts are applied on top of BM25:</p>
+ * <ul>
+ *   <li>an exact-prefix boost when the description starts with the whole query, and</li>
+ *   <li>a length boost favouring short descriptions, which are usually the generic food
+ *       ("Apple, raw") rather than a specific preparation.</li>
+ * </ul>
+ *
+ * <p>In {@link SearchMode#FUZZY} mode each query term also matches indexed terms within a small
+ * edit distance (none for very short terms, one for medium terms, two for long terms), found
+ * by intersecting a {@link LevenshteinAutomaton} with the sorted term dictionary. Fuzzy matches
+ * are weighted down by their distance, so a correctly spelled term always ranks first.</p>
+ *
+ * <p>Only the best {@code limit} foods are kept, using a bounded min-heap, so a search costs
+ * one pass over the matching postings regardless of how many foods match. The index holds
+ * only IDs and descriptions; callers materialize nutrients for the returned foods alone.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class FoodSearchIndex {
+
+    // BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Relative weight of an indexed term reached by expanding the last query term as a prefix
+    private static final double PREFIX_EXPANSION_WEIGHT = 0.7;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    // Relative weight of a fuzzy match, applied once per edit
+    private static final double FUZZY_EDIT_WEIGHT = 0.6;
+    // Shortest query terms allowed one and two edits in fuzzy mode
+    private static final int MIN_LENGTH_ONE_EDIT = 4;
+    private static final int MIN_LENGTH_TWO_EDITS = 8;
+
+    // Multiplier when the description starts with the full query
+    private static final double EXACT_PREFIX_BOOST = 1.5;
+    // Upper bound of the extra weight given to descriptions no longer than the query
+    private static final double LENGTH_BOOST = 0.25;
+
+    private final int[] foodIds;
+    private final String[] foodNames;
+    private final String[] normalizedNames;
+    private final int[] documentLengths;
+    private final double averageDocumentLength;
+
+    private final String[] terms;
+    private final int[] postingOffsets;
+    private final int[] postingDocuments;
+    private final int[] postingFrequencies;
+
+    private FoodSearchIndex(int[] foodIds, String[] foodNames, String[] normalizedNames, int[] documentLengths,
+                            String[] terms, int[] postingOffsets, int[] postingDocuments, int[] postingFrequencies) {
+        this.foodIds = foodIds;
+        this.foodNames = foodNames;
+        this.normalizedNames = normalizedNames;
+        this.documentLengths = documentLengths;
+        this.terms = terms;
+        this.postingOffsets = postingOffsets;
+        this.postingDocuments = postingDocuments;
+        this.postingFrequencies = postingFrequencies;
+
+        long totalLength = 0;
+        for (int length : documentLengths) {
+            totalLength += length;
+        }
+        this.averageDocumentLength = documentLengths.length > 0 ? (double) totalLength / documentLengths.length : 1.0;
+    }
+
+    /**
+     * Creates a new Builder instance for assembling a FoodSearchIndex.
+     *
+     * @return new Builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the number of indexed foods.
+     *
+     * @return the food count
+     */
+    public int getFoodCount() { return foodIds.length; }
+
+    /**
+     * Gets the number of distinct indexed terms.
+     *
+     * @return the term count
+     */
+    public int getTermCount() { return terms.length; }
+
+    /**
+     * Searches the index for exact and prefix matches and returns the best matching foods.
+     *
+     * @param query free-text query, e.g. "cheddar che"
+     * @param limit maximum number of results
+     * @return up to {@code limit} distinct foods, best match first; empty if nothing matches
+     */
+    public List<Hit> search(String query, int limit) {
+        return search(query, limit, SearchMode.EXACT);
+    }
+
+    /**
+     * Searches the index and returns the best matching foods.
+     *
+     * @param query free-text query, e.g. "brocoli"
+     * @param limit maximum number of results
+     * @param mode whether query terms may also match misspelled forms
+     * @return up to {@code limit} distinct foods, best match first; empty if nothing matches
+     */
+    public List<Hit> search(String query, int limit, SearchMode mode) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty() || limit <= 0 || foodIds.length == 0) {
+            return Collections.emptyList();
+        }
+
+        double[] scores = new double[foodIds.length];
+        int[] matchedTerms = new int[foodIds.length];
+        double[] termScores = new double[foodIds.length];
+        int[] termTouched = new int[foodIds.length];
+        int[] touched = new int[foodIds.length];
+        int touchedCount = 0;
+
+        for (int q = 0; q < queryTerms.size(); q++) {
+            boolean lastTerm = q == queryTerms.size() - 1;
+            int termTouchedCount = scoreTerm(queryTerms.get(q), lastTerm, mode, termScores, termTouched);
+
+            // Fold the best contribution of this query term into the running totals
+            for (int t = 0; t < termTouchedCount; t++) {
+                int document = termTouched[t];
+                if (scores[document] == 0.0) {
+                    touched[touchedCount++] = document;
+                }
+                scores[document] += termScores[document];
+                matchedTerms[document]++;
+                termScores[document] = 0.0;
+            }
+        }
+
+        String normalizedQuery = String.join(" ", queryTerms);
+        PriorityQueue<Hit> heap = new PriorityQueue<>(limit + 1, Hit.WORST_FIRST);
+        for (int t = 0; t < touchedCount; t++) {
+            int document = touched[t];
+            double score = scores[document];
+            if (normalizedNames[document].startsWith(normalizedQuery)) {
+                score *= EXACT_PREFIX_BOOST;
+            }
+            score *= 1.0 + LENGTH_BOOST * Math.min(1.0, (double) queryTerms.size() / documentLengths[document]);
+
+            Hit hit = new Hit(foodIds[document], foodNames[document], documentLengths[document], score,
+                matchedTerms[document], queryTerms.size());
+            if (heap.size() < limit) {
+                heap.add(hit);
+            } else if (Hit.WORST_FIRST.compare(hit, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(hit);
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(heap);
+        hits.sort(Hit.WORST_FIRST.reversed());
+        return hits;
+    }
+
+    /**
+     * Writes the best BM25 contribution of one query term into termScores for every matching
+     * document and lists those documents in touched. A document matching several prefix
+     * expansions or fuzzy variants of the term keeps only its best one.
+     *
+     * @return the number of documents listed in touched
+     */
+    private int scoreTerm(String queryTerm, boolean expandPrefix, SearchMode mode, double[] termScores, int[] touched) {
+        int first = lowerBound(queryTerm);
+        int end = first;
+        if (expandPrefix) {
+            while (end < terms.length && end - first < MAX_PREFIX_EXPANSIONS && terms[end].startsWith(queryTerm)) {
+                end++;
+            }
+        } else if (first < terms.length && terms[first].equals(queryTerm)) {
+            end = first + 1;
+        }
+
+        // Expansions share the idf of the whole prefix group, so a rare longer term such as
+        // "apples" cannot outrank an exact match on the more common "apple"
+        int groupFrequency = Math.min(foodIds.length, postingOffsets[end] - postingOffsets[first]);
+        double groupIdf = idf(groupFrequency);
+
+        int count = 0;
+        for (int term = first; term < end; term++) {
+            boolean exact = terms[term].length() == queryTerm.length();
+            double weight = exact ? 1.0 : PREFIX_EXPANSION_WEIGHT;
+            double idf = exact ? termIdf(term) : groupIdf;
+            count = scorePostings(term, weight, idf, termScores, touched, count);
+        }
+
+        if (mode == SearchMode.FUZZY) {
+            int maxEdits = maxEditsFor(queryTerm);
+            if (maxEdits > 0) {
+                int scoredFirst = first;
+                int scoredEnd = end;
+                List<int[]> matches = new ArrayList<>();
+                new LevenshteinAutomaton(queryTerm, maxEdits).intersect(terms, (term, distance) -> {
+                    if (distance > 0 && (term < scoredFirst || term >= scoredEnd)) {
+                        matches.add(new int[] { term, distance });
+                    }
+                });
+                for (int[] match : matches) {
+                    double weight = Math.pow(FUZZY_EDIT_WEIGHT, match[1]);
+                    count = scorePostings(match[0], weight, termIdf(match[0]), termScores, touched, count);
+                }
+            }
+        }
+        return count;
+    }
+
+    private int scorePostings(int term, double weight, double idf, double[] termScores, int[] touched, int count) {
+        for (int p = postingOffsets[term]; p < postingOffsets[term + 1]; p++) {
+            int document = postingDocuments[p];
+            int frequency = postingFrequencies[p];
+            double norm = K1 * (1.0 - B + B * documentLengths[document] / averageDocumentLength);
+            double score = weight * idf * frequency * (K1 + 1.0) / (frequency + norm);
+            if (termScores[document] == 0.0) {
+                touched[count++] = document;
+            }
+            if (score > termScores[document]) {
+                termScores[document] = score;
+            }
+        }
+        return count;
+    }
+
+    private static int maxEditsFor(String queryTerm) {
+        if (queryTerm.length() >= MIN_LENGTH_TWO_EDITS) {
+            return 2;
+        }
+        return queryTerm.length() >= MIN_LENGTH_ONE_EDIT ? 1 : 0;
+    }
+
+    private double termIdf(int term) {
+        return idf(postingOffsets[term + 1] - postingOffsets[term]);
+    }
+
+    private double idf(int documentFrequency) {
+        return Math.log(1.0 + (foodIds.length - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    // Index of the first term that is not less than the key
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = terms.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (terms[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Splits text into lower-case, accent-free alphanumeric terms.
+     *
+     * @param text the text to tokenize
+     * @return the terms in order of appearance, duplicates removed
+     */
+    static List<String> tokenize(String text) {
+        return new ArrayList<>(new LinkedHashSet<>(terms(text)));
+    }
+
+    // All terms of the text in order, including duplicates
+    private static List<String> terms(String text) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+            .replaceAll("\\p{M}+", "")
+            .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : folded.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * A ranked search result.
+     */
+    public static final class Hit {
+
+        // Lowest score first; ties prefer shorter descriptions, then lower FoodIDs
+        static final Comparator<Hit> WORST_FIRST = (a, b) -> {
+            int byScore = Double.compare(a.score, b.score);
+            if (byScore != 0) {
+                return byScore;
+            }
+            int byLength = Integer.compare(b.length, a.length);
+            return byLength != 0 ? byLength : Integer.compare(b.foodId, a.foodId);
+        };
+
+        private final int foodId;
+        private final String foodName;
+        private final int length;
+        private final double score;
+        private final int matchedTermCount;
+        private final int queryTermCount;
+
+        private Hit(int foodId, String foodName, int length, double score, int matchedTermCount, int queryTermCount) {
+            this.foodId = foodId;
+            this.foodName = foodName;
+            this.length = length;
+            this.score = score;
+            this.matchedTermCount = matchedTermCount;
+            this.queryTermCount = queryTermCount;
+        }
+
+        /**
+         * Gets the CNF FoodID of the match.
+         *
+         * @return the FoodID
+         */
+        public int getFoodId() { return foodId; }
+
+        /**
+         * Gets the description of the match.
+         *
+         * @return the FoodDescription
+         */
+        public String getFoodName() { return foodName; }
+
+        /**
+         * Gets the relevance score; higher is better. Scores are only comparable within one search.
+         *
+         * @return the score
+         */
+        public double getScore() { return score; }
+
+        /**
+         * Gets the number of distinct query terms the description matched, exactly, as a prefix
+         * or, in fuzzy mode, within the allowed edit distance.
+         *
+         * @return the matched term count, at least 1
+         */
+        public int getMatchedTermCount() { return matchedTermCount; }
+
+        /**
+         * Gets the number of distinct terms in the query.
+         *
+         * @return the query term count
+         */
+        public int getQueryTermCount() { return queryTermCount; }
+
+        @Override
+        public String toString() {
+            return "Hit{" +
+                    "foodId=" + foodId +
+                    ", foodName='" + foodName + '\'' +
+                    ", score=" + score +
+                    ", matchedTerms=" + matchedTermCount + "/" + queryTermCount +
+                    '}';
+        }
+    }
+
+    /**
+     * Builder for assembling a FoodSearchIndex.
+     */
+    public static final class Builder {
+
+        private final List<Integer> foodIds = new ArrayList<>();
+        private final List<String> foodNames = new ArrayList<>();
+
+        private Builder() {}
+
+        /**
+         * Adds a food to the index.
+         *
+         * @param foodId the FoodID
+         * @param foodName the FoodDescription
+         * @return this builder for method chaining
+         */
+        public Builder addFood(int foodId, String foodName) {
+            foodIds.add(foodId);
+            foodNames.add(foodName != null ? foodName : "");
+            return this;
+        }
+
+        /**
+         * Builds the index.
+         *
+         * @return new FoodSearchIndex instance
+         */
+        public FoodSearchIndex build() {
+            int count = foodIds.size();
+            int[] ids = new int[count];
+            String[] names = foodNames.toArray(new String[0]);
+            String[] normalized = new String[count];
+            int[] lengths = new int[count];
+
+            Map<String, List<int[]>> postings = new HashMap<>();
+            for (int document = 0; document < count; document++) {
+                ids[document] = foodIds.get(document);
+                List<String> tokens = terms(names[document]);
+                normalized[document] = String.join(" ", tokens);
+                lengths[document] = Math.max(1, tokens.size());
+
+                Map<String, Integer> frequencies = new HashMap<>();
+                for (String token : tokens) {
+                    frequencies.merge(token, 1, Integer::sum);
+                }
+                for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                    postings.computeIfAbsent(entry.getKey(), key -> new ArrayList<>())
+                        .add(new int[] { document, entry.getValue() });
+                }
+            }
+
+            String[] terms = postings.keySet().toArray(new String[0]);
+            Arrays.sort(terms);
+            int[] offsets = new int[terms.length + 1];
+            for (int t = 0; t < terms.length; t++) {
+                offsets[t + 1] = offsets[t] + postings.get(terms[t]).size();
+            }
+            int[] documents = new int[offsets[terms.length]];
+            int[] frequencies = new int[offsets[terms.length]];
+            for (int t = 0; t < terms.length; t++) {
+                int p = offsets[t];
+                for (int[] posting : postings.get(terms[t])) {
+                    documents[p] = posting[0];
+                    frequencies[p] = posting[1];
+                    p++;
+                }
+            }
+
+            return new FoodSearchIndex(ids, names, normalized, lengths, terms, offsets, documents, frequencies);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.nutrisci.database.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deterministic automaton accepting every string within a bounded Levenshtein distance of a
+ * query word, used for typo-tolerant lookups in {@link FoodSearchIndex}.
+ *
+ * <p>A state is a row of the edit distance matrix between the query and the input read so
+ * far, with values capped at {@code maxEdits + 1}. The next row depends only on whether each
+ * query character equals the input character, so every character that does not occur in the
+ * query shares one transition. All reachable states are compiled up front over that reduced
+ * alphabet; matching a term afterwards is one array lookup per character.</p>
+ *
+ * <p>{@link #intersect(String[], Match)} walks a sorted term list, reusing the states of the
+ * prefix shared with the previous term and skipping every term below a prefix that has
+ * already exceeded the distance bound, so the cost grows with the number of live prefixes
+ * rather than with the dictionary size.</p>
+ *
+ * <p>An automaton is immutable and safe to share between threads.</p>
+ */
+final class LevenshteinAutomaton {
+
+    /** State from which no accepting state is reachable. */
+    static final int DEAD = -1;
+
+    private static final int START = 0;
+    private static final int ASCII_LIMIT = 128;
+
+    private final String query;
+    private final int maxEdits;
+    private final char[] alphabet;
+    // Alphabet position of each ASCII character, so the common case avoids a scan
+    private final int[] asciiSymbols;
+
+    // Per state: transitions indexed by alphabet position, with the last slot for other characters
+    private final int[][] transitions;
+    // Per state: distance if accepting, or -1
+    private final int[] acceptDistance;
+
+    /**
+     * Compiles an automaton for the query word.
+     *
+     * @param query the word to match, already normalized like the indexed terms
+     * @param maxEdits the maximum edit distance, from 0 to 2 in practice
+     */
+    LevenshteinAutomaton(String query, int maxEdits) {
+        this.query = query;
+        this.maxEdits = maxEdits;
+        this.alphabet = distinctCharacters(query);
+        this.asciiSymbols = new int[ASCII_LIMIT];
+        Arrays.fill(asciiSymbols, alphabet.length);
+        for (int i = 0; i < alphabet.length; i++) {
+            if (alphabet[i] < ASCII_LIMIT) {
+                asciiSymbols[alphabet[i]] = i;
+            }
+        }
+
+        Map<String, Integer> stateIds = new HashMap<>();
+        List<int[]> rows = new ArrayList<>();
+        List<int[]> transitionList = new ArrayList<>();
+
+        int[] start = new int[query.length() + 1];
+        for (int i = 0; i < start.length; i++) {
+            start[i] = Math.min(i, maxEdits + 1);
+        }
+        stateIds.put(Arrays.toString(start), START);
+        rows.add(start);
+
+        // Breadth-first compilation of every reachable live state
+        for (int state = 0; state < rows.size(); state++) {
+            int[] row = rows.get(state);
+            int[] next = new int[alphabet.length + 1];
+            for (int symbol = 0; symbol <= alphabet.length; symbol++) {
+                char c = symbol < alphabet.length ? alphabet[symbol] : '\0';
+                int[] stepped = step(row, c, symbol < alphabet.length);
+                if (stepped == null) {
+                    next[symbol] = DEAD;
+                    continue;
+                }
+                String key = Arrays.toString(stepped);
+                Integer id = stateIds.get(key);
+                if (id == null) {
+                    id = rows.size();
+                    stateIds.put(key, id);
+                    rows.add(stepped);
+                }
+                next[symbol] = id;
+            }
+            transitionList.add(next);
+        }
+
+        this.transitions = transitionList.toArray(new int[0][]);
+        this.acceptDistance = new int[rows.size()];
+        for (int state = 0; state < rows.size(); state++) {
+            int distance = rows.get(state)[query.length()];
+            acceptDistance[state] = distance <= maxEdits ? distance : -1;
+        }
+    }
+
+    /**
+     * Gets the maximum edit distance accepted.
+     *
+     * @return the distance bound
+     */
+    int getMaxEdits() {
+        return maxEdits;
+    }
+
+    /**
+     * Gets the number of compiled states.
+     *
+     * @return the state count
+     */
+    int getStateCount() {
+        return transitions.length;
+    }
+
+    /**
+     * Computes the edit distance between the query and a term if it is within the bound.
+     *
+     * @param term the candidate term
+     * @return the distance, or -1 if it exceeds the bound
+     */
+    int distance(String term) {
+        int state = START;
+        for (int i = 0; i < term.length() && state != DEAD; i++) {
+            state = transition(state, term.charAt(i));
+        }
+        return state != DEAD ? acceptDistance[state] : -1;
+    }
+
+    /**
+     * Reports every term within the distance bound.
+     *
+     * @param sortedTerms terms in ascending {@link String#compareTo} order
+     * @param match callback receiving the index and distance of each accepted term
+     */
+    void intersect(String[] sortedTerms, Match match) {
+        int[] states = new int[16];
+        states[0] = START;
+        String previous = "";
+
+        int t = 0;
+        while (t < sortedTerms.length) {
+            String term = sortedTerms[t];
+            if (states.length <= term.length()) {
+                states = Arrays.copyOf(states, term.length() + 1);
+            }
+
+            // Reuse the states of the prefix shared with the previous term
+            int depth = commonPrefixLength(previous, term);
+            int dead = -1;
+            for (int i = depth; i < term.length(); i++) {
+                int next = transition(states[i], term.charAt(i));
+                if (next == DEAD) {
+                    dead = i;
+                    break;
+                }
+                states[i + 1] = next;
+            }
+            previous = term;
+
+            if (dead >= 0) {
+                // No term with this prefix can match: jump past all of them
+                t = skipPrefix(sortedTerms, t + 1, term.substring(0, dead + 1));
+                previous = term.substring(0, dead);
+                continue;
+            }
+            int distance = acceptDistance[states[term.length()]];
+            if (distance >= 0) {
+                match.accept(t, distance);
+            }
+            t++;
+        }
+    }
+
+    private int transition(int state, char c) {
+        int symbol = symbolOf(c);
+        return transitions[state][symbol];
+    }
+
+    private int symbolOf(char c) {
+        if (c < ASCII_LIMIT) {
+            return asciiSymbols[c];
+        }
+        for (int i = 0; i < alphabet.length; i++) {
+            if (alphabet[i] == c) {
+                return i;
+            }
+        }
+        return alphabet.length;
+    }
+
+    /**
+     * Computes the next edit distance row, or null if every entry exceeds the bound.
+     */
+    private int[] step(int[] row, char c, boolean inAlphabet) {
+        int cap = maxEdits + 1;
+        int[] next = new int[row.length];
+        next[0] = Math.min(row[0] + 1, cap);
+        int minimum = next[0];
+        for (int i = 1; i < row.length; i++) {
+            int substitution = row[i - 1] + (inAlphabet && query.charAt(i - 1) == c ? 0 : 1);
+            int value = Math.min(substitution, Math.min(row[i] + 1, next[i - 1] + 1));
+            next[i] = Math.min(value, cap);
+            minimum = Math.min(minimum, next[i]);
+        }
+        return minimum > maxEdits ? null : next;
+    }
+
+    // Index of the first term at or after from that does not start with the prefix
+    private static int skipPrefix(String[] sortedTerms, int from, String prefix) {
+        int low = from;
+        int high = sortedTerms.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedTerms[mid].startsWith(prefix) || sortedTerms[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static char[] distinctCharacters(String text) {
+        StringBuilder distinct = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            if (distinct.indexOf(String.valueOf(text.charAt(i))) < 0) {
+                distinct.append(text.charAt(i));
+            }
+        }
+        return distinct.toString().toCharArray();
+    }
+
+    /**
+     * Receives the terms accepted by {@link #intersect(String[], Match)}.
+     */
+    @FunctionalInterface
+    interface Match {
+        void accept(int termIndex, int distance);
+    }
+}
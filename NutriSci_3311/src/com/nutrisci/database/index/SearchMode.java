@@ -0,0 +1,17 @@
+package com.nutrisci.database.index;
+
+/**
+ * Matching modes supported by {@link FoodSearchIndex}.
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public enum SearchMode {
+
+    /** Query terms match indexed terms exactly; the last term also matches as a prefix. */
+    EXACT,
+
+    /** As {@link #EXACT}, plus indexed terms within a small edit distance of each query term. */
+    FUZZY
+}
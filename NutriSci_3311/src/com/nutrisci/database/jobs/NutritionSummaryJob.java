@@ -0,0 +1,593 @@
+package com.nutrisci.database.jobs;
+
+import com.nutrisci.database.dao.IMealLogDAO;
+import com.nutrisci.database.dao.INutritionSummaryDAO;
+import com.nutrisci.database.dao.IUserProfileDAO;
+import com.nutrisci.database.dao.impl.MealLogDAOImpl;
+import com.nutrisci.database.dao.impl.NutritionSummaryDAOImpl;
+import com.nutrisci.database.dao.impl.UserProfileDAOImpl;
+import com.nutrisci.database.dto.DailyNutrientTotals;
+import com.nutrisci.database.dto.NutritionPeriodSummary;
+import com.nutrisci.database.dto.SummaryPeriod;
+import com.nutrisci.database.exceptions.DatabaseAccessException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Computes weekly and monthly nutrition summaries for every user and stores them in
+ * NUTRITION_SUMMARY.
+ *
+ * <p>Users are visited in shards of consecutive user IDs read with keyset pagination. Each shard
+ * is split across a fork-join pool; every task reads its users' per-day totals with one
+ * aggregated query per user ({@link IMealLogDAO#loadDailyNutrientRollup} by default), so no meal
+ * or item rows leave the database, and folds the days into periods in memory. A fair semaphore
+ * caps how many queries run at once, so the pool can be sized for the machine while the database
+ * sees a bounded number of concurrent sessions. The shard's summaries are then written with one
+ * bulk replace in a single transaction.</p>
+ *
+ * <p>When a checkpoint file is configured, the last user ID of every committed shard is recorded
+ * in it. A rerun over the same dates resumes after that user; a run over different dates starts
+ * from the beginning. The checkpoint is deleted when the job completes. Because shards are
+ * replaced as a whole, a shard interrupted before its commit is simply computed again.</p>
+ *
+ * <p>Every period overlapping the date range is summarized in full, so a range ending mid-week
+ * still produces the whole week, covering whatever days have been logged so far.</p>
+ *
+ * <pre>
+ * NutritionSummaryJobReport report = NutritionSummaryJob.builder()
+ *     .dateRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31))
+ *     .maxConcurrentQueries(8)
+ *     .checkpointFile(Paths.get("summary-job.checkpoint"))
+ *     .build()
+ *     .run();
+ * </pre>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class NutritionSummaryJob {
+
+    /**
+     * Receives the report after every committed shard.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * Called after a shard has been committed and checkpointed.
+         *
+         * @param report the report of the run so far
+         */
+        void onProgress(NutritionSummaryJobReport report);
+    }
+
+    // Defaults
+    private static final int DEFAULT_SHARD_SIZE = 1000;
+    private static final int DEFAULT_MAX_CONCURRENT_QUERIES = 4;
+
+    // Users per fork-join leaf; small enough to balance, large enough to amortize task overhead
+    private static final int USERS_PER_TASK = 8;
+
+    // Checkpoint file keys
+    private static final String CHECKPOINT_LAST_USER_ID = "last.user.id";
+    private static final String CHECKPOINT_START_DATE = "start.date";
+    private static final String CHECKPOINT_END_DATE = "end.date";
+    private static final int NO_CHECKPOINT = 0;
+
+    private final IMealLogDAO mealLogDAO;
+    private final IUserProfileDAO userProfileDAO;
+    private final INutritionSummaryDAO summaryDAO;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final Set<SummaryPeriod> periods;
+    private final int[] nutrientIds;
+    private final boolean liveTotals;
+    private final int parallelism;
+    private final int maxConcurrentQueries;
+    private final int shardSize;
+    private final Path checkpointFile;
+    private final ProgressListener progressListener;
+
+    // Days read per user: from the start of the earliest period to the end of the latest one
+    private final LocalDate queryStart;
+    private final LocalDate queryEnd;
+
+    // Private constructor for Builder pattern
+    private NutritionSummaryJob(Builder builder) {
+        this.mealLogDAO = builder.mealLogDAO;
+        this.userProfileDAO = builder.userProfileDAO;
+        this.summaryDAO = builder.summaryDAO;
+        this.startDate = builder.startDate;
+        this.endDate = builder.endDate;
+        this.periods = Collections.unmodifiableSet(EnumSet.copyOf(builder.periods));
+        this.nutrientIds = builder.nutrientIds;
+        this.liveTotals = builder.liveTotals;
+        this.parallelism = builder.parallelism;
+        this.maxConcurrentQueries = builder.maxConcurrentQueries;
+        this.shardSize = builder.shardSize;
+        this.checkpointFile = builder.checkpointFile;
+        this.progressListener = builder.progressListener;
+
+        LocalDate earliest = endDate;
+        LocalDate latest = startDate;
+        for (SummaryPeriod period : periods) {
+            LocalDate first = period.startOf(startDate);
+            LocalDate last = period.endOf(period.startOf(endDate));
+            earliest = first.isBefore(earliest) ? first : earliest;
+            latest = last.isAfter(latest) ? last : latest;
+        }
+        this.queryStart = earliest;
+        this.queryEnd = latest;
+    }
+
+    /**
+     * Creates a new Builder instance for configuring a job.
+     *
+     * @return new Builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder class for configuring NutritionSummaryJob instances with fluent interface.
+     */
+    public static class Builder {
+        private IMealLogDAO mealLogDAO;
+        private IUserProfileDAO userProfileDAO;
+        private INutritionSummaryDAO summaryDAO;
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private Set<SummaryPeriod> periods = EnumSet.allOf(SummaryPeriod.class);
+        private int[] nutrientIds = new int[0];
+        private boolean liveTotals;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private int maxConcurrentQueries = DEFAULT_MAX_CONCURRENT_QUERIES;
+        private int shardSize = DEFAULT_SHARD_SIZE;
+        private Path checkpointFile;
+        private ProgressListener progressListener;
+
+        private Builder() {}
+
+        /**
+         * Sets the DAO daily totals are read through (defaults to a new {@link MealLogDAOImpl}).
+         *
+         * @param mealLogDAO the meal log DAO
+         * @return this builder for method chaining
+         */
+        public Builder mealLogDAO(IMealLogDAO mealLogDAO) {
+            this.mealLogDAO = mealLogDAO;
+            return this;
+        }
+
+        /**
+         * Sets the DAO users are listed through (defaults to a new {@link UserProfileDAOImpl}).
+         *
+         * @param userProfileDAO the user profile DAO
+         * @return this builder for method chaining
+         */
+        public Builder userProfileDAO(IUserProfileDAO userProfileDAO) {
+            this.userProfileDAO = userProfileDAO;
+            return this;
+        }
+
+        /**
+         * Sets the DAO summaries are written through (defaults to a new {@link NutritionSummaryDAOImpl}).
+         *
+         * @param summaryDAO the nutrition summary DAO
+         * @return this builder for method chaining
+         */
+        public Builder summaryDAO(INutritionSummaryDAO summaryDAO) {
+            this.summaryDAO = summaryDAO;
+            return this;
+        }
+
+        /**
+         * Sets the dates to summarize (required). Every period overlapping them is summarized.
+         *
+         * @param startDate first date (inclusive)
+         * @param endDate last date (inclusive)
+         * @return this builder for method chaining
+         */
+        public Builder dateRange(LocalDate startDate, LocalDate endDate) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+            return this;
+        }
+
+        /**
+         * Sets the kinds of period to summarize (defaults to weeks and months).
+         *
+         * @param periods the periods
+         * @return this builder for method chaining
+         */
+        public Builder periods(SummaryPeriod... periods) {
+            this.periods = periods.length > 0 ? EnumSet.of(periods[0], periods) : EnumSet.noneOf(SummaryPeriod.class);
+            return this;
+        }
+
+        /**
+         * Restricts the summaries to the given nutrients (defaults to every nutrient).
+         *
+         * @param nutrientIds the CNF NutrientIDs to summarize
+         * @return this builder for method chaining
+         */
+        public Builder nutrients(int... nutrientIds) {
+            this.nutrientIds = nutrientIds != null ? nutrientIds.clone() : new int[0];
+            return this;
+        }
+
+        /**
+         * Computes daily totals from the meal items instead of reading DAILY_NUTRIENT_ROLLUP
+         * (defaults to false). The rollup is backfilled by the schema migrations, which the DAO
+         * checks before reading it; live totals are for verifying or repairing the rollup.
+         *
+         * @param liveTotals true to aggregate the meal items
+         * @return this builder for method chaining
+         */
+        public Builder liveTotals(boolean liveTotals) {
+            this.liveTotals = liveTotals;
+            return this;
+        }
+
+        /**
+         * Sets the number of fork-join worker threads (defaults to the number of processors).
+         *
+         * @param parallelism the pool size
+         * @return this builder for method chaining
+         */
+        public Builder parallelism(int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Sets how many database calls may run at once across all workers (defaults to 4).
+         * Keep it at or below the connection pool size.
+         *
+         * @param maxConcurrentQueries the number of database permits
+         * @return this builder for method chaining
+         */
+        public Builder maxConcurrentQueries(int maxConcurrentQueries) {
+            this.maxConcurrentQueries = maxConcurrentQueries;
+            return this;
+        }
+
+        /**
+         * Sets the number of users per shard, which is also the unit of commit and checkpoint.
+         *
+         * @param shardSize users per shard
+         * @return this builder for method chaining
+         */
+        public Builder shardSize(int shardSize) {
+            this.shardSize = shardSize;
+            return this;
+        }
+
+        /**
+         * Sets the file progress is checkpointed to, enabling resume after an interruption.
+         *
+         * @param checkpointFile the checkpoint file
+         * @return this builder for method chaining
+         */
+        public Builder checkpointFile(Path checkpointFile) {
+            this.checkpointFile = checkpointFile;
+            return this;
+        }
+
+        /**
+         * Sets a listener notified after every committed shard.
+         *
+         * @param progressListener the listener
+         * @return this builder for method chaining
+         */
+        public Builder progressListener(ProgressListener progressListener) {
+            this.progressListener = progressListener;
+            return this;
+        }
+
+        /**
+         * Builds and validates the job.
+         *
+         * @return new NutritionSummaryJob instance
+         * @throws IllegalStateException if the configuration is invalid
+         */
+        public NutritionSummaryJob build() {
+            if (startDate == null || endDate == null) {
+                throw new IllegalStateException("Date range is required");
+            }
+            if (endDate.isBefore(startDate)) {
+                throw new IllegalStateException("End date must not be before start date");
+            }
+            if (periods.isEmpty()) {
+                throw new IllegalStateException("At least one summary period is required");
+            }
+            if (parallelism <= 0) {
+                throw new IllegalStateException("Parallelism must be greater than 0");
+            }
+            if (maxConcurrentQueries <= 0) {
+                throw new IllegalStateException("Max concurrent queries must be greater than 0");
+            }
+            if (shardSize <= 0) {
+                throw new IllegalStateException("Shard size must be greater than 0");
+            }
+            if (mealLogDAO == null) {
+                mealLogDAO = new MealLogDAOImpl();
+            }
+            if (userProfileDAO == null) {
+                userProfileDAO = new UserProfileDAOImpl();
+            }
+            if (summaryDAO == null) {
+                summaryDAO = new NutritionSummaryDAOImpl();
+            }
+            return new NutritionSummaryJob(this);
+        }
+    }
+
+    /**
+     * Summarizes every user, resuming from the checkpoint if it belongs to the same dates.
+     *
+     * @return the report of the run
+     * @throws DatabaseAccessException if reading totals or writing summaries fails; shards
+     *         committed before the failure stay written and checkpointed
+     * @throws IOException if the checkpoint cannot be read or written
+     */
+    public NutritionSummaryJobReport run() throws DatabaseAccessException, IOException {
+        NutritionSummaryJobReport report = new NutritionSummaryJobReport();
+        int afterUserId = readCheckpoint();
+        report.resumedAfter(afterUserId);
+
+        Semaphore permits = new Semaphore(maxConcurrentQueries, true);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            while (true) {
+                int after = afterUserId;
+                int[] userIds = withPermit(permits, () -> userProfileDAO.listUserIds(after, shardSize));
+                if (userIds.length == 0) {
+                    break;
+                }
+                List<NutritionPeriodSummary> summaries = invoke(pool, new ShardTask(userIds, 0, userIds.length, permits));
+                int lastUserId = userIds[userIds.length - 1];
+                int rows = withPermit(permits, () -> summaryDAO.replaceSummaries(
+                    after + 1, lastUserId, startDate, endDate, periods, summaries));
+
+                afterUserId = lastUserId;
+                writeCheckpoint(afterUserId);
+                report.addShard(lastUserId, userIds.length, summaries.size(), rows);
+                if (progressListener != null) {
+                    progressListener.onProgress(report);
+                }
+                if (userIds.length < shardSize) {
+                    break;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        if (checkpointFile != null) {
+            Files.deleteIfExists(checkpointFile);
+        }
+        report.finish();
+        return report;
+    }
+
+    /**
+     * Computes the summaries of a range of a shard's users, splitting it across the pool.
+     */
+    private final class ShardTask extends RecursiveTask<List<NutritionPeriodSummary>> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] userIds;
+        private final int from;
+        private final int to;
+        private final Semaphore permits;
+
+        ShardTask(int[] userIds, int from, int to, Semaphore permits) {
+            this.userIds = userIds;
+            this.from = from;
+            this.to = to;
+            this.permits = permits;
+        }
+
+        @Override
+        protected List<NutritionPeriodSummary> compute() {
+            if (to - from > USERS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                ShardTask right = new ShardTask(userIds, mid, to, permits);
+                right.fork();
+                List<NutritionPeriodSummary> summaries = new ShardTask(userIds, from, mid, permits).compute();
+                summaries.addAll(right.join());
+                return summaries;
+            }
+            List<NutritionPeriodSummary> summaries = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                try {
+                    int userId = userIds[i];
+                    DailyNutrientTotals daily = withPermit(permits, () -> liveTotals
+                        ? mealLogDAO.loadDailyNutrientTotals(userId, queryStart, queryEnd, nutrientIds)
+                        : mealLogDAO.loadDailyNutrientRollup(userId, queryStart, queryEnd, nutrientIds));
+                    for (SummaryPeriod period : periods) {
+                        summarize(userId, period, daily, summaries);
+                    }
+                } catch (DatabaseAccessException e) {
+                    throw new ShardFailure(e);
+                }
+            }
+            return summaries;
+        }
+    }
+
+    /**
+     * Folds a user's daily totals into one summary per period that has logged days.
+     */
+    private void summarize(int userId, SummaryPeriod period, DailyNutrientTotals daily, List<NutritionPeriodSummary> out) {
+        LocalDate firstStart = period.startOf(startDate);
+        LocalDate lastStart = period.startOf(endDate);
+        int nutrientCount = daily.getNutrientCount();
+        int[] ids = new int[nutrientCount];
+        for (int n = 0; n < nutrientCount; n++) {
+            ids[n] = daily.getNutrientId(n);
+        }
+
+        // Days are in ascending order, so each period's days are contiguous
+        LocalDate currentStart = null;
+        long[] totals = null;
+        int daysLogged = 0;
+        for (int d = 0; d < daily.getDayCount(); d++) {
+            LocalDate periodStart = period.startOf(daily.getDay(d));
+            if (periodStart.isBefore(firstStart) || periodStart.isAfter(lastStart)) {
+                continue;
+            }
+            if (!periodStart.equals(currentStart)) {
+                if (currentStart != null) {
+                    out.add(new NutritionPeriodSummary(userId, period, currentStart, daysLogged, ids, totals));
+                }
+                currentStart = periodStart;
+                totals = new long[nutrientCount];
+                daysLogged = 0;
+            }
+            for (int n = 0; n < nutrientCount; n++) {
+                totals[n] += daily.getTotalFixed(d, n);
+            }
+            daysLogged++;
+        }
+        if (currentStart != null) {
+            out.add(new NutritionPeriodSummary(userId, period, currentStart, daysLogged, ids, totals));
+        }
+    }
+
+    /**
+     * Runs a shard on the pool, restoring the database failure a task threw.
+     */
+    private static List<NutritionPeriodSummary> invoke(ForkJoinPool pool, ShardTask task) throws DatabaseAccessException {
+        try {
+            return pool.invoke(task);
+        } catch (RuntimeException e) {
+            // The pool may rethrow a copy of the task's exception, so search the cause chain
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof DatabaseAccessException) {
+                    throw (DatabaseAccessException) cause;
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a database call while holding one of the job's permits.
+     */
+    private static <T> T withPermit(Semaphore permits, DatabaseCall<T> call) throws DatabaseAccessException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseAccessException("Interrupted while waiting for a database permit", e);
+        }
+        try {
+            return call.execute();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * A DAO call made under a permit.
+     */
+    @FunctionalInterface
+    private interface DatabaseCall<T> {
+        T execute() throws DatabaseAccessException;
+    }
+
+    /**
+     * Carries a task's database failure out of the fork-join pool.
+     */
+    private static final class ShardFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private ShardFailure(DatabaseAccessException cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     * Reads the user ID to resume after, or 0 without a checkpoint for the same dates.
+     */
+    private int readCheckpoint() throws IOException {
+        if (checkpointFile == null || !Files.exists(checkpointFile)) {
+            return NO_CHECKPOINT;
+        }
+        Properties checkpoint = new Properties();
+        try (InputStream in = Files.newInputStream(checkpointFile)) {
+            checkpoint.load(in);
+        }
+        try {
+            if (!startDate.equals(LocalDate.parse(checkpoint.getProperty(CHECKPOINT_START_DATE)))
+                    || !endDate.equals(LocalDate.parse(checkpoint.getProperty(CHECKPOINT_END_DATE)))) {
+                return NO_CHECKPOINT;
+            }
+            return Integer.parseInt(checkpoint.getProperty(CHECKPOINT_LAST_USER_ID));
+        } catch (NumberFormatException | DateTimeParseException | NullPointerException e) {
+            throw new IOException("Corrupt checkpoint " + checkpointFile, e);
+        }
+    }
+
+    /**
+     * Replaces the checkpoint atomically, so a crash leaves either the old or the new one.
+     */
+    private void writeCheckpoint(int lastUserId) throws IOException {
+        if (checkpointFile == null) {
+            return;
+        }
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty(CHECKPOINT_START_DATE, startDate.toString());
+        checkpoint.setProperty(CHECKPOINT_END_DATE, endDate.toString());
+        checkpoint.setProperty(CHECKPOINT_LAST_USER_ID, Integer.toString(lastUserId));
+
+        Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            checkpoint.store(out, "Nutrition summary job progress");
+        }
+        Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Summarizes the configured database, by default from the first day of last month through
+     * yesterday, which covers the previous and current weeks and months.
+     *
+     * @param args optional start and end date (ISO format) and checkpoint file
+     */
+    public static void main(String[] args) {
+        LocalDate today = LocalDate.now();
+        try {
+            Builder builder = NutritionSummaryJob.builder()
+                .dateRange(args.length >= 2 ? LocalDate.parse(args[0]) : today.minusMonths(1).withDayOfMonth(1),
+                           args.length >= 2 ? LocalDate.parse(args[1]) : today.minusDays(1))
+                .progressListener(report -> System.out.printf("  %,d users, %,.0f users/s%n",
+                    report.getUsersProcessed(), report.getUsersPerSecond()));
+            if (args.length >= 3) {
+                builder.checkpointFile(Paths.get(args[2]));
+            }
+            System.out.println(builder.build().run());
+        } catch (DatabaseAccessException | IOException | DateTimeParseException e) {
+            System.err.println("Nutrition summary job failed: " + e.getMessage());
+        }
+    }
+}
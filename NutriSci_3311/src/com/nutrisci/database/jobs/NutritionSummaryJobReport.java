@@ -0,0 +1,121 @@
+package com.nutrisci.database.jobs;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Progress and outcome of a {@link NutritionSummaryJob} run: users summarized, summaries and
+ * rows written, and the throughput achieved.
+ *
+ * <p>Counts cover the current run only. When the run resumed from a checkpoint, the user ID it
+ * resumed after is reported; users up to that ID were summarized by the interrupted run.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class NutritionSummaryJobReport {
+
+    private final long startTime = System.nanoTime();
+
+    private int resumedAfterUserId;
+    private int lastUserId;
+    private long usersProcessed;
+    private long shardsCompleted;
+    private long summariesWritten;
+    private long rowsWritten;
+    private long elapsedNanos;
+
+    NutritionSummaryJobReport() {
+    }
+
+    void resumedAfter(int userId) {
+        resumedAfterUserId = userId;
+        lastUserId = userId;
+    }
+
+    void addShard(int lastUserId, int users, int summaries, int rows) {
+        this.lastUserId = lastUserId;
+        usersProcessed += users;
+        summariesWritten += summaries;
+        rowsWritten += rows;
+        shardsCompleted++;
+    }
+
+    void finish() {
+        elapsedNanos = System.nanoTime() - startTime;
+    }
+
+    /**
+     * Gets the user ID this run resumed after.
+     *
+     * @return the checkpointed user ID, or 0 if the run started from the beginning
+     */
+    public int getResumedAfterUserId() { return resumedAfterUserId; }
+
+    /**
+     * Gets the highest user ID whose summaries have been committed.
+     *
+     * @return the last committed user ID, or 0 if none
+     */
+    public int getLastUserId() { return lastUserId; }
+
+    /**
+     * Gets the number of users summarized in this run, including users without logged meals.
+     *
+     * @return users processed
+     */
+    public long getUsersProcessed() { return usersProcessed; }
+
+    /**
+     * Gets the number of shards committed.
+     *
+     * @return shards completed
+     */
+    public long getShardsCompleted() { return shardsCompleted; }
+
+    /**
+     * Gets the number of weekly and monthly summaries written.
+     *
+     * @return summaries written
+     */
+    public long getSummariesWritten() { return summariesWritten; }
+
+    /**
+     * Gets the number of NUTRITION_SUMMARY rows written, one per summary and nutrient.
+     *
+     * @return rows written
+     */
+    public long getRowsWritten() { return rowsWritten; }
+
+    /**
+     * Gets the wall-clock time of the run, or the time so far while it is in progress.
+     *
+     * @return elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos > 0 ? elapsedNanos : System.nanoTime() - startTime;
+    }
+
+    /**
+     * Gets the user throughput.
+     *
+     * @return users processed per second
+     */
+    public double getUsersPerSecond() {
+        long nanos = getElapsedNanos();
+        return nanos > 0 ? usersProcessed * (double) TimeUnit.SECONDS.toNanos(1) / nanos : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder("Nutrition summary job report\n");
+        if (resumedAfterUserId > 0) {
+            report.append(String.format("  resumed after user %d%n", resumedAfterUserId));
+        }
+        report.append(String.format("  %,d shards, %,d summaries, %,d rows written%n",
+            shardsCompleted, summariesWritten, rowsWritten));
+        report.append(String.format("  TOTAL: %,d users summarized in %.2f s (%,.0f users/s)",
+            usersProcessed, getElapsedNanos() / 1e9, getUsersPerSecond()));
+        return report.toString();
+    }
+}
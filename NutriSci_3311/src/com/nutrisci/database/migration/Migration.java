@@ -0,0 +1,63 @@
+package com.nutrisci.database.migration;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One versioned schema change: a version number, a description recorded in SCHEMA_VERSION,
+ * and the DDL statements that implement it in each {@link SqlDialect}.
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class Migration {
+
+    private final int version;
+    private final String description;
+    private final Function<SqlDialect, List<String>> statements;
+
+    /**
+     * Constructs a migration.
+     *
+     * @param version the schema version it brings the database to, greater than 0
+     * @param description short description of the change
+     * @param statements produces the statements to execute, in order, for a dialect
+     * @throws IllegalArgumentException if the version is not positive
+     */
+    public Migration(int version, String description, Function<SqlDialect, List<String>> statements) {
+        if (version <= 0) {
+            throw new IllegalArgumentException("Migration version must be greater than 0: " + version);
+        }
+        this.version = version;
+        this.description = description;
+        this.statements = statements;
+    }
+
+    /**
+     * Gets the schema version this migration brings the database to.
+     *
+     * @return the version
+     */
+    public int getVersion() { return version; }
+
+    /**
+     * Gets the description of the change.
+     *
+     * @return the description
+     */
+    public String getDescription() { return description; }
+
+    /**
+     * Gets the statements implementing the change in a dialect.
+     *
+     * @param dialect the target dialect
+     * @return the statements in execution order
+     */
+    public List<String> getStatements(SqlDialect dialect) { return statements.apply(dialect); }
+
+    @Override
+    public String toString() {
+        return "V" + version + " " + description;
+    }
+}
@@ -0,0 +1,250 @@
+package com.nutrisci.database.migration;
+
+import com.nutrisci.database.ConnectionProvider;
+import com.nutrisci.database.DatabaseConnectionManager;
+import com.nutrisci.database.constants.DatabaseConstants;
+import com.nutrisci.database.exceptions.DatabaseAccessException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Brings a database schema up to date by applying the {@link SchemaMigrations} it has not
+ * applied yet, and records each applied version in the SCHEMA_VERSION table.
+ *
+ * <p>The dialect is detected from the connection, so the same migrations run against SQL Server
+ * and against an embedded H2 stand-in. Each migration runs in its own transaction together with
+ * the insert of its version row, so a failed migration leaves no version record behind and the
+ * next run retries it. Where DDL is transactional (SQL Server, not H2) its partial DDL is rolled
+ * back as well; elsewhere the idempotent statements let the retry skip what already exists. If two
+ * runners race, the second one's version insert violates the primary key and its transaction
+ * rolls back.</p>
+ *
+ * <p>Migrating is a deploy step: run {@link #main(String[])} with a login that holds DDL rights
+ * before starting the application. DAOs whose statements depend on migrated tables only call
+ * {@link #requireSchema()}, which reads the recorded version and fails fast with a clear error
+ * when the database is behind, instead of on the first missing table.</p>
+ *
+ * <pre>
+ * List&lt;Migration&gt; applied = new SchemaMigrationRunner().migrate();
+ * </pre>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class SchemaMigrationRunner {
+
+    private static final int MAX_DESCRIPTION_LENGTH = 200;
+
+    private static final String SELECT_VERSIONS_SQL =
+        "SELECT " + DatabaseConstants.COL_VERSION + " FROM " + DatabaseConstants.TABLE_SCHEMA_VERSION;
+
+    private static final String INSERT_VERSION_SQL =
+        "INSERT INTO " + DatabaseConstants.TABLE_SCHEMA_VERSION + " (" +
+        DatabaseConstants.COL_VERSION + ", " + DatabaseConstants.COL_DESCRIPTION + ") VALUES (?, ?)";
+
+    private static final String SELECT_CURRENT_VERSION_SQL =
+        "SELECT MAX(" + DatabaseConstants.COL_VERSION + ") FROM " + DatabaseConstants.TABLE_SCHEMA_VERSION;
+
+    // Whether this JVM has seen the configured database at the latest version
+    private static volatile boolean schemaCurrent;
+
+    private final ConnectionProvider connectionProvider;
+    private final List<Migration> migrations;
+
+    /**
+     * Constructs a runner for the NutriSci migrations against the configured database.
+     */
+    public SchemaMigrationRunner() {
+        this(DatabaseConnectionManager::getConnection, SchemaMigrations.all());
+    }
+
+    /**
+     * Constructs a runner for the given migrations.
+     *
+     * @param connectionProvider source of the connection migrations run on
+     * @param migrations the migrations in strictly ascending version order
+     * @throws IllegalArgumentException if the versions are not strictly ascending
+     */
+    public SchemaMigrationRunner(ConnectionProvider connectionProvider, List<Migration> migrations) {
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).getVersion() <= migrations.get(i - 1).getVersion()) {
+                throw new IllegalArgumentException("Migration versions must be strictly ascending: " + migrations.get(i));
+            }
+        }
+        this.connectionProvider = connectionProvider;
+        this.migrations = new ArrayList<>(migrations);
+    }
+
+    /**
+     * Applies every pending migration in version order.
+     *
+     * @return the migrations applied by this call, empty if the schema was up to date
+     * @throws DatabaseAccessException if a migration fails; earlier ones stay applied
+     */
+    public List<Migration> migrate() throws DatabaseAccessException {
+        List<Migration> applied = new ArrayList<>();
+        try (Connection conn = connectionProvider.getConnection()) {
+            SqlDialect dialect = SqlDialect.detect(conn);
+            createVersionTable(conn, dialect);
+            Set<Integer> appliedVersions = loadAppliedVersions(conn);
+
+            for (Migration migration : migrations) {
+                if (!appliedVersions.contains(migration.getVersion())) {
+                    apply(conn, dialect, migration);
+                    applied.add(migration);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Failed to connect for schema migration", e);
+        }
+        return applied;
+    }
+
+    /**
+     * Checks that the configured database has every NutriSci migration applied. Only reads the
+     * recorded version, so it needs no DDL rights; after the first success it returns without
+     * touching the database.
+     *
+     * @throws DatabaseAccessException if the schema is behind or its version cannot be read
+     */
+    public static void requireSchema() throws DatabaseAccessException {
+        if (!schemaCurrent) {
+            new SchemaMigrationRunner().checkSchema();
+            schemaCurrent = true;
+        }
+    }
+
+    /**
+     * Checks that the database has recorded the last of this runner's migrations, without
+     * creating or changing anything.
+     *
+     * @throws DatabaseAccessException if the schema is behind or its version cannot be read
+     */
+    public void checkSchema() throws DatabaseAccessException {
+        int required = migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).getVersion();
+        int current;
+        try (Connection conn = connectionProvider.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(SELECT_CURRENT_VERSION_SQL)) {
+            current = rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Failed to read the database schema version; " +
+                "run SchemaMigrationRunner against the database before starting the application", e);
+        }
+        if (current < required) {
+            throw new DatabaseAccessException("Database schema is at version " + current + " but version " +
+                required + " is required; run SchemaMigrationRunner against the database before starting the application");
+        }
+    }
+
+    /**
+     * Gets the highest schema version recorded in the database.
+     *
+     * @return the current version, or 0 if no migration has been applied
+     * @throws DatabaseAccessException if database access fails
+     */
+    public int getCurrentVersion() throws DatabaseAccessException {
+        try (Connection conn = connectionProvider.getConnection()) {
+            createVersionTable(conn, SqlDialect.detect(conn));
+            int current = 0;
+            for (int version : loadAppliedVersions(conn)) {
+                current = Math.max(current, version);
+            }
+            return current;
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Failed to read schema version", e);
+        }
+    }
+
+    /**
+     * Runs one migration and records its version in a single transaction.
+     */
+    private void apply(Connection conn, SqlDialect dialect, Migration migration) throws DatabaseAccessException {
+        try {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : migration.getStatements(dialect)) {
+                    stmt.execute(sql);
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_VERSION_SQL)) {
+                stmt.setInt(1, migration.getVersion());
+                stmt.setString(2, truncate(migration.getDescription()));
+                stmt.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackException) {
+                e.addSuppressed(rollbackException);
+            }
+            throw new DatabaseAccessException("Failed to apply schema migration " + migration, e);
+        } finally {
+            try {
+                conn.setAutoCommit(true);
+            } catch (SQLException e) {
+                // Connection is closed by the caller
+            }
+        }
+    }
+
+    private static void createVersionTable(Connection conn, SqlDialect dialect) throws DatabaseAccessException {
+        String ddl = dialect.createTable(DatabaseConstants.TABLE_SCHEMA_VERSION,
+            DatabaseConstants.COL_VERSION + " INT NOT NULL PRIMARY KEY, " +
+            DatabaseConstants.COL_DESCRIPTION + " VARCHAR(" + MAX_DESCRIPTION_LENGTH + ") NOT NULL, " +
+            DatabaseConstants.COL_APPLIED_AT + " " + dialect.timestampType() + " NOT NULL DEFAULT CURRENT_TIMESTAMP");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(ddl);
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Failed to create " + DatabaseConstants.TABLE_SCHEMA_VERSION, e);
+        }
+    }
+
+    private static Set<Integer> loadAppliedVersions(Connection conn) throws DatabaseAccessException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(SELECT_VERSIONS_SQL)) {
+            while (rs.next()) {
+                versions.add(rs.getInt(1));
+            }
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Failed to read " + DatabaseConstants.TABLE_SCHEMA_VERSION, e);
+        }
+        return versions;
+    }
+
+    private static String truncate(String description) {
+        return description.length() > MAX_DESCRIPTION_LENGTH ? description.substring(0, MAX_DESCRIPTION_LENGTH) : description;
+    }
+
+    /**
+     * Applies pending migrations to the configured database and prints what was applied. This
+     * is the deploy step the DAOs' {@link #requireSchema()} check expects to have run; it exits
+     * with status 1 on failure so deploy scripts stop.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        try {
+            SchemaMigrationRunner runner = new SchemaMigrationRunner();
+            List<Migration> applied = runner.migrate();
+            for (Migration migration : applied) {
+                System.out.println("Applied " + migration);
+            }
+            System.out.println("Schema is at version " + runner.getCurrentVersion());
+        } catch (DatabaseAccessException e) {
+            System.err.println("Schema migration failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.nutrisci.database.migration;
+
+import com.nutrisci.database.constants.DatabaseConstants;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The schema migrations of the NutriSci database, in version order.
+ *
+ * <p>Append new migrations with the next version number; never edit or renumber one that has
+ * been released, since databases record only the version they have applied.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class SchemaMigrations {
+
+    // Prevent instantiation
+    private SchemaMigrations() {
+        throw new UnsupportedOperationException("Migration catalog cannot be instantiated");
+    }
+
+    /** Daily nutrient totals per user maintained by the meal log DAO. */
+    public static final Migration V1_DAILY_NUTRIENT_ROLLUP = new Migration(1,
+        "Create " + DatabaseConstants.TABLE_DAILY_NUTRIENT_ROLLUP,
+        dialect -> Collections.singletonList(dialect.createTable(DatabaseConstants.TABLE_DAILY_NUTRIENT_ROLLUP,
+            DatabaseConstants.COL_USER_ID + " INT NOT NULL, " +
+            DatabaseConstants.COL_DAY + " DATE NOT NULL, " +
+            DatabaseConstants.COL_ROLLUP_NUTRIENT_ID + " INT NOT NULL, " +
+            // Wider scale than FixedPoint, so incremental deltas do not accumulate rounding
+            DatabaseConstants.COL_TOTAL + " DECIMAL(24, 8) NOT NULL, " +
+            "CONSTRAINT PK_" + DatabaseConstants.TABLE_DAILY_NUTRIENT_ROLLUP + " PRIMARY KEY (" +
+            DatabaseConstants.COL_USER_ID + ", " + DatabaseConstants.COL_DAY + ", " + DatabaseConstants.COL_ROLLUP_NUTRIENT_ID + ")")));
+
+    /** Meal history reads: a user's meals in a date range, newest first. */
+    public static final Migration V2_LOGGED_MEALS_HISTORY_INDEX = new Migration(2,
+        "Index " + DatabaseConstants.TABLE_LOGGED_MEALS + " by user and date",
+        dialect -> Collections.singletonList(dialect.createIndex("IX_LOGGED_MEALS_user_date", DatabaseConstants.TABLE_LOGGED_MEALS,
+            DatabaseConstants.COL_USER_ID + ", " + DatabaseConstants.COL_MEAL_DATE + ", " + DatabaseConstants.COL_LOGGED_AT,
+            DatabaseConstants.COL_MEAL_TYPE)));
+
+    /** Item lookups by meal, covering the columns read with the meal history. */
+    public static final Migration V3_MEAL_ITEMS_MEAL_INDEX = new Migration(3,
+        "Index " + DatabaseConstants.TABLE_MEAL_ITEMS + " by meal",
+        dialect -> Collections.singletonList(dialect.createIndex("IX_MEAL_ITEMS_meal", DatabaseConstants.TABLE_MEAL_ITEMS,
+            DatabaseConstants.COL_MEAL_ID,
+            DatabaseConstants.COL_FOOD_ID + ", " + DatabaseConstants.COL_QUANTITY_GRAMS)));
+
+    /** Replacement food search: nutrient range predicates returning FoodIDs. */
+    public static final Migration V4_NUTRIENT_AMOUNT_VALUE_INDEX = new Migration(4,
+        "Index " + DatabaseConstants.TABLE_NUTRIENT_AMOUNT + " by nutrient and value",
+        dialect -> Collections.singletonList(dialect.createIndex("IX_NUTRIENT_AMOUNT_nutrient_value", DatabaseConstants.TABLE_NUTRIENT_AMOUNT,
+            DatabaseConstants.COL_NUTRIENT_ID + ", " + DatabaseConstants.COL_NUTRIENT_VALUE,
+            DatabaseConstants.COL_FOOD_ID_CAPS)));
+
+    /** Weekly and monthly per-user nutrient totals written by the nightly summary job. */
+    public static final Migration V5_NUTRITION_SUMMARY = new Migration(5,
+        "Create " + DatabaseConstants.TABLE_NUTRITION_SUMMARY,
+        dialect -> Collections.singletonList(dialect.createTable(DatabaseConstants.TABLE_NUTRITION_SUMMARY,
+            DatabaseConstants.COL_USER_ID + " INT NOT NULL, " +
+            DatabaseConstants.COL_PERIOD + " VARCHAR(10) NOT NULL, " +
+            DatabaseConstants.COL_PERIOD_START + " DATE NOT NULL, " +
+            DatabaseConstants.COL_ROLLUP_NUTRIENT_ID + " INT NOT NULL, " +
+            DatabaseConstants.COL_DAYS_LOGGED + " INT NOT NULL, " +
+            DatabaseConstants.COL_TOTAL + " DECIMAL(24, 8) NOT NULL, " +
+            "CONSTRAINT PK_" + DatabaseConstants.TABLE_NUTRITION_SUMMARY + " PRIMARY KEY (" +
+            DatabaseConstants.COL_USER_ID + ", " + DatabaseConstants.COL_PERIOD + ", " +
+            DatabaseConstants.COL_PERIOD_START + ", " + DatabaseConstants.COL_ROLLUP_NUTRIENT_ID + ")")));
+
+    /**
+     * Fills the rollup with the history logged before V1 created it. Recomputes every row from the
+     * meal items, since rows written incrementally since V1 hold only later deltas.
+     */
+    public static final Migration V6_DAILY_NUTRIENT_ROLLUP_BACKFILL = new Migration(6,
+        "Backfill " + DatabaseConstants.TABLE_DAILY_NUTRIENT_ROLLUP + " from logged meals",
+        dialect -> Arrays.asList(
+            "DELETE FROM " + DatabaseConstants.TABLE_DAILY_NUTRIENT_ROLLUP,
+            "INSERT INTO " + DatabaseConstants.TABLE_DAILY_NUTRIENT_ROLLUP + " (" +
+            DatabaseConstants.COL_USER_ID + ", " + DatabaseConstants.COL_DAY + ", " +
+            DatabaseConstants.COL_ROLLUP_NUTRIENT_ID + ", " + DatabaseConstants.COL_TOTAL + ") " +
+            "SELECT m." + DatabaseConstants.COL_USER_ID + ", m." + DatabaseConstants.COL_MEAL_DATE + ", na." + DatabaseConstants.COL_NUTRIENT_ID + ", " +
+            "SUM(mi." + DatabaseConstants.COL_QUANTITY_GRAMS + " * na." + DatabaseConstants.COL_NUTRIENT_VALUE + ") / 100 " +
+            "FROM " + DatabaseConstants.TABLE_LOGGED_MEALS + " m " +
+            "JOIN " + DatabaseConstants.TABLE_MEAL_ITEMS + " mi ON m." + DatabaseConstants.COL_MEAL_ID + " = mi." + DatabaseConstants.COL_MEAL_ID + " " +
+            "JOIN " + DatabaseConstants.TABLE_NUTRIENT_AMOUNT + " na ON mi." + DatabaseConstants.COL_FOOD_ID + " = na." + DatabaseConstants.COL_FOOD_ID_CAPS +
+            " GROUP BY m." + DatabaseConstants.COL_USER_ID + ", m." + DatabaseConstants.COL_MEAL_DATE + ", na." + DatabaseConstants.COL_NUTRIENT_ID));
+
+    /**
+     * Gets every migration in version order.
+     *
+     * @return unmodifiable list of migrations
+     */
+    public static List<Migration> all() {
+        return Collections.unmodifiableList(Arrays.asList(
+            V1_DAILY_NUTRIENT_ROLLUP,
+            V2_LOGGED_MEALS_HISTORY_INDEX,
+            V3_MEAL_ITEMS_MEAL_INDEX,
+            V4_NUTRIENT_AMOUNT_VALUE_INDEX,
+            V5_NUTRITION_SUMMARY,
+            V6_DAILY_NUTRIENT_ROLLUP_BACKFILL));
+    }
+}
@@ -0,0 +1,140 @@
+package com.nutrisci.database.migration;
+
+import com.nutrisci.database.exceptions.DatabaseAccessException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Database products the schema migrations can be applied to, with the DDL that differs
+ * between them.
+ *
+ * <p>Production runs on SQL Server. H2 serves as an embedded stand-in, so migrated schemas and
+ * the query plans they produce can be checked without a server; it has no {@code INCLUDE}
+ * clause, so its covering indexes carry the included columns as trailing key columns. The
+ * stand-in URL needs {@code MODE=MSSQLServer;NON_KEYWORDS=DAY} for the DAO queries to run.</p>
+ *
+ * <p>All statements are idempotent: tables and indexes that already exist, for example because
+ * they were created by hand before migrations were introduced, are left as they are.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public enum SqlDialect {
+
+    /** Microsoft SQL Server */
+    SQL_SERVER("microsoft sql server") {
+        @Override
+        public String createTable(String table, String columns) {
+            return "IF OBJECT_ID(N'" + table + "', N'U') IS NULL CREATE TABLE " + table + " (" + columns + ")";
+        }
+
+        @Override
+        public String createIndex(String index, String table, String keyColumns, String includedColumns) {
+            return "IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = N'" + index +
+                "' AND object_id = OBJECT_ID(N'" + table + "')) " +
+                "CREATE NONCLUSTERED INDEX " + index + " ON " + table + " (" + keyColumns + ")" +
+                (includedColumns.isEmpty() ? "" : " INCLUDE (" + includedColumns + ")");
+        }
+
+        @Override
+        public String timestampType() {
+            return "DATETIME2";
+        }
+
+        @Override
+        public boolean isDdlTransactional() {
+            return true;
+        }
+    },
+
+    /** H2, the embedded stand-in */
+    H2("h2") {
+        @Override
+        public String createTable(String table, String columns) {
+            return "CREATE TABLE IF NOT EXISTS " + table + " (" + columns + ")";
+        }
+
+        @Override
+        public String createIndex(String index, String table, String keyColumns, String includedColumns) {
+            return "CREATE INDEX IF NOT EXISTS " + index + " ON " + table + " (" + keyColumns +
+                (includedColumns.isEmpty() ? "" : ", " + includedColumns) + ")";
+        }
+
+        @Override
+        public String timestampType() {
+            return "TIMESTAMP";
+        }
+
+        @Override
+        public boolean isDdlTransactional() {
+            return false;
+        }
+    };
+
+    private final String productName;
+
+    SqlDialect(String productName) {
+        this.productName = productName;
+    }
+
+    /**
+     * Creates a table unless it exists.
+     *
+     * @param table the table name
+     * @param columns the column and constraint definitions
+     * @return the DDL statement
+     */
+    public abstract String createTable(String table, String columns);
+
+    /**
+     * Creates a nonclustered covering index unless one with that name exists on the table.
+     *
+     * @param index the index name
+     * @param table the table name
+     * @param keyColumns comma-separated key columns
+     * @param includedColumns comma-separated non-key columns, or an empty string
+     * @return the DDL statement
+     */
+    public abstract String createIndex(String index, String table, String keyColumns, String includedColumns);
+
+    /**
+     * Gets the column type for a date and time without time zone.
+     *
+     * @return the SQL type name
+     */
+    public abstract String timestampType();
+
+    /**
+     * Tells whether DDL takes part in transactions, so a failed migration rolls back the tables
+     * and indexes it already created. H2 commits each DDL statement immediately.
+     *
+     * @return true if a rollback undoes DDL
+     */
+    public abstract boolean isDdlTransactional();
+
+    /**
+     * Detects the dialect of a connection from its database product name.
+     *
+     * @param conn an open connection
+     * @return the dialect
+     * @throws DatabaseAccessException if the product is not supported or cannot be read
+     */
+    public static SqlDialect detect(Connection conn) throws DatabaseAccessException {
+        String product;
+        try {
+            product = conn.getMetaData().getDatabaseProductName();
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Failed to read database product name", e);
+        }
+        String normalized = product != null ? product.toLowerCase(Locale.ROOT) : "";
+        for (SqlDialect dialect : values()) {
+            if (normalized.equals(dialect.productName)) {
+                return dialect;
+            }
+        }
+        throw new DatabaseAccessException("Unsupported database for schema migrations: " + product);
+    }
+}
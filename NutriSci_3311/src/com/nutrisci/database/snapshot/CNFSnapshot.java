@@ -0,0 +1,375 @@
+package com.nutrisci.database.snapshot;
+
+import com.nutrisci.database.dto.Food;
+import com.nutrisci.database.dto.FoodNutrient;
+import com.nutrisci.database.dto.NutrientDefinition;
+import com.nutrisci.database.util.FixedPoint;
+import com.nutrisci.database.util.NutrientDictionary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only view of a binary CNF snapshot file, opened with {@link FileChannel#map}.
+ *
+ * <p>Only the header and the small nutrient dictionary are decoded when the file is opened.
+ * Food IDs, names and nutrient amounts are read on demand straight from the mapped file, so
+ * lookups are served from the operating system page cache and the data never has to be
+ * copied onto the heap. A snapshot is immutable and safe to share between threads.</p>
+ *
+ * <p>See {@link CNFSnapshotFormat} for the file layout.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class CNFSnapshot {
+
+    /** Sentinel returned by index lookups when no entry exists. */
+    public static final int NOT_FOUND = -1;
+
+    private final Path file;
+    private final long dataVersion;
+    private final int foodCount;
+    private final int entryCount;
+
+    private final int[] nutrientIds;
+    private final String[] nutrientNames;
+    private final String[] nutrientUnits;
+    private final NutrientDefinition[] nutrientDefinitions;
+
+    private final IntBuffer foodIds;
+    private final IntBuffer foodNameRefs;
+    private final ByteBuffer stringTable;
+    private final IntBuffer rowPointers;
+    private final CharBuffer columnIndex;
+    private final DoubleBuffer values;
+
+    private CNFSnapshot(Path file, MappedByteBuffer mapped) throws IOException {
+        this.file = file;
+        ByteBuffer header = mapped.duplicate().order(CNFSnapshotFormat.BYTE_ORDER);
+
+        if (mapped.capacity() < CNFSnapshotFormat.HEADER_SIZE
+                || header.getInt(CNFSnapshotFormat.OFFSET_MAGIC) != CNFSnapshotFormat.MAGIC) {
+            throw new IOException("Not a CNF snapshot file: " + file);
+        }
+        int formatVersion = header.getInt(CNFSnapshotFormat.OFFSET_FORMAT_VERSION);
+        if (formatVersion != CNFSnapshotFormat.FORMAT_VERSION) {
+            throw new IOException("Unsupported CNF snapshot format version " + formatVersion + ": " + file);
+        }
+        if (header.getLong(CNFSnapshotFormat.OFFSET_FILE_LENGTH) != mapped.capacity()) {
+            throw new IOException("Truncated CNF snapshot file: " + file);
+        }
+
+        this.dataVersion = header.getLong(CNFSnapshotFormat.OFFSET_DATA_VERSION);
+        this.foodCount = header.getInt(CNFSnapshotFormat.OFFSET_FOOD_COUNT);
+        this.entryCount = header.getInt(CNFSnapshotFormat.OFFSET_ENTRY_COUNT);
+        int nutrientCount = header.getInt(CNFSnapshotFormat.OFFSET_NUTRIENT_COUNT);
+
+        this.foodIds = section(mapped, header, CNFSnapshotFormat.OFFSET_FOOD_IDS, foodCount * Integer.BYTES).asIntBuffer();
+        this.foodNameRefs = section(mapped, header, CNFSnapshotFormat.OFFSET_FOOD_NAME_REFS, foodCount * Integer.BYTES).asIntBuffer();
+        int stringTableLength = (int) (header.getLong(CNFSnapshotFormat.OFFSET_ROW_POINTERS)
+                - header.getLong(CNFSnapshotFormat.OFFSET_STRING_TABLE));
+        this.stringTable = section(mapped, header, CNFSnapshotFormat.OFFSET_STRING_TABLE, stringTableLength);
+        this.rowPointers = section(mapped, header, CNFSnapshotFormat.OFFSET_ROW_POINTERS, (foodCount + 1) * Integer.BYTES).asIntBuffer();
+        this.columnIndex = section(mapped, header, CNFSnapshotFormat.OFFSET_COLUMN_INDEX, entryCount * Character.BYTES).asCharBuffer();
+        this.values = section(mapped, header, CNFSnapshotFormat.OFFSET_VALUES, entryCount * Double.BYTES).asDoubleBuffer();
+
+        // The dictionary is tiny, so decode it eagerly
+        ByteBuffer dictionary = section(mapped, header, CNFSnapshotFormat.OFFSET_NUTRIENT_DICTIONARY,
+                nutrientCount * CNFSnapshotFormat.NUTRIENT_ENTRY_SIZE);
+        this.nutrientIds = new int[nutrientCount];
+        this.nutrientNames = new String[nutrientCount];
+        this.nutrientUnits = new String[nutrientCount];
+        this.nutrientDefinitions = new NutrientDefinition[nutrientCount];
+        for (int i = 0; i < nutrientCount; i++) {
+            int base = i * CNFSnapshotFormat.NUTRIENT_ENTRY_SIZE;
+            nutrientIds[i] = dictionary.getInt(base);
+            nutrientNames[i] = readString(dictionary.getInt(base + Integer.BYTES));
+            nutrientUnits[i] = readString(dictionary.getInt(base + 2 * Integer.BYTES));
+            nutrientDefinitions[i] = NutrientDictionary.getDefault().register(nutrientIds[i], nutrientNames[i], nutrientUnits[i]);
+        }
+    }
+
+    /**
+     * Opens a snapshot file by memory-mapping it read-only.
+     * The file channel is closed immediately; the mapping stays valid until the snapshot is
+     * garbage collected.
+     *
+     * @param file the snapshot file
+     * @return the opened snapshot
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static CNFSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("CNF snapshot file too large to map: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return new CNFSnapshot(file, mapped);
+        }
+    }
+
+    /**
+     * Slices one section out of the mapped file with the snapshot byte order applied.
+     */
+    private static ByteBuffer section(MappedByteBuffer mapped, ByteBuffer header, int offsetField, int length) {
+        int offset = (int) header.getLong(offsetField);
+        return mapped.slice(offset, length).order(CNFSnapshotFormat.BYTE_ORDER);
+    }
+
+    /**
+     * Decodes a length-prefixed UTF-8 string from the string table.
+     */
+    private String readString(int ref) {
+        int length = stringTable.getChar(ref);
+        byte[] bytes = new byte[length];
+        stringTable.get(ref + CNFSnapshotFormat.STRING_LENGTH_SIZE, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Snapshot metadata
+
+    /**
+     * Gets the file this snapshot was opened from.
+     *
+     * @return the snapshot file path
+     */
+    public Path getFile() { return file; }
+
+    /**
+     * Gets the version stamp of the CNF data in this snapshot.
+     *
+     * @return the data version recorded when the snapshot was written
+     */
+    public long getDataVersion() { return dataVersion; }
+
+    /**
+     * Gets the number of foods in this snapshot.
+     *
+     * @return the food count
+     */
+    public int getFoodCount() { return foodCount; }
+
+    /**
+     * Gets the number of nutrients in the snapshot dictionary.
+     *
+     * @return the nutrient count
+     */
+    public int getNutrientCount() { return nutrientIds.length; }
+
+    /**
+     * Gets the number of stored food/nutrient amounts.
+     *
+     * @return the number of non-empty matrix entries
+     */
+    public int getEntryCount() { return entryCount; }
+
+    // Nutrient dictionary
+
+    /**
+     * Finds the snapshot ordinal of a nutrient.
+     *
+     * @param nutrientId the CNF NutrientID
+     * @return the nutrient ordinal, or {@link #NOT_FOUND} if the nutrient is not in the snapshot
+     */
+    public int getNutrientOrdinal(int nutrientId) {
+        int low = 0;
+        int high = nutrientIds.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = nutrientIds[mid];
+            if (value < nutrientId) {
+                low = mid + 1;
+            } else if (value > nutrientId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Gets the CNF NutrientID at a snapshot ordinal.
+     *
+     * @param ordinal the nutrient ordinal
+     * @return the NutrientID
+     */
+    public int getNutrientId(int ordinal) { return nutrientIds[ordinal]; }
+
+    /**
+     * Gets the nutrient name at a snapshot ordinal.
+     *
+     * @param ordinal the nutrient ordinal
+     * @return the nutrient name
+     */
+    public String getNutrientName(int ordinal) { return nutrientNames[ordinal]; }
+
+    /**
+     * Gets the nutrient unit at a snapshot ordinal.
+     *
+     * @param ordinal the nutrient ordinal
+     * @return the unit of measurement
+     */
+    public String getNutrientUnit(int ordinal) { return nutrientUnits[ordinal]; }
+
+    /**
+     * Gets the shared dictionary definition of a nutrient. Note that snapshot ordinals are
+     * local to the file and differ from {@link NutrientDefinition#getOrdinal()}.
+     *
+     * @param ordinal the snapshot nutrient ordinal
+     * @return the definition registered in the default {@link NutrientDictionary}
+     */
+    public NutrientDefinition getNutrientDefinition(int ordinal) { return nutrientDefinitions[ordinal]; }
+
+    // Foods
+
+    /**
+     * Finds the row index of a food by binary search over the mapped food ID section.
+     *
+     * @param foodId the CNF FoodID
+     * @return the food row index, or {@link #NOT_FOUND} if the food is not in the snapshot
+     */
+    public int indexOfFood(int foodId) {
+        int low = 0;
+        int high = foodCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = foodIds.get(mid);
+            if (value < foodId) {
+                low = mid + 1;
+            } else if (value > foodId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Gets the CNF FoodID of a food row.
+     *
+     * @param foodIndex the food row index
+     * @return the FoodID
+     */
+    public int getFoodId(int foodIndex) { return foodIds.get(foodIndex); }
+
+    /**
+     * Gets the description of a food row, decoded from the string table.
+     *
+     * @param foodIndex the food row index
+     * @return the food description
+     */
+    public String getFoodName(int foodIndex) { return readString(foodNameRefs.get(foodIndex)); }
+
+    // CSR matrix access
+
+    /**
+     * Gets the first matrix entry of a food row.
+     *
+     * @param foodIndex the food row index
+     * @return the index of the row's first entry
+     */
+    public int getRowStart(int foodIndex) { return rowPointers.get(foodIndex); }
+
+    /**
+     * Gets the end (exclusive) of a food row's matrix entries.
+     *
+     * @param foodIndex the food row index
+     * @return one past the index of the row's last entry
+     */
+    public int getRowEnd(int foodIndex) { return rowPointers.get(foodIndex + 1); }
+
+    /**
+     * Gets the nutrient ordinal of a matrix entry.
+     *
+     * @param entry the entry index
+     * @return the nutrient ordinal
+     */
+    public int getEntryOrdinal(int entry) { return columnIndex.get(entry); }
+
+    /**
+     * Gets the amount per 100g stored in a matrix entry.
+     *
+     * @param entry the entry index
+     * @return the nutrient amount per 100g
+     */
+    public double getEntryValue(int entry) { return values.get(entry); }
+
+    /**
+     * Looks up the amount of one nutrient in one food.
+     *
+     * @param foodId the CNF FoodID
+     * @param nutrientId the CNF NutrientID
+     * @return the amount per 100g, or {@link Double#NaN} if the food or amount is not present
+     */
+    public double getNutrientAmount(int foodId, int nutrientId) {
+        int foodIndex = indexOfFood(foodId);
+        int ordinal = getNutrientOrdinal(nutrientId);
+        if (foodIndex == NOT_FOUND || ordinal == NOT_FOUND) {
+            return Double.NaN;
+        }
+
+        // Ordinals are sorted within a row
+        int low = getRowStart(foodIndex);
+        int high = getRowEnd(foodIndex) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = columnIndex.get(mid);
+            if (value < ordinal) {
+                low = mid + 1;
+            } else if (value > ordinal) {
+                high = mid - 1;
+            } else {
+                return values.get(mid);
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Materializes a food with all of its nutrients as a DTO.
+     * Mapped values are stored in the DTO as {@link FixedPoint} amounts.
+     *
+     * @param foodId the CNF FoodID
+     * @return the food with its nutrients, or null if the food is not in the snapshot
+     */
+    public Food getFood(int foodId) {
+        int foodIndex = indexOfFood(foodId);
+        if (foodIndex == NOT_FOUND) {
+            return null;
+        }
+
+        Food food = Food.builder()
+            .foodId(foodId)
+            .foodName(getFoodName(foodIndex))
+            .build();
+        for (int entry = getRowStart(foodIndex); entry < getRowEnd(foodIndex); entry++) {
+            int ordinal = getEntryOrdinal(entry);
+            food.addNutrient(new FoodNutrient(nutrientDefinitions[ordinal], FixedPoint.fromDouble(getEntryValue(entry))));
+        }
+        return food;
+    }
+
+    @Override
+    public String toString() {
+        return "CNFSnapshot{" +
+                "file=" + file +
+                ", dataVersion=" + dataVersion +
+                ", foodCount=" + foodCount +
+                ", nutrientCount=" + nutrientIds.length +
+                ", entryCount=" + entryCount +
+                '}';
+    }
+}
@@ -0,0 +1,79 @@
+package com.nutrisci.database.snapshot;
+
+import java.nio.ByteOrder;
+
+/**
+ * Layout constants for the binary Canadian Nutrient File (CNF) snapshot file.
+ *
+ * <p>A snapshot file is a single little-endian file made of a fixed-size header followed by
+ * the sections below, in this order. Every section offset is recorded in the header, so readers
+ * never depend on the order.</p>
+ * <ul>
+ *   <li><b>Nutrient dictionary</b> - one 12-byte entry per nutrient, sorted by NutrientID:
+ *       {@code int nutrientId, int nameRef, int unitRef}. The position of an entry is the
+ *       nutrient's ordinal within the snapshot.</li>
+ *   <li><b>Food IDs</b> - one {@code int} FoodID per food, sorted ascending. The position of a
+ *       FoodID is the food's row index.</li>
+ *   <li><b>Food name references</b> - one {@code int} string reference per food row.</li>
+ *   <li><b>String table</b> - strings referenced by byte offset into this section, each stored as
+ *       an unsigned 16-bit length followed by that many UTF-8 bytes.</li>
+ *   <li><b>Row pointers</b> - {@code foodCount + 1} {@code int}s; the nutrient entries of food row
+ *       {@code i} are the half-open range {@code [rowPointer[i], rowPointer[i + 1])}.</li>
+ *   <li><b>Column index</b> - one unsigned 16-bit nutrient ordinal per entry, ascending within a row.</li>
+ *   <li><b>Values</b> - one {@code double} per entry (amount per 100g), 8-byte aligned.</li>
+ * </ul>
+ *
+ * <p>Together the last three sections are a CSR (compressed sparse row) encoding of the
+ * food &times; nutrient matrix, which keeps the file proportional to the number of
+ * NUTRIENT_AMOUNT rows rather than foods &times; nutrients.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class CNFSnapshotFormat {
+
+    // Prevent instantiation
+    private CNFSnapshotFormat() {
+        throw new UnsupportedOperationException("Constants class cannot be instantiated");
+    }
+
+    /** File magic number, the ASCII bytes "CNFS" read as a little-endian int. */
+    public static final int MAGIC = 0x53464E43;
+
+    /** Current layout version. Readers reject files with any other version. */
+    public static final int FORMAT_VERSION = 1;
+
+    /** Byte order of every multi-byte value in the file. */
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /** Size of the fixed header; the first section starts at this offset. */
+    public static final int HEADER_SIZE = 128;
+
+    // Header field offsets
+    public static final int OFFSET_MAGIC = 0;
+    public static final int OFFSET_FORMAT_VERSION = 4;
+    public static final int OFFSET_DATA_VERSION = 8;
+    public static final int OFFSET_FOOD_COUNT = 16;
+    public static final int OFFSET_NUTRIENT_COUNT = 20;
+    public static final int OFFSET_ENTRY_COUNT = 24;
+    public static final int OFFSET_NUTRIENT_DICTIONARY = 32;
+    public static final int OFFSET_FOOD_IDS = 40;
+    public static final int OFFSET_FOOD_NAME_REFS = 48;
+    public static final int OFFSET_STRING_TABLE = 56;
+    public static final int OFFSET_ROW_POINTERS = 64;
+    public static final int OFFSET_COLUMN_INDEX = 72;
+    public static final int OFFSET_VALUES = 80;
+    public static final int OFFSET_FILE_LENGTH = 88;
+
+    // Section entry sizes in bytes
+    public static final int NUTRIENT_ENTRY_SIZE = 12;
+    public static final int STRING_LENGTH_SIZE = 2;
+    public static final int VALUE_ALIGNMENT = 8;
+
+    /** Largest string the table can hold, bounded by its unsigned 16-bit length prefix. */
+    public static final int MAX_STRING_BYTES = 0xFFFF;
+
+    /** Largest number of nutrients, bounded by the unsigned 16-bit column index. */
+    public static final int MAX_NUTRIENTS = 0xFFFF;
+}
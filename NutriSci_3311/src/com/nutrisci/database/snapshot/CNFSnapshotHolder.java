@@ -0,0 +1,279 @@
+package com.nutrisci.database.snapshot;
+
+import com.nutrisci.database.dao.ICNFDataDAO;
+import com.nutrisci.database.exceptions.DatabaseAccessException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the active {@link CNFSnapshot} and replaces it without pausing lookups.
+ *
+ * <p>A refresh builds the new snapshot on a dedicated background thread while readers keep
+ * using the current one. Once the new snapshot is fully built it is published with a single
+ * volatile write, so a reader sees either the old snapshot or the new one, never a partial
+ * state. Readers that obtained the old snapshot before the swap finish on it undisturbed:
+ * snapshots are immutable and their file mappings stay valid for as long as they are
+ * referenced.</p>
+ *
+ * <p>Every publication increments {@link #getVersion()}. Caches derived from food data can
+ * record the version they were built against and invalidate only when it changes, either by
+ * comparing versions on access or by registering a {@link VersionListener}.</p>
+ *
+ * <p>Replaced snapshot files are not deleted, since in-flight readers may still be mapping
+ * them; callers that write snapshots into a dedicated directory can prune old files at
+ * startup.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class CNFSnapshotHolder implements AutoCloseable {
+
+    /** Version reported before any snapshot has been published. */
+    public static final long NO_VERSION = 0L;
+
+    private static final String SNAPSHOT_FILE_PREFIX = "cnf-";
+    private static final String SNAPSHOT_FILE_SUFFIX = ".snapshot";
+
+    private final SnapshotSource source;
+    private final ExecutorService refreshExecutor;
+    private final List<VersionListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong versionCounter = new AtomicLong(NO_VERSION);
+
+    private volatile Published published;
+
+    // Guarded by this; the in-progress refresh that concurrent requests join
+    private CompletableFuture<CNFSnapshot> pendingRefresh;
+
+    /**
+     * Constructs a holder that builds snapshots from the given source. No snapshot is loaded
+     * until {@link #refresh()}, {@link #refreshAsync()} or {@link #publish(CNFSnapshot)} is called.
+     *
+     * @param source the source of new snapshots
+     */
+    public CNFSnapshotHolder(SnapshotSource source) {
+        if (source == null) {
+            throw new IllegalArgumentException("Snapshot source cannot be null");
+        }
+        this.source = source;
+        this.refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cnf-snapshot-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gets the active snapshot. Callers should read it once per logical operation and use
+     * that reference throughout, so the whole operation sees a single consistent version.
+     *
+     * @return the active snapshot, or null if none has been published yet
+     */
+    public CNFSnapshot getSnapshot() {
+        Published current = published;
+        return current != null ? current.snapshot : null;
+    }
+
+    /**
+     * Gets the version of the active snapshot. Versions start at 1 and increase by one with
+     * every publication, so two equal versions always refer to the same snapshot.
+     *
+     * @return the active version, or {@link #NO_VERSION} if none has been published yet
+     */
+    public long getVersion() {
+        Published current = published;
+        return current != null ? current.version : NO_VERSION;
+    }
+
+    /**
+     * Checks whether a snapshot has been published.
+     *
+     * @return true if {@link #getSnapshot()} returns a snapshot
+     */
+    public boolean isLoaded() {
+        return published != null;
+    }
+
+    /**
+     * Builds a new snapshot on the background thread and publishes it when complete. If a
+     * refresh is already running, the returned future tracks that refresh instead of
+     * queuing another one.
+     *
+     * @return future completed with the published snapshot, or exceptionally if the build failed
+     */
+    public synchronized CompletableFuture<CNFSnapshot> refreshAsync() {
+        if (pendingRefresh != null && !pendingRefresh.isDone()) {
+            return pendingRefresh;
+        }
+        CompletableFuture<CNFSnapshot> refresh = new CompletableFuture<>();
+        pendingRefresh = refresh;
+        refreshExecutor.execute(() -> {
+            try {
+                CNFSnapshot snapshot = source.load();
+                publish(snapshot);
+                refresh.complete(snapshot);
+            } catch (Throwable e) {
+                refresh.completeExceptionally(e);
+            }
+        });
+        return refresh;
+    }
+
+    /**
+     * Builds and publishes a new snapshot, blocking until it is active.
+     *
+     * @return the published snapshot
+     * @throws DatabaseAccessException if the snapshot could not be built
+     */
+    public CNFSnapshot refresh() throws DatabaseAccessException {
+        try {
+            return refreshAsync().join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof DatabaseAccessException) {
+                throw (DatabaseAccessException) cause;
+            }
+            throw new DatabaseAccessException("Failed to refresh CNF snapshot", cause);
+        }
+    }
+
+    /**
+     * Publishes an already built snapshot as the active one and notifies listeners.
+     *
+     * @param snapshot the snapshot to activate
+     * @return the version assigned to the snapshot
+     */
+    public long publish(CNFSnapshot snapshot) {
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Snapshot cannot be null");
+        }
+        Published previous;
+        Published next;
+        synchronized (this) {
+            previous = published;
+            next = new Published(snapshot, versionCounter.incrementAndGet());
+            published = next;
+        }
+        long previousVersion = previous != null ? previous.version : NO_VERSION;
+        for (VersionListener listener : listeners) {
+            try {
+                listener.onVersionChanged(previousVersion, next.version, snapshot);
+            } catch (RuntimeException e) {
+                System.err.println("CNF snapshot listener failed: " + e.getMessage());
+            }
+        }
+        return next.version;
+    }
+
+    /**
+     * Registers a listener notified after each publication, on the publishing thread.
+     *
+     * @param listener the listener to add
+     */
+    public void addVersionListener(VersionListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeVersionListener(VersionListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Stops the background refresh thread. The active snapshot remains readable.
+     */
+    @Override
+    public void close() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Creates a source that exports the CNF tables through the DAO into a new file in the
+     * given directory and opens it. Each build writes a distinct file, so a snapshot still in
+     * use by readers is never overwritten.
+     *
+     * @param dao the CNF data access object to export from
+     * @param directory the directory snapshot files are written to
+     * @return a snapshot source backed by the database
+     */
+    public static SnapshotSource fromDao(ICNFDataDAO dao, Path directory) {
+        if (dao == null || directory == null) {
+            throw new IllegalArgumentException("DAO and directory cannot be null");
+        }
+        return () -> {
+            try {
+                Files.createDirectories(directory);
+                Path target = Files.createTempFile(directory, SNAPSHOT_FILE_PREFIX, SNAPSHOT_FILE_SUFFIX);
+                dao.exportSnapshot(target);
+                return CNFSnapshot.open(target);
+            } catch (IOException e) {
+                throw new DatabaseAccessException("Failed to open CNF snapshot in " + directory, e);
+            }
+        };
+    }
+
+    /**
+     * Creates a source that opens an existing snapshot file, e.g. one shipped with an update.
+     *
+     * @param file the snapshot file
+     * @return a snapshot source backed by the file
+     */
+    public static SnapshotSource fromFile(Path file) {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        return () -> {
+            try {
+                return CNFSnapshot.open(file);
+            } catch (IOException e) {
+                throw new DatabaseAccessException("Failed to open CNF snapshot " + file, e);
+            }
+        };
+    }
+
+    /**
+     * Builds a new immutable snapshot. Called on the holder's background thread.
+     */
+    @FunctionalInterface
+    public interface SnapshotSource {
+        CNFSnapshot load() throws DatabaseAccessException;
+    }
+
+    /**
+     * Callback invoked after a new snapshot version has been published.
+     */
+    @FunctionalInterface
+    public interface VersionListener {
+        void onVersionChanged(long previousVersion, long newVersion, CNFSnapshot snapshot);
+    }
+
+    /**
+     * A snapshot paired with its version, published together so readers never observe a
+     * version that does not belong to the snapshot.
+     */
+    private static final class Published {
+        final CNFSnapshot snapshot;
+        final long version;
+
+        Published(CNFSnapshot snapshot, long version) {
+            this.snapshot = snapshot;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.nutrisci.database.snapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Collects CNF nutrients, foods and nutrient amounts and writes them as a binary snapshot file
+ * in the layout described by {@link CNFSnapshotFormat}.
+ *
+ * <p>Amounts are buffered in primitive arrays and sorted into CSR order when the file is
+ * written, so rows may be added in any order. Amounts that reference a food or nutrient that
+ * was never added are skipped, mirroring the inner joins of the CNF queries.</p>
+ *
+ * <p>The file is written to a temporary sibling and then moved into place, so a reader
+ * never observes a partially written snapshot.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class CNFSnapshotWriter {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final long dataVersion;
+    private final Map<Integer, String[]> nutrients = new HashMap<>();
+    private final Map<Integer, String> foods = new HashMap<>();
+
+    private int[] amountFoodIds = new int[INITIAL_CAPACITY];
+    private int[] amountNutrientIds = new int[INITIAL_CAPACITY];
+    private double[] amountValues = new double[INITIAL_CAPACITY];
+    private int amountCount;
+
+    /**
+     * Creates a writer for a snapshot with the given data version.
+     *
+     * @param dataVersion monotonically increasing version stamp of the CNF data being written
+     */
+    public CNFSnapshotWriter(long dataVersion) {
+        this.dataVersion = dataVersion;
+    }
+
+    /**
+     * Adds a nutrient to the snapshot dictionary.
+     *
+     * @param nutrientId the CNF NutrientID
+     * @param nutrientName the nutrient name
+     * @param unit the unit of measurement
+     */
+    public void addNutrient(int nutrientId, String nutrientName, String unit) {
+        nutrients.put(nutrientId, new String[] { nullToEmpty(nutrientName), nullToEmpty(unit) });
+    }
+
+    /**
+     * Adds a food to the snapshot.
+     *
+     * @param foodId the CNF FoodID
+     * @param foodName the food description
+     */
+    public void addFood(int foodId, String foodName) {
+        foods.put(foodId, nullToEmpty(foodName));
+    }
+
+    /**
+     * Adds the amount of one nutrient in one food, per 100g.
+     *
+     * @param foodId the CNF FoodID
+     * @param nutrientId the CNF NutrientID
+     * @param amount the nutrient amount per 100g
+     */
+    public void addAmount(int foodId, int nutrientId, double amount) {
+        if (amountCount == amountValues.length) {
+            int newCapacity = amountValues.length * 2;
+            amountFoodIds = Arrays.copyOf(amountFoodIds, newCapacity);
+            amountNutrientIds = Arrays.copyOf(amountNutrientIds, newCapacity);
+            amountValues = Arrays.copyOf(amountValues, newCapacity);
+        }
+        amountFoodIds[amountCount] = foodId;
+        amountNutrientIds[amountCount] = nutrientId;
+        amountValues[amountCount] = amount;
+        amountCount++;
+    }
+
+    /**
+     * Writes the collected data to a snapshot file, replacing any existing file at that path.
+     *
+     * @param target the snapshot file to write
+     * @throws IOException if the file cannot be written
+     * @throws IllegalStateException if the data does not fit the snapshot format
+     */
+    public void writeTo(Path target) throws IOException {
+        if (nutrients.size() > CNFSnapshotFormat.MAX_NUTRIENTS) {
+            throw new IllegalStateException("Too many nutrients for snapshot format: " + nutrients.size());
+        }
+
+        int[] nutrientIds = sortedKeys(nutrients);
+        int[] foodIds = sortedKeys(foods);
+        StringTable strings = new StringTable();
+
+        int[] nutrientRefs = new int[nutrientIds.length * 2];
+        for (int i = 0; i < nutrientIds.length; i++) {
+            String[] entry = nutrients.get(nutrientIds[i]);
+            nutrientRefs[i * 2] = strings.add(entry[0]);
+            nutrientRefs[i * 2 + 1] = strings.add(entry[1]);
+        }
+        int[] foodNameRefs = new int[foodIds.length];
+        for (int i = 0; i < foodIds.length; i++) {
+            foodNameRefs[i] = strings.add(foods.get(foodIds[i]));
+        }
+
+        Csr csr = buildCsr(foodIds, nutrientIds);
+        byte[] stringBytes = strings.toByteArray();
+
+        // Lay out sections
+        long nutrientDictionaryOffset = CNFSnapshotFormat.HEADER_SIZE;
+        long foodIdsOffset = nutrientDictionaryOffset + (long) nutrientIds.length * CNFSnapshotFormat.NUTRIENT_ENTRY_SIZE;
+        long foodNameRefsOffset = foodIdsOffset + (long) foodIds.length * Integer.BYTES;
+        long stringTableOffset = foodNameRefsOffset + (long) foodIds.length * Integer.BYTES;
+        long rowPointersOffset = stringTableOffset + stringBytes.length;
+        long columnIndexOffset = rowPointersOffset + (long) (foodIds.length + 1) * Integer.BYTES;
+        long valuesOffset = align(columnIndexOffset + (long) csr.size * Character.BYTES, CNFSnapshotFormat.VALUE_ALIGNMENT);
+        long fileLength = valuesOffset + (long) csr.size * Double.BYTES;
+
+        if (fileLength > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Snapshot exceeds maximum mappable size: " + fileLength + " bytes");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) fileLength).order(CNFSnapshotFormat.BYTE_ORDER);
+
+        // Header
+        buffer.putInt(CNFSnapshotFormat.OFFSET_MAGIC, CNFSnapshotFormat.MAGIC);
+        buffer.putInt(CNFSnapshotFormat.OFFSET_FORMAT_VERSION, CNFSnapshotFormat.FORMAT_VERSION);
+        buffer.putLong(CNFSnapshotFormat.OFFSET_DATA_VERSION, dataVersion);
+        buffer.putInt(CNFSnapshotFormat.OFFSET_FOOD_COUNT, foodIds.length);
+        buffer.putInt(CNFSnapshotFormat.OFFSET_NUTRIENT_COUNT, nutrientIds.length);
+        buffer.putInt(CNFSnapshotFormat.OFFSET_ENTRY_COUNT, csr.size);
+        buffer.putLong(CNFSnapshotFormat.OFFSET_NUTRIENT_DICTIONARY, nutrientDictionaryOffset);
+        buffer.putLong(CNFSnapshotFormat.OFFSET_FOOD_IDS, foodIdsOffset);
+        buffer.putLong(CNFSnapshotFormat.OFFSET_FOOD_NAME_REFS, foodNameRefsOffset);
+        buffer.putLong(CNFSnapshotFormat.OFFSET_STRING_TABLE, stringTableOffset);
+        buffer.putLong(CNFSnapshotFormat.OFFSET_ROW_POINTERS, rowPointersOffset);
+        buffer.putLong(CNFSnapshotFormat.OFFSET_COLUMN_INDEX, columnIndexOffset);
+        buffer.putLong(CNFSnapshotFormat.OFFSET_VALUES, valuesOffset);
+        buffer.putLong(CNFSnapshotFormat.OFFSET_FILE_LENGTH, fileLength);
+
+        // Nutrient dictionary
+        buffer.position((int) nutrientDictionaryOffset);
+        for (int i = 0; i < nutrientIds.length; i++) {
+            buffer.putInt(nutrientIds[i]);
+            buffer.putInt(nutrientRefs[i * 2]);
+            buffer.putInt(nutrientRefs[i * 2 + 1]);
+        }
+
+        // Food IDs, name references and string table
+        for (int foodId : foodIds) {
+            buffer.putInt(foodId);
+        }
+        for (int nameRef : foodNameRefs) {
+            buffer.putInt(nameRef);
+        }
+        buffer.put(stringBytes);
+
+        // CSR matrix
+        for (int rowPointer : csr.rowPointers) {
+            buffer.putInt(rowPointer);
+        }
+        for (int i = 0; i < csr.size; i++) {
+            buffer.putChar((char) csr.columns[i]);
+        }
+        buffer.position((int) valuesOffset);
+        for (int i = 0; i < csr.size; i++) {
+            buffer.putDouble(csr.values[i]);
+        }
+
+        buffer.flip();
+        writeAtomically(target, buffer);
+    }
+
+    /**
+     * Sorts the buffered amounts into row-major CSR arrays, dropping orphaned and duplicate entries.
+     */
+    private Csr buildCsr(int[] foodIds, int[] nutrientIds) {
+        Map<Integer, Integer> foodIndexById = indexById(foodIds);
+        Map<Integer, Integer> ordinalById = indexById(nutrientIds);
+
+        // Pack (food row, nutrient ordinal) into a sortable key per amount
+        long[] keys = new long[amountCount];
+        int[] source = new int[amountCount];
+        int kept = 0;
+        for (int i = 0; i < amountCount; i++) {
+            Integer foodIndex = foodIndexById.get(amountFoodIds[i]);
+            Integer ordinal = ordinalById.get(amountNutrientIds[i]);
+            if (foodIndex == null || ordinal == null) {
+                continue;
+            }
+            keys[kept] = ((long) foodIndex << 32) | ordinal;
+            source[kept] = i;
+            kept++;
+        }
+
+        int[] order = sortedOrder(keys, kept);
+
+        Csr csr = new Csr(foodIds.length, kept);
+        long previousKey = -1;
+        for (int position : order) {
+            long key = keys[position];
+            if (key == previousKey) {
+                continue; // keep the first amount reported for a food/nutrient pair
+            }
+            previousKey = key;
+            int foodIndex = (int) (key >>> 32);
+            csr.rowPointers[foodIndex + 1]++;
+            csr.columns[csr.size] = (int) key;
+            csr.values[csr.size] = amountValues[source[position]];
+            csr.size++;
+        }
+        for (int i = 0; i < foodIds.length; i++) {
+            csr.rowPointers[i + 1] += csr.rowPointers[i];
+        }
+        return csr;
+    }
+
+    /**
+     * Returns the positions of the first {@code count} keys in ascending key order.
+     * Amounts exported from the database already arrive sorted, so the boxed sort only runs
+     * for callers that add rows out of order.
+     */
+    private static int[] sortedOrder(long[] keys, int count) {
+        boolean sorted = true;
+        for (int i = 1; i < count && sorted; i++) {
+            sorted = keys[i - 1] <= keys[i];
+        }
+
+        int[] order = new int[count];
+        if (sorted) {
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            return order;
+        }
+
+        Integer[] boxed = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            boxed[i] = i;
+        }
+        Arrays.sort(boxed, (a, b) -> Long.compare(keys[a], keys[b]));
+        for (int i = 0; i < count; i++) {
+            order[i] = boxed[i];
+        }
+        return order;
+    }
+
+    /**
+     * Writes the buffer to a temporary sibling file and atomically moves it over the target.
+     */
+    private void writeAtomically(Path target, ByteBuffer buffer) throws IOException {
+        Path absoluteTarget = target.toAbsolutePath();
+        Path temp = absoluteTarget.resolveSibling(absoluteTarget.getFileName() + TEMP_FILE_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, absoluteTarget, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int[] sortedKeys(Map<Integer, ?> map) {
+        int[] keys = new int[map.size()];
+        int i = 0;
+        for (Integer key : map.keySet()) {
+            keys[i++] = key;
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    private static Map<Integer, Integer> indexById(int[] sortedIds) {
+        Map<Integer, Integer> index = new HashMap<>(sortedIds.length * 2);
+        for (int i = 0; i < sortedIds.length; i++) {
+            index.put(sortedIds[i], i);
+        }
+        return index;
+    }
+
+    private static long align(long offset, int alignment) {
+        return (offset + alignment - 1) / alignment * alignment;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    /**
+     * Deduplicating, length-prefixed UTF-8 string table.
+     */
+    private static class StringTable {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final Map<String, Integer> refs = new HashMap<>();
+
+        int add(String value) {
+            Integer existing = refs.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            int length = Math.min(encoded.length, CNFSnapshotFormat.MAX_STRING_BYTES);
+            int ref = bytes.size();
+            // Unsigned 16-bit little-endian length prefix
+            bytes.write(length & 0xFF);
+            bytes.write((length >>> 8) & 0xFF);
+            bytes.write(encoded, 0, length);
+            refs.put(value, ref);
+            return ref;
+        }
+
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+
+    /**
+     * CSR arrays under construction.
+     */
+    private static class Csr {
+        final int[] rowPointers;
+        final int[] columns;
+        final double[] values;
+        int size;
+
+        Csr(int rows, int capacity) {
+            this.rowPointers = new int[rows + 1];
+            this.columns = new int[capacity];
+            this.values = new double[capacity];
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.nutrisci.database.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point arithmetic on scaled {@code long} values, used for nutrient amounts and food
+ * quantities in place of {@link BigDecimal}.
+ *
+ * <p><b>Precision contract:</b> a fixed-point value is a {@code long} holding the decimal value
+ * multiplied by {@link #SCALE} (10<sup>6</sup>), i.e. six decimal places. This is the scale of
+ * the DECIMAL columns the CNF importer creates, and the meal log stores quantities with fewer
+ * decimals, so every value read from those tables is represented exactly. Values with more
+ * decimals are rounded half-up to six by {@link #fromBigDecimal} and {@link #fromDouble}, and
+ * rejected by {@link #fromBigDecimalExact}; the results of {@link #multiply} and
+ * {@link #scalePer100g} are rounded half-up to six decimals. The representable range is roughly
+ * &plusmn;9.2 &times; 10<sup>12</sup>; arithmetic that would overflow it throws
+ * {@link ArithmeticException} rather than wrapping.</p>
+ *
+ * <p>Values are plain primitives, so reading, summing and scaling them allocates nothing.
+ * Conversion to {@link BigDecimal} is meant for API edges only, e.g. DTO getters and JDBC
+ * parameters.</p>
+ *
+ * <p>{@link #NULL} is reserved as a sentinel for an absent value and is never produced by
+ * the conversion or arithmetic methods.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class FixedPoint {
+
+    /** Number of decimal places held by a fixed-point value. */
+    public static final int SCALE_DIGITS = 6;
+
+    /** Multiplier between a decimal value and its fixed-point representation. */
+    public static final long SCALE = 1_000_000L;
+
+    /** Sentinel for an absent value, e.g. a SQL NULL or an unset constraint bound. */
+    public static final long NULL = Long.MIN_VALUE;
+
+    /** Fixed-point representation of zero. */
+    public static final long ZERO = 0L;
+
+    private static final long GRAMS_PER_REFERENCE_AMOUNT = 100L;
+
+    private FixedPoint() {
+        // Utility class
+    }
+
+    /**
+     * Converts a decimal value to fixed point, rounding half-up to six decimal places.
+     *
+     * @param value the value to convert, may be null
+     * @return the fixed-point value, or {@link #NULL} if the value is null
+     * @throws ArithmeticException if the value is out of range
+     */
+    public static long fromBigDecimal(BigDecimal value) {
+        if (value == null) {
+            return NULL;
+        }
+        return checkRange(value.setScale(SCALE_DIGITS, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Converts a decimal value to fixed point, failing instead of rounding. Used where a caller
+     * supplies the value, so input that cannot be held exactly is reported rather than changed.
+     *
+     * @param value the value to convert, may be null
+     * @return the fixed-point value, or {@link #NULL} if the value is null
+     * @throws ArithmeticException if the value has more than six decimal places or is out of range
+     */
+    public static long fromBigDecimalExact(BigDecimal value) {
+        if (value == null) {
+            return NULL;
+        }
+        return checkRange(value.setScale(SCALE_DIGITS, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Converts a fixed-point value to a decimal with a scale of six.
+     *
+     * @param fixed the fixed-point value
+     * @return the decimal value, or null if the value is {@link #NULL}
+     */
+    public static BigDecimal toBigDecimal(long fixed) {
+        return fixed == NULL ? null : BigDecimal.valueOf(fixed, SCALE_DIGITS);
+    }
+
+    /**
+     * Converts a double to fixed point, rounding half-up to six decimal places. Doubles of
+     * values with at most six decimals convert back to their exact value.
+     *
+     * @param value the value to convert
+     * @return the fixed-point value
+     * @throws ArithmeticException if the value is NaN, infinite or out of range
+     */
+    public static long fromDouble(double value) {
+        double scaled = value * SCALE;
+        if (Double.isNaN(scaled) || Math.abs(scaled) >= Long.MAX_VALUE) {
+            throw new ArithmeticException("Value out of fixed-point range: " + value);
+        }
+        return checkRange(Math.round(scaled));
+    }
+
+    /**
+     * Converts a fixed-point value to a double.
+     *
+     * @param fixed the fixed-point value
+     * @return the nearest double, or NaN if the value is {@link #NULL}
+     */
+    public static double toDouble(long fixed) {
+        return fixed == NULL ? Double.NaN : (double) fixed / SCALE;
+    }
+
+    /**
+     * Checks whether a fixed-point value is the {@link #NULL} sentinel.
+     *
+     * @param fixed the fixed-point value
+     * @return true if the value is absent
+     */
+    public static boolean isNull(long fixed) {
+        return fixed == NULL;
+    }
+
+    /**
+     * Adds two fixed-point values.
+     *
+     * @return the exact sum
+     * @throws ArithmeticException if the result overflows
+     */
+    public static long add(long a, long b) {
+        return checkRange(Math.addExact(a, b));
+    }
+
+    /**
+     * Multiplies two fixed-point values, rounding half-up to six decimal places.
+     *
+     * @return the rounded product
+     * @throws ArithmeticException if the result overflows
+     */
+    public static long multiply(long a, long b) {
+        return divideRounded(a, b, SCALE);
+    }
+
+    /**
+     * Scales a nutrient amount given per 100 g of food to the amount in a quantity of food,
+     * i.e. {@code amountPer100g * grams / 100}, rounding half-up to six decimal places.
+     *
+     * @param amountPer100g the fixed-point nutrient amount per 100 g
+     * @param grams the fixed-point food quantity in grams
+     * @return the fixed-point nutrient amount in the given quantity
+     * @throws ArithmeticException if the result overflows
+     */
+    public static long scalePer100g(long amountPer100g, long grams) {
+        return divideRounded(amountPer100g, grams, SCALE * GRAMS_PER_REFERENCE_AMOUNT);
+    }
+
+    /**
+     * Computes {@code a * b / divisor} rounded half-up, without intermediate overflow for the
+     * magnitudes that occur in practice and with an exact fallback when the product is large.
+     */
+    private static long divideRounded(long a, long b, long divisor) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+            // The product fits in a long
+            long quotient = low / divisor;
+            long remainder = low % divisor;
+            if (Math.abs(remainder) * 2 >= divisor) {
+                quotient += low < 0 ? -1 : 1;
+            }
+            return checkRange(quotient);
+        }
+        return checkRange(BigDecimal.valueOf(a).multiply(BigDecimal.valueOf(b))
+            .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP)
+            .longValueExact());
+    }
+
+    private static long checkRange(long fixed) {
+        if (fixed == NULL) {
+            throw new ArithmeticException("Value out of fixed-point range");
+        }
+        return fixed;
+    }
+}
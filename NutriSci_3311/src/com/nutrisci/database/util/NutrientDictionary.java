@@ -0,0 +1,259 @@
+package com.nutrisci.database.util;
+
+import com.nutrisci.database.dto.NutrientDefinition;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Shared registry mapping nutrients to dense ordinals, so models can store nutrient values in
+ * arrays indexed by ordinal instead of maps keyed by name.
+ *
+ * <p>A nutrient is registered once by its CNF NutrientID, as complete rows are read from the
+ * NUTRIENT_NAME table, optionally with a backend key such as "protein". Names the dictionary
+ * does not know are never registered on lookup; models keep them locally, so the dictionary
+ * and every array sized from it stay bounded by the CNF nutrient list.
+ * Ordinals are assigned in registration order starting at 0 and never change. Lookups by
+ * NutrientID are plain array indexing; lookups by key or name are case-insensitive.</p>
+ *
+ * <p>The dictionary is append-only and copy-on-write: registration publishes a new immutable
+ * state, so lookups never lock and never observe a partially registered nutrient. The first
+ * registration of a NutrientID wins; later registrations with a different name or unit
+ * return the existing canonical definition.</p>
+ *
+ * <p>The {@link #getDefault() default dictionary} is pre-populated with the nutrients the
+ * backend works with, whose ordinals are available as constants such as {@link #PROTEIN}.</p>
+ *
+ * @author NutriSci Development Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class NutrientDictionary {
+
+    /** Sentinel returned by ordinal lookups when no nutrient matches. */
+    public static final int NOT_FOUND = -1;
+
+    // Ordinals of the nutrients pre-registered in the default dictionary, in registration order
+    public static final int ENERGY = 0;
+    public static final int PROTEIN = 1;
+    public static final int FAT = 2;
+    public static final int CARBOHYDRATE = 3;
+    public static final int FIBRE = 4;
+    public static final int SUGARS = 5;
+    public static final int SODIUM = 6;
+    public static final int VITAMIN_C = 7;
+    public static final int CALCIUM = 8;
+    public static final int IRON = 9;
+    public static final int POTASSIUM = 10;
+    public static final int CHOLESTEROL = 11;
+    public static final int SATURATED_FAT = 12;
+
+    private static final int INITIAL_ID_CAPACITY = 1024;
+
+    private static final NutrientDictionary DEFAULT = createDefault();
+
+    private volatile State state = new State(new NutrientDefinition[0], new int[0], new HashMap<>());
+
+    /**
+     * Gets the dictionary shared by the DTOs and backend models.
+     *
+     * @return the default dictionary
+     */
+    public static NutrientDictionary getDefault() {
+        return DEFAULT;
+    }
+
+    private static NutrientDictionary createDefault() {
+        NutrientDictionary dictionary = new NutrientDictionary();
+        dictionary.register(208, "ENERGY (KILOCALORIES)", "kCal", "calories", "energy", "kcal");
+        dictionary.register(203, "PROTEIN", "g", "protein");
+        dictionary.register(204, "FAT (TOTAL LIPIDS)", "g", "fat", "total fat");
+        dictionary.register(205, "CARBOHYDRATE, TOTAL (BY DIFFERENCE)", "g", "carbs", "carbohydrate", "carbohydrates");
+        dictionary.register(291, "FIBRE, TOTAL DIETARY", "g", "fiber", "fibre");
+        dictionary.register(269, "SUGARS, TOTAL", "g", "sugars", "sugar");
+        dictionary.register(307, "SODIUM", "mg", "sodium");
+        dictionary.register(401, "VITAMIN C", "mg", "vitaminC", "vitamin_c");
+        dictionary.register(301, "CALCIUM", "mg", "calcium");
+        dictionary.register(303, "IRON", "mg", "iron");
+        dictionary.register(306, "POTASSIUM", "mg", "potassium");
+        dictionary.register(601, "CHOLESTEROL", "mg", "cholesterol");
+        dictionary.register(606, "FATTY ACIDS, SATURATED, TOTAL", "g", "saturatedFat", "saturated fat");
+        return dictionary;
+    }
+
+    /**
+     * Registers a CNF nutrient, or returns the existing definition if the NutrientID is already
+     * registered. The lookup for an existing NutrientID does not lock or allocate, so this can
+     * be called for every row read from the database.
+     *
+     * @param nutrientId the CNF NutrientID
+     * @param name the canonical nutrient name
+     * @param unit the unit of measurement
+     * @param key the backend key, or null to use the lower-case name
+     * @param aliases additional lookup names
+     * @return the canonical definition; detached (unregistered) if the NutrientID is not positive
+     */
+    public NutrientDefinition register(int nutrientId, String name, String unit, String key, String... aliases) {
+        if (nutrientId <= NutrientDefinition.NO_NUTRIENT_ID) {
+            return new NutrientDefinition(NutrientDefinition.UNREGISTERED, nutrientId, name, unit, keyFor(key, name));
+        }
+        NutrientDefinition existing = getById(nutrientId);
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (this) {
+            existing = getById(nutrientId);
+            if (existing != null) {
+                return existing;
+            }
+            return append(nutrientId, name, unit, keyFor(key, name), aliases);
+        }
+    }
+
+    /**
+     * Registers a CNF nutrient keyed by its lower-case name.
+     *
+     * @param nutrientId the CNF NutrientID
+     * @param name the canonical nutrient name
+     * @param unit the unit of measurement
+     * @return the canonical definition
+     */
+    public NutrientDefinition register(int nutrientId, String name, String unit) {
+        NutrientDefinition existing = getById(nutrientId);
+        return existing != null ? existing : register(nutrientId, name, unit, null);
+    }
+
+    /**
+     * Gets the ordinal of a nutrient by key, alias or canonical name, ignoring case.
+     *
+     * @param key the nutrient key or name
+     * @return the ordinal, or {@link #NOT_FOUND} if the nutrient is not registered
+     */
+    public int ordinalOf(String key) {
+        if (key == null) {
+            return NOT_FOUND;
+        }
+        NutrientDefinition definition = state.byKey.get(normalize(key));
+        return definition != null ? definition.getOrdinal() : NOT_FOUND;
+    }
+
+    /**
+     * Gets the ordinal of a nutrient by its CNF NutrientID.
+     *
+     * @param nutrientId the CNF NutrientID
+     * @return the ordinal, or {@link #NOT_FOUND} if the nutrient is not registered
+     */
+    public int ordinalOfId(int nutrientId) {
+        int[] ordinalById = state.ordinalById;
+        return nutrientId > 0 && nutrientId < ordinalById.length ? ordinalById[nutrientId] : NOT_FOUND;
+    }
+
+    /**
+     * Gets a definition by its CNF NutrientID.
+     *
+     * @param nutrientId the CNF NutrientID
+     * @return the definition, or null if the nutrient is not registered
+     */
+    public NutrientDefinition getById(int nutrientId) {
+        State current = state;
+        int ordinal = nutrientId > 0 && nutrientId < current.ordinalById.length
+            ? current.ordinalById[nutrientId] : NOT_FOUND;
+        return ordinal != NOT_FOUND ? current.byOrdinal[ordinal] : null;
+    }
+
+    /**
+     * Gets a definition by key, alias or canonical name, ignoring case.
+     *
+     * @param key the nutrient key or name
+     * @return the definition, or null if the nutrient is not registered
+     */
+    public NutrientDefinition getByKey(String key) {
+        return key != null ? state.byKey.get(normalize(key)) : null;
+    }
+
+    /**
+     * Gets a definition by ordinal.
+     *
+     * @param ordinal the ordinal
+     * @return the definition
+     * @throws IndexOutOfBoundsException if no nutrient has the ordinal
+     */
+    public NutrientDefinition get(int ordinal) {
+        return state.byOrdinal[ordinal];
+    }
+
+    /**
+     * Gets the number of registered nutrients, which is one past the highest ordinal.
+     * Arrays indexed by ordinal may be sized from this value and grown on demand.
+     *
+     * @return the number of registered nutrients
+     */
+    public int size() {
+        return state.byOrdinal.length;
+    }
+
+    // Must be called while holding the lock
+    private NutrientDefinition append(int nutrientId, String name, String unit, String key, String... aliases) {
+        State current = state;
+        int ordinal = current.byOrdinal.length;
+        NutrientDefinition definition = new NutrientDefinition(ordinal, nutrientId, name, unit, key, aliases);
+
+        NutrientDefinition[] byOrdinal = Arrays.copyOf(current.byOrdinal, ordinal + 1);
+        byOrdinal[ordinal] = definition;
+
+        int[] ordinalById = current.ordinalById;
+        if (nutrientId > 0) {
+            if (nutrientId >= ordinalById.length) {
+                int oldLength = ordinalById.length;
+                ordinalById = Arrays.copyOf(ordinalById, Math.max(INITIAL_ID_CAPACITY, Math.max(nutrientId + 1, oldLength * 2)));
+                Arrays.fill(ordinalById, oldLength, ordinalById.length, NOT_FOUND);
+            } else {
+                ordinalById = ordinalById.clone();
+            }
+            ordinalById[nutrientId] = ordinal;
+        }
+
+        Map<String, NutrientDefinition> byKey = new HashMap<>(current.byKey);
+        // Existing keys keep priority so a new nutrient cannot shadow an established alias
+        if (key != null) {
+            byKey.putIfAbsent(normalize(key), definition);
+        }
+        if (name != null) {
+            byKey.putIfAbsent(normalize(name), definition);
+        }
+        for (String alias : aliases) {
+            byKey.putIfAbsent(normalize(alias), definition);
+        }
+
+        state = new State(byOrdinal, ordinalById, byKey);
+        return definition;
+    }
+
+    private static String keyFor(String key, String name) {
+        if (key != null) {
+            return key;
+        }
+        return name != null ? name.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static String normalize(String key) {
+        return key.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Immutable snapshot of the registry, replaced as a whole on every registration.
+     */
+    private static final class State {
+        final NutrientDefinition[] byOrdinal;
+        final int[] ordinalById;
+        final Map<String, NutrientDefinition> byKey;
+
+        State(NutrientDefinition[] byOrdinal, int[] ordinalById, Map<String, NutrientDefinition> byKey) {
+            this.byOrdinal = byOrdinal;
+            this.ordinalById = ordinalById;
+            this.byKey = byKey;
+        }
+    }
+}
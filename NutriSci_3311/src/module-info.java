@@ -9,13 +9,23 @@ module NutriSci_3311 {
     // Required modules for SQL operations
     requires java.sql;
     requires java.base;
+    requires com.microsoft.sqlserver.jdbc;
     
     // Export database module packages for other modules to use
     exports com.nutrisci.database;
+    exports com.nutrisci.database.cache;
     exports com.nutrisci.database.config;
     exports com.nutrisci.database.dao;
     exports com.nutrisci.database.dao.impl;
     exports com.nutrisci.database.dto;
+    exports com.nutrisci.database.events;
     exports com.nutrisci.database.exceptions;
+    exports com.nutrisci.database.export;
+    exports com.nutrisci.database.importer;
+    exports com.nutrisci.database.index;
+    exports com.nutrisci.database.jobs;
+    exports com.nutrisci.database.migration;
+    exports com.nutrisci.database.snapshot;
+    exports com.nutrisci.database.util;
 
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package backend;
+
+import com.nutrisci.database.util.NutrientDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that nutrients added by a name outside the dictionary stay reachable by name, in any
+ * case, and by ordinal once the dictionary registers that name.
+ */
+class FoodItemTest {
+
+    private static final NutrientDictionary DICTIONARY = NutrientDictionary.getDefault();
+
+    @Test
+    void namesOutsideTheDictionaryIgnoreCase() {
+        FoodItem item = item();
+        item.addNutrient("Vitamin Q", 2.5);
+
+        assertEquals(2.5, item.getNutrient("vitamin q"));
+        assertEquals(2.5, item.getNutrient("VITAMIN Q"));
+        assertEquals(2.5, item.getAllNutrients().get("vitamin q"));
+    }
+
+    @Test
+    void valueAddedBeforeRegistrationIsFoundAfterIt() {
+        FoodItem item = item();
+        item.addNutrient("Zinc", 3);
+
+        int ordinal = DICTIONARY.register(309, "ZINC", "mg").getOrdinal();
+
+        assertEquals(3.0, item.getNutrient("Zinc"));
+        assertEquals(3.0, item.getNutrient("zinc"));
+        assertEquals(3.0, item.getNutrient(ordinal));
+        assertTrue(item.hasNutrient(ordinal));
+        assertTrue(Arrays.stream(item.getNutrientOrdinals()).anyMatch(o -> o == ordinal));
+        assertEquals(3.0, item.getAllNutrients().get("zinc"));
+    }
+
+    @Test
+    void addingAfterRegistrationReplacesTheEarlierValue() {
+        FoodItem item = item();
+        item.addNutrient("Magnesium", 40);
+        int ordinal = DICTIONARY.register(304, "MAGNESIUM", "mg").getOrdinal();
+
+        item.addNutrient("Magnesium", 55);
+
+        assertEquals(55.0, item.getNutrient(ordinal));
+        Map<String, Double> all = item.getAllNutrients();
+        assertEquals(55.0, all.get("Magnesium"));
+        assertEquals(1, all.keySet().stream().filter(name -> name.equalsIgnoreCase("magnesium")).count());
+    }
+
+    @Test
+    void summaryTotalsCountValuesAddedBeforeAndAfterRegistration() {
+        NutritionSummary summary = new NutritionSummary();
+        summary.add("Copper", 0.5);
+        int ordinal = DICTIONARY.register(312, "COPPER, CU", "mg", "copper").getOrdinal();
+        summary.add("COPPER", 0.25);
+
+        assertEquals(0.75, summary.get("copper"));
+        assertEquals(0.75, summary.get(ordinal));
+        assertEquals(0.75, summary.getAll().get("COPPER"));
+
+        NutritionSummary unregistered = new NutritionSummary();
+        unregistered.add("Vitamin R", 1);
+        unregistered.add("vitamin r", 2);
+        assertEquals(3.0, unregistered.get("VITAMIN R"));
+        assertEquals(0.0, unregistered.get(NutrientDictionary.NOT_FOUND));
+    }
+
+    private static FoodItem item() {
+        return new FoodItem("1", "Oats", 380, 13, 7, 68);
+    }
+}
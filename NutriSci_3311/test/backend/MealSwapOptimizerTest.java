@@ -0,0 +1,270 @@
+package backend;
+
+import com.nutrisci.database.util.NutrientDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the branch-and-bound optimizer with an exhaustive search over hand-built meals and
+ * candidate lists, and checks that it honours its time budget.
+ */
+class MealSwapOptimizerTest {
+
+    private static final int[] ORDINALS = { NutrientDictionary.PROTEIN, NutrientDictionary.FAT, NutrientDictionary.FIBRE };
+    private static final List<NutritionGoal> GOALS = List.of(
+            new NutritionGoal("protein", 60, Double.MAX_VALUE),
+            new NutritionGoal("fat", 0, 25),
+            new NutritionGoal("fibre", 12, Double.MAX_VALUE));
+    private static final long UNLIMITED_MILLIS = 60_000;
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    void matchesExhaustiveSearchOnRandomMeals() {
+        Random random = new Random(17);
+        for (int round = 0; round < 200; round++) {
+            StubEngine engine = new StubEngine();
+            Meal meal = randomMeal(random, engine, 1 + random.nextInt(6), 1 + random.nextInt(4));
+            int maxSwaps = random.nextInt(4);
+            int perItem = 1 + random.nextInt(4);
+
+            MealSwapPlan plan = new MealSwapOptimizer(engine, maxSwaps, perItem, UNLIMITED_MILLIS).optimize(meal, GOALS);
+            double expected = exhaustiveCost(engine, meal, maxSwaps, perItem);
+
+            assertTrue(plan.isComplete(), "round " + round);
+            assertEquals(expected, plan.getCost(), TOLERANCE, "round " + round);
+            assertTrue(plan.getSwaps().size() <= maxSwaps, "round " + round);
+            assertEquals(plan.getCost(), costOf(plan, meal), TOLERANCE, "round " + round);
+        }
+    }
+
+    @Test
+    void picksTheCombinationNoSingleSwapSuggests() {
+        // Neither swap alone meets the protein and fat goals; only rye and tofu together do
+        StubEngine engine = new StubEngine();
+        FoodItem bread = item("bread", 10, 15, 4);
+        FoodItem cheese = item("cheese", 20, 20, 0);
+        FoodItem salad = item("salad", 2, 1, 8);
+        engine.candidates(bread, swap(item("rye", 14, 5, 6), 0.1), swap(item("croissant", 30, 30, 2), 0.0));
+        engine.candidates(cheese, swap(item("tofu", 45, 12, 2), 0.2));
+        engine.candidates(salad, swap(item("fries", 3, 17, 3), 0.0));
+        Meal meal = meal(bread, cheese, salad);
+
+        MealSwapPlan plan = new MealSwapOptimizer(engine, 2, 5, UNLIMITED_MILLIS).optimize(meal, GOALS);
+
+        assertEquals(exhaustiveCost(engine, meal, 2, 5), plan.getCost(), TOLERANCE);
+        assertEquals(2, plan.getSwaps().size());
+        assertEquals("rye", plan.getMeal().getFoodItems().get(0).getName());
+        assertEquals("tofu", plan.getMeal().getFoodItems().get(1).getName());
+        assertSame(salad, plan.getMeal().getFoodItems().get(2));
+    }
+
+    @Test
+    void keepsAMealThatAlreadyMeetsItsGoals() {
+        StubEngine engine = new StubEngine();
+        FoodItem chicken = item("chicken", 70, 10, 0);
+        FoodItem beans = item("beans", 5, 1, 15);
+        engine.candidates(chicken, swap(item("turkey", 75, 5, 0), 0.0));
+        Meal meal = meal(chicken, beans);
+
+        MealSwapPlan plan = new MealSwapOptimizer(engine, 2, 5, UNLIMITED_MILLIS).optimize(meal, GOALS);
+
+        assertEquals(0.0, plan.getCost());
+        assertTrue(plan.getSwaps().isEmpty());
+        assertSame(meal, plan.getMeal());
+        assertEquals(0, engine.calls);
+    }
+
+    @Test
+    void searchStopsWhenTheBudgetRunsOut() {
+        // A goal no plan hits exactly and free swaps leave the bound nothing to prune
+        List<NutritionGoal> goals = List.of(new NutritionGoal("protein", 60, 60.000001));
+        Random random = new Random(5);
+        StubEngine engine = new StubEngine();
+        Meal meal = new Meal("Lunch", LocalDate.of(2024, 1, 1));
+        for (int i = 0; i < 100; i++) {
+            FoodItem original = item("item" + i, random.nextDouble() * 1.2, 0, 0);
+            RankedSwap[] swaps = new RankedSwap[8];
+            for (int c = 0; c < swaps.length; c++) {
+                swaps[c] = swap(item("item" + i + "-swap" + c, random.nextDouble() * 1.2, 0, 0), 0.0);
+            }
+            engine.candidates(original, swaps);
+            meal.addFoodItem(original);
+        }
+        long budgetMillis = 20;
+
+        long start = System.nanoTime();
+        MealSwapPlan plan = new MealSwapOptimizer(engine, 6, 8, budgetMillis).optimize(meal, goals);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertFalse(plan.isComplete());
+        assertEquals(meal.getFoodItems().size(), engine.calls);
+        assertTrue(elapsedMillis < budgetMillis + 500, "took " + elapsedMillis + " ms");
+        assertTrue(plan.getCost() < plan.getOriginalCost());
+    }
+
+    @Test
+    void candidateLoadingCountsAgainstTheBudget() {
+        Random random = new Random(9);
+        StubEngine engine = new StubEngine();
+        engine.delayMillis = 5;
+        Meal meal = randomMeal(random, engine, 40, 3);
+        long budgetMillis = 20;
+
+        long start = System.nanoTime();
+        MealSwapPlan plan = new MealSwapOptimizer(engine, 2, 3, budgetMillis).optimize(meal, GOALS);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertFalse(plan.isComplete());
+        assertTrue(engine.calls < meal.getFoodItems().size(), "loaded " + engine.calls + " items");
+        assertTrue(elapsedMillis < budgetMillis + 500, "took " + elapsedMillis + " ms");
+        assertTrue(plan.getCost() <= plan.getOriginalCost());
+    }
+
+    // Tries every way of swapping at most maxSwaps items for one of their first perItem candidates
+    private static double exhaustiveCost(StubEngine engine, Meal meal, int maxSwaps, int perItem) {
+        List<FoodItem> items = meal.getFoodItems();
+        List<List<RankedSwap>> options = new ArrayList<>();
+        for (FoodItem item : items) {
+            List<RankedSwap> candidates = engine.ranked.getOrDefault(item, Collections.emptyList());
+            options.add(candidates.subList(0, Math.min(perItem, candidates.size())));
+        }
+        return exhaustive(items, options, 0, maxSwaps, totals(items), 0.0);
+    }
+
+    private static double exhaustive(List<FoodItem> items, List<List<RankedSwap>> options, int position,
+                                     int swapsLeft, double[] totals, double penalty) {
+        double best = miss(totals) + penalty;
+        if (position == items.size() || swapsLeft == 0) {
+            return best;
+        }
+        best = Math.min(best, exhaustive(items, options, position + 1, swapsLeft, totals, penalty));
+        FoodItem original = items.get(position);
+        for (RankedSwap swap : options.get(position)) {
+            double[] swapped = totals.clone();
+            for (int g = 0; g < ORDINALS.length; g++) {
+                swapped[g] += swap.getFood().getNutrient(ORDINALS[g]) - original.getNutrient(ORDINALS[g]);
+            }
+            best = Math.min(best, exhaustive(items, options, position + 1, swapsLeft - 1, swapped,
+                    penalty + swap.getSimilarityPenalty()));
+        }
+        return best;
+    }
+
+    // Recomputes a plan's cost from the meal it produces and the penalties of its swaps
+    private static double costOf(MealSwapPlan plan, Meal original) {
+        double penalty = 0;
+        for (MealSwapPlan.Swap swap : plan.getSwaps()) {
+            assertSame(original.getFoodItems().get(swap.getPosition()), swap.getOriginal());
+            assertSame(swap.getReplacement().getFood(), plan.getMeal().getFoodItems().get(swap.getPosition()));
+            penalty += swap.getReplacement().getSimilarityPenalty();
+        }
+        return miss(totals(plan.getMeal().getFoodItems())) + penalty;
+    }
+
+    private static double[] totals(List<FoodItem> items) {
+        double[] totals = new double[ORDINALS.length];
+        for (FoodItem item : items) {
+            for (int g = 0; g < ORDINALS.length; g++) {
+                totals[g] += item.getNutrient(ORDINALS[g]);
+            }
+        }
+        return totals;
+    }
+
+    private static double miss(double[] totals) {
+        double miss = 0;
+        for (int g = 0; g < GOALS.size(); g++) {
+            miss += SwapRanker.miss(GOALS.get(g), totals[g]);
+        }
+        return miss;
+    }
+
+    private static Meal randomMeal(Random random, StubEngine engine, int itemCount, int maxCandidates) {
+        Meal meal = new Meal("Lunch", LocalDate.of(2024, 1, 1));
+        for (int i = 0; i < itemCount; i++) {
+            FoodItem original = randomItem(random, "item" + i);
+            int candidateCount = random.nextInt(maxCandidates + 1);
+            RankedSwap[] swaps = new RankedSwap[candidateCount];
+            for (int c = 0; c < candidateCount; c++) {
+                swaps[c] = swap(randomItem(random, "item" + i + "-swap" + c), random.nextDouble() * 0.3);
+            }
+            engine.candidates(original, swaps);
+            meal.addFoodItem(original);
+        }
+        return meal;
+    }
+
+    private static FoodItem randomItem(Random random, String name) {
+        return item(name, random.nextDouble() * 30, random.nextDouble() * 20, random.nextDouble() * 8);
+    }
+
+    private static FoodItem item(String name, double protein, double fat, double fibre) {
+        FoodItem item = new FoodItem(name, name, 0, protein, fat, 0);
+        item.addNutrient(NutrientDictionary.FIBRE, fibre);
+        item.setGroup("Group");
+        return item;
+    }
+
+    private static RankedSwap swap(FoodItem food, double similarityPenalty) {
+        return new RankedSwap(food, 0.0, similarityPenalty, Collections.emptyList());
+    }
+
+    private static Meal meal(FoodItem... items) {
+        Meal meal = new Meal("Lunch", LocalDate.of(2024, 1, 1));
+        for (FoodItem item : items) {
+            meal.addFoodItem(item);
+        }
+        return meal;
+    }
+
+    /**
+     * Serves fixed candidate lists per item, in the order given, so the optimizer and the
+     * exhaustive search see the same options.
+     */
+    private static final class StubEngine implements SwapEngine {
+        final Map<FoodItem, List<RankedSwap>> ranked = new IdentityHashMap<>();
+        long delayMillis;
+        int calls;
+
+        void candidates(FoodItem original, RankedSwap... swaps) {
+            ranked.put(original, List.of(swaps));
+        }
+
+        @Override
+        public List<RankedSwap> rankAlternatives(FoodItem original, List<NutritionGoal> goals, int k) {
+            calls++;
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            List<RankedSwap> swaps = ranked.getOrDefault(original, Collections.emptyList());
+            return swaps.subList(0, Math.min(k, swaps.size()));
+        }
+
+        @Override
+        public List<RankedSwap> rankAlternatives(FoodItem original, List<NutritionGoal> goals,
+                                                 List<FoodItem> candidates, int k) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<FoodItem> suggestAlternatives(FoodItem original, NutritionGoal goal, List<FoodItem> candidates) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package backend;
+
+import com.nutrisci.database.index.FoodGroupIndex;
+import com.nutrisci.database.util.NutrientDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a goal resolves its nutrient once the dictionary registers it, and that rankings
+ * reject goals they could only read as zero.
+ */
+class NutritionGoalTest {
+
+    private static final NutrientDictionary DICTIONARY = NutrientDictionary.getDefault();
+
+    @Test
+    void goalBuiltBeforeRegistrationResolvesAfterIt() {
+        NutritionGoal goal = new NutritionGoal("Selenium", 20, Double.MAX_VALUE);
+        assertEquals(NutrientDictionary.NOT_FOUND, goal.getNutrientOrdinal());
+        FoodItem original = item("1", "white rice", 5);
+        FoodItem brazilNut = item("2", "brazil nut", 1900);
+
+        int ordinal = DICTIONARY.register(317, "SELENIUM", "ug").getOrdinal();
+        List<RankedSwap> ranked = new SwapRanker(List.of(goal)).rank(original, List.of(brazilNut), 1);
+
+        assertEquals(ordinal, goal.getNutrientOrdinal());
+        assertTrue(goal.isSatisfiedBy(brazilNut));
+        assertEquals(1, ranked.size());
+        assertEquals("brazil nut", ranked.get(0).getFood().getName());
+    }
+
+    @Test
+    void goalsOutsideTheDictionaryAreRejectedByRankings() {
+        NutritionGoal goal = new NutritionGoal("Vitamin X", 10, Double.MAX_VALUE);
+        Meal meal = new Meal("Lunch", LocalDate.of(2024, 1, 1));
+        meal.addFoodItem(item("1", "white rice", 5));
+
+        assertThrows(IllegalArgumentException.class, () -> new SwapRanker(List.of(goal)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new MealSwapOptimizer(new SwapEngineImpl(FoodGroupIndex.builder().build()))
+                        .optimize(meal, List.of(goal)));
+    }
+
+    private static FoodItem item(String id, String name, double selenium) {
+        FoodItem item = new FoodItem(id, name, 100, 5, 1, 20);
+        item.addNutrient("Selenium", selenium);
+        return item;
+    }
+}
@@ -0,0 +1,146 @@
+package backend;
+
+import com.nutrisci.database.index.FoodGroupIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that rankings served from a precomputed swap table match live search over the whole
+ * group, including for foods whose stored candidates cannot answer the request.
+ */
+class SwapTableTest {
+
+    private static final int GROUP_ID = 1;
+    private static final String GROUP = "Vegetables";
+    // CNF NutrientIDs of energy, protein, fat, carbohydrate, fibre and sodium
+    private static final int[] NUTRIENT_IDS = { 208, 203, 204, 205, 291, 307 };
+    private static final double TOLERANCE = 1e-9;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void tableAnswersMatchLiveSearch() throws IOException {
+        Random random = new Random(23);
+        int answered = 0;
+        for (int round = 0; round < 6; round++) {
+            FoodGroupIndex index = randomIndex(random, 30 + random.nextInt(30));
+            int perFood = 2 + random.nextInt(5);
+            SwapTable table = buildTable(index, perFood);
+            SwapEngineImpl live = new SwapEngineImpl(index);
+            SwapEngineImpl precomputed = new SwapEngineImpl(index);
+            precomputed.setSwapTable(table);
+
+            FoodGroupIndex.GroupSlice slice = index.getGroup(0);
+            for (int i = 0; i < slice.size(); i++) {
+                FoodItem original = FoodItem.fromIndex(slice, i, GROUP);
+                for (SwapDirection direction : SwapDirection.values()) {
+                    NutritionGoal goal = randomGoal(random, direction, original);
+                    int k = 1 + random.nextInt(perFood);
+                    if (table.lookup(slice.getFoodId(i), direction, k) != null) {
+                        answered++;
+                    }
+                    assertSameRanking(live.rankAlternatives(original, List.of(goal), k),
+                            precomputed.rankAlternatives(original, List.of(goal), k),
+                            "food " + slice.getFoodId(i) + " " + direction + " k=" + k);
+                }
+            }
+        }
+        assertTrue(answered > 100, "table answered only " + answered + " lookups");
+    }
+
+    @Test
+    void wideLayerOfNearDuplicatesFallsBackToLiveSearch() throws IOException {
+        // Each near-duplicate is slightly less similar but has slightly more fibre, so all twenty
+        // share the first frontier layer with the one food that actually meets the goal
+        FoodGroupIndex.Builder builder = FoodGroupIndex.builder().addGroup(GROUP_ID, 1, GROUP);
+        addFood(builder, 1, "original", 100, 5, 3, 20, 1.0, 10);
+        for (int n = 1; n <= 20; n++) {
+            addFood(builder, 1 + n, "sim" + n, 100, 5, 3, 20 + 0.01 * n, 1.0 + 0.1 * n, 10);
+        }
+        addFood(builder, 100, "highfibre", 100, 9, 1, 25, 12, 10);
+        FoodGroupIndex index = builder.build();
+        SwapTable table = buildTable(index, 5);
+        SwapEngineImpl engine = new SwapEngineImpl(index);
+        engine.setSwapTable(table);
+        FoodItem original = FoodItem.fromIndex(index.getGroup(0), 0, GROUP);
+        List<NutritionGoal> goals = List.of(new NutritionGoal("fibre", 10, Double.MAX_VALUE));
+
+        List<RankedSwap> best = engine.rankAlternatives(original, goals, 1);
+
+        assertNull(table.lookup(1, SwapDirection.MORE_FIBRE, 1));
+        assertEquals("highfibre", best.get(0).getFood().getName());
+        assertSameRanking(new SwapEngineImpl(index).rankAlternatives(original, goals, 5),
+                engine.rankAlternatives(original, goals, 5), "k=5");
+    }
+
+    @Test
+    void completeLayersAreServedFromTheTable() throws IOException {
+        FoodGroupIndex.Builder builder = FoodGroupIndex.builder().addGroup(GROUP_ID, 1, GROUP);
+        addFood(builder, 1, "original", 100, 5, 3, 20, 1.0, 10);
+        addFood(builder, 2, "similar", 100, 5, 3, 21, 2.0, 10);
+        addFood(builder, 3, "dominated", 100, 5, 3, 25, 1.5, 10);
+        addFood(builder, 4, "different", 150, 9, 1, 30, 8.0, 10);
+        SwapTable table = buildTable(builder.build(), 2);
+
+        int[] stored = table.lookup(1, SwapDirection.MORE_FIBRE, 1);
+
+        // Layer one is {similar, different} and fills the table; "dominated" is in layer two
+        assertEquals(List.of(2, 4), List.of(stored[0], stored[1]));
+        assertNull(table.lookup(1, SwapDirection.MORE_FIBRE, 2));
+    }
+
+    private SwapTable buildTable(FoodGroupIndex index, int perFood) throws IOException {
+        Path file = directory.resolve("swaps-" + perFood + "-" + System.nanoTime() + ".bin");
+        new SwapTableBuilder(index, perFood, 2).writeTo(file, 0L);
+        return SwapTable.open(file);
+    }
+
+    private static void assertSameRanking(List<RankedSwap> expected, List<RankedSwap> actual, String message) {
+        assertEquals(expected.size(), actual.size(), message);
+        for (int r = 0; r < expected.size(); r++) {
+            assertEquals(expected.get(r).getFood().getId(), actual.get(r).getFood().getId(), message + " rank " + r);
+            assertEquals(expected.get(r).getScore(), actual.get(r).getScore(), TOLERANCE, message + " rank " + r);
+        }
+    }
+
+    private static NutritionGoal randomGoal(Random random, SwapDirection direction, FoodItem original) {
+        String nutrient = switch (direction) {
+            case MORE_FIBRE -> "fibre";
+            case LESS_SODIUM -> "sodium";
+            case LESS_FAT -> "fat";
+            case MORE_PROTEIN -> "protein";
+        };
+        double current = original.getNutrient(direction.getNutrientOrdinal());
+        if (direction.isIncrease()) {
+            return new NutritionGoal(nutrient, current * (1 + 2 * random.nextDouble()) + 0.5, Double.MAX_VALUE);
+        }
+        return new NutritionGoal(nutrient, 0, current * random.nextDouble());
+    }
+
+    private static FoodGroupIndex randomIndex(Random random, int foodCount) {
+        FoodGroupIndex.Builder builder = FoodGroupIndex.builder().addGroup(GROUP_ID, 1, GROUP);
+        for (int id = 1; id <= foodCount; id++) {
+            addFood(builder, id, "food" + id, 50 + random.nextDouble() * 300, random.nextDouble() * 30,
+                    random.nextDouble() * 20, random.nextDouble() * 60, random.nextDouble() * 10,
+                    random.nextDouble() * 800);
+        }
+        return builder.build();
+    }
+
+    private static void addFood(FoodGroupIndex.Builder builder, int foodId, String name, double... amounts) {
+        builder.addFood(foodId, GROUP_ID, name);
+        for (int n = 0; n < NUTRIENT_IDS.length; n++) {
+            builder.addAmount(foodId, NUTRIENT_IDS[n], amounts[n]);
+        }
+    }
+}
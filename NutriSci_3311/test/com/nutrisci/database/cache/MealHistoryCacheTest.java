@@ -0,0 +1,178 @@
+package com.nutrisci.database.cache;
+
+import com.nutrisci.database.dto.Meal;
+import com.nutrisci.database.dto.MealItem;
+import com.nutrisci.database.dto.MealType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks how the history cache coalesces loaded ranges, which days it reports as missing, and
+ * how invalidation and generations keep it consistent with writes.
+ */
+class MealHistoryCacheTest {
+
+    private static final int USER = 1;
+    private static final LocalDate JAN_1 = LocalDate.of(2024, 1, 1);
+
+    private final MealHistoryCache cache = new MealHistoryCache();
+
+    @Test
+    void emptyCacheMissesTheWholeRange() {
+        assertEquals("[2024-01-01..2024-01-31]", missing(1, 31));
+        assertNull(cache.get(USER, day(1), day(31)));
+    }
+
+    @Test
+    void missingRangesListsOnlyTheGaps() {
+        load(1, 10);
+        load(20, 31);
+
+        assertEquals("[2024-01-11..2024-01-19]", missing(1, 31));
+        assertEquals("[2024-01-11..2024-01-19, 2024-02-01..2024-02-05]", missing(5, 36));
+        assertEquals("[2023-12-30..2023-12-31]", missing(-1, 3));
+        assertEquals("[]", missing(2, 9));
+    }
+
+    @Test
+    void adjacentRangesCoalesce() {
+        load(1, 10);
+        load(11, 20);
+
+        assertEquals("[]", missing(1, 20));
+        assertNotNull(cache.get(USER, day(1), day(20)));
+    }
+
+    @Test
+    void overlappingRangesCoalesce() {
+        load(5, 15);
+        load(1, 7);
+        load(12, 25);
+        load(30, 31);
+        load(24, 30);
+
+        assertEquals("[]", missing(1, 31));
+        assertNotNull(cache.get(USER, day(1), day(31)));
+    }
+
+    @Test
+    void getReturnsTheRangeNewestFirst() {
+        long generation = cache.getGeneration(USER);
+        assertTrue(cache.put(USER, day(1), day(10), List.of(meal(3, 9), meal(2, 5), meal(1, 1)), generation));
+
+        List<Meal> meals = cache.get(USER, day(2), day(9));
+
+        assertEquals(List.of(3, 2), mealIds(meals));
+    }
+
+    @Test
+    void reloadingDaysReplacesTheirMeals() {
+        long generation = cache.getGeneration(USER);
+        cache.put(USER, day(1), day(10), List.of(meal(2, 5), meal(1, 1)), generation);
+        cache.put(USER, day(4), day(6), List.of(meal(7, 6)), generation);
+
+        assertEquals(List.of(7, 1), mealIds(cache.get(USER, day(1), day(10))));
+    }
+
+    @Test
+    void invalidateDaySplitsTheLoadedRange() {
+        load(1, 10);
+
+        cache.invalidateDay(USER, day(5));
+
+        assertEquals("[2024-01-05..2024-01-05]", missing(1, 10));
+        assertNull(cache.get(USER, day(1), day(10)));
+        assertNotNull(cache.get(USER, day(1), day(4)));
+        assertNotNull(cache.get(USER, day(6), day(10)));
+    }
+
+    @Test
+    void invalidateMealDropsTheDayHoldingIt() {
+        long generation = cache.getGeneration(USER);
+        cache.put(USER, day(1), day(10), List.of(meal(2, 7), meal(1, 3)), generation);
+
+        cache.invalidateMeal(USER, 2);
+
+        assertEquals("[2024-01-07..2024-01-07]", missing(1, 10));
+    }
+
+    @Test
+    void putUnderAnOlderGenerationIsIgnored() {
+        long generation = cache.getGeneration(USER);
+        cache.invalidateDay(USER, day(3));
+
+        assertFalse(cache.put(USER, day(1), day(10), Collections.emptyList(), generation));
+        assertEquals("[2024-01-01..2024-01-10]", missing(1, 10));
+    }
+
+    @Test
+    void callersGetCopiesOfCachedMeals() {
+        Meal meal = meal(1, 2);
+        meal.addMealItem(MealItem.builder().mealId(1).foodId(10).quantityGrams(100).build());
+        cache.put(USER, day(1), day(5), List.of(meal), cache.getGeneration(USER));
+        meal.getMealItems().clear();
+
+        Meal first = cache.get(USER, day(1), day(5)).get(0);
+        first.getMealItems().get(0).setFoodId(99);
+        Meal second = cache.get(USER, day(1), day(5)).get(0);
+
+        assertNotSame(first, second);
+        assertEquals(1, second.getMealItems().size());
+        assertEquals(10, second.getMealItems().get(0).getFoodId());
+    }
+
+    @Test
+    void leastRecentlyUsedUserIsEvicted() {
+        MealHistoryCache small = new MealHistoryCache(2);
+        for (int user = 1; user <= 3; user++) {
+            small.put(user, day(1), day(5), Collections.emptyList(), small.getGeneration(user));
+            if (user == 2) {
+                small.get(1, day(1), day(5));
+            }
+        }
+
+        assertNotNull(small.get(1, day(1), day(5)));
+        assertNull(small.get(2, day(1), day(5)));
+        assertNotNull(small.get(3, day(1), day(5)));
+    }
+
+    private void load(int startDay, int endDay) {
+        assertTrue(cache.put(USER, day(startDay), day(endDay), Collections.emptyList(), cache.getGeneration(USER)));
+    }
+
+    private String missing(int startDay, int endDay) {
+        return cache.missingRanges(USER, day(startDay), day(endDay)).toString();
+    }
+
+    private static LocalDate day(int dayOfJanuary) {
+        return JAN_1.plusDays(dayOfJanuary - 1);
+    }
+
+    private static Meal meal(int mealId, int dayOfJanuary) {
+        return Meal.builder()
+            .mealId(mealId)
+            .userId(USER)
+            .mealType(MealType.LUNCH)
+            .mealDate(day(dayOfJanuary))
+            .build();
+    }
+
+    private static List<Integer> mealIds(List<Meal> meals) {
+        List<Integer> ids = new ArrayList<>(meals.size());
+        for (Meal meal : meals) {
+            ids.add(meal.getMealId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,44 @@
+package com.nutrisci.database.importer;
+
+import com.nutrisci.database.index.FoodSearchIndex;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that names resolve only to foods whose descriptions cover enough of their terms.
+ */
+class FoodNameMatcherTest {
+
+    private final FoodNameMatcher matcher = new FoodNameMatcher(FoodSearchIndex.builder()
+        .addFood(1, "Protein powder, whey")
+        .addFood(2, "Milk shake, chocolate")
+        .addFood(3, "Apple, raw")
+        .addFood(4, "Cheese, cheddar")
+        .addFood(5, "Chicken, broiler, breast, meat only, roasted")
+        .addFood(6, "Bread, whole wheat")
+        .build());
+
+    @Test
+    void sharingOneTermIsNotAMatch() {
+        assertEquals(FoodNameMatcher.NO_MATCH, matcher.match("protein shake"));
+        assertEquals(FoodNameMatcher.NO_MATCH, matcher.match("raw carrots"));
+        assertEquals(FoodNameMatcher.NO_MATCH, matcher.match("whole wheat pasta"));
+    }
+
+    @Test
+    void namesCoveredByADescriptionMatch() {
+        assertEquals(4, matcher.match("Cheddar cheese"));
+        assertEquals(1, matcher.match("whey protein"));
+        assertEquals(6, matcher.match("whole wheat bread"));
+        // Four terms, three of which the description covers
+        assertEquals(5, matcher.match("roasted chicken breast sandwich"));
+    }
+
+    @Test
+    void misspelledTermsCountOnceFuzzySearchMatchesThem() {
+        // Exact search only covers "raw"; fuzzy search also matches "aple"
+        assertEquals(3, matcher.match("aple raw"));
+        assertEquals(FoodNameMatcher.NO_MATCH, matcher.match("aple pie"));
+    }
+}
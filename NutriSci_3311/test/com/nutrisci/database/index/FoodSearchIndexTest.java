@@ -0,0 +1,164 @@
+package com.nutrisci.database.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks BM25 ranking of the search index and that the bounded top-k heap returns the head
+ * of the full ranking.
+ */
+class FoodSearchIndexTest {
+
+    private static final String[] VOCABULARY = {
+        "apple", "apples", "applesauce", "banana", "bread", "whole", "wheat", "cheese", "cheddar",
+        "milk", "skim", "raw", "cooked", "boiled", "fried", "chicken", "breast", "broccoli", "frozen"
+    };
+
+    @Test
+    void topKIsTheHeadOfTheFullRanking() {
+        Random random = new Random(3);
+        FoodSearchIndex.Builder builder = FoodSearchIndex.builder();
+        int foodCount = 300;
+        for (int id = 1; id <= foodCount; id++) {
+            builder.addFood(id, randomDescription(random));
+        }
+        FoodSearchIndex index = builder.build();
+
+        for (int q = 0; q < 100; q++) {
+            String query = randomDescription(random);
+            SearchMode mode = q % 2 == 0 ? SearchMode.EXACT : SearchMode.FUZZY;
+            List<Integer> full = foodIds(index.search(query, foodCount, mode));
+            for (int limit : new int[] { 1, 3, 10 }) {
+                List<Integer> top = foodIds(index.search(query, limit, mode));
+                assertEquals(full.subList(0, Math.min(limit, full.size())), top, query + " top " + limit);
+            }
+        }
+    }
+
+    @Test
+    void resultsAreSortedByDescendingScore() {
+        FoodSearchIndex index = FoodSearchIndex.builder()
+            .addFood(1, "Cheese, cheddar")
+            .addFood(2, "Cheese, cheddar, cheddar style spread")
+            .addFood(3, "Bread, cheese")
+            .addFood(4, "Milk, skim")
+            .build();
+
+        List<FoodSearchIndex.Hit> hits = index.search("cheddar cheese", 10);
+
+        assertEquals(3, hits.size());
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).getScore() >= hits.get(i).getScore(), hits.toString());
+        }
+    }
+
+    @Test
+    void rareTermsOutweighCommonTerms() {
+        FoodSearchIndex.Builder builder = FoodSearchIndex.builder()
+            .addFood(1, "Chicken, raw")
+            .addFood(2, "Broccoli, frozen");
+        for (int id = 3; id <= 20; id++) {
+            builder.addFood(id, "Food " + id + ", raw");
+        }
+
+        List<FoodSearchIndex.Hit> hits = builder.build().search("raw broccoli", 2);
+
+        assertEquals(2, hits.get(0).getFoodId());
+    }
+
+    @Test
+    void repeatedTermsScoreHigherWithSaturation() {
+        FoodSearchIndex index = FoodSearchIndex.builder()
+            .addFood(1, "Apple, raw, cooked, boiled, fried, frozen")
+            .addFood(2, "Apple, apple, raw, cooked, boiled, fried")
+            .addFood(3, "Apple, apple, apple, apple, apple, apple")
+            .addFood(4, "Milk")
+            .build();
+
+        List<FoodSearchIndex.Hit> hits = index.search("apple", 10);
+        double once = scoreOf(hits, 1);
+        double twice = scoreOf(hits, 2);
+        double sixTimes = scoreOf(hits, 3);
+
+        assertTrue(twice > once, hits.toString());
+        assertTrue(sixTimes > twice, hits.toString());
+        // BM25 saturates term frequency: each later occurrence adds less than the second one
+        assertTrue(sixTimes - twice < 4 * (twice - once), hits.toString());
+    }
+
+    @Test
+    void exactTermRanksAbovePrefixExpansion() {
+        FoodSearchIndex index = FoodSearchIndex.builder()
+            .addFood(1, "Apples")
+            .addFood(2, "Apple")
+            .build();
+
+        assertEquals(List.of(2, 1), foodIds(index.search("apple", 10)));
+    }
+
+    @Test
+    void fuzzyModeMatchesMisspellingsBelowExactMatches() {
+        FoodSearchIndex index = FoodSearchIndex.builder()
+            .addFood(1, "Broccoli, raw")
+            .addFood(2, "Brocolli, frozen")
+            .build();
+
+        assertTrue(index.search("brocoli", 10).isEmpty());
+        List<FoodSearchIndex.Hit> hits = index.search("brocolli", 10, SearchMode.FUZZY);
+        assertEquals(List.of(2, 1), foodIds(hits));
+    }
+
+    @Test
+    void tiesPreferShorterDescriptionsThenLowerIds() {
+        FoodSearchIndex index = FoodSearchIndex.builder()
+            .addFood(9, "Milk")
+            .addFood(5, "Milk")
+            .build();
+
+        assertEquals(List.of(5, 9), foodIds(index.search("milk", 10)));
+    }
+
+    @Test
+    void emptyQueriesAndLimitsReturnNothing() {
+        FoodSearchIndex index = FoodSearchIndex.builder().addFood(1, "Milk").build();
+
+        assertTrue(index.search("", 10).isEmpty());
+        assertTrue(index.search("milk", 0).isEmpty());
+        assertTrue(index.search("bread", 10).isEmpty());
+    }
+
+    private static double scoreOf(List<FoodSearchIndex.Hit> hits, int foodId) {
+        for (FoodSearchIndex.Hit hit : hits) {
+            if (hit.getFoodId() == foodId) {
+                return hit.getScore();
+            }
+        }
+        throw new AssertionError("Food " + foodId + " not found in " + hits);
+    }
+
+    private static List<Integer> foodIds(List<FoodSearchIndex.Hit> hits) {
+        List<Integer> ids = new ArrayList<>(hits.size());
+        for (FoodSearchIndex.Hit hit : hits) {
+            ids.add(hit.getFoodId());
+        }
+        return ids;
+    }
+
+    private static String randomDescription(Random random) {
+        int words = 1 + random.nextInt(4);
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                description.append(", ");
+            }
+            description.append(VOCABULARY[random.nextInt(VOCABULARY.length)]);
+        }
+        return description.toString();
+    }
+}
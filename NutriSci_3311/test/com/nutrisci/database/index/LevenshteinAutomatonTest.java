@@ -0,0 +1,124 @@
+package com.nutrisci.database.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the automaton against a plain edit distance computation, both for single terms and
+ * for the intersection with a sorted term list that skips dead prefixes.
+ */
+class LevenshteinAutomatonTest {
+
+    private static final String ALPHABET = "abcde";
+
+    @Test
+    void distanceMatchesEditDistanceWithinTheBound() {
+        Random random = new Random(7);
+        for (int maxEdits = 0; maxEdits <= 2; maxEdits++) {
+            for (int q = 0; q < 50; q++) {
+                String query = randomWord(random, 1, 8);
+                LevenshteinAutomaton automaton = new LevenshteinAutomaton(query, maxEdits);
+                for (int t = 0; t < 200; t++) {
+                    String term = randomWord(random, 0, 10);
+                    int expected = editDistance(query, term);
+                    assertEquals(expected <= maxEdits ? expected : -1, automaton.distance(term),
+                        query + " vs " + term + " within " + maxEdits);
+                }
+            }
+        }
+    }
+
+    @Test
+    void intersectReportsExactlyTheTermsWithinTheBound() {
+        Random random = new Random(11);
+        for (int round = 0; round < 30; round++) {
+            TreeSet<String> dictionary = new TreeSet<>();
+            while (dictionary.size() < 400) {
+                dictionary.add(randomWord(random, 1, 9));
+            }
+            String[] terms = dictionary.toArray(new String[0]);
+            String query = randomWord(random, 3, 8);
+            int maxEdits = 1 + round % 2;
+
+            Map<Integer, Integer> expected = new HashMap<>();
+            for (int t = 0; t < terms.length; t++) {
+                int distance = editDistance(query, terms[t]);
+                if (distance <= maxEdits) {
+                    expected.put(t, distance);
+                }
+            }
+            Map<Integer, Integer> actual = new HashMap<>();
+            new LevenshteinAutomaton(query, maxEdits).intersect(terms, actual::put);
+
+            assertEquals(expected, actual, "query " + query + " within " + maxEdits);
+        }
+    }
+
+    @Test
+    void intersectVisitsTermsInOrder() {
+        String[] terms = { "apple", "apples", "applesauce", "apricot", "broccoli", "brocolli", "carrot" };
+        List<Integer> visited = new ArrayList<>();
+        new LevenshteinAutomaton("brocoli", 2).intersect(terms, (term, distance) -> visited.add(term));
+
+        assertEquals(Arrays.asList(4, 5), visited);
+    }
+
+    @Test
+    void charactersOutsideTheQueryShareOneTransition() {
+        LevenshteinAutomaton automaton = new LevenshteinAutomaton("creme", 1);
+
+        assertEquals(1, automaton.distance("cr\u00e8me"));
+        assertEquals(1, automaton.distance("crxme"));
+        assertEquals(-1, automaton.distance("cxxme"));
+        // One live state per row of capped distances, independent of the input alphabet
+        assertTrue(automaton.getStateCount() < 64, "states: " + automaton.getStateCount());
+    }
+
+    @Test
+    void zeroEditsAcceptsOnlyTheQuery() {
+        LevenshteinAutomaton automaton = new LevenshteinAutomaton("milk", 0);
+
+        assertEquals(0, automaton.distance("milk"));
+        assertEquals(-1, automaton.distance("mil"));
+        assertEquals(-1, automaton.distance("milks"));
+        assertEquals(-1, automaton.distance(""));
+    }
+
+    private static String randomWord(Random random, int minLength, int maxLength) {
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return word.toString();
+    }
+
+    private static int editDistance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j] + 1, current[j - 1] + 1));
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
@@ -0,0 +1,210 @@
+package com.nutrisci.database.migration;
+
+import com.nutrisci.database.ConnectionProvider;
+import com.nutrisci.database.constants.DatabaseConstants;
+import com.nutrisci.database.exceptions.DatabaseAccessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Applies the NutriSci migrations to an in-memory H2 database in SQL Server mode and checks
+ * that the queries they were written for seek on the new indexes.
+ */
+class SchemaMigrationRunnerTest {
+
+    private static final String URL_PREFIX = "jdbc:h2:mem:";
+    private static final String URL_OPTIONS = ";MODE=MSSQLServer;DB_CLOSE_DELAY=-1;NON_KEYWORDS=DAY";
+
+    private static int databaseCount;
+
+    private String url;
+    private ConnectionProvider provider;
+
+    @BeforeEach
+    void createBaseTables() throws SQLException {
+        url = URL_PREFIX + "migration" + (++databaseCount) + URL_OPTIONS;
+        provider = () -> DriverManager.getConnection(url);
+        execute(
+            "CREATE TABLE LOGGED_MEALS (meal_id INT IDENTITY PRIMARY KEY, meal_type VARCHAR(20), " +
+                "meal_date DATE, user_id INT, logged_at DATETIME2 DEFAULT CURRENT_TIMESTAMP)",
+            "CREATE TABLE MEAL_ITEMS (item_id INT IDENTITY PRIMARY KEY, meal_id INT, food_id INT, " +
+                "quantity_grams DECIMAL(10, 2))",
+            "CREATE TABLE NUTRIENT_AMOUNT (FoodID INT, NutrientID INT, NutrientValue DECIMAL(18, 6))");
+    }
+
+    @AfterEach
+    void dropDatabase() throws SQLException {
+        execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void migrateAppliesEveryMigrationOnce() throws DatabaseAccessException {
+        SchemaMigrationRunner runner = new SchemaMigrationRunner(provider, SchemaMigrations.all());
+        assertEquals(0, runner.getCurrentVersion());
+
+        List<Migration> applied = runner.migrate();
+
+        assertEquals(SchemaMigrations.all(), applied);
+        assertEquals(SchemaMigrations.all().get(SchemaMigrations.all().size() - 1).getVersion(), runner.getCurrentVersion());
+        assertTrue(runner.migrate().isEmpty());
+    }
+
+    @Test
+    void migrateCreatesTheRollupTable() throws Exception {
+        new SchemaMigrationRunner(provider, SchemaMigrations.all()).migrate();
+
+        execute("INSERT INTO " + DatabaseConstants.TABLE_DAILY_NUTRIENT_ROLLUP + " VALUES (1, DATE '2024-01-01', 208, 12.5)");
+        assertThrows(SQLException.class, () -> execute(
+            "INSERT INTO " + DatabaseConstants.TABLE_DAILY_NUTRIENT_ROLLUP + " VALUES (1, DATE '2024-01-01', 208, 1)"));
+    }
+
+    @Test
+    void migrateBackfillsTheRollupFromLoggedMeals() throws Exception {
+        execute(
+            "INSERT INTO NUTRIENT_AMOUNT VALUES (10, 208, 200), (10, 203, 5), (11, 208, 50)",
+            "INSERT INTO LOGGED_MEALS (meal_type, meal_date, user_id) VALUES ('LUNCH', DATE '2024-01-01', 1)",
+            "INSERT INTO MEAL_ITEMS (meal_id, food_id, quantity_grams) VALUES (1, 10, 150), (1, 11, 100)");
+        new SchemaMigrationRunner(provider, Arrays.asList(SchemaMigrations.V1_DAILY_NUTRIENT_ROLLUP)).migrate();
+        // A meal logged after V1 was applied incrementally on top of the empty rollup
+        execute(
+            "INSERT INTO LOGGED_MEALS (meal_type, meal_date, user_id) VALUES ('DINNER', DATE '2024-01-01', 1)",
+            "INSERT INTO MEAL_ITEMS (meal_id, food_id, quantity_grams) VALUES (2, 11, 200)",
+            "INSERT INTO " + DatabaseConstants.TABLE_DAILY_NUTRIENT_ROLLUP + " VALUES (1, DATE '2024-01-01', 208, 100)");
+
+        new SchemaMigrationRunner(provider, SchemaMigrations.all()).migrate();
+
+        assertEquals(450.0, rollupTotal(1, "2024-01-01", 208), 1e-9);
+        assertEquals(7.5, rollupTotal(1, "2024-01-01", 203), 1e-9);
+    }
+
+    @Test
+    void checkSchemaFailsUntilEveryMigrationIsApplied() throws Exception {
+        SchemaMigrationRunner runner = new SchemaMigrationRunner(provider, SchemaMigrations.all());
+
+        assertThrows(DatabaseAccessException.class, runner::checkSchema);
+        // The check only reads, so it must not have created the version table
+        assertThrows(SQLException.class, () -> execute("SELECT * FROM " + DatabaseConstants.TABLE_SCHEMA_VERSION));
+
+        new SchemaMigrationRunner(provider, Arrays.asList(SchemaMigrations.V1_DAILY_NUTRIENT_ROLLUP)).migrate();
+        assertThrows(DatabaseAccessException.class, runner::checkSchema);
+
+        runner.migrate();
+        runner.checkSchema();
+    }
+
+    @Test
+    void failedMigrationIsNotRecorded() throws Exception {
+        Migration broken = new Migration(2, "Broken", dialect -> Arrays.asList(
+            "CREATE TABLE PARTIAL (x INT)", "CREATE TABLE"));
+        SchemaMigrationRunner runner = new SchemaMigrationRunner(provider,
+            Arrays.asList(SchemaMigrations.V1_DAILY_NUTRIENT_ROLLUP, broken));
+
+        assertThrows(DatabaseAccessException.class, runner::migrate);
+
+        assertEquals(1, runner.getCurrentVersion());
+        // Only a dialect with transactional DDL also drops the table created before the failure
+        if (dialect().isDdlTransactional()) {
+            assertThrows(SQLException.class, () -> execute("SELECT * FROM PARTIAL"));
+        }
+    }
+
+    @Test
+    void mealHistoryQuerySeeksOnUserDateIndex() throws Exception {
+        new SchemaMigrationRunner(provider, SchemaMigrations.all()).migrate();
+
+        String plan = explain("SELECT " + DatabaseConstants.SELECT_ALL_MEAL_COLUMNS +
+            " FROM " + DatabaseConstants.TABLE_LOGGED_MEALS + " m" +
+            " WHERE m.user_id = 1 AND m.meal_date BETWEEN DATE '2024-01-01' AND DATE '2024-01-31'" +
+            DatabaseConstants.ORDER_BY_MEAL_DATE_DESC);
+
+        assertUsesIndex(plan, "IX_LOGGED_MEALS_user_date");
+    }
+
+    @Test
+    void mealItemLookupSeeksOnMealIndex() throws Exception {
+        new SchemaMigrationRunner(provider, SchemaMigrations.all()).migrate();
+
+        String plan = explain("SELECT food_id, quantity_grams FROM " + DatabaseConstants.TABLE_MEAL_ITEMS +
+            " WHERE meal_id = 7");
+
+        assertUsesIndex(plan, "IX_MEAL_ITEMS_meal");
+    }
+
+    @Test
+    void replacementSearchSeeksOnNutrientValueIndex() throws Exception {
+        new SchemaMigrationRunner(provider, SchemaMigrations.all()).migrate();
+
+        String plan = explain("SELECT FoodID FROM " + DatabaseConstants.TABLE_NUTRIENT_AMOUNT +
+            " WHERE NutrientID = 208 AND NutrientValue BETWEEN 10 AND 20");
+
+        assertUsesIndex(plan, "IX_NUTRIENT_AMOUNT_nutrient_value");
+    }
+
+    @Test
+    void queriesScanWithoutMigrations() throws Exception {
+        String plan = explain("SELECT FoodID FROM " + DatabaseConstants.TABLE_NUTRIENT_AMOUNT +
+            " WHERE NutrientID = 208 AND NutrientValue BETWEEN 10 AND 20");
+
+        assertFalse(plan.toUpperCase(Locale.ROOT).contains("IX_NUTRIENT_AMOUNT_NUTRIENT_VALUE"), plan);
+        assertTrue(plan.toUpperCase(Locale.ROOT).contains("TABLESCAN"), plan);
+    }
+
+    // H2 names the index in the plan and lists the conditions it seeks on after it
+    private static void assertUsesIndex(String plan, String index) {
+        String normalized = plan.toUpperCase(Locale.ROOT);
+        assertTrue(normalized.contains("." + index.toUpperCase(Locale.ROOT) + ":"), plan);
+        assertFalse(normalized.contains("TABLESCAN"), plan);
+    }
+
+    private SqlDialect dialect() throws Exception {
+        try (Connection conn = provider.getConnection()) {
+            return SqlDialect.detect(conn);
+        }
+    }
+
+    private double rollupTotal(int userId, String day, int nutrientId) throws SQLException {
+        try (Connection conn = provider.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT total FROM " + DatabaseConstants.TABLE_DAILY_NUTRIENT_ROLLUP +
+                 " WHERE user_id = " + userId + " AND day = DATE '" + day + "' AND nutrient_id = " + nutrientId)) {
+            assertTrue(rs.next(), "no rollup row for nutrient " + nutrientId);
+            return rs.getDouble(1);
+        }
+    }
+
+    private String explain(String sql) throws SQLException {
+        try (Connection conn = provider.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("EXPLAIN " + sql)) {
+            StringBuilder plan = new StringBuilder();
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+            return plan.toString();
+        }
+    }
+
+    private void execute(String... statements) throws SQLException {
+        try (Connection conn = provider.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.nutrisci.database.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks conversion, half-up rounding and overflow handling of fixed-point values.
+ */
+class FixedPointTest {
+
+    @Test
+    void fromBigDecimalRoundsHalfUpToSixDecimals() {
+        assertEquals(1_000_001L, FixedPoint.fromBigDecimal(new BigDecimal("1.0000005")));
+        assertEquals(1_000_000L, FixedPoint.fromBigDecimal(new BigDecimal("1.00000049")));
+        assertEquals(-1_000_001L, FixedPoint.fromBigDecimal(new BigDecimal("-1.0000005")));
+        assertEquals(12_345_678L, FixedPoint.fromBigDecimal(new BigDecimal("12.345678")));
+    }
+
+    @Test
+    void fromBigDecimalExactRejectsInputItWouldRound() {
+        assertEquals(1_500_000L, FixedPoint.fromBigDecimalExact(new BigDecimal("1.5000000")));
+        assertEquals(1L, FixedPoint.fromBigDecimalExact(new BigDecimal("0.000001")));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.fromBigDecimalExact(new BigDecimal("0.0000001")));
+    }
+
+    @Test
+    void nullIsPreservedAcrossConversions() {
+        assertEquals(FixedPoint.NULL, FixedPoint.fromBigDecimal(null));
+        assertEquals(FixedPoint.NULL, FixedPoint.fromBigDecimalExact(null));
+        assertNull(FixedPoint.toBigDecimal(FixedPoint.NULL));
+        assertTrue(Double.isNaN(FixedPoint.toDouble(FixedPoint.NULL)));
+        assertTrue(FixedPoint.isNull(FixedPoint.NULL));
+    }
+
+    @Test
+    void toBigDecimalHasScaleSix() {
+        BigDecimal value = FixedPoint.toBigDecimal(FixedPoint.fromBigDecimal(new BigDecimal("2.5")));
+
+        assertEquals(6, value.scale());
+        assertEquals(0, value.compareTo(new BigDecimal("2.5")));
+    }
+
+    @Test
+    void doublesWithSixDecimalsRoundTrip() {
+        assertEquals(100_000L, FixedPoint.fromDouble(0.1));
+        assertEquals(123_456_789L, FixedPoint.fromDouble(123.456789));
+        assertEquals(-1L, FixedPoint.fromDouble(-0.000001));
+        assertEquals(0.1, FixedPoint.toDouble(FixedPoint.fromDouble(0.1)));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.fromDouble(Double.NaN));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.fromDouble(1e13));
+    }
+
+    @Test
+    void multiplyRoundsHalfUp() {
+        long half = FixedPoint.fromDouble(0.5);
+        long micro = FixedPoint.fromDouble(0.000001);
+
+        assertEquals(FixedPoint.fromDouble(1.25), FixedPoint.multiply(half, FixedPoint.fromDouble(2.5)));
+        assertEquals(1L, FixedPoint.multiply(micro, half));
+        assertEquals(-1L, FixedPoint.multiply(-micro, half));
+        assertEquals(0L, FixedPoint.multiply(micro, FixedPoint.fromDouble(0.499999)));
+    }
+
+    @Test
+    void multiplyIsExactWhenTheRawProductOverflowsALong() {
+        long threeMillion = FixedPoint.fromDouble(3_000_000);
+
+        assertEquals(FixedPoint.fromDouble(9e12), FixedPoint.multiply(threeMillion, threeMillion));
+    }
+
+    @Test
+    void scalePer100gScalesAndRoundsHalfUp() {
+        assertEquals(FixedPoint.fromDouble(18.75),
+            FixedPoint.scalePer100g(FixedPoint.fromDouble(12.5), FixedPoint.fromDouble(150)));
+        assertEquals(FixedPoint.fromDouble(0.333333),
+            FixedPoint.scalePer100g(FixedPoint.fromDouble(1), FixedPoint.fromDouble(33.3333)));
+        assertEquals(1L, FixedPoint.scalePer100g(1L, FixedPoint.fromDouble(50)));
+        assertEquals(0L, FixedPoint.scalePer100g(1L, FixedPoint.fromDouble(49.999999)));
+    }
+
+    @Test
+    void overflowThrowsInsteadOfWrapping() {
+        long large = FixedPoint.fromDouble(9e12);
+
+        assertThrows(ArithmeticException.class, () -> FixedPoint.add(large, large));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.multiply(large, FixedPoint.fromDouble(2)));
+        // The sum would be the NULL sentinel itself
+        assertThrows(ArithmeticException.class, () -> FixedPoint.add(FixedPoint.NULL + 1, -1));
+    }
+}